@@ -0,0 +1,60 @@
+package com.bloxbean.kafka.connectors.web3.source.blocks;
+
+import com.bloxbean.kafka.connectors.web3.source.blocks.schema.BlockConverter;
+import com.bloxbean.kafka.connectors.web3.source.blocks.schema.BlockProjection;
+import com.bloxbean.kafka.connectors.web3.source.blocks.schema.ParsedBlockStruct;
+import com.bloxbean.kafka.connectors.web3.util.BenchmarkFixtures;
+import com.bloxbean.kafka.connectors.web3.util.HexConverter;
+import kong.unirest.json.JSONObject;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.bloxbean.kafka.connectors.web3.util.ConfigConstants.*;
+
+/**
+ * SourceRecord construction of BlockSourceTask for a converted block, with transactions published to their own topic
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BlockRecordsBenchmark {
+    @Param({"small", "1000"})
+    private String block;
+
+    private BlockSourceTask task;
+    private ParsedBlockStruct blockStruct;
+    private long blockNumber;
+    private long timestamp;
+
+    @Setup
+    public void setUp() {
+        Map<String, String> props = new HashMap<>();
+        props.put(WEB3_RPC_URL, "http://localhost:8545");
+        props.put(TOPIC, "blocks");
+        props.put(TRANSACTION_TOPIC, "transactions");
+        props.put(CHAIN_NAME, "chain");
+        BlockSourceConfig config = new BlockSourceConfig(props);
+        BlockProjection projection = BlockProjection.compile(true, config.getIgnoreBlockFields(), config.getIgnoreTransactionFields(),
+                config.getChainName(), false, false);
+        task = new BlockSourceTask(config, projection);
+
+        JSONObject blockJson = "small".equals(block) ? BenchmarkFixtures.readObject(BenchmarkFixtures.SMALL_BLOCK)
+                : BenchmarkFixtures.largeBlock(Integer.parseInt(block));
+        blockStruct = new BlockConverter().convertFromJSON(blockJson, projection);
+        blockNumber = HexConverter.hexToLongValue(blockJson.optString("number"));
+        timestamp = HexConverter.hexToTimestampInMillis(blockJson.getString("timestamp"));
+    }
+
+    @Benchmark
+    public List<SourceRecord> generateSourceRecords() {
+        return task.generateSourceRecords(blockStruct, blockNumber, timestamp);
+    }
+}
@@ -0,0 +1,42 @@
+package com.bloxbean.kafka.connectors.web3.source.blocks.schema;
+
+import com.bloxbean.kafka.connectors.web3.util.BenchmarkFixtures;
+import kong.unirest.json.JSONObject;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Block conversion with a small block of the fixtures and a block with 1000 transactions. Block json is parsed in
+ * setup, so only the conversion to structs is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BlockConverterBenchmark {
+    @Param({"small", "1000"})
+    private String block;
+
+    @Param({"false", "true"})
+    private boolean typed;
+
+    private BlockConverter blockConverter = new BlockConverter();
+    private BlockProjection projection;
+    private JSONObject blockJson;
+
+    @Setup
+    public void setUp() {
+        blockJson = "small".equals(block) ? BenchmarkFixtures.readObject(BenchmarkFixtures.SMALL_BLOCK)
+                : BenchmarkFixtures.largeBlock(Integer.parseInt(block));
+        projection = BlockProjection.compile(true, Collections.emptySet(), Collections.emptySet(), "chain", typed, false);
+    }
+
+    @Benchmark
+    public ParsedBlockStruct convertFromJSON() {
+        return blockConverter.convertFromJSON(blockJson, projection);
+    }
+}
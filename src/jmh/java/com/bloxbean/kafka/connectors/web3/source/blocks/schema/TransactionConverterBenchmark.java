@@ -0,0 +1,44 @@
+package com.bloxbean.kafka.connectors.web3.source.blocks.schema;
+
+import com.bloxbean.kafka.connectors.web3.util.BenchmarkFixtures;
+import kong.unirest.json.JSONArray;
+import kong.unirest.json.JSONObject;
+import org.apache.kafka.connect.data.Struct;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion of a single transaction of the small fixture block
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionConverterBenchmark {
+    @Param({"false", "true"})
+    private boolean typed;
+
+    private BlockProjection projection;
+    private JSONObject transactionJson;
+    private String blockHash;
+    private Object timestamp;
+
+    @Setup
+    public void setUp() {
+        JSONObject block = BenchmarkFixtures.readObject(BenchmarkFixtures.SMALL_BLOCK);
+        JSONArray transactions = block.getJSONArray("transactions");
+        transactionJson = transactions.getJSONObject(0);
+        blockHash = block.getString("hash");
+        projection = BlockProjection.compile(true, Collections.emptySet(), Collections.emptySet(), "chain", typed, false);
+        timestamp = projection.getTransactionTimestampField().convert(block.getString("timestamp"));
+    }
+
+    @Benchmark
+    public Struct convertFromJSON() {
+        return TransactionConverter.convertFromJSON(blockHash, transactionJson, projection, timestamp);
+    }
+}
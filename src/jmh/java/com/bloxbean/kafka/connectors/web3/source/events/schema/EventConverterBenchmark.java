@@ -0,0 +1,45 @@
+package com.bloxbean.kafka.connectors.web3.source.events.schema;
+
+import com.bloxbean.kafka.connectors.web3.util.BenchmarkFixtures;
+import kong.unirest.json.JSONArray;
+import kong.unirest.json.JSONObject;
+import org.apache.kafka.connect.data.Struct;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion of a log of the fixtures to the event struct and its record key
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventConverterBenchmark {
+    private final static List<String> KAFKA_KEYS = Arrays.asList("transactionHash", "logIndex");
+
+    private EventConverter eventConverter = new EventConverter();
+    private JSONObject logJson;
+    private Struct event;
+
+    @Setup
+    public void setUp() {
+        JSONArray logs = BenchmarkFixtures.readArray(BenchmarkFixtures.EVENT_LOGS);
+        logJson = logs.getJSONObject(0);
+        event = eventConverter.convertFromJSON(logJson);
+    }
+
+    @Benchmark
+    public Struct convertFromJSON() {
+        return eventConverter.convertFromJSON(logJson);
+    }
+
+    @Benchmark
+    public Struct convertToKey() {
+        return eventConverter.convertToKey(event, KAFKA_KEYS);
+    }
+}
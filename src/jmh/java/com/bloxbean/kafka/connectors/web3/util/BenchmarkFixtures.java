@@ -0,0 +1,50 @@
+package com.bloxbean.kafka.connectors.web3.util;
+
+import kong.unirest.json.JSONArray;
+import kong.unirest.json.JSONObject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Blocks and logs used by the benchmarks. Built from the test fixtures
+ */
+public class BenchmarkFixtures {
+    public final static String SMALL_BLOCK = "/aion-block-6139184.json";
+    public final static String EVENT_LOGS = "/aion-event-logs.json";
+
+    public static JSONObject readObject(String path) {
+        return new JSONObject(read(path));
+    }
+
+    public static JSONArray readArray(String path) {
+        return new JSONArray(read(path));
+    }
+
+    /**
+     * @return the small block with its transactions repeated till the block has noOfTransactions transactions.
+     * Hashes and indexes are unique, so that records have distinct keys
+     */
+    public static JSONObject largeBlock(int noOfTransactions) {
+        JSONObject block = readObject(SMALL_BLOCK);
+        JSONArray transactions = block.getJSONArray("transactions");
+
+        JSONArray largeTransactions = new JSONArray();
+        for (int i = 0; i < noOfTransactions; i++) {
+            JSONObject transaction = new JSONObject(transactions.getJSONObject(i % transactions.length()).toString());
+            transaction.put("hash", String.format("0x%064x", i));
+            transaction.put("transactionIndex", "0x" + Integer.toHexString(i));
+            largeTransactions.put(transaction);
+        }
+        block.put("transactions", largeTransactions);
+        return block;
+    }
+
+    private static String read(String path) {
+        try {
+            return FileUtil.readFileFromResource(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.bloxbean.kafka.connectors.web3.util;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HexConverter against the previous BigInteger based conversion. Each invocation converts all quantities once.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HexConverterBenchmark {
+    private final static int SIZE = 1000;
+
+    private String[] quantities;
+
+    @Setup
+    public void setUp() {
+        //Typical transaction quantities: block number, gas, gas price, nonce, index, timestamp
+        Random random = new Random(1);
+        quantities = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            quantities[i] = "0x" + Long.toHexString(random.nextLong() >>> (8 + random.nextInt(40)));
+        }
+    }
+
+    @Benchmark
+    public void hexToBigIntegerStr(Blackhole blackhole) {
+        for (String quantity : quantities)
+            blackhole.consume(HexConverter.hexToBigIntegerStr(quantity));
+    }
+
+    @Benchmark
+    public void hexToLongValue(Blackhole blackhole) {
+        for (String quantity : quantities)
+            blackhole.consume(HexConverter.hexToLongValue(quantity));
+    }
+
+    @Benchmark
+    public void bigIntegerStr(Blackhole blackhole) {
+        for (String quantity : quantities)
+            blackhole.consume(new BigInteger(quantity.substring(2), 16).toString());
+    }
+
+    @Benchmark
+    public void bigIntegerLong(Blackhole blackhole) {
+        for (String quantity : quantities)
+            blackhole.consume(new BigInteger(quantity.substring(2), 16).longValue());
+    }
+}
@@ -0,0 +1,230 @@
+package com.bloxbean.kafka.connectors.web3.client;
+
+import com.bloxbean.kafka.connectors.web3.util.HexConverter;
+import com.bloxbean.kafka.connectors.web3.util.StringUtil;
+import kong.unirest.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Refreshes the latest block number of a chain in background. The latest known value can be read without locking or
+ * a rpc call. One tracker is shared by all tasks of the same rpc url in a worker.
+ * If a WebSocket url is set, new heads are received through a newHeads subscription. Http polling is only used when
+ * the subscription is down or has not delivered a head for a while.
+ */
+public class ChainHeadTracker {
+    private static Logger logger = LoggerFactory.getLogger(ChainHeadTracker.class);
+
+    private static final Map<String, ChainHeadTracker> trackers = new HashMap<>();
+    private static final long WS_RECONNECT_INTERVAL = 5000;
+    private static final long WS_MAX_HEAD_AGE = 30 * 1000; //Use http polling if no head is received through WebSocket for 30 sec
+
+    private final String key;
+    private final RpcClientOptions clientOptions;
+    private final long refreshIntervalInMillis;
+    private final String wsUrl;
+    private final ScheduledExecutorService scheduler;
+    private final Object headLock = new Object();
+    //Completed after the first refresh. Tasks sharing the tracker wait on it, so the global lock is not held meanwhile
+    private final CompletableFuture<Void> started = new CompletableFuture<>();
+    private volatile Web3RpcClient web3RpcClient;
+    private volatile NewHeadsSubscriber newHeadsSubscriber;
+
+    private volatile long latestBlockNumber = -1;
+    private int refCount;
+
+    private ChainHeadTracker(String key, RpcClientOptions clientOptions, long refreshIntervalInMillis, String wsUrl) {
+        this.key = key;
+        this.clientOptions = clientOptions;
+        this.refreshIntervalInMillis = refreshIntervalInMillis;
+        this.wsUrl = StringUtil.isEmpty(wsUrl) ? null : wsUrl;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "web3-head-tracker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Get the shared tracker for a rpc url. Tracker is created and started if it doesn't exist. The first refresh runs
+     * outside the global lock, so a slow endpoint only delays the tasks of the same rpc url.
+     * Every call must be followed by a {@link #release()} when the tracker is not required anymore.
+     * @param key rpc url
+     * @param clientOptions options of the client to get the latest block number. Only used if the tracker is created.
+     *                      The client is owned by the tracker and closed with it, as tasks sharing the tracker may stop in any order
+     * @param refreshIntervalInMillis refresh interval. Only used if the tracker is created
+     * @param wsUrl WebSocket url for newHeads subscription. Optional. Only used if the tracker is created
+     * @return tracker
+     */
+    public static ChainHeadTracker acquire(String key, RpcClientOptions clientOptions, long refreshIntervalInMillis, String wsUrl) {
+        ChainHeadTracker tracker;
+        boolean created = false;
+        synchronized (trackers) {
+            tracker = trackers.get(key);
+            if (tracker == null) {
+                tracker = new ChainHeadTracker(key, clientOptions, refreshIntervalInMillis, wsUrl);
+                trackers.put(key, tracker);
+                created = true;
+            }
+
+            tracker.refCount++;
+        }
+
+        if (created) {
+            tracker.start();
+        } else {
+            tracker.warnIfSettingsDiffer(clientOptions, refreshIntervalInMillis, wsUrl);
+            tracker.awaitStarted();
+        }
+        return tracker;
+    }
+
+    private void start() {
+        try {
+            web3RpcClient = new Web3RpcClient(key, clientOptions);
+            if (wsUrl != null) {
+                newHeadsSubscriber = new NewHeadsSubscriber(wsUrl, this::onNewHead, WS_RECONNECT_INTERVAL);
+                newHeadsSubscriber.start();
+            }
+            refresh();
+            scheduler.scheduleWithFixedDelay(this::refresh, refreshIntervalInMillis, refreshIntervalInMillis, TimeUnit.MILLISECONDS);
+            started.complete(null);
+        } catch (RuntimeException e) {
+            synchronized (trackers) { //Next task creates a new tracker
+                trackers.remove(key, this);
+            }
+            started.completeExceptionally(e);
+            release();
+            throw e;
+        }
+    }
+
+    private void awaitStarted() {
+        try {
+            started.join();
+        } catch (CompletionException e) {
+            release();
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+
+    private void warnIfSettingsDiffer(RpcClientOptions clientOptions, long refreshIntervalInMillis, String wsUrl) {
+        if (StringUtil.isEmpty(wsUrl))
+            wsUrl = null;
+
+        if (this.refreshIntervalInMillis != refreshIntervalInMillis || !Objects.equals(this.wsUrl, wsUrl) || !this.clientOptions.equals(clientOptions))
+            logger.warn("Head tracker of {} is shared with a task with different settings. Settings of the first task are used: " +
+                            "refresh interval {}, WebSocket url {}, client options {}. Ignored: refresh interval {}, WebSocket url {}, client options {}",
+                    key, this.refreshIntervalInMillis, this.wsUrl, this.clientOptions, refreshIntervalInMillis, wsUrl, clientOptions);
+    }
+
+    public void release() {
+        synchronized (trackers) {
+            refCount--;
+            if (refCount == 0) {
+                scheduler.shutdownNow();
+                if (newHeadsSubscriber != null)
+                    newHeadsSubscriber.close();
+                if (web3RpcClient != null)
+                    web3RpcClient.close();
+                trackers.remove(key, this);
+            }
+        }
+    }
+
+    /**
+     * @return latest known block number or -1 if not known yet
+     */
+    public long getLatestBlockNumber() {
+        return latestBlockNumber;
+    }
+
+    /**
+     * Wait till the latest block number is at least the given block number
+     * @param blockNumber block number
+     * @param timeoutInMillis max time to wait
+     * @return latest known block number
+     * @throws InterruptedException
+     */
+    public long awaitBlockNumber(long blockNumber, long timeoutInMillis) throws InterruptedException {
+        return awaitBlockNumber(blockNumber, timeoutInMillis, () -> false);
+    }
+
+    /**
+     * Same as {@link #awaitBlockNumber(long, long)}, but returns early once cancelled. Waiting threads re-check the
+     * condition on {@link #wakeUp()}
+     * @param cancelled true if the caller should not wait anymore. Example: the task is stopping
+     */
+    public long awaitBlockNumber(long blockNumber, long timeoutInMillis, BooleanSupplier cancelled) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutInMillis;
+        synchronized (headLock) {
+            long remainingTime;
+            while (latestBlockNumber < blockNumber && !cancelled.getAsBoolean() && (remainingTime = deadline - System.currentTimeMillis()) > 0) {
+                headLock.wait(remainingTime);
+            }
+        }
+
+        return latestBlockNumber;
+    }
+
+    /**
+     * Wake up all threads waiting for a block, so that cancelled waits return
+     */
+    public void wakeUp() {
+        synchronized (headLock) {
+            headLock.notifyAll();
+        }
+    }
+
+    /**
+     * Update latest block number and wake up waiting tasks
+     * @param blockNumber new latest block number
+     */
+    public void update(long blockNumber) {
+        if (blockNumber <= latestBlockNumber)
+            return;
+
+        synchronized (headLock) {
+            if (blockNumber > latestBlockNumber) {
+                latestBlockNumber = blockNumber;
+                headLock.notifyAll();
+            }
+        }
+    }
+
+    private void onNewHead(JSONObject header) {
+        String number = header.optString("number");
+        if (!StringUtil.isEmpty(number))
+            update(HexConverter.hexToLongValue(number));
+    }
+
+    private void refresh() {
+        if (newHeadsSubscriber != null && newHeadsSubscriber.isSubscribed()
+                && System.currentTimeMillis() - newHeadsSubscriber.getLastHeadTime() < WS_MAX_HEAD_AGE)
+            return; //New heads are received through WebSocket
+
+        try {
+            String latestBlockNumberStr = web3RpcClient.getLatestBlock();
+            if (StringUtil.isEmpty(latestBlockNumberStr)) {
+                logger.error("Unable to get latest block number");
+                return;
+            }
+
+            update(HexConverter.hexToLongValue(latestBlockNumberStr));
+        } catch (Exception e) {
+            logger.error("Unable to get latest block number", e);
+        }
+    }
+}
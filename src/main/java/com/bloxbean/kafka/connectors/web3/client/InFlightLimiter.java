@@ -0,0 +1,55 @@
+package com.bloxbean.kafka.connectors.web3.client;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Bounds the no of requests in flight to an endpoint without blocking the caller. Requests over the limit are queued
+ * and started when a running request releases its slot.
+ */
+class InFlightLimiter {
+    private final int maxInFlight;
+    private final Deque<Runnable> pending = new ArrayDeque<>();
+    private int inFlight;
+
+    InFlightLimiter(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Run the request now if there is a free slot, else queue it. The request must call {@link #release()} once done.
+     */
+    void submit(Runnable request) {
+        synchronized (this) {
+            if (inFlight >= maxInFlight) {
+                pending.add(request);
+                return;
+            }
+            inFlight++;
+        }
+        request.run();
+    }
+
+    /**
+     * Release a slot. The slot is handed over to the next queued request if any
+     */
+    void release() {
+        Runnable next;
+        synchronized (this) {
+            next = pending.poll();
+            if (next == null)
+                inFlight--;
+        }
+
+        if (next != null)
+            next.run();
+    }
+
+    synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    synchronized int getPending() {
+        return pending.size();
+    }
+}
@@ -0,0 +1,141 @@
+package com.bloxbean.kafka.connectors.web3.client;
+
+import kong.unirest.json.JSONException;
+import kong.unirest.json.JSONObject;
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.handshake.ServerHandshake;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Subscribes to eth_subscribe("newHeads") over a WebSocket connection and passes every new block header to a consumer.
+ * The connection is re-established in background if it drops.
+ */
+public class NewHeadsSubscriber {
+    private static Logger logger = LoggerFactory.getLogger(NewHeadsSubscriber.class);
+
+    private final URI wsUri;
+    private final Consumer<JSONObject> headConsumer;
+    private final long reconnectIntervalInMillis;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile WebSocketClient client;
+    private volatile boolean subscribed;
+    private volatile boolean closed;
+    private volatile long lastHeadTime;
+
+    public NewHeadsSubscriber(String wsUrl, Consumer<JSONObject> headConsumer, long reconnectIntervalInMillis) {
+        this.wsUri = URI.create(wsUrl);
+        this.headConsumer = headConsumer;
+        this.reconnectIntervalInMillis = reconnectIntervalInMillis;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "web3-newheads-reconnect");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        connect();
+    }
+
+    /**
+     * @return true if the socket is open and the subscription is confirmed by the node
+     */
+    public boolean isSubscribed() {
+        return subscribed;
+    }
+
+    /**
+     * @return time in millis when the last header was received
+     */
+    public long getLastHeadTime() {
+        return lastHeadTime;
+    }
+
+    public void close() {
+        closed = true;
+        scheduler.shutdownNow();
+        WebSocketClient wsClient = client;
+        if (wsClient != null)
+            wsClient.close();
+    }
+
+    private void connect() {
+        if (closed)
+            return;
+
+        client = new WebSocketClient(wsUri) {
+            @Override
+            public void onOpen(ServerHandshake handshake) {
+                logger.info("Connected to {}. Subscribing to newHeads", wsUri);
+                send("{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"eth_subscribe\",\"params\":[\"newHeads\"]}");
+            }
+
+            @Override
+            public void onMessage(String message) {
+                handleMessage(message);
+            }
+
+            @Override
+            public void onClose(int code, String reason, boolean remote) {
+                subscribed = false;
+                if (!closed) {
+                    logger.warn("newHeads subscription closed. code: {}, reason: {}. Reconnecting in {} ms", code, reason, reconnectIntervalInMillis);
+                    scheduleReconnect();
+                }
+            }
+
+            @Override
+            public void onError(Exception ex) {
+                logger.warn("newHeads subscription error: {}", ex.getMessage());
+            }
+        };
+        client.setConnectionLostTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(reconnectIntervalInMillis * 3)));
+        client.connect();
+    }
+
+    private void scheduleReconnect() {
+        try {
+            scheduler.schedule(this::connect, reconnectIntervalInMillis, TimeUnit.MILLISECONDS);
+        } catch (Exception e) { //Scheduler is shutdown
+            logger.debug("Reconnect not scheduled", e);
+        }
+    }
+
+    private void handleMessage(String message) {
+        try {
+            JSONObject jsonObject = new JSONObject(message);
+            if (jsonObject.has("error")) {
+                logger.error("newHeads subscription failed. Reason: {}", jsonObject.get("error"));
+                return;
+            }
+
+            if (!subscribed && jsonObject.has("result") && jsonObject.has("id")) { //Subscription confirmation
+                subscribed = true;
+                logger.info("Subscribed to newHeads. Subscription id: {}", jsonObject.get("result"));
+                return;
+            }
+
+            if (!"eth_subscription".equals(jsonObject.optString("method")))
+                return;
+
+            JSONObject params = jsonObject.optJSONObject("params");
+            JSONObject header = params != null ? params.optJSONObject("result") : null;
+            if (header != null) {
+                lastHeadTime = System.currentTimeMillis();
+                headConsumer.accept(header);
+            }
+        } catch (JSONException e) {
+            logger.warn("Invalid message from {} : {}", wsUri, message);
+        } catch (Exception e) {
+            logger.error("Error processing new head", e);
+        }
+    }
+}
@@ -0,0 +1,451 @@
+package com.bloxbean.kafka.connectors.web3.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * On-disk cache of raw json rpc results of final blocks, like blocks and logs. Results are deflate compressed and
+ * appended to segment files. A memory mapped hash index maps the hash of a key (which includes the block number) to
+ * the position of the latest record of the key. Records are never updated in place.
+ * <p>
+ * When the segments exceed the max size, the oldest segment is deleted. Index entries of deleted segments and records
+ * which fail the checksum (Example: partially written before a crash) are treated as misses.
+ * <p>
+ * One cache is shared by all clients of the same directory in a worker, see {@link #acquire(String, long)}. Thread safe.
+ */
+public class ResponseCache {
+    private static Logger logger = LoggerFactory.getLogger(ResponseCache.class);
+
+    private static final Map<String, ResponseCache> caches = new HashMap<>();
+
+    private static final String INDEX_FILE = "index.dat";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+    private static final int INDEX_MAGIC = 0x57334331;
+    private static final int INDEX_HEADER_SIZE = 16; //magic, capacity
+    private static final int SLOT_SIZE = 24; //key hash, segment id, offset, record length
+    private static final int MAX_PROBES = 16;
+    private static final int RECORD_HEADER_SIZE = 16; //record length, crc of key and data, key length, raw data length
+
+    private final String path;
+    private final File dir;
+    private final long maxBytes;
+    private final long maxSegmentBytes;
+    private final int capacity;
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+
+    private FileChannel indexChannel;
+    private MappedByteBuffer index;
+    private Segment activeSegment;
+    private long totalBytes;
+    private int nextSegmentId;
+    private int refCount;
+
+    private ResponseCache(String path, long maxBytes) throws IOException {
+        this.path = path;
+        this.dir = new File(path);
+        this.maxBytes = maxBytes;
+        this.maxSegmentBytes = Math.max(1024 * 1024, Math.min(maxBytes / 8, 256 * 1024 * 1024));
+        this.capacity = Integer.highestOneBit((int) Math.max(4096, Math.min(maxBytes / 1024, 1 << 23)) * 2 - 1);
+
+        if (!dir.isDirectory() && !dir.mkdirs())
+            throw new IOException("Unable to create cache directory " + dir);
+
+        openSegments();
+        openIndex();
+        evict();
+        logger.info("Rpc response cache {} opened. Segments: {}, size: {} bytes", dir, segments.size(), totalBytes);
+    }
+
+    /**
+     * Get the shared cache of a directory. Cache is opened if it's not open yet.
+     * Every call must be followed by a {@link #release()} when the cache is not required anymore.
+     * @param path cache directory. Created if it doesn't exist
+     * @param maxBytes max size of the segment files. Only used if the cache is opened
+     * @throws IOException if the cache can't be opened
+     */
+    public static ResponseCache acquire(String path, long maxBytes) throws IOException {
+        String key = new File(path).getCanonicalPath();
+        synchronized (caches) {
+            ResponseCache cache = caches.get(key);
+            if (cache == null) {
+                cache = new ResponseCache(key, maxBytes);
+                caches.put(key, cache);
+            }
+
+            cache.refCount++;
+            return cache;
+        }
+    }
+
+    public void release() {
+        synchronized (caches) {
+            refCount--;
+            if (refCount > 0)
+                return;
+
+            caches.remove(path);
+        }
+        close();
+    }
+
+    /**
+     * @param key key of the result. Example: block number and request params
+     * @return cached result json or null if not found
+     */
+    public String get(String key) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        long hash = hash(keyBytes);
+
+        Segment segment;
+        int offset;
+        int length;
+        synchronized (this) {
+            if (index == null)
+                return null;
+
+            int slot = findSlot(hash);
+            if (slot < 0)
+                return null;
+
+            int pos = slotPosition(slot);
+            segment = segments.get(index.getInt(pos + 8));
+            offset = index.getInt(pos + 12);
+            length = index.getInt(pos + 16);
+            if (segment == null)
+                return null;
+        }
+
+        try {
+            ByteBuffer record = ByteBuffer.allocate(length);
+            while (record.hasRemaining()) {
+                if (segment.channel.read(record, offset + record.position()) < 0)
+                    return null;
+            }
+            record.flip();
+            return decode(record, keyBytes);
+        } catch (IOException | DataFormatException | RuntimeException e) {
+            //Segment evicted while reading or a corrupted record
+            if (logger.isDebugEnabled())
+                logger.debug("Unable to read cache record of {}. Reason: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    public boolean contains(String key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Append a result. Write errors are logged, as the cache is optional
+     * @param key key of the result
+     * @param json result json
+     */
+    public void put(String key, String json) {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = encode(keyBytes, json.getBytes(StandardCharsets.UTF_8));
+        long hash = hash(keyBytes);
+
+        synchronized (this) {
+            if (index == null)
+                return;
+
+            try {
+                if (activeSegment == null || activeSegment.size + record.remaining() > maxSegmentBytes)
+                    rollSegment();
+
+                int offset = (int) activeSegment.size;
+                int length = record.remaining();
+                while (record.hasRemaining())
+                    activeSegment.channel.write(record, offset + (length - record.remaining()));
+                activeSegment.size += length;
+                totalBytes += length;
+
+                putSlot(hash, activeSegment.id, offset, length);
+                evict();
+            } catch (IOException e) {
+                logger.warn("Unable to write to rpc response cache {}. Reason: {}", dir, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return size of all segment files in bytes
+     */
+    public synchronized long size() {
+        return totalBytes;
+    }
+
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    private synchronized void close() {
+        for (Segment segment : segments.values())
+            segment.close();
+        segments.clear();
+        activeSegment = null;
+
+        if (index != null)
+            index.force();
+        index = null;
+        try {
+            if (indexChannel != null)
+                indexChannel.close();
+        } catch (IOException e) {
+            logger.warn("Unable to close cache index", e);
+        }
+    }
+
+    private void openSegments() throws IOException {
+        File[] files = dir.listFiles((d, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                String id = file.getName().substring(SEGMENT_PREFIX.length(), file.getName().length() - SEGMENT_SUFFIX.length());
+                try {
+                    Segment segment = new Segment(Integer.parseInt(id), file);
+                    segments.put(segment.id, segment);
+                    totalBytes += segment.size;
+                } catch (NumberFormatException e) {
+                    logger.warn("Unknown file in cache directory: {}", file);
+                }
+            }
+        }
+        //Always append to a new segment. Tail of the last segment may be a partial record
+        nextSegmentId = segments.isEmpty() ? 0 : segments.lastKey() + 1;
+    }
+
+    private void openIndex() throws IOException {
+        File indexFile = new File(dir, INDEX_FILE);
+        boolean exists = indexFile.exists();
+        indexChannel = FileChannel.open(indexFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, INDEX_HEADER_SIZE + (long) capacity * SLOT_SIZE);
+
+        if (exists && index.getInt(0) == INDEX_MAGIC && index.getInt(4) == capacity)
+            return;
+
+        //New index or index of a different size. Rebuild from the segments
+        for (int pos = 0; pos < index.capacity(); pos += 8)
+            index.putLong(pos, 0);
+        index.putInt(0, INDEX_MAGIC);
+        index.putInt(4, capacity);
+
+        for (Segment segment : segments.values())
+            rebuildIndex(segment);
+    }
+
+    private void rebuildIndex(Segment segment) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        long offset = 0;
+        while (offset + RECORD_HEADER_SIZE <= segment.size) {
+            header.clear();
+            segment.channel.read(header, offset);
+            int length = header.getInt(0);
+            if (length < RECORD_HEADER_SIZE || offset + length > segment.size)
+                break;
+
+            ByteBuffer record = ByteBuffer.allocate(length);
+            segment.channel.read(record, offset);
+            record.flip();
+            byte[] keyBytes = checkedKey(record);
+            if (keyBytes == null)
+                break; //Partial record. Rest of the segment is ignored
+
+            putSlot(hash(keyBytes), segment.id, (int) offset, length);
+            offset += length;
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        int id = nextSegmentId++;
+        activeSegment = new Segment(id, new File(dir, SEGMENT_PREFIX + String.format("%08d", id) + SEGMENT_SUFFIX));
+        segments.put(id, activeSegment);
+    }
+
+    /**
+     * Delete the oldest segments till the size is below the max size. Active segment is never deleted
+     */
+    private void evict() {
+        while (totalBytes > maxBytes && segments.size() > 1) {
+            Segment oldest = segments.pollFirstEntry().getValue();
+            if (oldest == activeSegment) {
+                segments.put(oldest.id, oldest);
+                return;
+            }
+
+            totalBytes -= oldest.size;
+            oldest.close();
+            if (!oldest.file.delete())
+                logger.warn("Unable to delete cache segment {}", oldest.file);
+            else
+                logger.info("Cache segment {} evicted", oldest.file.getName());
+        }
+    }
+
+    private int findSlot(long hash) {
+        int start = (int) (hash ^ (hash >>> 32)) & (capacity - 1);
+        for (int i = 0; i < MAX_PROBES; i++) {
+            int slot = (start + i) & (capacity - 1);
+            long slotHash = index.getLong(slotPosition(slot));
+            if (slotHash == hash)
+                return slot;
+            if (slotHash == 0)
+                return -1;
+        }
+        return -1;
+    }
+
+    /**
+     * Write an index entry. Uses the slot of the same key, an empty slot or a slot of an evicted segment. If all
+     * probed slots are in use, the first one is overwritten
+     */
+    private void putSlot(long hash, int segmentId, int offset, int length) {
+        int start = (int) (hash ^ (hash >>> 32)) & (capacity - 1);
+        int target = start;
+        for (int i = 0; i < MAX_PROBES; i++) {
+            int slot = (start + i) & (capacity - 1);
+            int pos = slotPosition(slot);
+            long slotHash = index.getLong(pos);
+            if (slotHash == hash || slotHash == 0 || !segments.containsKey(index.getInt(pos + 8))) {
+                target = slot;
+                break;
+            }
+        }
+
+        int pos = slotPosition(target);
+        index.putLong(pos, hash);
+        index.putInt(pos + 8, segmentId);
+        index.putInt(pos + 12, offset);
+        index.putInt(pos + 16, length);
+    }
+
+    private static int slotPosition(int slot) {
+        return INDEX_HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    private static ByteBuffer encode(byte[] keyBytes, byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        byte[] compressed;
+        int compressedLength;
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            compressed = new byte[Math.max(64, data.length / 2)];
+            compressedLength = 0;
+            while (!deflater.finished()) {
+                if (compressedLength == compressed.length)
+                    compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+            }
+        } finally {
+            deflater.end();
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(keyBytes);
+        crc.update(compressed, 0, compressedLength);
+
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + keyBytes.length + compressedLength);
+        record.putInt(record.capacity());
+        record.putInt((int) crc.getValue());
+        record.putInt(keyBytes.length);
+        record.putInt(data.length);
+        record.put(keyBytes);
+        record.put(compressed, 0, compressedLength);
+        record.flip();
+        return record;
+    }
+
+    /**
+     * @return key of the record or null if the record is corrupted
+     */
+    private static byte[] checkedKey(ByteBuffer record) {
+        int length = record.getInt(0);
+        int keyLength = record.getInt(8);
+        if (length != record.remaining() || keyLength < 0 || RECORD_HEADER_SIZE + keyLength > length)
+            return null;
+
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), RECORD_HEADER_SIZE, length - RECORD_HEADER_SIZE);
+        if ((int) crc.getValue() != record.getInt(4))
+            return null;
+
+        byte[] keyBytes = new byte[keyLength];
+        System.arraycopy(record.array(), RECORD_HEADER_SIZE, keyBytes, 0, keyLength);
+        return keyBytes;
+    }
+
+    private static String decode(ByteBuffer record, byte[] expectedKey) throws DataFormatException {
+        byte[] keyBytes = checkedKey(record);
+        if (keyBytes == null || !Arrays.equals(keyBytes, expectedKey))
+            return null; //Corrupted or a different key with the same hash
+
+        int dataStart = RECORD_HEADER_SIZE + keyBytes.length;
+        byte[] data = new byte[record.getInt(12)];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(record.array(), dataStart, record.getInt(0) - dataStart);
+            int length = 0;
+            while (length < data.length && !inflater.finished()) {
+                int n = inflater.inflate(data, length, data.length - length);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                    throw new DataFormatException("Truncated data");
+                length += n;
+            }
+        } finally {
+            inflater.end();
+        }
+        return new String(data, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * FNV-1a 64 bit hash. 0 is reserved for empty slots
+     */
+    private static long hash(byte[] bytes) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static class Segment {
+        private final int id;
+        private final File file;
+        private final FileChannel channel;
+        private long size;
+
+        Segment(int id, File file) throws IOException {
+            this.id = id;
+            this.file = file;
+            this.channel = new RandomAccessFile(file, "rw").getChannel();
+            this.size = channel.size();
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("Unable to close cache segment {}", file, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.bloxbean.kafka.connectors.web3.client;
+
+import java.util.Objects;
+
+/**
+ * Settings of {@link Web3RpcClient}. Defaults are used for the settings which are not set.
+ */
+public class RpcClientOptions {
+    private long healthCheckIntervalInMillis = 5000;
+    private int maxHeadLag = 5;
+    private int maxInFlight = 16;
+    private long requestTimeoutInMillis = 30000;
+    private int maxConnections = 20;
+    private int connectTimeoutInMillis = 10000;
+    private int socketTimeoutInMillis = 60000;
+    private long keepAliveInMillis = 5 * 60 * 1000;
+    private boolean gzip = true;
+    private String cacheDir;
+    private long cacheMaxBytes = 1024L * 1024 * 1024;
+
+    public long getHealthCheckIntervalInMillis() {
+        return healthCheckIntervalInMillis;
+    }
+
+    /**
+     * @param healthCheckIntervalInMillis interval to check the head and latency of each endpoint. Only used for multiple urls
+     */
+    public RpcClientOptions healthCheckIntervalInMillis(long healthCheckIntervalInMillis) {
+        this.healthCheckIntervalInMillis = healthCheckIntervalInMillis;
+        return this;
+    }
+
+    public int getMaxHeadLag() {
+        return maxHeadLag;
+    }
+
+    /**
+     * @param maxHeadLag max no of blocks an endpoint can be behind the best endpoint before it is ejected
+     */
+    public RpcClientOptions maxHeadLag(int maxHeadLag) {
+        this.maxHeadLag = maxHeadLag;
+        return this;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * @param maxInFlight max no of async requests in flight per endpoint
+     */
+    public RpcClientOptions maxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+        return this;
+    }
+
+    public long getRequestTimeoutInMillis() {
+        return requestTimeoutInMillis;
+    }
+
+    /**
+     * @param requestTimeoutInMillis default deadline of async requests
+     */
+    public RpcClientOptions requestTimeoutInMillis(long requestTimeoutInMillis) {
+        this.requestTimeoutInMillis = requestTimeoutInMillis;
+        return this;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * @param maxConnections max no of pooled connections per endpoint
+     */
+    public RpcClientOptions maxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+        return this;
+    }
+
+    public int getConnectTimeoutInMillis() {
+        return connectTimeoutInMillis;
+    }
+
+    public RpcClientOptions connectTimeoutInMillis(int connectTimeoutInMillis) {
+        this.connectTimeoutInMillis = connectTimeoutInMillis;
+        return this;
+    }
+
+    public int getSocketTimeoutInMillis() {
+        return socketTimeoutInMillis;
+    }
+
+    public RpcClientOptions socketTimeoutInMillis(int socketTimeoutInMillis) {
+        this.socketTimeoutInMillis = socketTimeoutInMillis;
+        return this;
+    }
+
+    public long getKeepAliveInMillis() {
+        return keepAliveInMillis;
+    }
+
+    /**
+     * @param keepAliveInMillis max time a pooled connection is reused. 0 or less to keep it as long as the server allows
+     */
+    public RpcClientOptions keepAliveInMillis(long keepAliveInMillis) {
+        this.keepAliveInMillis = keepAliveInMillis;
+        return this;
+    }
+
+    public boolean isGzip() {
+        return gzip;
+    }
+
+    /**
+     * @param gzip true to ask for gzip compressed responses
+     */
+    public RpcClientOptions gzip(boolean gzip) {
+        this.gzip = gzip;
+        return this;
+    }
+
+    public String getCacheDir() {
+        return cacheDir;
+    }
+
+    /**
+     * @param cacheDir directory of the on-disk cache of final blocks and logs. null or empty to disable the cache
+     */
+    public RpcClientOptions cacheDir(String cacheDir) {
+        this.cacheDir = cacheDir;
+        return this;
+    }
+
+    public long getCacheMaxBytes() {
+        return cacheMaxBytes;
+    }
+
+    /**
+     * @param cacheMaxBytes max size of the cache files. Oldest entries are evicted first
+     */
+    public RpcClientOptions cacheMaxBytes(long cacheMaxBytes) {
+        this.cacheMaxBytes = cacheMaxBytes;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RpcClientOptions that = (RpcClientOptions) o;
+        return healthCheckIntervalInMillis == that.healthCheckIntervalInMillis &&
+                maxHeadLag == that.maxHeadLag &&
+                maxInFlight == that.maxInFlight &&
+                requestTimeoutInMillis == that.requestTimeoutInMillis &&
+                maxConnections == that.maxConnections &&
+                connectTimeoutInMillis == that.connectTimeoutInMillis &&
+                socketTimeoutInMillis == that.socketTimeoutInMillis &&
+                keepAliveInMillis == that.keepAliveInMillis &&
+                gzip == that.gzip &&
+                cacheMaxBytes == that.cacheMaxBytes &&
+                Objects.equals(cacheDir, that.cacheDir);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(healthCheckIntervalInMillis, maxHeadLag, maxInFlight, requestTimeoutInMillis, maxConnections,
+                connectTimeoutInMillis, socketTimeoutInMillis, keepAliveInMillis, gzip, cacheDir, cacheMaxBytes);
+    }
+
+    @Override
+    public String toString() {
+        return "RpcClientOptions{" +
+                "healthCheckIntervalInMillis=" + healthCheckIntervalInMillis +
+                ", maxHeadLag=" + maxHeadLag +
+                ", maxInFlight=" + maxInFlight +
+                ", requestTimeoutInMillis=" + requestTimeoutInMillis +
+                ", maxConnections=" + maxConnections +
+                ", connectTimeoutInMillis=" + connectTimeoutInMillis +
+                ", socketTimeoutInMillis=" + socketTimeoutInMillis +
+                ", keepAliveInMillis=" + keepAliveInMillis +
+                ", gzip=" + gzip +
+                ", cacheDir='" + cacheDir + '\'' +
+                ", cacheMaxBytes=" + cacheMaxBytes +
+                '}';
+    }
+}
@@ -0,0 +1,87 @@
+package com.bloxbean.kafka.connectors.web3.client;
+
+/**
+ * A json rpc endpoint with its health state. Latency is tracked as an exponentially weighted moving average.
+ * A failed endpoint is skipped for a backoff time which grows with every consecutive failure.
+ */
+public class RpcEndpoint {
+    private final static double EWMA_ALPHA = 0.3;
+    private final static long MIN_BACKOFF = 1000;
+    private final static long MAX_BACKOFF = 60 * 1000;
+
+    private final String url;
+
+    private double ewmaLatency = -1; //in millis. -1 if unknown
+    private int consecutiveFailures;
+    private volatile long unavailableUntil;
+    private volatile long headBlockNumber = -1;
+    private volatile boolean lagging;
+
+    public RpcEndpoint(String url) {
+        this.url = url;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public synchronized void recordSuccess(long latencyInMillis) {
+        consecutiveFailures = 0;
+        unavailableUntil = 0;
+
+        if (ewmaLatency < 0)
+            ewmaLatency = latencyInMillis;
+        else
+            ewmaLatency = EWMA_ALPHA * latencyInMillis + (1 - EWMA_ALPHA) * ewmaLatency;
+    }
+
+    public synchronized void recordFailure(long currentTimeInMillis) {
+        consecutiveFailures++;
+        long backoff = MIN_BACKOFF << Math.min(consecutiveFailures - 1, 10);
+        unavailableUntil = currentTimeInMillis + Math.min(backoff, MAX_BACKOFF);
+    }
+
+    /**
+     * @return latency average in millis or -1 if no request has succeeded yet
+     */
+    public synchronized double getLatency() {
+        return ewmaLatency;
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    public long getUnavailableUntil() {
+        return unavailableUntil;
+    }
+
+    /**
+     * @param currentTimeInMillis current time
+     * @return true if the endpoint is not in failure backoff and is not behind the other endpoints
+     */
+    public boolean isHealthy(long currentTimeInMillis) {
+        return !lagging && unavailableUntil <= currentTimeInMillis;
+    }
+
+    public long getHeadBlockNumber() {
+        return headBlockNumber;
+    }
+
+    public void setHeadBlockNumber(long headBlockNumber) {
+        this.headBlockNumber = headBlockNumber;
+    }
+
+    public boolean isLagging() {
+        return lagging;
+    }
+
+    public void setLagging(boolean lagging) {
+        this.lagging = lagging;
+    }
+
+    @Override
+    public String toString() {
+        return url;
+    }
+}
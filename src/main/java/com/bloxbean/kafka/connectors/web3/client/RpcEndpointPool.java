@@ -0,0 +1,136 @@
+package com.bloxbean.kafka.connectors.web3.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Selects json rpc endpoints. Single requests go to the healthy endpoint with the lowest latency. Batch and range
+ * requests are spread over healthy endpoints by picking the faster of two random endpoints.
+ * An endpoint is healthy if it is not in failure backoff and its head is not behind the best head by more than maxHeadLag.
+ * If no endpoint is healthy, the endpoint which will leave backoff first is selected.
+ */
+public class RpcEndpointPool {
+    private static Logger logger = LoggerFactory.getLogger(RpcEndpointPool.class);
+
+    private final List<RpcEndpoint> endpoints;
+    private final long maxHeadLag;
+
+    public RpcEndpointPool(List<String> urls, long maxHeadLag) {
+        if (urls == null || urls.isEmpty())
+            throw new IllegalArgumentException("At least one rpc url is required");
+
+        List<RpcEndpoint> list = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            list.add(new RpcEndpoint(url));
+        }
+        this.endpoints = Collections.unmodifiableList(list);
+        this.maxHeadLag = maxHeadLag;
+    }
+
+    public List<RpcEndpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    public int size() {
+        return endpoints.size();
+    }
+
+    /**
+     * @param exclude endpoints already tried for the current request
+     * @return healthy endpoint with the lowest latency
+     */
+    public RpcEndpoint fastest(Collection<RpcEndpoint> exclude) {
+        if (endpoints.size() == 1)
+            return endpoints.get(0);
+
+        List<RpcEndpoint> candidates = getCandidates(exclude);
+        RpcEndpoint selected = null;
+        for (RpcEndpoint endpoint : candidates) {
+            if (selected == null || latency(endpoint) < latency(selected))
+                selected = endpoint;
+        }
+        return selected;
+    }
+
+    /**
+     * @param exclude endpoints already tried for the current request
+     * @return a healthy endpoint. Faster endpoints get more requests, but all healthy endpoints get a share
+     */
+    public RpcEndpoint spread(Collection<RpcEndpoint> exclude) {
+        if (endpoints.size() == 1)
+            return endpoints.get(0);
+
+        List<RpcEndpoint> candidates = getCandidates(exclude);
+        if (candidates.size() == 1)
+            return candidates.get(0);
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first)
+            second++;
+
+        RpcEndpoint endpoint1 = candidates.get(first);
+        RpcEndpoint endpoint2 = candidates.get(second);
+        return latency(endpoint1) <= latency(endpoint2) ? endpoint1 : endpoint2;
+    }
+
+    /**
+     * Mark endpoints whose head is behind the best known head by more than maxHeadLag as lagging.
+     */
+    public void updateLagging() {
+        long bestHead = -1;
+        for (RpcEndpoint endpoint : endpoints) {
+            bestHead = Math.max(bestHead, endpoint.getHeadBlockNumber());
+        }
+
+        for (RpcEndpoint endpoint : endpoints) {
+            long head = endpoint.getHeadBlockNumber();
+            boolean lagging = head >= 0 && bestHead - head > maxHeadLag;
+            if (lagging != endpoint.isLagging()) {
+                if (lagging)
+                    logger.warn("Rpc endpoint {} is behind by {} blocks. Ejected till it catches up", endpoint, bestHead - head);
+                else
+                    logger.info("Rpc endpoint {} caught up with the chain head", endpoint);
+            }
+            endpoint.setLagging(lagging);
+        }
+    }
+
+    private List<RpcEndpoint> getCandidates(Collection<RpcEndpoint> exclude) {
+        long now = System.currentTimeMillis();
+        List<RpcEndpoint> candidates = new ArrayList<>(endpoints.size());
+        for (RpcEndpoint endpoint : endpoints) {
+            if (endpoint.isHealthy(now) && (exclude == null || !exclude.contains(endpoint)))
+                candidates.add(endpoint);
+        }
+
+        if (!candidates.isEmpty())
+            return candidates;
+
+        //No healthy endpoint left. Use the endpoint which leaves backoff first
+        RpcEndpoint fallback = null;
+        for (RpcEndpoint endpoint : endpoints) {
+            if (exclude != null && exclude.contains(endpoint))
+                continue;
+            if (fallback == null || endpoint.getUnavailableUntil() < fallback.getUnavailableUntil())
+                fallback = endpoint;
+        }
+
+        if (fallback == null) //All endpoints tried
+            fallback = endpoints.get(0);
+
+        return Collections.singletonList(fallback);
+    }
+
+    private double latency(RpcEndpoint endpoint) {
+        //Endpoints without latency yet are preferred, so that they get measured
+        return Math.max(endpoint.getLatency(), 0);
+    }
+}
@@ -0,0 +1,115 @@
+package com.bloxbean.kafka.connectors.web3.client;
+
+import org.apache.kafka.common.metrics.Metrics;
+import org.apache.kafka.common.metrics.Sensor;
+import org.apache.kafka.common.metrics.stats.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Json rpc call metrics of a {@link Web3RpcClient}: latency histogram, request and error counts per method and bytes
+ * received. A batch request is recorded as one call of the method of its first request with the suffix "_batch".
+ * Thread safe.
+ */
+public class RpcMetrics {
+    public final static String GROUP = "web3-rpc-metrics";
+    //Upper bound of the latency histogram. Slower calls are counted in the last bucket
+    private final static double MAX_LATENCY_MS = 30000;
+    private final static int HISTOGRAM_BYTES = 4000;
+
+    private final Metrics metrics;
+    private final Map<String, String> tags;
+    private final ConcurrentMap<String, MethodSensors> methodSensors = new ConcurrentHashMap<>();
+    private final Sensor bytesSensor;
+
+    /**
+     * @param metrics registry of the task
+     * @param tags tags of the task. The method tag is added to the per method metrics
+     */
+    public RpcMetrics(Metrics metrics, Map<String, String> tags) {
+        this.metrics = metrics;
+        this.tags = tags;
+
+        bytesSensor = metrics.sensor(sensorName("bytes-received"));
+        bytesSensor.add(new Meter(metrics.metricName("bytes-received-rate", GROUP, "Bytes per second of rpc responses", tags),
+                metrics.metricName("bytes-received-total", GROUP, "Total bytes of rpc responses", tags)));
+    }
+
+    /**
+     * Record a completed call
+     * @param body request body, used to find the method
+     * @param latencyInMillis time till the response or the failure
+     * @param error true if the endpoint failed or couldn't be reached
+     */
+    public void recordCall(String body, long latencyInMillis, boolean error) {
+        MethodSensors sensors = methodSensors.computeIfAbsent(method(body), MethodSensors::new);
+        sensors.latency.record(latencyInMillis);
+        if (error)
+            sensors.errors.record();
+    }
+
+    /**
+     * @param bytes size of a response body as received, i.e. the compressed size of a gzip encoded body
+     */
+    public void recordBytes(long bytes) {
+        bytesSensor.record(bytes);
+    }
+
+    /**
+     * @return method of a single request, or of the first request of a batch with the suffix "_batch"
+     */
+    static String method(String body) {
+        int index = body.indexOf("\"method\"");
+        if (index < 0)
+            return "unknown";
+
+        int start = body.indexOf('"', body.indexOf(':', index) + 1);
+        int end = start >= 0 ? body.indexOf('"', start + 1) : -1;
+        if (end < 0)
+            return "unknown";
+
+        String method = body.substring(start + 1, end);
+        return isBatch(body) ? method + "_batch" : method;
+    }
+
+    private static boolean isBatch(String body) {
+        for (int i = 0; i < body.length(); i++) {
+            char c = body.charAt(i);
+            if (!Character.isWhitespace(c))
+                return c == '[';
+        }
+        return false;
+    }
+
+    private String sensorName(String name) {
+        return GROUP + ":" + tags + ":" + name;
+    }
+
+    private class MethodSensors {
+        private final Sensor latency;
+        private final Sensor errors;
+
+        MethodSensors(String method) {
+            Map<String, String> methodTags = new HashMap<>(tags);
+            methodTags.put("method", method);
+
+            latency = metrics.sensor(sensorName(method + ":latency"));
+            latency.add(metrics.metricName("request-latency-avg", GROUP, "Average latency in ms of the calls", methodTags), new Avg());
+            latency.add(metrics.metricName("request-latency-max", GROUP, "Max latency in ms of the calls", methodTags), new Max());
+            latency.add(new Percentiles(HISTOGRAM_BYTES, MAX_LATENCY_MS, Percentiles.BucketSizing.LINEAR,
+                    new Percentile(metrics.metricName("request-latency-p50", GROUP, "Median latency in ms of the calls", methodTags), 50),
+                    new Percentile(metrics.metricName("request-latency-p99", GROUP, "99th percentile latency in ms of the calls", methodTags), 99)));
+            latency.add(new Meter(new WindowedCount(),
+                    metrics.metricName("request-rate", GROUP, "Calls per second", methodTags),
+                    metrics.metricName("request-total", GROUP, "Total no of calls", methodTags)));
+
+            errors = metrics.sensor(sensorName(method + ":errors"));
+            errors.add(new Meter(new WindowedCount(),
+                    metrics.metricName("error-rate", GROUP, "Failed calls per second", methodTags),
+                    metrics.metricName("error-total", GROUP, "Total no of failed calls", methodTags)));
+        }
+    }
+}
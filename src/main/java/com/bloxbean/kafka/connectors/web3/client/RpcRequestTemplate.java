@@ -0,0 +1,49 @@
+package com.bloxbean.kafka.connectors.web3.client;
+
+/**
+ * Prebuilt json rpc request body of a method. Only the params and the id are appended per request, so no json
+ * object is built for every call.
+ */
+class RpcRequestTemplate {
+    static final RpcRequestTemplate BLOCK_NUMBER = new RpcRequestTemplate("eth_blockNumber");
+    static final RpcRequestTemplate GET_BLOCK_BY_NUMBER = new RpcRequestTemplate("eth_getBlockByNumber");
+    static final RpcRequestTemplate GET_LOGS = new RpcRequestTemplate("eth_getLogs");
+    static final RpcRequestTemplate GET_BLOCK_RECEIPTS = new RpcRequestTemplate("eth_getBlockReceipts");
+    static final RpcRequestTemplate GET_TRANSACTION_RECEIPT = new RpcRequestTemplate("eth_getTransactionReceipt");
+
+    private final String prefix;
+
+    RpcRequestTemplate(String method) {
+        this.prefix = "{\"jsonrpc\":\"2.0\",\"method\":\"" + method + "\",\"params\":";
+    }
+
+    /**
+     * @param id request id
+     * @param params params as json array text
+     * @return request body
+     */
+    String render(long id, String params) {
+        return append(new StringBuilder(prefix.length() + params.length() + 32), id, params).toString();
+    }
+
+    /**
+     * Append the request to a batch body
+     */
+    StringBuilder append(StringBuilder sb, long id, String params) {
+        return sb.append(prefix).append(params).append(",\"id\":").append(id).append('}');
+    }
+
+    /**
+     * @return params of eth_getBlockByNumber
+     */
+    static String blockByNumberParams(long blockNumber, boolean fullTxnObject) {
+        return "[\"0x" + Long.toHexString(blockNumber) + "\"," + fullTxnObject + "]";
+    }
+
+    /**
+     * @return params with a single string value. Example: block number or transaction hash
+     */
+    static String stringParams(String value) {
+        return "[\"" + value + "\"]";
+    }
+}
@@ -0,0 +1,52 @@
+package com.bloxbean.kafka.connectors.web3.client;
+
+import kong.unirest.json.JSONArray;
+import kong.unirest.json.JSONObject;
+
+/**
+ * Result of a single request inside a JSON-RPC batch. Either result or error is set.
+ * A null result without an error means the node returned "null" (Example: block not available yet)
+ */
+public class RpcResponse {
+    private final String id;
+    private final Object result;
+    private final String error;
+
+    public RpcResponse(String id, Object result, String error) {
+        this.id = id;
+        this.result = result;
+        this.error = error;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Object getResult() {
+        return result;
+    }
+
+    public JSONObject getJSONObject() {
+        return result instanceof JSONObject ? (JSONObject) result : null;
+    }
+
+    public JSONArray getJSONArray() {
+        return result instanceof JSONArray ? (JSONArray) result : null;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean hasError() {
+        return error != null;
+    }
+
+    @Override
+    public String toString() {
+        return "RpcResponse{" +
+                "id='" + id + '\'' +
+                ", error='" + error + '\'' +
+                '}';
+    }
+}
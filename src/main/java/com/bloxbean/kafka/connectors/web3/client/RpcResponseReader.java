@@ -0,0 +1,82 @@
+package com.bloxbean.kafka.connectors.web3.client;
+
+import com.bloxbean.kafka.connectors.web3.exception.Web3Exception;
+import com.bloxbean.kafka.connectors.web3.util.JsonStreamUtil;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads json rpc response envelopes from a stream. The result value is handed over to a {@link RpcResultDecoder}, so
+ * only the fields the decoder is interested in are materialized.
+ */
+class RpcResponseReader {
+
+    /**
+     * Read a single json rpc response
+     */
+    static <T> RpcResponse readResponse(JsonReader reader, RpcResultDecoder<T> decoder) throws IOException {
+        String id = null;
+        Object result = null;
+        String error = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    if (reader.peek() == JsonToken.NULL)
+                        reader.nextNull();
+                    else
+                        id = JsonStreamUtil.readString(reader);
+                    break;
+                case "result":
+                    if (reader.peek() == JsonToken.NULL)
+                        reader.nextNull();
+                    else
+                        result = decoder.decode(reader);
+                    break;
+                case "error":
+                    if (reader.peek() == JsonToken.NULL)
+                        reader.nextNull();
+                    else
+                        error = JsonStreamUtil.readJson(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new RpcResponse(id, error == null ? result : null, error);
+    }
+
+    /**
+     * Read a json rpc batch response
+     * @return responses by id
+     * @throws Web3Exception if the whole batch was rejected
+     */
+    static <T> Map<String, RpcResponse> readBatch(JsonReader reader, RpcResultDecoder<T> decoder) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) { //Whole batch was rejected. Example: batch requests not supported by the node
+            RpcResponse response = readResponse(reader, decoder);
+            throw new Web3Exception("Batch request failed. Reason: " + response.getError());
+        }
+
+        Map<String, RpcResponse> responseById = new HashMap<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
+            }
+
+            RpcResponse response = readResponse(reader, decoder);
+            responseById.put(response.getId(), response);
+        }
+        reader.endArray();
+
+        return responseById;
+    }
+}
@@ -0,0 +1,18 @@
+package com.bloxbean.kafka.connectors.web3.client;
+
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+
+/**
+ * Decodes the "result" of a json rpc response directly from the response stream, without building a json object tree.
+ * @param <T> decoded type
+ */
+public interface RpcResultDecoder<T> {
+
+    /**
+     * @param reader reader positioned at the result value. The value is never null
+     * @return decoded result
+     */
+    T decode(JsonReader reader) throws IOException;
+}
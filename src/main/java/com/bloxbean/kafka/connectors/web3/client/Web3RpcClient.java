@@ -1,44 +1,190 @@
 package com.bloxbean.kafka.connectors.web3.client;
 
 import com.bloxbean.kafka.connectors.web3.exception.Web3Exception;
+import com.bloxbean.kafka.connectors.web3.util.HexConverter;
+import com.bloxbean.kafka.connectors.web3.util.JsonStreamUtil;
+import com.bloxbean.kafka.connectors.web3.util.StringUtil;
+import com.google.gson.stream.JsonReader;
 import kong.unirest.*;
 import kong.unirest.json.JSONArray;
 import kong.unirest.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Random;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.zip.GZIPInputStream;
 
+/**
+ * Json rpc client. web3RpcUrl can be a comma separated list of endpoints. In that case requests are sent to the
+ * fastest healthy endpoint, batch and range requests are spread over all healthy endpoints, and a failed request is
+ * retried on the next endpoint. Endpoints are health checked in background, see {@link RpcEndpointPool}.
+ * <p>
+ * Every client has its own http transport with a connection pool of {@link RpcClientOptions#getMaxConnections()} per
+ * endpoint. Request bodies are rendered from prebuilt templates, see {@link RpcRequestTemplate}.
+ * <p>
+ * The *Async methods don't block the caller. The no of async requests in flight per endpoint is bounded, requests over
+ * the limit wait in a queue. Every async request has a deadline, including the time spent in the queue and retries.
+ * <p>
+ * If a cache directory is set, blocks and logs of final blocks are stored in an on-disk {@link ResponseCache} and
+ * later requests for them are served from the cache.
+ */
 public class Web3RpcClient {
     private Logger log = LoggerFactory.getLogger(Web3RpcClient.class);
+    private final static RpcResultDecoder<String> RAW_DECODER = JsonStreamUtil::readJson;
+    private final static RpcResultDecoder<Object> JSON_DECODER = reader -> toJson(JsonStreamUtil.readJson(reader));
 
-    private String web3RpcUrl;
+    private RpcEndpointPool endpointPool;
+    private UnirestInstance unirest;
+    //Health checks, async request deadlines and async retries
+    private ScheduledExecutorService scheduler;
+    private Map<RpcEndpoint, InFlightLimiter> inFlightLimiters = new HashMap<>();
+    private long requestTimeoutInMillis;
+    private AtomicLong idCounter = new AtomicLong();
+    private ResponseCache responseCache;
+    //Only results of blocks up to this block number are cached
+    private volatile LongSupplier finalBlockNumber = () -> -1;
+    //Null if metrics are not recorded
+    private volatile RpcMetrics metrics;
 
     public Web3RpcClient(String web3RpcUrl) {
-        this.web3RpcUrl = web3RpcUrl;
+        this(web3RpcUrl, new RpcClientOptions());
     }
 
-    public JSONObject getBlockByNumber(Long blockNumber, boolean fullTxnObject) {
-        try {
-            JSONObject jo = getJsonHeader("eth_getBlockByNumber");
+    /**
+     * @param web3RpcUrl rpc url or comma separated list of rpc urls
+     * @param healthCheckIntervalInMillis interval to check the head and latency of each endpoint. Only used for multiple urls
+     * @param maxHeadLag max no of blocks an endpoint can be behind the best endpoint before it is ejected
+     */
+    public Web3RpcClient(String web3RpcUrl, long healthCheckIntervalInMillis, int maxHeadLag) {
+        this(web3RpcUrl, new RpcClientOptions().healthCheckIntervalInMillis(healthCheckIntervalInMillis).maxHeadLag(maxHeadLag));
+    }
+
+    /**
+     * @param web3RpcUrl rpc url or comma separated list of rpc urls
+     * @param healthCheckIntervalInMillis interval to check the head and latency of each endpoint. Only used for multiple urls
+     * @param maxHeadLag max no of blocks an endpoint can be behind the best endpoint before it is ejected
+     * @param maxInFlight max no of async requests in flight per endpoint
+     * @param requestTimeoutInMillis default deadline of async requests
+     */
+    public Web3RpcClient(String web3RpcUrl, long healthCheckIntervalInMillis, int maxHeadLag, int maxInFlight, long requestTimeoutInMillis) {
+        this(web3RpcUrl, new RpcClientOptions().healthCheckIntervalInMillis(healthCheckIntervalInMillis).maxHeadLag(maxHeadLag)
+                .maxInFlight(maxInFlight).requestTimeoutInMillis(requestTimeoutInMillis));
+    }
+
+    /**
+     * @param web3RpcUrl rpc url or comma separated list of rpc urls
+     * @param options client settings
+     */
+    public Web3RpcClient(String web3RpcUrl, RpcClientOptions options) {
+        this.endpointPool = new RpcEndpointPool(splitUrls(web3RpcUrl), options.getMaxHeadLag());
+        for (RpcEndpoint endpoint : endpointPool.getEndpoints()) {
+            inFlightLimiters.put(endpoint, new InFlightLimiter(options.getMaxInFlight()));
+        }
+        this.requestTimeoutInMillis = options.getRequestTimeoutInMillis();
+        this.unirest = createTransport(options, endpointPool.size());
+        if (!StringUtil.isEmpty(options.getCacheDir())) {
+            try {
+                this.responseCache = ResponseCache.acquire(options.getCacheDir(), options.getCacheMaxBytes());
+            } catch (IOException e) {
+                unirest.shutDown();
+                throw new Web3Exception("Unable to open rpc response cache " + options.getCacheDir(), e);
+            }
+        }
 
-            String blockNumberHex = longToHex(blockNumber);
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "web3-rpc-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (endpointPool.size() > 1)
+            scheduler.scheduleWithFixedDelay(this::checkHealth, 0, options.getHealthCheckIntervalInMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param web3RpcUrl comma separated list of rpc urls
+     * @return urls in the given order
+     */
+    public static List<String> splitUrls(String web3RpcUrl) {
+        List<String> urls = new ArrayList<>();
+        for (String url : web3RpcUrl.split(",")) {
+            if (!url.trim().isEmpty())
+                urls.add(url.trim());
+        }
+        return urls;
+    }
+
+    private static UnirestInstance createTransport(RpcClientOptions options, int noOfEndpoints) {
+        UnirestInstance unirest = Unirest.spawnInstance();
+        unirest.config()
+                .concurrency(options.getMaxConnections() * noOfEndpoints, options.getMaxConnections())
+                .connectTimeout(options.getConnectTimeoutInMillis())
+                .socketTimeout(options.getSocketTimeoutInMillis())
+                .requestCompression(false) //Bodies are decompressed by getContent(), after counting the wire bytes
+                .setDefaultHeader("accept", "application/json")
+                .setDefaultHeader("Content-Type", "application/json");
 
-            List<Object> params = new ArrayList<>();
-            params.add(blockNumberHex);
-            params.add(Boolean.valueOf(fullTxnObject));
-            jo.put("params", params);
+        if (options.getKeepAliveInMillis() > 0)
+            unirest.config().connectionTTL(options.getKeepAliveInMillis(), TimeUnit.MILLISECONDS);
+        if (options.isGzip())
+            unirest.config().setDefaultHeader("Accept-Encoding", "gzip");
+
+        return unirest;
+    }
+
+    public RpcEndpointPool getEndpointPool() {
+        return endpointPool;
+    }
+
+    public void close() {
+        scheduler.shutdownNow();
+        unirest.shutDown();
+        if (responseCache != null)
+            responseCache.release();
+    }
+
+    /**
+     * @param finalBlockNumber returns the latest block number which can't be reorganized anymore. Results of later
+     *                         blocks are never cached. Nothing is cached till it's set
+     */
+    public void setFinalBlockNumberSupplier(LongSupplier finalBlockNumber) {
+        this.finalBlockNumber = finalBlockNumber;
+    }
+
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * @param metrics metrics to record the calls of this client. Null to stop recording
+     */
+    public void setMetrics(RpcMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public JSONObject getBlockByNumber(Long blockNumber, boolean fullTxnObject) {
+        if (responseCache != null)
+            return (JSONObject) getBlockByNumber((long) blockNumber, fullTxnObject, JSON_DECODER);
+
+        try {
+            String request = getBlockByNumberRequest(blockNumber, fullTxnObject);
 
             if(log.isDebugEnabled()) {
-                log.debug("Request: \n" + jo);
+                log.debug("Request: \n" + request);
             }
 
-            HttpResponse<JsonNode> jsonResponse = getHttpRequest()
-                    .body(jo)
-                    .asJson();
+            HttpResponse<JsonNode> jsonResponse = post(request, false, this::asJson);
 
             JsonNode jsonNode = jsonResponse.getBody();
 
@@ -50,80 +196,290 @@ public class Web3RpcClient {
         }
     }
 
-    public String getLatestBlock() {
-
+    /**
+     * Same as {@link #getBlockByNumber(Long, boolean)}, but the block is decoded directly from the response stream
+     * @return decoded block or null if the block is not available yet
+     */
+    @SuppressWarnings("unchecked") //Results are of the decoder's type
+    public <T> T getBlockByNumber(long blockNumber, boolean fullTxnObject, RpcResultDecoder<T> decoder) {
         try {
-            JSONObject jo = getJsonHeader("eth_blockNumber");
-            jo.put("params", Collections.EMPTY_LIST);
+            RpcResponse response = responseCache != null
+                    ? getCachedBlocks(Collections.singletonList(blockNumber), fullTxnObject, decoder).get(0)
+                    : call(getBlockByNumberRequest(blockNumber, fullTxnObject), false, decoder);
+            if (response.hasError())
+                throw new Web3Exception("Web3Rpc call failed to get block by number. Reason: " + response.getError());
+
+            return (T) response.getResult();
+        } catch (UnirestException e) {
+            throw new Web3Exception("Web3Rpc call failed to get block by number", e);
+        }
+    }
+
+    /**
+     * Fetch blocks in the range [fromBlockNumber, toBlockNumber] with a single JSON-RPC batch call.
+     * @param fromBlockNumber first block number (inclusive)
+     * @param toBlockNumber last block number (inclusive)
+     * @param fullTxnObject true to get full transaction objects, false for transaction hashes only
+     * @return one response per block number in request order. A response with null result means the block is not available yet
+     */
+    public List<RpcResponse> getBlocksByNumber(long fromBlockNumber, long toBlockNumber, boolean fullTxnObject) {
+        if (toBlockNumber < fromBlockNumber)
+            return Collections.emptyList();
+
+        if (responseCache != null)
+            return getCachedBlocks(blockNumbers(fromBlockNumber, toBlockNumber), fullTxnObject, JSON_DECODER);
+
+        return sendBatch(getBlockByNumberRequests(fromBlockNumber, toBlockNumber, fullTxnObject));
+    }
+
+    /**
+     * Same as {@link #getBlocksByNumber(long, long, boolean)}, but blocks are decoded directly from the response stream.
+     * Results of the responses are of the decoder's type.
+     */
+    public <T> List<RpcResponse> getBlocksByNumber(long fromBlockNumber, long toBlockNumber, boolean fullTxnObject, RpcResultDecoder<T> decoder) {
+        if (toBlockNumber < fromBlockNumber)
+            return Collections.emptyList();
+
+        if (responseCache != null)
+            return getCachedBlocks(blockNumbers(fromBlockNumber, toBlockNumber), fullTxnObject, decoder);
+
+        return sendBatch(getBlockByNumberRequests(fromBlockNumber, toBlockNumber, fullTxnObject), decoder);
+    }
+
+    /**
+     * Fetch the given blocks with a single JSON-RPC batch call.
+     * @param blockNumbers block numbers
+     * @param fullTxnObject true to get full transaction objects, false for transaction hashes only
+     * @return one response per block number in request order
+     */
+    public List<RpcResponse> getBlocksByNumber(List<Long> blockNumbers, boolean fullTxnObject) {
+        if (responseCache != null)
+            return getCachedBlocks(blockNumbers, fullTxnObject, JSON_DECODER);
+
+        return sendBatch(getBlockByNumberRequests(blockNumbers, fullTxnObject));
+    }
+
+    /**
+     * Same as {@link #getBlocksByNumber(List, boolean)}, but blocks are decoded directly from the response stream
+     */
+    public <T> List<RpcResponse> getBlocksByNumber(List<Long> blockNumbers, boolean fullTxnObject, RpcResultDecoder<T> decoder) {
+        if (responseCache != null)
+            return getCachedBlocks(blockNumbers, fullTxnObject, decoder);
 
-            HttpResponse<JsonNode> jsonResponse = getHttpRequest()
-                    .body(jo)
-                    .asJson();
+        return sendBatch(getBlockByNumberRequests(blockNumbers, fullTxnObject), decoder);
+    }
+
+    /**
+     * Send a list of requests as one JSON-RPC 2.0 batch. Request ids are overwritten so that responses can be matched
+     * to the requests, as the node is free to return the responses in any order.
+     * @param requests json rpc requests
+     * @return one response per request in request order. Errors are reported per request
+     */
+    public List<RpcResponse> sendBatch(List<JSONObject> requests) {
+        if (requests == null || requests.isEmpty())
+            return Collections.emptyList();
+
+        return sendBatch(toBatch(requests));
+    }
+
+    private List<RpcResponse> sendBatch(BatchRequest batch) {
+        try {
+            HttpResponse<JsonNode> jsonResponse = post(batch.body, true, this::asJson);
 
             JsonNode jsonNode = jsonResponse.getBody();
+            if (jsonNode == null)
+                throw new Web3Exception("Batch request failed. Empty response, http status: " + jsonResponse.getStatus());
 
-            Object blockNumber = jsonNode.getObject().get("result");
+            if (!jsonNode.isArray()) { //Whole batch was rejected. Example: batch requests not supported by the node
+                String error = getError(jsonNode.getObject());
+                throw new Web3Exception("Batch request failed. Reason: " + (error != null ? error : jsonNode.toString()));
+            }
 
-            return blockNumber != null ? blockNumber.toString() : null;
+            JSONArray responseArray = jsonNode.getArray();
+            Map<String, RpcResponse> responseById = new HashMap<>();
+            for (int i = 0; i < responseArray.length(); i++) {
+                JSONObject response = responseArray.optJSONObject(i);
+                if (response == null)
+                    continue;
+
+                String id = response.optString("id");
+                String error = getError(response);
+                if (error != null) {
+                    responseById.put(id, new RpcResponse(id, null, error));
+                } else {
+                    Object result = response.isNull("result") ? null : response.get("result");
+                    responseById.put(id, new RpcResponse(id, result, null));
+                }
+            }
+
+            return inRequestOrder(batch.ids, responseById);
         } catch (UnirestException e) {
-            throw new Web3Exception("Web3Rpc call failed to get latest block", e);
+            throw new Web3Exception("Web3Rpc batch call failed", e);
         }
     }
 
-    public JSONArray getLogs(Long fromBlockNumber, Long toBlockNumber, String addresses, String topics, String blockHash) {
+    /**
+     * Same as {@link #sendBatch(List)}, but results are decoded directly from the response stream
+     */
+    public <T> List<RpcResponse> sendBatch(List<JSONObject> requests, RpcResultDecoder<T> decoder) {
+        if (requests == null || requests.isEmpty())
+            return Collections.emptyList();
+
+        return sendBatch(toBatch(requests), decoder);
+    }
+
+    private <T> List<RpcResponse> sendBatch(BatchRequest batch, RpcResultDecoder<T> decoder) {
         try {
-            JSONObject jo = getJsonHeader("eth_getLogs");
-            List<JSONObject> params = new ArrayList();
+            Map<String, RpcResponse> responseById = postForStream(batch.body, true, reader -> RpcResponseReader.readBatch(reader, decoder));
+            return inRequestOrder(batch.ids, responseById);
+        } catch (UnirestException e) {
+            throw new Web3Exception("Web3Rpc batch call failed", e);
+        }
+    }
 
-            JSONObject filters = new JSONObject();
+    /**
+     * Async version of {@link #getBlockByNumber(long, boolean, RpcResultDecoder)} with the default deadline
+     * @return future of the decoded block. Null if the block is not available yet
+     */
+    @SuppressWarnings("unchecked") //Results are of the decoder's type
+    public <T> CompletableFuture<T> getBlockByNumberAsync(long blockNumber, boolean fullTxnObject, RpcResultDecoder<T> decoder) {
+        CompletableFuture<RpcResponse> future = responseCache != null
+                ? getCachedBlocksAsync(Collections.singletonList(blockNumber), fullTxnObject, decoder).thenApply(responses -> responses.get(0))
+                : callAsync(getBlockByNumberRequest(blockNumber, fullTxnObject), false, decoder, requestTimeoutInMillis);
+        return future
+                .thenApply(response -> {
+                    if (response.hasError())
+                        throw new Web3Exception("Web3Rpc call failed to get block by number. Reason: " + response.getError());
+                    return (T) response.getResult();
+                });
+    }
 
-            String fromBlock = longToHex(fromBlockNumber);
-            String toBlock = longToHex(toBlockNumber);
+    /**
+     * Async version of {@link #getBlocksByNumber(List, boolean, RpcResultDecoder)} with the default deadline
+     */
+    public <T> CompletableFuture<List<RpcResponse>> getBlocksByNumberAsync(List<Long> blockNumbers, boolean fullTxnObject, RpcResultDecoder<T> decoder) {
+        if (blockNumbers.isEmpty())
+            return CompletableFuture.completedFuture(Collections.emptyList());
 
-            if (fromBlock != null && !fromBlock.trim().isEmpty())
-                filters.put("fromBlock", fromBlock);
+        if (responseCache != null)
+            return getCachedBlocksAsync(blockNumbers, fullTxnObject, decoder);
 
-            if (toBlock != null && !toBlock.trim().isEmpty())
-                filters.put("toBlock", toBlock);
+        return sendBatchAsync(getBlockByNumberRequests(blockNumbers, fullTxnObject), decoder, requestTimeoutInMillis);
+    }
 
-            if (addresses != null && !addresses.trim().isEmpty()) {
-                //split addresses
-                String[] addArray = addresses.split(",");
+    /**
+     * Async version of {@link #getLogs(Long, Long, String, String, String, RpcResultDecoder)} with the default deadline
+     */
+    @SuppressWarnings("unchecked") //Results are of the decoder's type
+    public <T> CompletableFuture<T> getLogsAsync(Long fromBlockNumber, Long toBlockNumber, String addresses, String topics, String blockHash, RpcResultDecoder<T> decoder) {
+        return callAsync(getLogsRequest(fromBlockNumber, toBlockNumber, addresses, topics, blockHash), true, decoder, requestTimeoutInMillis)
+                .thenApply(response -> {
+                    if (response.hasError())
+                        throw new Web3Exception("getLogs() failed. Reason: " + response.getError());
+                    return (T) response.getResult();
+                });
+    }
 
-                JSONArray jsonArray = new JSONArray();
-                for (String address : addArray) {
-                    jsonArray.put(address.trim());
-                }
+    /**
+     * Get the receipts of all transactions of a block with eth_getBlockReceipts. Not supported by all nodes
+     * @return future of the response. Response has an error if the method is not supported
+     */
+    public <T> CompletableFuture<RpcResponse> getBlockReceiptsAsync(long blockNumber, RpcResultDecoder<T> decoder) {
+        String request = RpcRequestTemplate.GET_BLOCK_RECEIPTS.render(nextId(), RpcRequestTemplate.stringParams("0x" + Long.toHexString(blockNumber)));
+        return callAsync(request, true, decoder, requestTimeoutInMillis);
+    }
 
-                filters.put("address", jsonArray);
-            }
+    /**
+     * Get transaction receipts with a single eth_getTransactionReceipt batch request
+     * @return future of the responses in the order of the transaction hashes
+     */
+    public <T> CompletableFuture<List<RpcResponse>> getTransactionReceiptsAsync(List<String> transactionHashes, RpcResultDecoder<T> decoder) {
+        if (transactionHashes.isEmpty())
+            return CompletableFuture.completedFuture(Collections.emptyList());
 
-            if (topics != null && !topics.trim().isEmpty()) {
-                //split topics
-                String[] topicsArray = topics.split(",");
+        List<String> ids = new ArrayList<>(transactionHashes.size());
+        StringBuilder sb = new StringBuilder(transactionHashes.size() * 120).append('[');
+        for (String transactionHash : transactionHashes) {
+            long id = nextId();
+            if (sb.length() > 1)
+                sb.append(',');
+            RpcRequestTemplate.GET_TRANSACTION_RECEIPT.append(sb, id, RpcRequestTemplate.stringParams(transactionHash));
+            ids.add(String.valueOf(id));
+        }
 
-                JSONArray jsonArray = new JSONArray();
-                for (String topic : topicsArray) {
-                    jsonArray.put(topic);
-                }
+        return sendBatchAsync(new BatchRequest(sb.append(']').toString(), ids), decoder, requestTimeoutInMillis);
+    }
 
-                filters.put("topics", jsonArray);
-            }
+    /**
+     * Send a single request without blocking the caller
+     * @param request json rpc request
+     * @param decoder decoder of the result
+     * @param timeoutInMillis deadline of the request
+     * @return future of the response. Completes with {@link Web3Exception} if the request fails on all endpoints or
+     * the deadline is exceeded
+     */
+    public <T> CompletableFuture<RpcResponse> callAsync(JSONObject request, RpcResultDecoder<T> decoder, long timeoutInMillis) {
+        request.put("id", nextId());
+        return callAsync(request.toString(), false, decoder, timeoutInMillis);
+    }
 
-            if (blockHash != null && !blockHash.isEmpty()) {
-                filters.put("blockhash", blockHash);
+    /**
+     * Async version of {@link #sendBatch(List, RpcResultDecoder)}
+     * @param timeoutInMillis deadline of the request
+     */
+    public <T> CompletableFuture<List<RpcResponse>> sendBatchAsync(List<JSONObject> requests, RpcResultDecoder<T> decoder, long timeoutInMillis) {
+        if (requests == null || requests.isEmpty())
+            return CompletableFuture.completedFuture(Collections.emptyList());
 
-            }
-            params.add(filters);
+        return sendBatchAsync(toBatch(requests), decoder, timeoutInMillis);
+    }
+
+    private <T> CompletableFuture<List<RpcResponse>> sendBatchAsync(BatchRequest batch, RpcResultDecoder<T> decoder, long timeoutInMillis) {
+        return postAsync(batch.body, true, reader -> RpcResponseReader.readBatch(reader, decoder), timeoutInMillis)
+                .thenApply(responseById -> inRequestOrder(batch.ids, responseById));
+    }
+
+    /**
+     * Wait for an async result. The {@link Web3Exception} the future failed with is rethrown as is
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Web3Exception)
+                throw (Web3Exception) e.getCause();
+            throw new Web3Exception("Web3Rpc async call failed", e.getCause());
+        }
+    }
+
+    public String getLatestBlock() {
+
+        try {
+            String request = RpcRequestTemplate.BLOCK_NUMBER.render(nextId(), "[]");
+
+            HttpResponse<JsonNode> jsonResponse = post(request, false, this::asJson);
+
+            JsonNode jsonNode = jsonResponse.getBody();
+
+            Object blockNumber = jsonNode.getObject().get("result");
+
+            return blockNumber != null ? blockNumber.toString() : null;
+        } catch (UnirestException e) {
+            throw new Web3Exception("Web3Rpc call failed to get latest block", e);
+        }
+    }
 
-            jo.put("params", params);
+    public JSONArray getLogs(Long fromBlockNumber, Long toBlockNumber, String addresses, String topics, String blockHash) {
+        try {
+            if (isLogsCacheable(fromBlockNumber, toBlockNumber, blockHash))
+                return (JSONArray) getCachedLogs(fromBlockNumber, toBlockNumber, addresses, topics, JSON_DECODER);
+
+            String request = getLogsRequest(fromBlockNumber, toBlockNumber, addresses, topics, blockHash);
 
             if(log.isDebugEnabled())
-                log.debug("Web3Rpc request data: \n" + jo.toString(2));
+                log.debug("Web3Rpc request data: \n" + request);
 
-            HttpResponse<JsonNode> jsonResponse = getHttpRequest()
-                    .body(jo)
-                    .asJson();
+            HttpResponse<JsonNode> jsonResponse = post(request, true, this::asJson);
 
             JsonNode jsonNode = jsonResponse.getBody();
 
@@ -148,6 +504,514 @@ public class Web3RpcClient {
         }
     }
 
+    /**
+     * Same as {@link #getLogs(Long, Long, String, String, String)}, but logs are decoded directly from the response stream
+     * @return decoded logs or null if the node returned null
+     */
+    @SuppressWarnings("unchecked") //Results are of the decoder's type
+    public <T> T getLogs(Long fromBlockNumber, Long toBlockNumber, String addresses, String topics, String blockHash, RpcResultDecoder<T> decoder) {
+        try {
+            if (isLogsCacheable(fromBlockNumber, toBlockNumber, blockHash))
+                return getCachedLogs(fromBlockNumber, toBlockNumber, addresses, topics, decoder);
+
+            RpcResponse response = call(getLogsRequest(fromBlockNumber, toBlockNumber, addresses, topics, blockHash), true, decoder);
+            if (response.hasError())
+                throw new Web3Exception("getLogs() failed. Reason: " + response.getError());
+
+            return (T) response.getResult();
+        } catch (UnirestException e) {
+            throw new Web3Exception("getLogs() failed", e);
+        }
+    }
+
+    /**
+     * Fetch the final blocks of the range which are not in the cache yet and add them to the cache
+     * @param batchSize no of blocks per batch request
+     * @return no of blocks added to the cache
+     */
+    public int warmCache(long fromBlockNumber, long toBlockNumber, boolean fullTxnObject, int batchSize) {
+        if (responseCache == null)
+            return 0;
+
+        long lastBlockNumber = Math.min(toBlockNumber, finalBlockNumber.getAsLong());
+        List<Long> missing = new ArrayList<>(batchSize);
+        int added = 0;
+        for (long blockNumber = fromBlockNumber; blockNumber <= lastBlockNumber; blockNumber++) {
+            if (!responseCache.contains(blockKey(blockNumber, fullTxnObject)))
+                missing.add(blockNumber);
+
+            if (missing.size() == batchSize || (blockNumber == lastBlockNumber && !missing.isEmpty())) {
+                for (RpcResponse response : getCachedBlocks(missing, fullTxnObject, RAW_DECODER)) {
+                    if (!response.hasError() && response.getResult() != null)
+                        added++;
+                }
+                missing.clear();
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Get blocks through the response cache. Blocks found in the cache are decoded from the cache, the others are
+     * fetched with a single batch request and added to the cache if they are final
+     * @return one response per block number in request order
+     */
+    private <T> List<RpcResponse> getCachedBlocks(List<Long> blockNumbers, boolean fullTxnObject, RpcResultDecoder<T> decoder) {
+        Map<Long, String> cached = readCachedBlocks(blockNumbers, fullTxnObject);
+        List<Long> missing = missingBlocks(blockNumbers, cached);
+        List<RpcResponse> fetched = missing.isEmpty() ? Collections.emptyList()
+                : sendBatch(getBlockByNumberRequests(missing, fullTxnObject), RAW_DECODER);
+        return toBlockResponses(blockNumbers, fullTxnObject, cached, missing, fetched, decoder);
+    }
+
+    private <T> CompletableFuture<List<RpcResponse>> getCachedBlocksAsync(List<Long> blockNumbers, boolean fullTxnObject, RpcResultDecoder<T> decoder) {
+        Map<Long, String> cached = readCachedBlocks(blockNumbers, fullTxnObject);
+        List<Long> missing = missingBlocks(blockNumbers, cached);
+        CompletableFuture<List<RpcResponse>> fetched = missing.isEmpty() ? CompletableFuture.completedFuture(Collections.emptyList())
+                : sendBatchAsync(getBlockByNumberRequests(missing, fullTxnObject), RAW_DECODER, requestTimeoutInMillis);
+        return fetched.thenApply(responses -> toBlockResponses(blockNumbers, fullTxnObject, cached, missing, responses, decoder));
+    }
+
+    private Map<Long, String> readCachedBlocks(List<Long> blockNumbers, boolean fullTxnObject) {
+        Map<Long, String> cached = new HashMap<>();
+        for (Long blockNumber : blockNumbers) {
+            String json = responseCache.get(blockKey(blockNumber, fullTxnObject));
+            if (json != null)
+                cached.put(blockNumber, json);
+        }
+        return cached;
+    }
+
+    private List<Long> missingBlocks(List<Long> blockNumbers, Map<Long, String> cached) {
+        List<Long> missing = new ArrayList<>(blockNumbers.size() - cached.size());
+        for (Long blockNumber : blockNumbers) {
+            if (!cached.containsKey(blockNumber))
+                missing.add(blockNumber);
+        }
+        return missing;
+    }
+
+    /**
+     * Add the fetched final blocks to the cache and decode cached and fetched blocks
+     * @param fetched raw responses of the missing blocks in the order of missing
+     */
+    private <T> List<RpcResponse> toBlockResponses(List<Long> blockNumbers, boolean fullTxnObject, Map<Long, String> cached,
+                                                   List<Long> missing, List<RpcResponse> fetched, RpcResultDecoder<T> decoder) {
+        Map<Long, RpcResponse> responseByBlock = new HashMap<>();
+        long lastFinalBlockNumber = finalBlockNumber.getAsLong();
+        for (int i = 0; i < missing.size(); i++) {
+            RpcResponse response = fetched.get(i);
+            long blockNumber = missing.get(i);
+            if (response.hasError() || response.getResult() == null) {
+                responseByBlock.put(blockNumber, response);
+                continue;
+            }
+
+            String json = (String) response.getResult();
+            if (blockNumber <= lastFinalBlockNumber)
+                responseCache.put(blockKey(blockNumber, fullTxnObject), json);
+            responseByBlock.put(blockNumber, new RpcResponse(response.getId(), decodeJson(json, decoder), null));
+        }
+
+        List<RpcResponse> responses = new ArrayList<>(blockNumbers.size());
+        for (Long blockNumber : blockNumbers) {
+            RpcResponse response = responseByBlock.get(blockNumber);
+            if (response == null)
+                response = new RpcResponse(null, decodeJson(cached.get(blockNumber), decoder), null);
+            responses.add(response);
+        }
+        return responses;
+    }
+
+    private boolean isLogsCacheable(Long fromBlockNumber, Long toBlockNumber, String blockHash) {
+        return responseCache != null && fromBlockNumber != null && toBlockNumber != null && StringUtil.isEmpty(blockHash);
+    }
+
+    /**
+     * Get logs through the response cache. Logs are cached per block range and filter, if the whole range is final
+     */
+    private <T> T getCachedLogs(long fromBlockNumber, long toBlockNumber, String addresses, String topics, RpcResultDecoder<T> decoder) {
+        String key = logsKey(fromBlockNumber, toBlockNumber, addresses, topics);
+        String json = responseCache.get(key);
+        if (json == null) {
+            RpcResponse response = call(getLogsRequest(fromBlockNumber, toBlockNumber, addresses, topics, null), true, RAW_DECODER);
+            if (response.hasError())
+                throw new Web3Exception("getLogs() failed. Reason: " + response.getError());
+
+            json = (String) response.getResult();
+            if (json == null)
+                return null;
+            if (toBlockNumber <= finalBlockNumber.getAsLong())
+                responseCache.put(key, json);
+        }
+
+        return decodeJson(json, decoder);
+    }
+
+    private static String blockKey(long blockNumber, boolean fullTxnObject) {
+        return "block:" + blockNumber + (fullTxnObject ? ":full" : ":hashes");
+    }
+
+    private static String logsKey(long fromBlockNumber, long toBlockNumber, String addresses, String topics) {
+        return "logs:" + fromBlockNumber + ":" + toBlockNumber + ":" + normalizeFilter(addresses) + ":" + normalizeFilter(topics);
+    }
+
+    private static String normalizeFilter(String filter) {
+        return filter == null ? "" : filter.replace(" ", "").toLowerCase();
+    }
+
+    private static <T> T decodeJson(String json, RpcResultDecoder<T> decoder) {
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            return decoder.decode(reader);
+        } catch (IOException e) {
+            throw new Web3Exception("Unable to decode cached result", e);
+        }
+    }
+
+    private static Object toJson(String json) {
+        return json.startsWith("[") ? new JSONArray(json) : new JSONObject(json);
+    }
+
+    private static List<Long> blockNumbers(long fromBlockNumber, long toBlockNumber) {
+        List<Long> blockNumbers = new ArrayList<>((int) Math.min(toBlockNumber - fromBlockNumber + 1, Integer.MAX_VALUE));
+        for (long blockNumber = fromBlockNumber; blockNumber <= toBlockNumber; blockNumber++) {
+            blockNumbers.add(blockNumber);
+        }
+        return blockNumbers;
+    }
+
+    private String getLogsRequest(Long fromBlockNumber, Long toBlockNumber, String addresses, String topics, String blockHash) {
+        JSONObject filters = new JSONObject();
+
+        String fromBlock = longToHex(fromBlockNumber);
+        String toBlock = longToHex(toBlockNumber);
+
+        if (fromBlock != null && !fromBlock.trim().isEmpty())
+            filters.put("fromBlock", fromBlock);
+
+        if (toBlock != null && !toBlock.trim().isEmpty())
+            filters.put("toBlock", toBlock);
+
+        if (addresses != null && !addresses.trim().isEmpty()) {
+            //split addresses
+            String[] addArray = addresses.split(",");
+
+            JSONArray jsonArray = new JSONArray();
+            for (String address : addArray) {
+                jsonArray.put(address.trim());
+            }
+
+            filters.put("address", jsonArray);
+        }
+
+        if (topics != null && !topics.trim().isEmpty()) {
+            //split topics
+            String[] topicsArray = topics.split(",");
+
+            JSONArray jsonArray = new JSONArray();
+            for (String topic : topicsArray) {
+                jsonArray.put(topic);
+            }
+
+            filters.put("topics", jsonArray);
+        }
+
+        if (blockHash != null && !blockHash.isEmpty()) {
+            filters.put("blockhash", blockHash);
+
+        }
+        return RpcRequestTemplate.GET_LOGS.render(nextId(), "[" + filters + "]");
+    }
+
+    private BatchRequest getBlockByNumberRequests(long fromBlockNumber, long toBlockNumber, boolean fullTxnObject) {
+        return getBlockByNumberRequests(blockNumbers(fromBlockNumber, toBlockNumber), fullTxnObject);
+    }
+
+    private BatchRequest getBlockByNumberRequests(List<Long> blockNumbers, boolean fullTxnObject) {
+        List<String> ids = new ArrayList<>(blockNumbers.size());
+        StringBuilder sb = new StringBuilder(blockNumbers.size() * 100).append('[');
+        for (Long blockNumber : blockNumbers) {
+            long id = nextId();
+            if (sb.length() > 1)
+                sb.append(',');
+            RpcRequestTemplate.GET_BLOCK_BY_NUMBER.append(sb, id, RpcRequestTemplate.blockByNumberParams(blockNumber, fullTxnObject));
+            ids.add(String.valueOf(id));
+        }
+
+        if (log.isDebugEnabled())
+            log.debug("Batch request of size: {}", blockNumbers.size());
+
+        return new BatchRequest(sb.append(']').toString(), ids);
+    }
+
+    /**
+     * Set a unique id on every request and build the batch body
+     * @param requests requests
+     * @return batch request
+     */
+    private BatchRequest toBatch(List<JSONObject> requests) {
+        List<String> ids = new ArrayList<>(requests.size());
+        JSONArray batch = new JSONArray();
+        for (JSONObject request : requests) {
+            long id = nextId();
+            request.put("id", id);
+            ids.add(String.valueOf(id));
+            batch.put(request);
+        }
+
+        if (log.isDebugEnabled())
+            log.debug("Batch request of size: {}", requests.size());
+
+        return new BatchRequest(batch.toString(), ids);
+    }
+
+    /**
+     * Batch request body with the ids of its requests in request order
+     */
+    private static class BatchRequest {
+        private final String body;
+        private final List<String> ids;
+
+        BatchRequest(String body, List<String> ids) {
+            this.body = body;
+            this.ids = ids;
+        }
+    }
+
+    private long nextId() {
+        return idCounter.incrementAndGet();
+    }
+
+    private List<RpcResponse> inRequestOrder(List<String> ids, Map<String, RpcResponse> responseById) {
+        List<RpcResponse> rpcResponses = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            RpcResponse response = responseById.get(id);
+            if (response == null)
+                response = new RpcResponse(id, null, "No response found for request id " + id);
+            rpcResponses.add(response);
+        }
+        return rpcResponses;
+    }
+
+    /**
+     * Send a single request and decode the response from the response stream
+     */
+    private <T> RpcResponse call(String request, boolean spread, RpcResultDecoder<T> decoder) {
+        return postForStream(request, spread, reader -> RpcResponseReader.readResponse(reader, decoder));
+    }
+
+    /**
+     * Post a request and read the response body with a streaming json reader
+     */
+    private <T> T postForStream(String body, boolean spread, StreamHandler<T> handler) {
+        HttpResponse<T> response = post(body, spread, request -> request.asObject(rawResponse -> readStream(rawResponse, handler)));
+        return streamedBody(response);
+    }
+
+    private <T> T readStream(RawResponse rawResponse, StreamHandler<T> handler) {
+        if (isEndpointFailure(rawResponse.getStatus()))
+            return null;
+
+        try (JsonReader reader = new JsonReader(new InputStreamReader(getContent(rawResponse), StandardCharsets.UTF_8))) {
+            return handler.read(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Same as {@link RequestBodyEntity#asJson()}, but the body is counted and decompressed by {@link #getContent(RawResponse)}
+     */
+    private HttpResponse<JsonNode> asJson(RequestBodyEntity request) {
+        return request.asObject(this::readJson);
+    }
+
+    private JsonNode readJson(RawResponse rawResponse) {
+        try (InputStream content = getContent(rawResponse)) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = content.read(buffer)) > 0)
+                body.write(buffer, 0, n);
+            return new JsonNode(new String(body.toByteArray(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return response body, decompressed if it's gzip encoded. Neither client decompresses by itself, so the bytes
+     * read from the wire are counted before the decompression
+     */
+    private InputStream getContent(RawResponse rawResponse) throws IOException {
+        InputStream content = metrics != null ? new CountingInputStream(rawResponse.getContent(), metrics) : rawResponse.getContent();
+        String encoding = rawResponse.getHeaders().getFirst("Content-Encoding");
+        if (encoding != null && encoding.toLowerCase().contains("gzip"))
+            return new GZIPInputStream(content);
+
+        return content;
+    }
+
+    /**
+     * @return body read by {@link #readStream(RawResponse, StreamHandler)}
+     * @throws Web3Exception if the body couldn't be read
+     */
+    private <T> T streamedBody(HttpResponse<T> response) {
+        if (response.getParsingError().isPresent()) {
+            Throwable cause = response.getParsingError().get().getCause();
+            if (cause instanceof Web3Exception)
+                throw (Web3Exception) cause;
+            throw new Web3Exception("Unable to read response, http status: " + response.getStatus(), response.getParsingError().get());
+        }
+
+        if (response.getBody() == null)
+            throw new Web3Exception("Empty response, http status: " + response.getStatus());
+
+        return response.getBody();
+    }
+
+    private interface StreamHandler<T> {
+        T read(JsonReader reader) throws IOException;
+    }
+
+    /**
+     * Counts the bytes read from a response body as received, before the decompression. Recorded when the body is closed
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private final RpcMetrics metrics;
+        private long count;
+        private boolean closed;
+
+        CountingInputStream(InputStream in, RpcMetrics metrics) {
+            super(in);
+            this.metrics = metrics;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0)
+                count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0)
+                count += n;
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                metrics.recordBytes(count);
+            }
+            super.close();
+        }
+    }
+
+    private <T> CompletableFuture<RpcResponse> callAsync(String request, boolean spread, RpcResultDecoder<T> decoder, long timeoutInMillis) {
+        return postAsync(request, spread, reader -> RpcResponseReader.readResponse(reader, decoder), timeoutInMillis);
+    }
+
+    /**
+     * Async version of {@link #postForStream(String, boolean, StreamHandler)}. Fails with a {@link Web3Exception} once
+     * the deadline is exceeded, even if the request is still waiting for a free slot or in flight.
+     */
+    private <T> CompletableFuture<T> postAsync(String body, boolean spread, StreamHandler<T> handler, long timeoutInMillis) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        long deadline = System.currentTimeMillis() + timeoutInMillis;
+
+        ScheduledFuture<?> timeout = scheduler.schedule(() -> {
+            result.completeExceptionally(new Web3Exception("Web3Rpc request timed out after " + timeoutInMillis + " ms"));
+        }, timeoutInMillis, TimeUnit.MILLISECONDS);
+        result.whenComplete((value, error) -> timeout.cancel(false));
+
+        attemptAsync(body, spread, handler, deadline, new ArrayList<>(1), null, result);
+        return result;
+    }
+
+    /**
+     * Send the request to the next endpoint not tried yet. Same failover rules as {@link #post(String, boolean, Function)}
+     */
+    private <T> void attemptAsync(String body, boolean spread, StreamHandler<T> handler, long deadline,
+                                  List<RpcEndpoint> tried, Throwable lastError, CompletableFuture<T> result) {
+        if (result.isDone())
+            return;
+
+        if (tried.size() >= endpointPool.size()) {
+            result.completeExceptionally(new Web3Exception("Web3Rpc async call failed", lastError));
+            return;
+        }
+
+        RpcEndpoint endpoint = spread ? endpointPool.spread(tried) : endpointPool.fastest(tried);
+        tried.add(endpoint);
+
+        InFlightLimiter limiter = inFlightLimiters.get(endpoint);
+        limiter.submit(() -> {
+            long remaining = deadline - System.currentTimeMillis();
+            if (result.isDone() || remaining <= 0) { //Deadline exceeded while waiting for a slot
+                limiter.release();
+                return;
+            }
+
+            long startTime = System.currentTimeMillis();
+            try {
+                getHttpRequest(endpoint.getUrl())
+                        .socketTimeout((int) Math.min(remaining, Integer.MAX_VALUE))
+                        .body(body)
+                        .asObjectAsync(rawResponse -> readStream(rawResponse, handler))
+                        .whenComplete((response, error) -> {
+                            limiter.release();
+                            onAsyncResponse(endpoint, startTime, response, error, body, spread, handler, deadline, tried, result);
+                        });
+            } catch (RuntimeException e) {
+                //Retry from the scheduler thread, so that a queue of failing requests doesn't recurse through release()
+                scheduler.execute(() -> {
+                    limiter.release();
+                    onAsyncResponse(endpoint, startTime, null, e, body, spread, handler, deadline, tried, result);
+                });
+            }
+        });
+    }
+
+    private <T> void onAsyncResponse(RpcEndpoint endpoint, long startTime, HttpResponse<T> response, Throwable error,
+                                     String body, boolean spread, StreamHandler<T> handler, long deadline,
+                                     List<RpcEndpoint> tried, CompletableFuture<T> result) {
+        if (error instanceof CompletionException && error.getCause() != null)
+            error = error.getCause();
+
+        boolean failed = error != null || isEndpointFailure(response.getStatus());
+        RpcMetrics metrics = this.metrics;
+        if (metrics != null)
+            metrics.recordCall(body, System.currentTimeMillis() - startTime, failed);
+
+        if (!failed) {
+            endpoint.recordSuccess(System.currentTimeMillis() - startTime);
+            try {
+                result.complete(streamedBody(response));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+            return;
+        }
+
+        endpoint.recordFailure(System.currentTimeMillis());
+        if (error == null)
+            error = new UnirestException("Rpc endpoint " + endpoint + " returned http status " + response.getStatus());
+        if (endpointPool.size() > 1)
+            log.warn("Async rpc request to {} failed. Reason: {}", endpoint, error.getMessage());
+
+        attemptAsync(body, spread, handler, deadline, tried, error, result);
+    }
+
+    private String getBlockByNumberRequest(long blockNumber, boolean fullTxnObject) {
+        return RpcRequestTemplate.GET_BLOCK_BY_NUMBER.render(nextId(), RpcRequestTemplate.blockByNumberParams(blockNumber, fullTxnObject));
+    }
+
     private String longToHex(Long value) {
         if(value == null)
             return null;
@@ -167,23 +1031,93 @@ public class Web3RpcClient {
             return null;
     }
 
-    private JSONObject getJsonHeader(String method) {
-        JSONObject jo = new JSONObject();
-        jo.put("id", generateRandomId());
-        jo.put("jsonrpc", "2.0");
-        jo.put("method", method);
-        return jo;
+    /**
+     * Send a request to an endpoint of the pool. The request is retried on the next endpoint if the endpoint can't be
+     * reached or returns a http error.
+     * @param body request body
+     * @param spread true to spread the request over healthy endpoints, false to use the fastest endpoint
+     * @param send function to send the request and read the response
+     * @return response
+     */
+    private <T> HttpResponse<T> post(String body, boolean spread, Function<RequestBodyEntity, HttpResponse<T>> send) {
+        List<RpcEndpoint> tried = new ArrayList<>(1);
+        UnirestException lastError = null;
+        for (int attempt = 0; attempt < endpointPool.size(); attempt++) {
+            RpcEndpoint endpoint = spread ? endpointPool.spread(tried) : endpointPool.fastest(tried);
+            tried.add(endpoint);
+
+            long startTime = System.currentTimeMillis();
+            try {
+                HttpResponse<T> response = send.apply(getHttpRequest(endpoint.getUrl()).body(body));
+                recordCall(body, startTime, isEndpointFailure(response.getStatus()));
+
+                if (isEndpointFailure(response.getStatus())) {
+                    endpoint.recordFailure(System.currentTimeMillis());
+                    lastError = new UnirestException("Rpc endpoint " + endpoint + " returned http status " + response.getStatus());
+                    log.warn(lastError.getMessage());
+                    continue;
+                }
+
+                endpoint.recordSuccess(System.currentTimeMillis() - startTime);
+                return response;
+            } catch (UnirestException e) {
+                recordCall(body, startTime, true);
+                endpoint.recordFailure(System.currentTimeMillis());
+                lastError = e;
+                if (endpointPool.size() > 1)
+                    log.warn("Rpc request to {} failed. Reason: {}", endpoint, e.getMessage());
+            }
+        }
+
+        throw lastError;
+    }
+
+    /**
+     * Record a sync call. Bytes of the body are counted while it's read
+     */
+    private void recordCall(String body, long startTime, boolean failed) {
+        RpcMetrics metrics = this.metrics;
+        if (metrics == null)
+            return;
+
+        metrics.recordCall(body, System.currentTimeMillis() - startTime, failed);
     }
 
-    private String generateRandomId() {
-        Random rand = new Random();
-        int randInt = rand.nextInt(1000000);
-        return String.valueOf(randInt);
+    private boolean isEndpointFailure(int httpStatus) {
+        return httpStatus == 429 || httpStatus >= 500;
+    }
+
+    /**
+     * Check head and latency of every endpoint, and eject endpoints which are behind
+     */
+    private void checkHealth() {
+        String request = RpcRequestTemplate.BLOCK_NUMBER.render(nextId(), "[]");
+        for (RpcEndpoint endpoint : endpointPool.getEndpoints()) {
+            long startTime = System.currentTimeMillis();
+            try {
+                HttpResponse<JsonNode> response = getHttpRequest(endpoint.getUrl())
+                        .body(request)
+                        .asObject(this::readJson);
+
+                JsonNode jsonNode = response.getBody();
+                String head = jsonNode != null && !jsonNode.isArray() ? jsonNode.getObject().optString("result", null) : null;
+                if (isEndpointFailure(response.getStatus()) || head == null) {
+                    endpoint.recordFailure(System.currentTimeMillis());
+                    continue;
+                }
+
+                endpoint.recordSuccess(System.currentTimeMillis() - startTime);
+                endpoint.setHeadBlockNumber(HexConverter.hexToLongValue(head));
+            } catch (Exception e) {
+                endpoint.recordFailure(System.currentTimeMillis());
+                log.debug("Health check failed for {}", endpoint, e);
+            }
+        }
+
+        endpointPool.updateLagging();
     }
 
-    private HttpRequestWithBody getHttpRequest() {
-        return Unirest.post(web3RpcUrl)
-                .header("accept", "application/json")
-                .header("Content-Type", "application/json");
+    private HttpRequestWithBody getHttpRequest(String url) {
+        return unirest.post(url);
     }
 }
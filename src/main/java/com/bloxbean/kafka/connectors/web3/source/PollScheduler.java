@@ -0,0 +1,162 @@
+package com.bloxbean.kafka.connectors.web3.source;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides how long a task waits between polls. The block interval is estimated from the timestamps of recently seen
+ * blocks, so the task waits till just after the next block is expected instead of a fixed block time.
+ * Errors are retried with exponential backoff and jitter.
+ * <p>
+ * All waits are interruptible through {@link #stop()}, which is called from a different thread than poll().
+ */
+public class PollScheduler {
+    //No of recent blocks used to estimate the block interval
+    private final static int SAMPLE_SIZE = 16;
+    private final static long MIN_WAIT = 10;
+
+    private final long defaultBlockInterval;
+    private final long initialBackoff;
+    private final long maxBackoff;
+
+    private final long[] sampleNumbers = new long[SAMPLE_SIZE];
+    private final long[] sampleTimestamps = new long[SAMPLE_SIZE];
+    private int sampleCount;
+    private int nextSample;
+    private long estimatedBlockInterval;
+
+    private int errorCount;
+
+    private final Object lock = new Object();
+    private volatile boolean stopped;
+
+    /**
+     * @param defaultBlockIntervalInMillis block interval to use till it can be estimated
+     * @param initialBackoffInMillis wait time after the first error
+     * @param maxBackoffInMillis max wait time after consecutive errors
+     */
+    public PollScheduler(long defaultBlockIntervalInMillis, long initialBackoffInMillis, long maxBackoffInMillis) {
+        this.defaultBlockInterval = Math.max(defaultBlockIntervalInMillis, 1);
+        this.initialBackoff = Math.max(initialBackoffInMillis, 1);
+        this.maxBackoff = Math.max(maxBackoffInMillis, initialBackoff);
+    }
+
+    /**
+     * Record a block seen by the task. Blocks are expected in increasing order. Anything else, like a reset of the
+     * task offset, starts a new estimation.
+     * @param blockNumber block number
+     * @param timestampInMillis block timestamp
+     */
+    public synchronized void onBlock(long blockNumber, long timestampInMillis) {
+        if (timestampInMillis <= 0)
+            return;
+
+        if (sampleCount > 0) {
+            int last = (nextSample + SAMPLE_SIZE - 1) % SAMPLE_SIZE;
+            if (blockNumber == sampleNumbers[last])
+                return;
+            if (blockNumber < sampleNumbers[last] || timestampInMillis < sampleTimestamps[last]) {
+                sampleCount = 0;
+                estimatedBlockInterval = 0;
+            }
+        }
+
+        sampleNumbers[nextSample] = blockNumber;
+        sampleTimestamps[nextSample] = timestampInMillis;
+        nextSample = (nextSample + 1) % SAMPLE_SIZE;
+        if (sampleCount < SAMPLE_SIZE)
+            sampleCount++;
+
+        if (sampleCount > 1) {
+            int first = (nextSample + SAMPLE_SIZE - sampleCount) % SAMPLE_SIZE;
+            int last = (nextSample + SAMPLE_SIZE - 1) % SAMPLE_SIZE;
+            long blocks = sampleNumbers[last] - sampleNumbers[first];
+            long elapsed = sampleTimestamps[last] - sampleTimestamps[first];
+            //Timestamps are often in whole seconds, so the estimate is only as good as the no of samples
+            if (blocks > 0 && elapsed > 0)
+                estimatedBlockInterval = elapsed / blocks;
+        }
+    }
+
+    /**
+     * @return estimated block interval in ms, or the default block interval if not estimated yet
+     */
+    public synchronized long getBlockInterval() {
+        return estimatedBlockInterval > 0 ? estimatedBlockInterval : defaultBlockInterval;
+    }
+
+    /**
+     * @return time in ms to wait for the next block. Till shortly after the next block is expected, or a fraction of the
+     * block interval if the block is already overdue
+     */
+    public synchronized long getBlockWaitTime() {
+        long blockInterval = getBlockInterval();
+        if (sampleCount == 0)
+            return blockInterval;
+
+        long lastTimestamp = sampleTimestamps[(nextSample + SAMPLE_SIZE - 1) % SAMPLE_SIZE];
+        long margin = Math.max(blockInterval / 10, MIN_WAIT);
+        long untilNextBlock = lastTimestamp + blockInterval - System.currentTimeMillis();
+        if (untilNextBlock > 0)
+            return Math.min(untilNextBlock + margin, blockInterval); //Capped as the node clock may differ
+
+        return Math.max(blockInterval / 4, MIN_WAIT);
+    }
+
+    /**
+     * Record a failed poll
+     * @return time in ms to wait before the next attempt. Exponential backoff with jitter, capped at the max backoff
+     */
+    public synchronized long onError() {
+        errorCount++;
+        long backoff = initialBackoff << Math.min(errorCount - 1, 30);
+        if (backoff <= 0 || backoff > maxBackoff)
+            backoff = maxBackoff;
+
+        //Half fixed, half random so that tasks failing at the same time don't retry at the same time
+        return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    }
+
+    /**
+     * Record a successful poll
+     */
+    public synchronized void onSuccess() {
+        errorCount = 0;
+    }
+
+    /**
+     * @return no of consecutive errors
+     */
+    public synchronized int getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * Wait for the given time or till {@link #stop()} is called
+     * @return false if stopped
+     * @throws InterruptedException
+     */
+    public boolean sleep(long millis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + millis;
+        synchronized (lock) {
+            long remainingTime;
+            while (!stopped && (remainingTime = deadline - System.currentTimeMillis()) > 0) {
+                lock.wait(remainingTime);
+            }
+        }
+        return !stopped;
+    }
+
+    /**
+     * Wake up waiting threads. Any later wait returns immediately
+     */
+    public void stop() {
+        synchronized (lock) {
+            stopped = true;
+            lock.notifyAll();
+        }
+    }
+
+    public boolean isStopped() {
+        return stopped;
+    }
+}
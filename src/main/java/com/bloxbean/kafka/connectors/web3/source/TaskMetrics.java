@@ -0,0 +1,171 @@
+package com.bloxbean.kafka.connectors.web3.source;
+
+import com.bloxbean.kafka.connectors.web3.client.RpcMetrics;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.metrics.*;
+import org.apache.kafka.common.metrics.stats.*;
+import org.apache.kafka.common.utils.Time;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Metrics of a source task, exposed over JMX as kafka.connect.web3:type=web3-source-task-metrics,connector=..,task=..
+ * and kafka.connect.web3:type=web3-rpc-metrics,connector=..,task=..,method=..
+ * <p>
+ * Task id is the lowest id not used by another running task of the same connector in this worker, as the task
+ * context doesn't expose the Connect task id. Thread safe.
+ */
+public class TaskMetrics implements AutoCloseable {
+    public final static String JMX_PREFIX = "kafka.connect.web3";
+    public final static String GROUP = "web3-source-task-metrics";
+
+    //Task ids in use per connector name
+    private final static Map<String, BitSet> taskIds = new HashMap<>();
+
+    private final String connectorName;
+    private final int taskId;
+    private final Metrics metrics;
+    private final RpcMetrics rpcMetrics;
+
+    private final Sensor blocksSensor;
+    private final Sensor recordsSensor;
+    private final Sensor retriesSensor;
+    private final Sensor conversionTimeSensor;
+    private final Sensor ioTimeSensor;
+
+    private volatile long offsetBlockNumber = -1;
+    private volatile long offsetBlockTimestamp = -1;
+    private volatile LongSupplier headBlockNumber = () -> -1;
+
+    /**
+     * @param connectorName name of the connector. Null or empty if not known
+     */
+    public TaskMetrics(String connectorName) {
+        this.connectorName = connectorName != null && !connectorName.isEmpty() ? connectorName : "unknown";
+        this.taskId = acquireTaskId(this.connectorName);
+
+        Map<String, String> tags = new LinkedHashMap<>();
+        tags.put("connector", this.connectorName);
+        tags.put("task", String.valueOf(taskId));
+
+        metrics = new Metrics(new MetricConfig().tags(tags), Collections.singletonList(new JmxReporter(JMX_PREFIX)), Time.SYSTEM);
+        rpcMetrics = new RpcMetrics(metrics, tags);
+
+        blocksSensor = metrics.sensor("blocks");
+        blocksSensor.add(new Meter(metricName("block-rate", "Blocks processed per second"), metricName("block-total", "Total no of blocks processed")));
+
+        recordsSensor = metrics.sensor("records");
+        recordsSensor.add(new Meter(metricName("record-rate", "Records emitted per second"), metricName("record-total", "Total no of records emitted")));
+
+        retriesSensor = metrics.sensor("retries");
+        retriesSensor.add(new Meter(new WindowedCount(), metricName("retry-rate", "Failed polls retried per second"),
+                metricName("retry-total", "Total no of failed polls retried")));
+
+        conversionTimeSensor = timeSensor("conversion", "converting json to structs and records");
+        ioTimeSensor = timeSensor("io", "waiting for rpc calls");
+
+        metrics.addMetric(metricName("offset-block-number", "Block number of the last processed block"),
+                (Gauge<Long>) (config, now) -> offsetBlockNumber);
+        metrics.addMetric(metricName("head-block-number", "Latest block number of the chain"),
+                (Gauge<Long>) (config, now) -> headBlockNumber.getAsLong());
+        metrics.addMetric(metricName("lag-blocks", "No of blocks between the last processed block and the chain head"),
+                (Gauge<Long>) (config, now) -> offsetBlockNumber >= 0 ? Math.max(0, headBlockNumber.getAsLong() - offsetBlockNumber) : -1);
+        metrics.addMetric(metricName("lag-seconds", "Age in seconds of the last processed block with a known timestamp"),
+                (Gauge<Double>) (config, now) -> offsetBlockTimestamp >= 0 ? Math.max(0, now - offsetBlockTimestamp) / 1000.0 : -1);
+    }
+
+    private Sensor timeSensor(String name, String description) {
+        Sensor sensor = metrics.sensor(name + "-time");
+        sensor.add(metricName(name + "-time-avg", "Average time in ms per call " + description), new Avg());
+        sensor.add(metricName(name + "-time-max", "Max time in ms per call " + description), new Max());
+        sensor.add(new Meter(TimeUnit.SECONDS, new WindowedSum(), metricName(name + "-time-rate", "Time in ms per second " + description),
+                metricName(name + "-time-total", "Total time in ms " + description)));
+        return sensor;
+    }
+
+    private MetricName metricName(String name, String description) {
+        return metrics.metricName(name, GROUP, description);
+    }
+
+    private static int acquireTaskId(String connectorName) {
+        synchronized (taskIds) {
+            BitSet ids = taskIds.computeIfAbsent(connectorName, name -> new BitSet());
+            int id = ids.nextClearBit(0);
+            ids.set(id);
+            return id;
+        }
+    }
+
+    private static void releaseTaskId(String connectorName, int taskId) {
+        synchronized (taskIds) {
+            BitSet ids = taskIds.get(connectorName);
+            if (ids == null)
+                return;
+
+            ids.clear(taskId);
+            if (ids.isEmpty())
+                taskIds.remove(connectorName);
+        }
+    }
+
+    /**
+     * @return metrics to attach to the rpc client of the task
+     */
+    public RpcMetrics getRpcMetrics() {
+        return rpcMetrics;
+    }
+
+    public int getTaskId() {
+        return taskId;
+    }
+
+    /**
+     * @param headBlockNumber returns the latest block number of the chain
+     */
+    public void setHeadBlockNumberSupplier(LongSupplier headBlockNumber) {
+        this.headBlockNumber = headBlockNumber;
+    }
+
+    /**
+     * Record blocks processed and records emitted by a poll
+     */
+    public void recordPoll(long blocks, int records) {
+        if (blocks > 0)
+            blocksSensor.record(blocks);
+        if (records > 0)
+            recordsSensor.record(records);
+    }
+
+    /**
+     * @param blockNumber last processed block
+     * @param timestampInMillis timestamp of the block. Null if not known, the last known timestamp is kept
+     */
+    public void recordOffset(long blockNumber, Long timestampInMillis) {
+        offsetBlockNumber = blockNumber;
+        if (timestampInMillis != null)
+            offsetBlockTimestamp = timestampInMillis;
+    }
+
+    public void recordRetry() {
+        retriesSensor.record();
+    }
+
+    public void recordConversionTime(long startNanos) {
+        conversionTimeSensor.record((System.nanoTime() - startNanos) / 1e6);
+    }
+
+    public void recordIoTime(long startNanos) {
+        ioTimeSensor.record((System.nanoTime() - startNanos) / 1e6);
+    }
+
+    /**
+     * Unregister the metrics from JMX
+     */
+    @Override
+    public void close() {
+        metrics.close();
+        releaseTaskId(connectorName, taskId);
+    }
+}
@@ -0,0 +1,168 @@
+package com.bloxbean.kafka.connectors.web3.source.blocks;
+
+import com.bloxbean.kafka.connectors.web3.exception.Web3Exception;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps a configurable number of blocks in flight on a worker pool. Blocks are fetched in chunks and converted by the
+ * workers, but are always handed out in block number order without gaps.
+ * Not thread safe. Only the task thread should call the public methods.
+ */
+public class BlockPrefetcher {
+    private static Logger logger = LoggerFactory.getLogger(BlockPrefetcher.class);
+
+    /**
+     * Fetch and convert blocks in the range [fromBlockNumber, toBlockNumber].
+     * Must return a contiguous list starting at fromBlockNumber. A shorter list means remaining blocks are not available yet.
+     */
+    public interface BlockLoader {
+        List<FetchedBlock> load(long fromBlockNumber, long toBlockNumber);
+    }
+
+    private final BlockLoader loader;
+    private final ExecutorService executor;
+    private final int maxBlocksInFlight;
+    private final int chunkSize;
+
+    private final Deque<Chunk> chunks = new ArrayDeque<>();
+    private long nextBlockToSchedule;
+
+    public BlockPrefetcher(BlockLoader loader, int noOfThreads, int maxBlocksInFlight, int chunkSize) {
+        this.loader = loader;
+        this.maxBlocksInFlight = maxBlocksInFlight;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.executor = Executors.newFixedThreadPool(noOfThreads, new PrefetchThreadFactory());
+    }
+
+    /**
+     * Discard all scheduled blocks and continue from the given block number
+     * @param blockNumber next block number to fetch
+     */
+    public void reset(long blockNumber) {
+        for (Chunk chunk : chunks) {
+            chunk.future.cancel(true);
+        }
+        chunks.clear();
+        nextBlockToSchedule = blockNumber;
+    }
+
+    /**
+     * Schedule fetch of new blocks till the in-flight window is full
+     * @param lastBlockNumber last block number (inclusive) which can be fetched
+     */
+    public void schedule(long lastBlockNumber) {
+        int blocksInFlight = blocksInFlight();
+        while (nextBlockToSchedule <= lastBlockNumber && blocksInFlight < maxBlocksInFlight) {
+            final long from = nextBlockToSchedule;
+            final long to = Math.min(Math.min(from + chunkSize - 1, lastBlockNumber), from + (maxBlocksInFlight - blocksInFlight) - 1);
+
+            Future<List<FetchedBlock>> future = executor.submit(() -> loader.load(from, to));
+            chunks.add(new Chunk(from, to, future));
+
+            blocksInFlight += (int) (to - from + 1);
+            nextBlockToSchedule = to + 1;
+        }
+    }
+
+    /**
+     * Get the next block in order.
+     * @param blockNumber expected block number
+     * @param timeoutInMillis max time to wait for the block
+     * @return the block or null if not available within the timeout
+     * @throws InterruptedException
+     */
+    public FetchedBlock next(long blockNumber, long timeoutInMillis) throws InterruptedException {
+        Chunk chunk = chunks.peek();
+        if (chunk == null)
+            return null;
+
+        if (chunk.from + chunk.consumed != blockNumber) {
+            logger.warn("Prefetched block {} doesn't match expected block {}. Resetting prefetch", chunk.from + chunk.consumed, blockNumber);
+            reset(blockNumber);
+            return null;
+        }
+
+        List<FetchedBlock> blocks;
+        try {
+            blocks = chunk.future.get(timeoutInMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (ExecutionException e) {
+            reset(blockNumber);
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            else
+                throw new Web3Exception("Prefetch failed for block " + blockNumber, e.getCause());
+        }
+
+        if (chunk.consumed < blocks.size()) {
+            FetchedBlock block = blocks.get(chunk.consumed++);
+            if (chunk.consumed == chunk.size())
+                chunks.poll();
+            return block;
+        }
+
+        //Chunk returned less blocks than requested. Remaining blocks are not available yet
+        reset(chunk.from + chunk.consumed);
+        return null;
+    }
+
+    /**
+     * @return true if there are blocks in flight
+     */
+    public boolean hasPending() {
+        return !chunks.isEmpty();
+    }
+
+    public long getNextBlockToSchedule() {
+        return nextBlockToSchedule;
+    }
+
+    public void close() {
+        reset(nextBlockToSchedule);
+        executor.shutdownNow();
+    }
+
+    private int blocksInFlight() {
+        int count = 0;
+        for (Chunk chunk : chunks) {
+            count += chunk.size() - chunk.consumed;
+        }
+        return count;
+    }
+
+    private static class Chunk {
+        private final long from;
+        private final long to;
+        private final Future<List<FetchedBlock>> future;
+        private int consumed;
+
+        Chunk(long from, long to, Future<List<FetchedBlock>> future) {
+            this.from = from;
+            this.to = to;
+            this.future = future;
+        }
+
+        int size() {
+            return (int) (to - from + 1);
+        }
+    }
+
+    private static class PrefetchThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "web3-block-prefetch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.bloxbean.kafka.connectors.web3.source.blocks;
 
+import com.bloxbean.kafka.connectors.web3.client.RpcClientOptions;
+import com.bloxbean.kafka.connectors.web3.client.Web3RpcClient;
 import com.bloxbean.kafka.connectors.web3.util.StringUtil;
 import org.apache.kafka.common.config.AbstractConfig;
 import org.apache.kafka.common.config.ConfigDef;
@@ -20,13 +22,46 @@ public class BlockSourceConfig extends AbstractConfig {
 
     public static ConfigDef conf() {
         final ConfigDef configDef = new ConfigDef();
-        configDef.define(WEB3_RPC_URL, ConfigDef.Type.STRING, "http://localhost:8545", ConfigDef.Importance.HIGH, "Web3 rpc address (http://<host>:<port>)");
+        configDef.define(WEB3_RPC_URL, ConfigDef.Type.STRING, "http://localhost:8545", ConfigDef.Importance.HIGH, "Web3 rpc address (http://<host>:<port>). Comma separated list for multiple endpoints");
+        configDef.define(WEB3_WS_URL, ConfigDef.Type.STRING, "", ConfigDef.Importance.MEDIUM, "Web3 WebSocket address (ws://<host>:<port>) to subscribe to new heads. Optional");
+        configDef.define(SOURCE_PARTITION_KEY, ConfigDef.Type.STRING, "", ConfigDef.Importance.LOW, "Source partition the offsets are stored under. Default: first url of web3_rpc_url, so other endpoints can be added, removed or reordered without losing the offset");
         configDef.define(TOPIC, ConfigDef.Type.STRING, "", ConfigDef.Importance.HIGH, "Destination topic for Blocks");
         configDef.define(TRANSACTION_TOPIC, ConfigDef.Type.STRING, "", ConfigDef.Importance.HIGH, "Destination topic for Transactions");
         configDef.define(START_BLOCK, ConfigDef.Type.LONG, 0, ConfigDef.Importance.HIGH, "Start Block Number");
+        configDef.define(END_BLOCK, ConfigDef.Type.LONG, -1, ConfigDef.Importance.MEDIUM, "Last block of the historical range [start_block, end_block] which is split across tasks. One task always follows the chain from end_block + 1. -1 to disable");
+        configDef.define(BLOCK_SHARD_SIZE, ConfigDef.Type.LONG, 100000, ConfigDef.Range.atLeast(1), ConfigDef.Importance.LOW, "No of blocks of a shard of the historical range. Shards are the unit of work and of offsets of the range tasks, so their boundaries don't depend on tasks.max. Changing it after the range tasks have started republishes the range");
+        configDef.define(TASK_START_BLOCK, ConfigDef.Type.LONG, -1, ConfigDef.Importance.LOW, "Internal. First block of the tip task. Set by the connector");
+        configDef.define(TASK_BLOCK_RANGES, ConfigDef.Type.STRING, "", ConfigDef.Importance.LOW, "Internal. Comma separated <from>-<to> shards of a range task. Set by the connector");
         configDef.define(BLOCK_TIME_IN_SEC, ConfigDef.Type.INT, 10, ConfigDef.Importance.HIGH, "Block time in sec");
+        configDef.define(BLOCK_TIME_MS, ConfigDef.Type.LONG, 0, ConfigDef.Range.atLeast(0), ConfigDef.Importance.MEDIUM, "Block time in ms for chains with sub-second blocks. Overrides block_time if set. Only used till the block interval is estimated from block timestamps");
+        configDef.define(POLL_BACKOFF_INITIAL_MS, ConfigDef.Type.LONG, 500, ConfigDef.Range.atLeast(1), ConfigDef.Importance.LOW, "Wait time in ms after a failed poll. Doubled on every consecutive failure");
+        configDef.define(POLL_BACKOFF_MAX_MS, ConfigDef.Type.LONG, 30000, ConfigDef.Range.atLeast(1), ConfigDef.Importance.LOW, "Max wait time in ms between retries of failed polls");
         configDef.define(NO_BLOCKS_FOR_FINALITY, ConfigDef.Type.INT, 0, ConfigDef.Importance.HIGH, "No of blocks to wait for finality");
         configDef.define(CHAIN_NAME, ConfigDef.Type.STRING, "", ConfigDef.Importance.HIGH, "SKALE Chain Name will be used as high watermark in topic");
+        configDef.define(PREFETCH_BLOCKS, ConfigDef.Type.INT, 0, ConfigDef.Range.atLeast(0), ConfigDef.Importance.MEDIUM, "No of blocks to keep in flight on prefetch threads. 0 to disable prefetch");
+        configDef.define(PREFETCH_THREADS, ConfigDef.Type.INT, 4, ConfigDef.Range.atLeast(1), ConfigDef.Importance.LOW, "No of prefetch threads");
+        configDef.define(HEAD_REFRESH_INTERVAL_MS, ConfigDef.Type.LONG, 1000, ConfigDef.Range.atLeast(10), ConfigDef.Importance.LOW, "Interval in ms to refresh the latest block number in background");
+        configDef.define(RPC_HEALTH_CHECK_INTERVAL_MS, ConfigDef.Type.LONG, 5000, ConfigDef.Range.atLeast(100), ConfigDef.Importance.LOW, "Interval in ms to check head and latency of rpc endpoints. Only used for multiple endpoints");
+        configDef.define(RPC_MAX_HEAD_LAG, ConfigDef.Type.INT, 5, ConfigDef.Range.atLeast(0), ConfigDef.Importance.LOW, "Max no of blocks a rpc endpoint can be behind the other endpoints before it is ejected");
+        configDef.define(RPC_MAX_IN_FLIGHT, ConfigDef.Type.INT, 16, ConfigDef.Range.atLeast(1), ConfigDef.Importance.LOW, "Max no of async rpc requests in flight per endpoint. Requests over the limit are queued");
+        configDef.define(RPC_REQUEST_TIMEOUT_MS, ConfigDef.Type.LONG, 30000, ConfigDef.Range.atLeast(1), ConfigDef.Importance.LOW, "Deadline in ms of an async rpc request, including queueing and retries on other endpoints");
+        configDef.define(RPC_MAX_CONNECTIONS, ConfigDef.Type.INT, 20, ConfigDef.Range.atLeast(1), ConfigDef.Importance.LOW, "Max no of pooled http connections per rpc endpoint");
+        configDef.define(RPC_CONNECT_TIMEOUT_MS, ConfigDef.Type.INT, 10000, ConfigDef.Range.atLeast(0), ConfigDef.Importance.LOW, "Http connect timeout in ms");
+        configDef.define(RPC_SOCKET_TIMEOUT_MS, ConfigDef.Type.INT, 60000, ConfigDef.Range.atLeast(0), ConfigDef.Importance.LOW, "Http socket timeout in ms");
+        configDef.define(RPC_KEEP_ALIVE_MS, ConfigDef.Type.LONG, 300000, ConfigDef.Importance.LOW, "Max time in ms a pooled http connection is reused. 0 or less to keep it as long as the server allows");
+        configDef.define(RPC_GZIP, ConfigDef.Type.BOOLEAN, true, ConfigDef.Importance.LOW, "Ask the rpc endpoint for gzip compressed responses");
+        configDef.define(RPC_CACHE_DIR, ConfigDef.Type.STRING, "", ConfigDef.Importance.LOW, "Directory of the on-disk cache of final blocks and logs. Empty to disable the cache");
+        configDef.define(RPC_CACHE_MAX_BYTES, ConfigDef.Type.LONG, 1024L * 1024 * 1024, ConfigDef.Range.atLeast(1024 * 1024), ConfigDef.Importance.LOW, "Max size of the rpc cache files in bytes. Oldest entries are evicted first");
+        configDef.define(RPC_CACHE_WARM_BLOCKS, ConfigDef.Type.LONG, 0, ConfigDef.Range.atLeast(0), ConfigDef.Importance.LOW, "No of final blocks after the start offset to fetch into the rpc cache in background at task start. 0 to disable");
+        configDef.define(RPC_BATCH_SIZE, ConfigDef.Type.INT, 1, ConfigDef.Range.atLeast(1), ConfigDef.Importance.MEDIUM, "No of blocks to fetch in a single json rpc batch request");
+        configDef.define(STREAMING_JSON_DECODE, ConfigDef.Type.BOOLEAN, false, ConfigDef.Importance.LOW, "Decode blocks directly from the rpc response stream into structs, skipping ignored fields");
+        configDef.define(TYPED_SCHEMA, ConfigDef.Type.BOOLEAN, false, ConfigDef.Importance.MEDIUM, "Publish quantities as INT64, or Decimal for 256 bit values, instead of decimal strings. Uses version 2 of the block and transaction schemas");
+        configDef.define(CATCHUP_MAX_RECORDS, ConfigDef.Type.INT, 0, ConfigDef.Range.atLeast(0), ConfigDef.Importance.MEDIUM, "Max no of records returned by a single poll while catching up. 0 to disable catch-up mode");
+        configDef.define(CATCHUP_MAX_POLL_TIME_MS, ConfigDef.Type.LONG, 5000, ConfigDef.Range.atLeast(1), ConfigDef.Importance.LOW, "Max time in ms spent in a single poll while catching up");
+        configDef.define(CATCHUP_HEAD_DISTANCE, ConfigDef.Type.INT, 10, ConfigDef.Range.atLeast(1), ConfigDef.Importance.LOW, "Switch back to single block poll when the task is within this no of blocks from the latest final block");
+        configDef.define(REORG_DETECTION_DEPTH, ConfigDef.Type.INT, 0, ConfigDef.Range.atLeast(0), ConfigDef.Importance.MEDIUM, "No of recent blocks to remember to detect chain reorgs. Blocks of an orphaned fork are retracted with tombstone records. 0 to disable");
+        configDef.define(TRANSACTION_RECEIPTS, ConfigDef.Type.BOOLEAN, false, ConfigDef.Importance.MEDIUM, "Add receipt fields (status, gasUsed, cumulativeGasUsed, effectiveGasPrice, contractAddress, logs) to the records of the transaction topic");
+        configDef.define(RECEIPT_BATCH_SIZE, ConfigDef.Type.INT, 100, ConfigDef.Range.atLeast(1), ConfigDef.Importance.LOW, "No of receipts in a single json rpc batch request, if the node doesn't support eth_getBlockReceipts");
         configDef.define(IGNORE_BLOCK_FIELDS, ConfigDef.Type.LIST, IGNORE_BLOCK_FIELDS,
                 ConfigDef.Importance.HIGH,
                 "Comma separated list of block fields to exclude");
@@ -41,6 +76,22 @@ public class BlockSourceConfig extends AbstractConfig {
         return getString(WEB3_RPC_URL);
     }
 
+    /**
+     * @return source_partition_key or the first url of web3_rpc_url if not set
+     */
+    public String getSourcePartitionKey() {
+        String partitionKey = getString(SOURCE_PARTITION_KEY);
+        if (!StringUtil.isEmpty(partitionKey))
+            return partitionKey;
+
+        List<String> urls = Web3RpcClient.splitUrls(getWeb3RpcUrl());
+        return urls.isEmpty() ? getWeb3RpcUrl() : urls.get(0);
+    }
+
+    public String getWeb3WsUrl() {
+        return getString(WEB3_WS_URL);
+    }
+
     public String getTopic() {
         return getString(TOPIC);
     }
@@ -60,14 +111,140 @@ public class BlockSourceConfig extends AbstractConfig {
         return getLong(START_BLOCK);
     }
 
+    public long getEndBlock() {
+        return getLong(END_BLOCK);
+    }
+
+    public long getTaskStartBlock() {
+        return getLong(TASK_START_BLOCK);
+    }
+
+    public long getBlockShardSize() {
+        return getLong(BLOCK_SHARD_SIZE);
+    }
+
+    /**
+     * @return [from, to] shards of a range task in processing order. Empty if the task has no end
+     */
+    public List<long[]> getTaskBlockRanges() {
+        List<long[]> ranges = new ArrayList<>();
+        for (String range : getString(TASK_BLOCK_RANGES).split(",")) {
+            if (range.trim().isEmpty())
+                continue;
+
+            String[] bounds = range.trim().split("-");
+            ranges.add(new long[]{Long.parseLong(bounds[0]), Long.parseLong(bounds[1])});
+        }
+        return ranges;
+    }
+
     public int getBlockTime() {
         return getInt(BLOCK_TIME_IN_SEC);
     }
 
+    /**
+     * @return block time in ms. block_time_ms if set, else block_time
+     */
+    public long getBlockTimeInMillis() {
+        long blockTimeInMillis = getLong(BLOCK_TIME_MS);
+        return blockTimeInMillis > 0 ? blockTimeInMillis : getBlockTime() * 1000L;
+    }
+
+    public long getPollBackoffInitial() {
+        return getLong(POLL_BACKOFF_INITIAL_MS);
+    }
+
+    public long getPollBackoffMax() {
+        return getLong(POLL_BACKOFF_MAX_MS);
+    }
+
+    public boolean isTransactionReceipts() {
+        return getBoolean(TRANSACTION_RECEIPTS);
+    }
+
+    public int getReceiptBatchSize() {
+        return getInt(RECEIPT_BATCH_SIZE);
+    }
+
+    public int getReorgDetectionDepth() {
+        return getInt(REORG_DETECTION_DEPTH);
+    }
+
     public int getNoBlocksForFinality() {
         return getInt(NO_BLOCKS_FOR_FINALITY);
     }
 
+    public long getHeadRefreshInterval() {
+        return getLong(HEAD_REFRESH_INTERVAL_MS);
+    }
+
+    public long getRpcHealthCheckInterval() {
+        return getLong(RPC_HEALTH_CHECK_INTERVAL_MS);
+    }
+
+    public int getRpcMaxHeadLag() {
+        return getInt(RPC_MAX_HEAD_LAG);
+    }
+
+    public int getRpcMaxInFlight() {
+        return getInt(RPC_MAX_IN_FLIGHT);
+    }
+
+    public long getRpcRequestTimeout() {
+        return getLong(RPC_REQUEST_TIMEOUT_MS);
+    }
+
+    public RpcClientOptions getRpcClientOptions() {
+        return new RpcClientOptions()
+                .healthCheckIntervalInMillis(getRpcHealthCheckInterval())
+                .maxHeadLag(getRpcMaxHeadLag())
+                .maxInFlight(getRpcMaxInFlight())
+                .requestTimeoutInMillis(getRpcRequestTimeout())
+                .maxConnections(getInt(RPC_MAX_CONNECTIONS))
+                .connectTimeoutInMillis(getInt(RPC_CONNECT_TIMEOUT_MS))
+                .socketTimeoutInMillis(getInt(RPC_SOCKET_TIMEOUT_MS))
+                .keepAliveInMillis(getLong(RPC_KEEP_ALIVE_MS))
+                .gzip(getBoolean(RPC_GZIP))
+                .cacheDir(getString(RPC_CACHE_DIR))
+                .cacheMaxBytes(getLong(RPC_CACHE_MAX_BYTES));
+    }
+
+    public long getRpcCacheWarmBlocks() {
+        return getLong(RPC_CACHE_WARM_BLOCKS);
+    }
+
+    public int getRpcBatchSize() {
+        return getInt(RPC_BATCH_SIZE);
+    }
+
+    public boolean isStreamingJsonDecode() {
+        return getBoolean(STREAMING_JSON_DECODE);
+    }
+
+    public boolean isTypedSchema() {
+        return getBoolean(TYPED_SCHEMA);
+    }
+
+    public int getCatchupMaxRecords() {
+        return getInt(CATCHUP_MAX_RECORDS);
+    }
+
+    public long getCatchupMaxPollTime() {
+        return getLong(CATCHUP_MAX_POLL_TIME_MS);
+    }
+
+    public int getCatchupHeadDistance() {
+        return getInt(CATCHUP_HEAD_DISTANCE);
+    }
+
+    public int getPrefetchBlocks() {
+        return getInt(PREFETCH_BLOCKS);
+    }
+
+    public int getPrefetchThreads() {
+        return getInt(PREFETCH_THREADS);
+    }
+
     public Set<String> getIgnoreBlockFields() {
         List<String> keys = getList(IGNORE_BLOCK_FIELDS);
         if(keys != null && !keys.isEmpty())
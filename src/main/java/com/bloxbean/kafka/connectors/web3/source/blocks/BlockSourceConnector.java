@@ -5,9 +5,12 @@ import org.apache.kafka.connect.connector.Task;
 import org.apache.kafka.connect.source.SourceConnector;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import static com.bloxbean.kafka.connectors.web3.util.ConfigConstants.TASK_BLOCK_RANGES;
+import static com.bloxbean.kafka.connectors.web3.util.ConfigConstants.TASK_START_BLOCK;
 import static com.bloxbean.kafka.connectors.web3.util.ConfigConstants.VERSION;
 
 public class BlockSourceConnector extends SourceConnector {
@@ -23,14 +26,67 @@ public class BlockSourceConnector extends SourceConnector {
         return BlockSourceTask.class;
     }
 
+    /**
+     * If end_block is set and more than one task is allowed, the historical range [start_block, end_block] is split into
+     * shards of block_shard_size blocks. Shards are spread over tasks.max - 1 range tasks in contiguous groups, and each
+     * shard has its own source partition. Shard boundaries only depend on start_block, end_block and block_shard_size,
+     * so tasks.max can be changed without losing offsets. One more task owns the tip and follows the chain from
+     * end_block + 1, so live blocks are still published in order by a single task.
+     */
     @Override
     public List<Map<String, String>> taskConfigs(int maxTasks) {
         // Define the individual task configurations that will be executed.
-        ArrayList<Map<String, String>> configs = new ArrayList<>(1);
-        configs.add(config.originalsStrings());
+        long startBlock = config.getStartBlock();
+        long endBlock = config.getEndBlock();
+        if (maxTasks <= 1 || endBlock < startBlock) {
+            ArrayList<Map<String, String>> configs = new ArrayList<>(1);
+            configs.add(config.originalsStrings());
+            return configs;
+        }
+
+        List<long[]> shards = splitShards(startBlock, endBlock, config.getBlockShardSize());
+        int noOfRangeTasks = Math.min(maxTasks - 1, shards.size());
+        ArrayList<Map<String, String>> configs = new ArrayList<>(noOfRangeTasks + 1);
+
+        //Tip task
+        Map<String, String> tipConfig = new HashMap<>(config.originalsStrings());
+        tipConfig.put(TASK_START_BLOCK, String.valueOf(endBlock + 1));
+        configs.add(tipConfig);
+
+        int from = 0;
+        for (int i = 0; i < noOfRangeTasks; i++) {
+            int noOfShards = shards.size() / noOfRangeTasks + (i < shards.size() % noOfRangeTasks ? 1 : 0);
+            StringBuilder ranges = new StringBuilder();
+            for (long[] shard : shards.subList(from, from + noOfShards)) {
+                if (ranges.length() > 0)
+                    ranges.append(',');
+                ranges.append(shard[0]).append('-').append(shard[1]);
+            }
+            from += noOfShards;
+
+            Map<String, String> taskConfig = new HashMap<>(config.originalsStrings());
+            taskConfig.put(TASK_BLOCK_RANGES, ranges.toString());
+            configs.add(taskConfig);
+        }
+
         return configs;
     }
 
+    /**
+     * Split [startBlock, endBlock] into contiguous shards of shardSize blocks. Last shard may be smaller
+     * @param startBlock first block
+     * @param endBlock last block
+     * @param shardSize no of blocks of a shard
+     * @return list of [from, to] shards
+     */
+    static List<long[]> splitShards(long startBlock, long endBlock, long shardSize) {
+        List<long[]> shards = new ArrayList<>();
+        for (long from = startBlock; from <= endBlock; from += shardSize) {
+            shards.add(new long[]{from, Math.min(from + shardSize - 1, endBlock)});
+        }
+        return shards;
+    }
+
     @Override
     public void stop() {
         // Do things that are necessary to stop your connector.
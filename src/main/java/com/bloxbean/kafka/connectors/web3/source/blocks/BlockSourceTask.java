@@ -1,15 +1,19 @@
 package com.bloxbean.kafka.connectors.web3.source.blocks;
 
+import com.bloxbean.kafka.connectors.web3.client.ChainHeadTracker;
+import com.bloxbean.kafka.connectors.web3.client.RpcResponse;
 import com.bloxbean.kafka.connectors.web3.client.Web3RpcClient;
 import com.bloxbean.kafka.connectors.web3.exception.Web3ConnectorException;
 import com.bloxbean.kafka.connectors.web3.exception.Web3Exception;
+import com.bloxbean.kafka.connectors.web3.source.PollScheduler;
+import com.bloxbean.kafka.connectors.web3.source.TaskMetrics;
 import com.bloxbean.kafka.connectors.web3.source.blocks.schema.BlockConverter;
-import com.bloxbean.kafka.connectors.web3.source.blocks.schema.BlockSchema;
+import com.bloxbean.kafka.connectors.web3.source.blocks.schema.BlockProjection;
 import com.bloxbean.kafka.connectors.web3.source.blocks.schema.ParsedBlockStruct;
+import com.bloxbean.kafka.connectors.web3.source.blocks.schema.TransactionConverter;
 import com.bloxbean.kafka.connectors.web3.source.blocks.schema.TransactionSchema;
 import com.bloxbean.kafka.connectors.web3.util.ConfigConstants;
 import com.bloxbean.kafka.connectors.web3.util.HexConverter;
-import com.bloxbean.kafka.connectors.web3.util.StringUtil;
 import kong.unirest.json.JSONObject;
 import org.apache.kafka.connect.data.Struct;
 import org.apache.kafka.connect.source.SourceRecord;
@@ -18,27 +22,54 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
+import static com.bloxbean.kafka.connectors.web3.util.ConfigConstants.BLOCK_RANGE;
 import static com.bloxbean.kafka.connectors.web3.util.ConfigConstants.LAST_FETCHED_BLOCK_NUMBER;
 import static com.bloxbean.kafka.connectors.web3.util.ConfigConstants.WEB3_RPC_URL;
 
 public class BlockSourceTask extends SourceTask {
     private static Logger logger = LoggerFactory.getLogger(BlockSourceTask.class);
-    private static int RETRY_THRESHOLD = 10;
-    private static int DELAY_AFTER_RETRY_THRESHOLD = 30 * 1000; //Retry every 30 sec after retry threshhold
+    private static int RETRY_THRESHOLD = 10; //Only the error message is logged after retry threshold
 
     private BlockSourceConfig config;
     private Web3RpcClient web3RpcClient;
 
-    private long newBlockWaitTime = 0;
+    private PollScheduler pollScheduler;
     private long blockNumberOffset;
 
-    private int retryCounter;
+    private boolean rangeCompleted;
+    //Shards of a range task and the offset each shard resumes from. Empty if the task has no end
+    private List<long[]> taskRanges = Collections.emptyList();
+    private long[] rangeStartOffsets;
+    private int rangeIndex;
+
+    //Blocks fetched through batch request, but not yet processed. First entry is always blockNumberOffset
+    private Deque<FetchedBlock> prefetchedBlocks = new ArrayDeque<>();
+    private ChainHeadTracker headTracker;
+
+    private BlockPrefetcher prefetcher;
 
     private BlockConverter blockConverter =  new BlockConverter();
-    //keep it here. so no need to create a HashSet always
-    private Set<String> ignoredBlockFields;
-    private Set<String> ignoreTransactionFields;
+    private StreamingBlockDecoder streamingBlockDecoder;
+    //Ignore lists compiled once and shared by all blocks
+    private BlockProjection projection;
+    //Last emitted blocks to detect reorgs. Null if reorg detection is disabled
+    private RecentBlocks recentBlocks;
+    //Null if transaction receipts are disabled
+    private ReceiptFetcher receiptFetcher;
+    private TaskMetrics metrics;
+
+    public BlockSourceTask() {
+    }
+
+    /**
+     * Task which only builds records, without a node. Used by the benchmarks
+     */
+    BlockSourceTask(BlockSourceConfig config, BlockProjection projection) {
+        this.config = config;
+        this.projection = projection;
+    }
 
     public String version() {
         return ConfigConstants.VERSION;
@@ -48,7 +79,40 @@ public class BlockSourceTask extends SourceTask {
         //Find last offset or blocknumber
         config = new BlockSourceConfig(map);
         initializeLastVariables();
-        web3RpcClient = new Web3RpcClient(config.getWeb3RpcUrl());
+        web3RpcClient = new Web3RpcClient(config.getWeb3RpcUrl(), config.getRpcClientOptions());
+        metrics = new TaskMetrics(map.get(ConfigConstants.CONNECTOR_NAME));
+        web3RpcClient.setMetrics(metrics.getRpcMetrics());
+        if (projection.isReceipts())
+            receiptFetcher = new ReceiptFetcher(web3RpcClient, config.getReceiptBatchSize());
+        headTracker = ChainHeadTracker.acquire(config.getWeb3RpcUrl(), config.getRpcClientOptions().cacheDir(null),
+                config.getHeadRefreshInterval(), config.getWeb3WsUrl());
+        web3RpcClient.setFinalBlockNumberSupplier(() -> headTracker.getLatestBlockNumber() - config.getNoBlocksForFinality());
+        metrics.setHeadBlockNumberSupplier(headTracker::getLatestBlockNumber);
+        if (web3RpcClient.getResponseCache() != null && config.getRpcCacheWarmBlocks() > 0)
+            startCacheWarmer(blockNumberOffset, limitToTaskRange(blockNumberOffset + config.getRpcCacheWarmBlocks() - 1));
+
+        if (config.getPrefetchBlocks() > 0) {
+            prefetcher = new BlockPrefetcher(this::loadBlocks, config.getPrefetchThreads(), config.getPrefetchBlocks(), config.getRpcBatchSize());
+            prefetcher.reset(blockNumberOffset);
+        }
+    }
+
+    /**
+     * Fetch the blocks of the range into the rpc cache in background, so that the task reads them from the cache.
+     * Only final blocks are fetched. Stops when the client is closed
+     */
+    private void startCacheWarmer(long fromBlockNumber, long toBlockNumber) {
+        Web3RpcClient client = web3RpcClient;
+        Thread warmer = new Thread(() -> {
+            try {
+                int added = client.warmCache(fromBlockNumber, toBlockNumber, true, config.getRpcBatchSize());
+                logger.info("{} blocks added to the rpc cache. Warm up range {} - {}", added, fromBlockNumber, toBlockNumber);
+            } catch (RuntimeException e) {
+                logger.warn("Rpc cache warm up stopped. Reason: {}", e.getMessage());
+            }
+        }, "web3-rpc-cache-warmer");
+        warmer.setDaemon(true);
+        warmer.start();
     }
 
     private void initializeLastVariables() {
@@ -58,58 +122,122 @@ public class BlockSourceTask extends SourceTask {
 //        }
 //        else {
         //Initialize variables for the last run
-        Map<String, Object> lastSourceOffset = null;
-        lastSourceOffset = context.offsetStorageReader().offset(sourcePartition());
-        if (lastSourceOffset == null) {
-            // we haven't fetched anything yet, so we initialize to START_BLOCK
-            blockNumberOffset = config.getStartBlock();
+        taskRanges = config.getTaskBlockRanges();
+        if (!taskRanges.isEmpty()) {
+            initializeRangeOffsets();
         } else {
-            logger.info("KEYz1 = " + config.getChainName() + "_" + LAST_FETCHED_BLOCK_NUMBER);
-            String lastFetchedBlockNumber = (String) lastSourceOffset.get(config.getChainName() + "_" + LAST_FETCHED_BLOCK_NUMBER);
-            logger.info(lastFetchedBlockNumber);
-            if (lastFetchedBlockNumber != null && lastFetchedBlockNumber.length() > 0)
-                blockNumberOffset = Long.parseLong(lastFetchedBlockNumber) + 1;
-            else
-                blockNumberOffset = config.getStartBlock();
-//                throw new Web3ConnectorException(String.format("Invalid last fetched block number : %s", lastFetchedBlockNumber));
-//            }
+            long startBlock = config.getTaskStartBlock() >= 0 ? config.getTaskStartBlock() : config.getStartBlock();
+            blockNumberOffset = nextBlockNumber(context.offsetStorageReader().offset(sourcePartition()), startBlock);
+            //Tip task of a sharded connector may find the offset of an earlier unsharded run. Blocks before its range are owned by other tasks
+            if (config.getTaskStartBlock() >= 0)
+                blockNumberOffset = Math.max(blockNumberOffset, startBlock);
         }
         logger.info("\n\n\n blockNumberOffset" + blockNumberOffset);
-        newBlockWaitTime = config.getBlockTime() * 1000;
-        ignoredBlockFields = config.getIgnoreBlockFields();
-        ignoreTransactionFields = config.getIgnoreTransactionFields();
+        pollScheduler = new PollScheduler(config.getBlockTimeInMillis(), config.getPollBackoffInitial(), config.getPollBackoffMax());
+        projection = BlockProjection.compile(config.isSeparateTransactionTopic(), config.getIgnoreBlockFields(), config.getIgnoreTransactionFields(),
+                config.getChainName(), config.isTypedSchema(), isReceiptsEnabled());
+        if (config.isStreamingJsonDecode())
+            streamingBlockDecoder = new StreamingBlockDecoder(projection);
+        if (config.getReorgDetectionDepth() > 0)
+            recentBlocks = new RecentBlocks(config.getReorgDetectionDepth());
+    }
+
+    /**
+     * Read the offsets of all shards of the task and start with the first shard which is not completed
+     */
+    private void initializeRangeOffsets() {
+        List<Map<String, String>> partitions = new ArrayList<>(taskRanges.size());
+        for (long[] range : taskRanges)
+            partitions.add(sourcePartition(range));
+        Map<Map<String, String>, Map<String, Object>> offsets = context.offsetStorageReader().offsets(partitions);
+
+        rangeStartOffsets = new long[taskRanges.size()];
+        for (int i = 0; i < taskRanges.size(); i++)
+            rangeStartOffsets[i] = nextBlockNumber(offsets.get(partitions.get(i)), taskRanges.get(i)[0]);
+
+        rangeIndex = 0;
+        while (rangeIndex < taskRanges.size() - 1 && rangeStartOffsets[rangeIndex] > taskRanges.get(rangeIndex)[1])
+            rangeIndex++;
+        blockNumberOffset = rangeStartOffsets[rangeIndex];
+    }
+
+    /**
+     * @param lastSourceOffset stored offset. Null if nothing is fetched yet
+     * @param startBlock first block if nothing is fetched yet
+     * @return block number to fetch next
+     */
+    private long nextBlockNumber(Map<String, Object> lastSourceOffset, long startBlock) {
+        if (lastSourceOffset == null) // we haven't fetched anything yet, so we initialize to START_BLOCK
+            return startBlock;
+
+        String lastFetchedBlockNumber = (String) lastSourceOffset.get(config.getChainName() + "_" + LAST_FETCHED_BLOCK_NUMBER);
+        logger.info("Last fetched block number: {}", lastFetchedBlockNumber);
+        if (lastFetchedBlockNumber != null && lastFetchedBlockNumber.length() > 0)
+            return Long.parseLong(lastFetchedBlockNumber) + 1;
+        else
+            return startBlock;
+    }
+
+    /**
+     * Receipts are only added to the transaction topic. Receipts are matched by transaction hash
+     */
+    private boolean isReceiptsEnabled() {
+        if (!config.isTransactionReceipts())
+            return false;
+
+        if (!config.isSeparateTransactionTopic() || config.getIgnoreTransactionFields().contains(TransactionSchema.HASH)) {
+            logger.warn("{} is ignored. Receipts require a transaction topic and the transaction hash field", ConfigConstants.TRANSACTION_RECEIPTS);
+            return false;
+        }
+        return true;
     }
 
     public List<SourceRecord> poll() throws InterruptedException {
 
         try {
-            if(!canContinue(blockNumberOffset)) {//Wait. May be finality not reached.
-                Thread.sleep(newBlockWaitTime);
-                return Collections.EMPTY_LIST;
+            if (isRangeCompleted() && !nextRange()) {
+                if (!rangeCompleted)
+                    logger.info("All blocks till {} are fetched. Task's range is completed", getRangeEndBlock());
+                rangeCompleted = true;
+                pollScheduler.sleep(Math.max(config.getBlockTimeInMillis(), 1000));
+                return Collections.emptyList();
             }
 
-            JSONObject jsonObject = web3RpcClient.getBlockByNumber(blockNumberOffset, true);
-            if (jsonObject == null) {
-                logger.info("Unable to fetch blocks from blockchain. Let's wait for {} sec to get the new block : {}", newBlockWaitTime/1000, blockNumberOffset);
-                Thread.sleep(newBlockWaitTime);
-                return Collections.EMPTY_LIST;
-            }
+            if (isCatchingUp())
+                return pollCatchup();
 
-            long timestamp = HexConverter.hexToTimestampInMillis(jsonObject.getString("timestamp"));
-            List<SourceRecord> sourceRecords = generateSourceRecords(jsonObject, blockNumberOffset, timestamp);
+            if (!canContinue(blockNumberOffset)) //Finality not reached. canContinue() has already waited for the new block
+                return Collections.emptyList();
 
-            String blockNumber = jsonObject.getString("number");
-            if(blockNumber.startsWith("0x")) {
-                blockNumber = String.valueOf(Long.decode(blockNumber)); //Long value
+            long waitTime = pollScheduler.getBlockWaitTime();
+            FetchedBlock block = nextBlock(getLastFetchableBlockNumber(), waitTime);
+            if (block == null) {
+                if (prefetcher == null || !prefetcher.hasPending()) { //Nothing in flight
+                    logger.info("Unable to fetch blocks from blockchain. Let's wait for max {} ms to get the new block : {}", waitTime, blockNumberOffset);
+                    waitForBlock(blockNumberOffset + config.getNoBlocksForFinality(), waitTime);
+                }
+                return Collections.emptyList();
             }
 
-            logger.info("Successfully fetched block : {} ", blockNumber);
+            if (isOrphaned(block))
+                return retractOrphanedBlocks(block);
+
+            long conversionStart = System.nanoTime();
+            List<SourceRecord> sourceRecords = generateSourceRecords(block.getBlockStruct(), blockNumberOffset, block.getTimestamp());
+            metrics.recordConversionTime(conversionStart);
+            remember(block);
+
+            logger.info("Successfully fetched block : {} ", block.getBlockNumber());
 
+            pollScheduler.onBlock(block.getBlockNumber(), block.getTimestamp());
+            metrics.recordPoll(1, sourceRecords.size());
+            metrics.recordOffset(block.getBlockNumber(), block.getTimestamp());
             blockNumberOffset++;
-            retryCounter = 0;
+            pollScheduler.onSuccess();
 
             return sourceRecords;
         } catch (Web3ConnectorException | Web3Exception ex) {
+            resetPrefetch();
             if(!isRetryThresholdReachedAndwaitDuringRetry()) {
                 logger.error("Error getting data through web3 client", ex);
             } else {
@@ -117,6 +245,10 @@ public class BlockSourceTask extends SourceTask {
             }
             return null;
         } catch (Exception ex) {
+            if (pollScheduler.isStopped()) //Prefetch is cancelled by stop()
+                return null;
+
+            resetPrefetch();
             if(!isRetryThresholdReachedAndwaitDuringRetry()) {
                 logger.error("System Error", ex);
             } else {
@@ -126,32 +258,401 @@ public class BlockSourceTask extends SourceTask {
         }
     }
 
-    private boolean canContinue(long blockNumber) {
+    /**
+     * Catch-up mode is on when the task is more than catchup_head_distance blocks behind the last final block.
+     */
+    private boolean isCatchingUp() {
+        if (config.getCatchupMaxRecords() <= 0)
+            return false;
+
+        long lastBlockNumber = limitToTaskRange(headTracker.getLatestBlockNumber() - config.getNoBlocksForFinality());
+        return lastBlockNumber - blockNumberOffset >= config.getCatchupHeadDistance();
+    }
+
+    /**
+     * @return true if the task has block ranges and all blocks of the current range are fetched
+     */
+    private boolean isRangeCompleted() {
+        long rangeEndBlock = getRangeEndBlock();
+        return rangeEndBlock >= 0 && blockNumberOffset > rangeEndBlock;
+    }
+
+    /**
+     * Move to the next shard of the task which is not completed
+     * @return false if there is no such shard
+     */
+    private boolean nextRange() {
+        while (rangeIndex < taskRanges.size() - 1) {
+            rangeIndex++;
+            blockNumberOffset = rangeStartOffsets[rangeIndex];
+            if (!isRangeCompleted()) {
+                logger.info("Fetching blocks {} - {} from {}", taskRanges.get(rangeIndex)[0], getRangeEndBlock(), blockNumberOffset);
+                resetPrefetch();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return last block of the current range or -1 if the task has no end
+     */
+    private long getRangeEndBlock() {
+        return taskRanges.isEmpty() ? -1 : taskRanges.get(rangeIndex)[1];
+    }
+
+    private long limitToTaskRange(long blockNumber) {
+        long rangeEndBlock = getRangeEndBlock();
+        return rangeEndBlock >= 0 ? Math.min(blockNumber, rangeEndBlock) : blockNumber;
+    }
+
+    /**
+     * Return records of all available blocks till catchup_max_records or catchup_max_poll_time_ms is reached
+     */
+    private List<SourceRecord> pollCatchup() throws InterruptedException {
+        long lastBlockNumber = limitToTaskRange(headTracker.getLatestBlockNumber() - config.getNoBlocksForFinality());
+        long deadline = System.currentTimeMillis() + config.getCatchupMaxPollTime();
+        int maxRecords = config.getCatchupMaxRecords();
+
+        long fromBlockNumber = blockNumberOffset;
+        List<SourceRecord> sourceRecords = new ArrayList<>();
+        try {
+            while (blockNumberOffset <= lastBlockNumber && sourceRecords.size() < maxRecords) {
+                long remainingTime = deadline - System.currentTimeMillis();
+                if (remainingTime <= 0)
+                    break;
+
+                FetchedBlock block = nextBlock(lastBlockNumber, remainingTime);
+                if (block == null)
+                    break;
+
+                if (isOrphaned(block)) {
+                    if (sourceRecords.isEmpty())
+                        return retractOrphanedBlocks(block);
+
+                    //Return the blocks processed so far. Reorg is handled in next poll
+                    resetPrefetch();
+                    break;
+                }
+
+                long conversionStart = System.nanoTime();
+                sourceRecords.addAll(generateSourceRecords(block.getBlockStruct(), blockNumberOffset, block.getTimestamp()));
+                metrics.recordConversionTime(conversionStart);
+                remember(block);
+                pollScheduler.onBlock(block.getBlockNumber(), block.getTimestamp());
+                metrics.recordOffset(block.getBlockNumber(), block.getTimestamp());
+                blockNumberOffset++;
+            }
+        } catch (RuntimeException ex) {
+            if (sourceRecords.isEmpty())
+                throw ex;
+
+            //Return the blocks processed so far. Failed block will be fetched again in next poll
+            logger.warn("Error fetching block {}. Returning blocks fetched so far. Reason: {}", blockNumberOffset, ex.getMessage());
+            resetPrefetch();
+        }
+
+        if (blockNumberOffset > fromBlockNumber) {
+            logger.info("Successfully fetched blocks : {} - {}, # of records: {}", fromBlockNumber, blockNumberOffset - 1, sourceRecords.size());
+            metrics.recordPoll(blockNumberOffset - fromBlockNumber, sourceRecords.size());
+            pollScheduler.onSuccess();
+        }
+
+        return sourceRecords;
+    }
+
+    /**
+     * Get the block at blockNumberOffset from prefetch pipeline or through a direct (batch) call.
+     * @param lastBlockNumber last block number which can be fetched
+     * @param timeoutInMillis max time to wait for a prefetched block
+     * @return block or null if not available
+     */
+    private FetchedBlock nextBlock(long lastBlockNumber, long timeoutInMillis) throws InterruptedException {
+        if (prefetcher != null) {
+            prefetcher.schedule(lastBlockNumber);
+            return prefetcher.next(blockNumberOffset, timeoutInMillis);
+        }
+
+        if (prefetchedBlocks.isEmpty() && blockNumberOffset <= lastBlockNumber)
+            fetchBlock(blockNumberOffset, lastBlockNumber);
+
+        return prefetchedBlocks.poll();
+    }
+
+    /**
+     * Last block number which can be fetched as per the head tracker
+     */
+    private long getLastFetchableBlockNumber() {
+        int finalityBlocksNo = config.getNoBlocksForFinality();
+        if (finalityBlocksNo == 0 && prefetcher == null)
+            return limitToTaskRange(Long.MAX_VALUE); //Fetch till the node returns no block
+
+        return limitToTaskRange(headTracker.getLatestBlockNumber() - finalityBlocksNo);
+    }
+
+    /**
+     * Wait till the head tracker sees the block or the wait time is elapsed
+     */
+    private void waitForBlock(long blockNumber, long waitTime) throws InterruptedException {
+        if (headTracker.getLatestBlockNumber() >= blockNumber) //Known to the tracker, but not returned by the node yet
+            pollScheduler.sleep(waitTime);
+        else
+            headTracker.awaitBlockNumber(blockNumber, waitTime, pollScheduler::isStopped);
+    }
+
+    private void resetPrefetch() {
+        prefetchedBlocks.clear();
+        if (prefetcher != null)
+            prefetcher.reset(blockNumberOffset);
+    }
+
+    private void fetchBlock(long blockNumber, long lastBlockNumber) {
+        long toBlockNumber = Math.min(blockNumber + config.getRpcBatchSize() - 1, lastBlockNumber);
+
+        prefetchedBlocks.addAll(loadBlocks(blockNumber, toBlockNumber));
+    }
+
+    /**
+     * Fetch and convert blocks in the range [fromBlockNumber, toBlockNumber]. Also called by prefetch worker threads.
+     * @return contiguous list of blocks starting at fromBlockNumber. Stops at the first block which is not available.
+     */
+    private List<FetchedBlock> loadBlocks(long fromBlockNumber, long toBlockNumber) {
+        List<FetchedBlock> fetchedBlocks;
+        long ioStart = System.nanoTime();
+        if (streamingBlockDecoder != null) {
+            //Decoded while reading the response, counted as io time
+            fetchedBlocks = fetchDecodedBlocks(fromBlockNumber, toBlockNumber);
+            metrics.recordIoTime(ioStart);
+        } else {
+            List<JSONObject> blocks = fetchBlocks(fromBlockNumber, toBlockNumber);
+            metrics.recordIoTime(ioStart);
+
+            long conversionStart = System.nanoTime();
+            fetchedBlocks = new ArrayList<>(blocks.size());
+            for (JSONObject blockJson : blocks) {
+                fetchedBlocks.add(toFetchedBlock(blockJson));
+            }
+            metrics.recordConversionTime(conversionStart);
+        }
+
+        if (receiptFetcher != null) {
+            long receiptsStart = System.nanoTime();
+            addReceipts(fetchedBlocks);
+            metrics.recordIoTime(receiptsStart);
+        }
+        return fetchedBlocks;
+    }
+
+    /**
+     * Fetch the receipts of all blocks at once and merge them into the transaction structs
+     */
+    private void addReceipts(List<FetchedBlock> blocks) {
+        List<CompletableFuture<Map<String, JSONObject>>> futures = new ArrayList<>(blocks.size());
+        for (FetchedBlock block : blocks) {
+            List<Struct> transactions = block.getBlockStruct().getTransactions();
+            List<String> transactionHashes = new ArrayList<>();
+            if (transactions != null) {
+                for (Struct transaction : transactions)
+                    transactionHashes.add(transaction.getString(TransactionSchema.HASH));
+            }
+            futures.add(receiptFetcher.fetchAsync(block.getBlockNumber(), block.getHash(), transactionHashes));
+        }
+
+        for (int i = 0; i < blocks.size(); i++) {
+            Map<String, JSONObject> receipts = Web3RpcClient.join(futures.get(i));
+            List<Struct> transactions = blocks.get(i).getBlockStruct().getTransactions();
+            if (transactions == null)
+                continue;
+
+            for (Struct transaction : transactions) {
+                JSONObject receipt = receipts.get(transaction.getString(TransactionSchema.HASH));
+                if (receipt == null)
+                    throw new Web3Exception(String.format("Receipt of transaction %s of block %d is not available",
+                            transaction.getString(TransactionSchema.HASH), blocks.get(i).getBlockNumber()));
+
+                TransactionConverter.putReceipt(transaction, receipt, projection);
+            }
+        }
+    }
+
+    /**
+     * Fetch blocks in the range [fromBlockNumber, toBlockNumber] and decode them from the response stream
+     */
+    private List<FetchedBlock> fetchDecodedBlocks(long fromBlockNumber, long toBlockNumber) {
+        if (fromBlockNumber == toBlockNumber) {
+            FetchedBlock block = web3RpcClient.getBlockByNumber(fromBlockNumber, true, streamingBlockDecoder);
+            return block != null ? Collections.singletonList(block) : Collections.emptyList();
+        }
+
+        return availableBlocks(fromBlockNumber, web3RpcClient.getBlocksByNumber(fromBlockNumber, toBlockNumber, true, streamingBlockDecoder));
+    }
+
+    /**
+     * Fetch blocks in the range [fromBlockNumber, toBlockNumber]
+     * @return contiguous list of blocks starting at fromBlockNumber. Stops at the first block which is not available.
+     */
+    private List<JSONObject> fetchBlocks(long fromBlockNumber, long toBlockNumber) {
+        if (fromBlockNumber == toBlockNumber) {
+            JSONObject blockJson = web3RpcClient.getBlockByNumber(fromBlockNumber, true);
+            return blockJson != null ? Collections.singletonList(blockJson) : Collections.emptyList();
+        }
+
+        return availableBlocks(fromBlockNumber, web3RpcClient.getBlocksByNumber(fromBlockNumber, toBlockNumber, true));
+    }
+
+    /**
+     * @return results of the responses till the first block which is not available
+     */
+    @SuppressWarnings("unchecked") //Results are of the decoder's type
+    private <T> List<T> availableBlocks(long fromBlockNumber, List<RpcResponse> responses) {
+        List<T> blocks = new ArrayList<>();
+        for (RpcResponse response : responses) {
+            if (response.hasError()) {
+                if (blocks.isEmpty())
+                    throw new Web3Exception(String.format("Unable to fetch block %d. Reason: %s", fromBlockNumber, response.getError()));
+
+                logger.warn("Batch request returned error, remaining blocks will be fetched again. Reason: {}", response.getError());
+                break;
+            }
+
+            if (response.getResult() == null) //Block is not available yet
+                break;
+
+            blocks.add((T) response.getResult());
+        }
+
+        return blocks;
+    }
+
+    private FetchedBlock toFetchedBlock(JSONObject blockJson) {
+        ParsedBlockStruct blockStruct = blockConverter.convertFromJSON(blockJson, projection);
+
+        return new FetchedBlock(
+                HexConverter.hexToLongValue(blockJson.optString("number")),
+                blockJson.optString("hash"),
+                blockJson.optString("parentHash"),
+                HexConverter.hexToTimestampInMillis(blockJson.getString("timestamp")),
+                blockStruct
+        );
+    }
+
+    /**
+     * @return true if reorg detection is enabled and the block doesn't extend the last emitted block
+     */
+    private boolean isOrphaned(FetchedBlock block) {
+        return recentBlocks != null && !recentBlocks.extendsChain(block.getBlockNumber(), block.getParentHash());
+    }
+
+    private void remember(FetchedBlock block) {
+        if (recentBlocks == null)
+            return;
+
+        List<String> transactionHashes = new ArrayList<>();
+        List<Struct> transactions = block.getBlockStruct().getTransactions();
+        if (config.isSeparateTransactionTopic() && transactions != null) {
+            for (Struct transaction : transactions)
+                transactionHashes.add(transaction.getString(TransactionSchema.HASH));
+        }
+
+        recentBlocks.add(block.getBlockNumber(), block.getHash(), block.getParentHash(), block.getTimestamp(), transactionHashes);
+    }
+
+    /**
+     * Chain reorg. Find the fork point and retract the emitted blocks after it. Blocks of the new chain are fetched
+     * from the fork point in next polls and replace the retracted blocks, as they have the same record keys.
+     * @param block block which doesn't extend the last emitted block
+     * @return retraction records of the orphaned blocks
+     */
+    private List<SourceRecord> retractOrphanedBlocks(FetchedBlock block) {
+        long forkBlockNumber = findForkBlockNumber(block.getBlockNumber() - 1);
+        logger.warn("Chain reorg detected. Parent hash {} of block {} doesn't match. Retracting blocks {} - {}",
+                block.getParentHash(), block.getBlockNumber(), forkBlockNumber + 1, recentBlocks.getHighestBlockNumber());
+
+        List<SourceRecord> sourceRecords = new ArrayList<>();
+        for (long blockNumber = recentBlocks.getHighestBlockNumber(); blockNumber > forkBlockNumber; blockNumber--) {
+            RecentBlocks.Entry entry = recentBlocks.get(blockNumber);
+            if (entry != null)
+                sourceRecords.addAll(generateRetractionRecords(entry, forkBlockNumber));
+        }
+
+        recentBlocks.truncate(forkBlockNumber + 1);
+        blockNumberOffset = forkBlockNumber + 1;
+        resetPrefetch();
+
+        return sourceRecords;
+    }
+
+    /**
+     * Walk back the recent blocks till a block which is still on the canonical chain
+     * @return fork block number. Lowest recent block number - 1 if the reorg is deeper than the buffer
+     */
+    private long findForkBlockNumber(long fromBlockNumber) {
+        for (long blockNumber = fromBlockNumber; blockNumber >= recentBlocks.getLowestBlockNumber(); blockNumber--) {
+            RecentBlocks.Entry entry = recentBlocks.get(blockNumber);
+            JSONObject header = web3RpcClient.getBlockByNumber(blockNumber, false);
+            if (entry != null && header != null && entry.getHash().equalsIgnoreCase(header.optString("hash")))
+                return blockNumber;
+        }
+
+        logger.error("Chain reorg is deeper than {} blocks. Retracting all recent blocks from {}", config.getReorgDetectionDepth(),
+                recentBlocks.getLowestBlockNumber());
+        return recentBlocks.getLowestBlockNumber() - 1;
+    }
+
+    /**
+     * Tombstone records with the keys of the orphaned block and its transactions. Offset is set to the fork block,
+     * so that a restarted task continues from the new chain.
+     */
+    private List<SourceRecord> generateRetractionRecords(RecentBlocks.Entry entry, long forkBlockNumber) {
+        List<SourceRecord> sourceRecords = new ArrayList<>();
+        sourceRecords.add(new SourceRecord(
+                sourcePartition(),
+                sourceOffset(forkBlockNumber),
+                config.getTopic(),
+                null,
+                null,
+                config.getChainName() + "_" + entry.getBlockNumber(),
+                null,
+                null,
+                entry.getTimestamp()
+        ));
+
+        for (String transactionHash : entry.getTransactionHashes()) {
+            sourceRecords.add(new SourceRecord(
+                    sourcePartition(),
+                    sourceOffset(forkBlockNumber),
+                    config.getTrasactionTopic(),
+                    null,
+                    null,
+                    config.getChainName() + "_" + transactionHash,
+                    null,
+                    null,
+                    entry.getTimestamp()
+            ));
+        }
+
+        return sourceRecords;
+    }
+
+    private boolean canContinue(long blockNumber) throws InterruptedException {
         int finalityBlocksNo = config.getNoBlocksForFinality();
         if(finalityBlocksNo == 0) {
             return true;
+        } else if (finalityBlocksNo <= (headTracker.getLatestBlockNumber() - blockNumber)) {
+            return true;
         } else {
-            //Wait for finality blocks.
-            //Get latest block and see the difference
-            String latestBlockNumberStr = web3RpcClient.getLatestBlock();
-            if(StringUtil.isEmpty(latestBlockNumberStr)) {
-                logger.error("Unable to get latest block number");
-                return false;
+            //Wait for finality blocks. Only block on the head tracker when the block is within finality window
+            long latestBlockNumber = headTracker.awaitBlockNumber(blockNumber + finalityBlocksNo, pollScheduler.getBlockWaitTime(), pollScheduler::isStopped);
+            if(finalityBlocksNo <= (latestBlockNumber - blockNumber)) {
+                return true;
             } else {
-                long latestBlockNumber = Long.parseLong(latestBlockNumberStr);
-                if(finalityBlocksNo <= (latestBlockNumber - blockNumber)) {
-                    return true;
-                } else {
-                    logger.info("Wait for finality !!! BlockNumberOffset :{}, Latest Block# on chain: {}", blockNumberOffset, latestBlockNumber);
-                    return false;
-                }
+                logger.info("Wait for finality !!! BlockNumberOffset :{}, Latest Block# on chain: {}", blockNumberOffset, latestBlockNumber);
+                return false;
             }
         }
     }
 
-    private List<SourceRecord> generateSourceRecords(JSONObject blockJson, long blockNumberOffset, long timestamp) {
-
-        ParsedBlockStruct blockStruct = blockConverter.convertFromJSON(blockJson, config.isSeparateTransactionTopic(), ignoredBlockFields, ignoreTransactionFields,config.getChainName() );
+    List<SourceRecord> generateSourceRecords(ParsedBlockStruct blockStruct, long blockNumberOffset, long timestamp) {
         List<SourceRecord> sourceRecords = new ArrayList();
 
         SourceRecord blockRecord = new SourceRecord(
@@ -161,7 +662,7 @@ public class BlockSourceTask extends SourceTask {
                 null, // partition will be inferred by the framework
                 null,
                 config.getChainName()+"_"+blockNumberOffset,
-                BlockSchema.SCHEMA,
+                projection.getBlockSchema(),
                 blockStruct.getBlock(),
                 timestamp
                 );
@@ -179,7 +680,7 @@ public class BlockSourceTask extends SourceTask {
                         null, // partition will be inferred by the framework
                         null,
                         config.getChainName() + "_"+ transaction.getString(TransactionSchema.HASH),
-                        TransactionSchema.SCHEMA,
+                        projection.getTransactionSchema(),
                         transaction,
                         timestamp
                 );
@@ -190,9 +691,19 @@ public class BlockSourceTask extends SourceTask {
         return sourceRecords;
     }
 
-    private Map<String, String> sourcePartition() {
+    Map<String, String> sourcePartition() {
+        return sourcePartition(taskRanges.isEmpty() ? null : taskRanges.get(rangeIndex));
+    }
+
+    /**
+     * @param range shard of a range task. Null for the tip task, which keeps the partition of an unsharded task
+     */
+    private Map<String, String> sourcePartition(long[] range) {
         Map<String, String> map = new HashMap<>();
-        map.put(config.getTopic() + "_" + WEB3_RPC_URL, config.getWeb3RpcUrl());
+        map.put(config.getTopic() + "_" + WEB3_RPC_URL, config.getSourcePartitionKey());
+        //Each shard of the historical range has its own partition
+        if (range != null)
+            map.put(BLOCK_RANGE, range[0] + "-" + range[1]);
         return map;
     }
 
@@ -202,18 +713,33 @@ public class BlockSourceTask extends SourceTask {
         return map;
     }
 
+    /**
+     * Wait with backoff before the next attempt. Returns early if the task is stopped
+     */
     private boolean isRetryThresholdReachedAndwaitDuringRetry() throws InterruptedException {
-        retryCounter ++;
-        if(retryCounter >= RETRY_THRESHOLD) {
-            Thread.sleep(DELAY_AFTER_RETRY_THRESHOLD);
-            return true;
-        } else {
-            Thread.sleep(10000);
-            return false;
-        }
+        metrics.recordRetry();
+        pollScheduler.sleep(pollScheduler.onError());
+        return pollScheduler.getErrorCount() >= RETRY_THRESHOLD;
     }
 
     public void stop() {
-        //Do to stop the task
+        //Wake up the task thread if it's waiting in poll()
+        if (pollScheduler != null)
+            pollScheduler.stop();
+
+        if (headTracker != null)
+            headTracker.wakeUp();
+
+        if (prefetcher != null)
+            prefetcher.close();
+
+        if (headTracker != null)
+            headTracker.release();
+
+        if (web3RpcClient != null)
+            web3RpcClient.close();
+
+        if (metrics != null)
+            metrics.close();
     }
 }
@@ -0,0 +1,42 @@
+package com.bloxbean.kafka.connectors.web3.source.blocks;
+
+import com.bloxbean.kafka.connectors.web3.source.blocks.schema.ParsedBlockStruct;
+
+/**
+ * A block fetched from the node and already converted to Connect structs
+ */
+public class FetchedBlock {
+    private final long blockNumber;
+    private final String hash;
+    private final String parentHash;
+    private final long timestamp;
+    private final ParsedBlockStruct blockStruct;
+
+    public FetchedBlock(long blockNumber, String hash, String parentHash, long timestamp, ParsedBlockStruct blockStruct) {
+        this.blockNumber = blockNumber;
+        this.hash = hash;
+        this.parentHash = parentHash;
+        this.timestamp = timestamp;
+        this.blockStruct = blockStruct;
+    }
+
+    public long getBlockNumber() {
+        return blockNumber;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public String getParentHash() {
+        return parentHash;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public ParsedBlockStruct getBlockStruct() {
+        return blockStruct;
+    }
+}
@@ -0,0 +1,131 @@
+package com.bloxbean.kafka.connectors.web3.source.blocks;
+
+import com.bloxbean.kafka.connectors.web3.client.RpcResponse;
+import com.bloxbean.kafka.connectors.web3.client.RpcResultDecoder;
+import com.bloxbean.kafka.connectors.web3.client.Web3RpcClient;
+import com.bloxbean.kafka.connectors.web3.exception.Web3Exception;
+import com.bloxbean.kafka.connectors.web3.util.JsonStreamUtil;
+import kong.unirest.json.JSONArray;
+import kong.unirest.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Fetches the receipts of the transactions of a block. eth_getBlockReceipts is used while the node supports it,
+ * else receipts are fetched with eth_getTransactionReceipt batches of receipt_batch_size. All batches of a block are
+ * sent at once, at most rpc_max_in_flight requests per endpoint.
+ * <p>
+ * Thread safe. Also called by prefetch worker threads.
+ */
+public class ReceiptFetcher {
+    private static Logger logger = LoggerFactory.getLogger(ReceiptFetcher.class);
+
+    private final static RpcResultDecoder<JSONObject> OBJECT_DECODER = reader -> new JSONObject(JsonStreamUtil.readJson(reader));
+    private final static RpcResultDecoder<JSONArray> ARRAY_DECODER = reader -> new JSONArray(JsonStreamUtil.readJson(reader));
+
+    //Json rpc error codes of a node which doesn't support eth_getBlockReceipts
+    private final static int METHOD_NOT_FOUND = -32601;
+    private final static int INVALID_PARAMS = -32602;
+
+    private final Web3RpcClient web3RpcClient;
+    private final int batchSize;
+    private volatile boolean blockReceiptsSupported = true;
+
+    public ReceiptFetcher(Web3RpcClient web3RpcClient, int batchSize) {
+        this.web3RpcClient = web3RpcClient;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @param blockNumber block number
+     * @param blockHash block hash. Receipts of a different block, because of a reorg in between, are rejected
+     * @param transactionHashes hashes of the transactions of the block
+     * @return future of the receipts by transaction hash. Fails if a receipt is not available
+     */
+    public CompletableFuture<Map<String, JSONObject>> fetchAsync(long blockNumber, String blockHash, List<String> transactionHashes) {
+        if (transactionHashes.isEmpty())
+            return CompletableFuture.completedFuture(Collections.emptyMap());
+
+        if (!blockReceiptsSupported)
+            return fetchTransactionReceipts(blockHash, transactionHashes);
+
+        return web3RpcClient.getBlockReceiptsAsync(blockNumber, ARRAY_DECODER)
+                .thenCompose(response -> {
+                    Map<String, JSONObject> receipts = toBlockReceipts(blockNumber, blockHash, response);
+                    return receipts != null ? CompletableFuture.completedFuture(receipts) : fetchTransactionReceipts(blockHash, transactionHashes);
+                });
+    }
+
+    public boolean isBlockReceiptsSupported() {
+        return blockReceiptsSupported;
+    }
+
+    /**
+     * @return receipts by transaction hash or null if the receipts should be fetched by transaction
+     */
+    private Map<String, JSONObject> toBlockReceipts(long blockNumber, String blockHash, RpcResponse response) {
+        if (response.hasError()) {
+            int code = errorCode(response.getError());
+            if (code != METHOD_NOT_FOUND && code != INVALID_PARAMS)
+                throw new Web3Exception(String.format("Unable to get receipts of block %d. Reason: %s", blockNumber, response.getError()));
+
+            logger.info("eth_getBlockReceipts is not supported by the node. Receipts are fetched by transaction. Reason: {}", response.getError());
+            blockReceiptsSupported = false;
+            return null;
+        }
+
+        if (response.getResult() == null)
+            return null;
+
+        JSONArray receiptsArray = (JSONArray) response.getResult();
+        Map<String, JSONObject> receipts = new HashMap<>();
+        for (int i = 0; i < receiptsArray.length(); i++) {
+            JSONObject receipt = receiptsArray.getJSONObject(i);
+            checkBlockHash(blockHash, receipt);
+            receipts.put(receipt.optString("transactionHash"), receipt);
+        }
+        return receipts;
+    }
+
+    private CompletableFuture<Map<String, JSONObject>> fetchTransactionReceipts(String blockHash, List<String> transactionHashes) {
+        List<CompletableFuture<List<RpcResponse>>> futures = new ArrayList<>();
+        for (int from = 0; from < transactionHashes.size(); from += batchSize) {
+            List<String> batch = transactionHashes.subList(from, Math.min(from + batchSize, transactionHashes.size()));
+            futures.add(web3RpcClient.getTransactionReceiptsAsync(batch, OBJECT_DECODER));
+        }
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .thenApply(v -> {
+                    Map<String, JSONObject> receipts = new HashMap<>();
+                    int index = 0;
+                    for (CompletableFuture<List<RpcResponse>> future : futures) {
+                        for (RpcResponse response : future.join()) {
+                            String transactionHash = transactionHashes.get(index++);
+                            if (response.hasError())
+                                throw new Web3Exception(String.format("Unable to get receipt of transaction %s. Reason: %s", transactionHash, response.getError()));
+                            if (response.getResult() == null)
+                                throw new Web3Exception(String.format("Receipt of transaction %s is not available yet", transactionHash));
+
+                            JSONObject receipt = (JSONObject) response.getResult();
+                            checkBlockHash(blockHash, receipt);
+                            receipts.put(transactionHash, receipt);
+                        }
+                    }
+                    return receipts;
+                });
+    }
+
+    private static int errorCode(String error) {
+        return error != null && error.trim().startsWith("{") ? new JSONObject(error).optInt("code") : 0;
+    }
+
+    private void checkBlockHash(String blockHash, JSONObject receipt) {
+        String receiptBlockHash = receipt.optString("blockHash");
+        if (blockHash != null && !blockHash.isEmpty() && !blockHash.equalsIgnoreCase(receiptBlockHash))
+            throw new Web3Exception(String.format("Receipt of transaction %s is of block %s instead of %s. May be a chain reorg",
+                    receipt.optString("transactionHash"), receiptBlockHash, blockHash));
+    }
+}
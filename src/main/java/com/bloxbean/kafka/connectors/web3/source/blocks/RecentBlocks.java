@@ -0,0 +1,137 @@
+package com.bloxbean.kafka.connectors.web3.source.blocks;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Ring buffer of the last emitted blocks to detect chain reorgs at the tip. A block which doesn't extend the last
+ * emitted block means the emitted blocks after the fork point are orphaned.
+ * <p>
+ * Not thread safe. Only the task thread should use it.
+ */
+public class RecentBlocks {
+    private final Entry[] entries;
+    private long lowestBlockNumber = -1;
+    private long highestBlockNumber = -1;
+
+    /**
+     * @param depth no of blocks to keep. Max depth of a reorg which can be handled
+     */
+    public RecentBlocks(int depth) {
+        this.entries = new Entry[depth];
+    }
+
+    /**
+     * Add the next emitted block. A block which doesn't follow the highest block starts a new sequence.
+     * @param transactionHashes hashes of the transactions published with the block. Can be empty
+     */
+    public void add(long blockNumber, String hash, String parentHash, long timestamp, List<String> transactionHashes) {
+        if (highestBlockNumber < 0 || blockNumber != highestBlockNumber + 1)
+            clear();
+
+        entries[index(blockNumber)] = new Entry(blockNumber, hash, parentHash, timestamp,
+                transactionHashes != null ? transactionHashes : Collections.emptyList());
+        highestBlockNumber = blockNumber;
+        if (lowestBlockNumber < 0)
+            lowestBlockNumber = blockNumber;
+        else //Oldest block is overwritten once the buffer is full
+            lowestBlockNumber = Math.max(lowestBlockNumber, highestBlockNumber - entries.length + 1);
+    }
+
+    /**
+     * @return false if the previous block is known and its hash is not the parent hash of the block
+     */
+    public boolean extendsChain(long blockNumber, String parentHash) {
+        Entry previous = get(blockNumber - 1);
+        return previous == null || previous.hash.equalsIgnoreCase(parentHash);
+    }
+
+    /**
+     * @return entry of the block number or null if not in the buffer
+     */
+    public Entry get(long blockNumber) {
+        if (highestBlockNumber < 0 || blockNumber < lowestBlockNumber || blockNumber > highestBlockNumber)
+            return null;
+
+        return entries[index(blockNumber)];
+    }
+
+    /**
+     * Remove the given block and all blocks after it
+     */
+    public void truncate(long fromBlockNumber) {
+        if (fromBlockNumber <= lowestBlockNumber) {
+            clear();
+            return;
+        }
+
+        for (long blockNumber = fromBlockNumber; blockNumber <= highestBlockNumber; blockNumber++)
+            entries[index(blockNumber)] = null;
+        highestBlockNumber = Math.min(highestBlockNumber, fromBlockNumber - 1);
+    }
+
+    public void clear() {
+        for (int i = 0; i < entries.length; i++)
+            entries[i] = null;
+        lowestBlockNumber = -1;
+        highestBlockNumber = -1;
+    }
+
+    /**
+     * @return lowest block number in the buffer or -1 if empty
+     */
+    public long getLowestBlockNumber() {
+        return lowestBlockNumber;
+    }
+
+    /**
+     * @return highest block number in the buffer or -1 if empty
+     */
+    public long getHighestBlockNumber() {
+        return highestBlockNumber;
+    }
+
+    public int size() {
+        return highestBlockNumber < 0 ? 0 : (int) (highestBlockNumber - lowestBlockNumber + 1);
+    }
+
+    private int index(long blockNumber) {
+        return (int) (blockNumber % entries.length);
+    }
+
+    public static class Entry {
+        private final long blockNumber;
+        private final String hash;
+        private final String parentHash;
+        private final long timestamp;
+        private final List<String> transactionHashes;
+
+        Entry(long blockNumber, String hash, String parentHash, long timestamp, List<String> transactionHashes) {
+            this.blockNumber = blockNumber;
+            this.hash = hash;
+            this.parentHash = parentHash;
+            this.timestamp = timestamp;
+            this.transactionHashes = transactionHashes;
+        }
+
+        public long getBlockNumber() {
+            return blockNumber;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        public String getParentHash() {
+            return parentHash;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public List<String> getTransactionHashes() {
+            return transactionHashes;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.bloxbean.kafka.connectors.web3.source.blocks;
+
+import com.bloxbean.kafka.connectors.web3.client.RpcResultDecoder;
+import com.bloxbean.kafka.connectors.web3.source.blocks.schema.BlockProjection;
+import com.bloxbean.kafka.connectors.web3.source.blocks.schema.BlockSchema;
+import com.bloxbean.kafka.connectors.web3.source.blocks.schema.ParsedBlockStruct;
+import com.bloxbean.kafka.connectors.web3.source.blocks.schema.TransactionSchema;
+import com.bloxbean.kafka.connectors.web3.util.HexConverter;
+import com.bloxbean.kafka.connectors.web3.util.JsonStreamUtil;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.apache.kafka.connect.data.Struct;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Decodes a block from a json rpc response stream directly into block and transaction structs. Produces the same
+ * structs as {@link com.bloxbean.kafka.connectors.web3.source.blocks.schema.BlockConverter}, but ignored fields are
+ * skipped in the stream and never materialized.
+ */
+public class StreamingBlockDecoder implements RpcResultDecoder<FetchedBlock> {
+    private final BlockProjection projection;
+
+    public StreamingBlockDecoder(boolean publishTransactionsSeparately, Set<String> ignoreBlockFields, Set<String> ignoreTransactionFields, String chainName) {
+        this(BlockProjection.compile(publishTransactionsSeparately, ignoreBlockFields, ignoreTransactionFields, chainName));
+    }
+
+    /**
+     * @param projection fields to publish. Shared with {@link com.bloxbean.kafka.connectors.web3.source.blocks.schema.BlockConverter}
+     */
+    public StreamingBlockDecoder(BlockProjection projection) {
+        this.projection = projection;
+    }
+
+    @Override
+    public FetchedBlock decode(JsonReader reader) throws IOException {
+        Struct blockStruct = new Struct(projection.getBlockSchema());
+        for (BlockProjection.FieldExtractor field : projection.getBlockFields()) {
+            field.put(blockStruct, ""); //Same as optString() for missing fields
+        }
+
+        String number = null;
+        String hash = null;
+        String parentHash = null;
+        String timestamp = null;
+
+        List<Struct> txnStructs = null;
+        List<String> txnHashes = null;
+        int txnCount = -1;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+
+            if (BlockSchema.TRANSACTIONS.equals(name)) {
+                if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+                    reader.skipValue();
+                    continue;
+                }
+
+                txnStructs = new ArrayList<>();
+                txnHashes = new ArrayList<>();
+                txnCount = readTransactions(reader, txnStructs, txnHashes);
+                continue;
+            }
+
+            boolean required = BlockSchema.NUMBER.equals(name) || BlockSchema.HASH.equals(name)
+                    || BlockSchema.PARENT_HASH.equals(name) || BlockSchema.TIMESTAMP.equals(name);
+            BlockProjection.FieldExtractor field = projection.getBlockField(name);
+            if (field == null && !required) {
+                reader.skipValue();
+                continue;
+            }
+
+            String value = JsonStreamUtil.readString(reader);
+            if (field != null)
+                field.put(blockStruct, value);
+
+            if (BlockSchema.NUMBER.equals(name))
+                number = value;
+            else if (BlockSchema.HASH.equals(name))
+                hash = value;
+            else if (BlockSchema.PARENT_HASH.equals(name))
+                parentHash = value;
+            else if (BlockSchema.TIMESTAMP.equals(name))
+                timestamp = value;
+        }
+        reader.endObject();
+
+        blockStruct.put(BlockSchema.CHAIN_NAME, projection.getChainName());
+
+        ParsedBlockStruct parsedBlockStruct = new ParsedBlockStruct();
+        if (txnStructs != null) {
+            //Block fields may come after the transactions in the stream
+            String blockHash = projection.isIncludeBlockHash() ? (hash != null ? hash : "") : null;
+            Object blockTimestamp = projection.getTransactionTimestampField().convert(timestamp != null ? timestamp : "");
+            for (Struct txnStruct : txnStructs) {
+                if (projection.isIncludeTransactionBlockHash())
+                    txnStruct.put(TransactionSchema.BLOCK_HASH, blockHash);
+                Object txnTimestamp = projection.isIncludeTransactionTimestamp() ? txnStruct.get(TransactionSchema.TIMESTAMP) : null;
+                if (projection.isIncludeTransactionTimestamp() && (txnTimestamp == null || "".equals(txnTimestamp)))
+                    txnStruct.put(TransactionSchema.TIMESTAMP, blockTimestamp);
+            }
+
+            blockStruct.put(BlockSchema.TRANSACTION_COUNT, projection.transactionCount(txnCount));
+
+            if (!projection.isPublishTransactionsSeparately() && projection.isIncludeTransactions())
+                blockStruct.put(BlockSchema.TRANSACTIONS, txnStructs);
+            else
+                blockStruct.put(BlockSchema.TRANSACTIONS, Collections.EMPTY_LIST);
+
+            if (projection.isPublishTransactionsSeparately() && projection.isIncludeTransactionHashes())
+                blockStruct.put(BlockSchema.TRANSACTION_HASHES, txnHashes);
+            else
+                blockStruct.put(BlockSchema.TRANSACTION_HASHES, Collections.EMPTY_LIST);
+
+            parsedBlockStruct.setTransactions(txnStructs);
+        } else {
+            blockStruct.put(BlockSchema.TRANSACTION_COUNT, projection.transactionCount(0));
+        }
+        parsedBlockStruct.setBlock(blockStruct);
+
+        return new FetchedBlock(
+                HexConverter.hexToLongValue(number),
+                hash != null ? hash : "",
+                parentHash != null ? parentHash : "",
+                HexConverter.hexToTimestampInMillis(timestamp),
+                parsedBlockStruct
+        );
+    }
+
+    /**
+     * @return no of transactions
+     */
+    private int readTransactions(JsonReader reader, List<Struct> txnStructs, List<String> txnHashes) throws IOException {
+        boolean includeTransactions = projection.isIncludeTransactions();
+        boolean includeTransactionHashes = projection.isIncludeTransactionHashes();
+        int count = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            count++;
+
+            if (reader.peek() == JsonToken.STRING) { //Transaction hash only
+                String txnHash = reader.nextString();
+                if (includeTransactionHashes)
+                    txnHashes.add(txnHash);
+                continue;
+            }
+
+            if (!includeTransactions && !includeTransactionHashes) {
+                reader.skipValue();
+                continue;
+            }
+
+            Struct txnStruct = includeTransactions ? newTransactionStruct() : null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                BlockProjection.FieldExtractor field = txnStruct != null ? transactionField(name) : null;
+                boolean isHash = TransactionSchema.HASH.equals(name);
+                if (field == null && !(isHash && includeTransactionHashes)) {
+                    reader.skipValue();
+                    continue;
+                }
+
+                String value = JsonStreamUtil.readString(reader);
+                if (field != null)
+                    field.put(txnStruct, value);
+                if (isHash && includeTransactionHashes)
+                    txnHashes.add(value);
+            }
+            reader.endObject();
+
+            if (txnStruct != null)
+                txnStructs.add(txnStruct);
+        }
+        reader.endArray();
+
+        return count;
+    }
+
+    private Struct newTransactionStruct() {
+        Struct txnStruct = new Struct(projection.getTransactionSchema());
+        for (BlockProjection.FieldExtractor field : projection.getTransactionFields()) {
+            field.put(txnStruct, "");
+        }
+        if (projection.isIncludeTransactionTimestamp())
+            projection.getTransactionTimestampField().put(txnStruct, "");
+        if (projection.isIncludeTransactionChainName())
+            txnStruct.put(TransactionSchema.CHAIN_NAME, projection.getChainName());
+        return txnStruct;
+    }
+
+    /**
+     * @return transaction field to read, including the timestamp which is not a projected field as it falls back to the
+     * block timestamp
+     */
+    private BlockProjection.FieldExtractor transactionField(String name) {
+        if (TransactionSchema.TIMESTAMP.equals(name))
+            return projection.isIncludeTransactionTimestamp() ? projection.getTransactionTimestampField() : null;
+        return projection.getTransactionField(name);
+    }
+}
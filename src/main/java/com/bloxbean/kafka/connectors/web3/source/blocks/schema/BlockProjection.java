@@ -0,0 +1,291 @@
+package com.bloxbean.kafka.connectors.web3.source.blocks.schema;
+
+import com.bloxbean.kafka.connectors.web3.util.StringUtil;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+
+import static com.bloxbean.kafka.connectors.web3.util.HexConverter.*;
+
+/**
+ * Block and transaction fields to publish, compiled once from the ignore lists. Converters loop over the field arrays
+ * instead of checking the ignore lists for every field of every block and transaction.
+ * Immutable, so one instance is shared by all blocks of a task.
+ * <p>
+ * The projection also selects the schema version. In typed mode quantities are INT64 or Decimal instead of decimal strings.
+ */
+public class BlockProjection {
+    private final static List<String> BLOCK_STRING_FIELDS = Arrays.asList(BlockSchema.HASH, BlockSchema.PARENT_HASH,
+            BlockSchema.LOGS_BLOOM, BlockSchema.TRANSACTIONS_ROOT, BlockSchema.STATE_ROOT, BlockSchema.RECEIPTS_ROOT, BlockSchema.MINER,
+            BlockSchema.EXTRA_DATA, BlockSchema.SEED, BlockSchema.SEAL_TYPE, BlockSchema.SIGNATURE, BlockSchema.PUBLIC_KEY, BlockSchema.MAIN_CHAIN);
+    private final static List<String> BLOCK_QUANTITY_FIELDS = Arrays.asList(BlockSchema.NUMBER, BlockSchema.DIFFICULTY,
+            BlockSchema.TOTAL_DIFFICULTY, BlockSchema.SIZE, BlockSchema.GAS_LIMIT, BlockSchema.GAS_USED, BlockSchema.NRG_LIMIT,
+            BlockSchema.NRG_USED, BlockSchema.TIMESTAMP);
+
+    //Transaction timestamp is not in the list as it falls back to the block timestamp
+    private final static List<String> TRANSACTION_STRING_FIELDS = Arrays.asList(TransactionSchema.FROM, TransactionSchema.TO,
+            TransactionSchema.HASH, TransactionSchema.INPUT, TransactionSchema.V, TransactionSchema.R, TransactionSchema.S);
+    private final static List<String> TRANSACTION_QUANTITY_FIELDS = Arrays.asList(TransactionSchema.BLOCK_NUMBER, TransactionSchema.NRG,
+            TransactionSchema.NRG_PRICE, TransactionSchema.GAS, TransactionSchema.GAS_PRICE, TransactionSchema.NONCE,
+            TransactionSchema.TRANSACTION_INDEX, TransactionSchema.VALUE);
+    private final static List<String> RECEIPT_STRING_FIELDS = Arrays.asList(TransactionSchema.CONTRACT_ADDRESS);
+    private final static List<String> RECEIPT_QUANTITY_FIELDS = Arrays.asList(TransactionSchema.STATUS, TransactionSchema.GAS_USED,
+            TransactionSchema.CUMULATIVE_GAS_USED, TransactionSchema.EFFECTIVE_GAS_PRICE);
+
+    private final boolean publishTransactionsSeparately;
+    private final String chainName;
+    private final boolean typed;
+    private final boolean receipts;
+    private final Schema blockSchema;
+    private final Schema transactionSchema;
+    private final FieldExtractor transactionTimestampField;
+
+    private final FieldExtractor[] blockFields;
+    private final FieldExtractor[] transactionFields;
+    private final FieldExtractor[] receiptFields;
+    private final Map<String, FieldExtractor> blockFieldsByName;
+    private final Map<String, FieldExtractor> transactionFieldsByName;
+
+    private final boolean includeTransactions;
+    private final boolean includeTransactionHashes;
+    private final boolean includeBlockHash;
+    private final boolean includeBlockTimestamp;
+    private final boolean includeTransactionBlockHash;
+    private final boolean includeTransactionTimestamp;
+    private final boolean includeTransactionChainName;
+    private final boolean includeTransactionLogs;
+
+    private BlockProjection(boolean publishTransactionsSeparately, Set<String> ignoreBlockFields, Set<String> ignoreTransactionFields,
+                            String chainName, boolean typed, boolean receipts) {
+        this.publishTransactionsSeparately = publishTransactionsSeparately;
+        this.chainName = chainName;
+        this.typed = typed;
+        this.receipts = receipts;
+        this.blockSchema = typed ? BlockSchema.TYPED_SCHEMA : BlockSchema.SCHEMA;
+        if (receipts)
+            this.transactionSchema = typed ? TransactionSchema.TYPED_RECEIPT_SCHEMA : TransactionSchema.RECEIPT_SCHEMA;
+        else
+            this.transactionSchema = typed ? TransactionSchema.TYPED_SCHEMA : TransactionSchema.SCHEMA;
+        this.transactionTimestampField = new FieldExtractor(transactionSchema.field(TransactionSchema.TIMESTAMP), true);
+
+        this.blockFieldsByName = new HashMap<>();
+        this.blockFields = compile(blockSchema, BLOCK_STRING_FIELDS, BLOCK_QUANTITY_FIELDS, ignoreBlockFields, blockFieldsByName);
+        this.transactionFieldsByName = new HashMap<>();
+        this.transactionFields = compile(transactionSchema, TRANSACTION_STRING_FIELDS, TRANSACTION_QUANTITY_FIELDS, ignoreTransactionFields, transactionFieldsByName);
+        this.receiptFields = compile(transactionSchema, RECEIPT_STRING_FIELDS, RECEIPT_QUANTITY_FIELDS, ignoreTransactionFields, new HashMap<>());
+
+        this.includeTransactions = !ignoreBlockFields.contains(BlockSchema.TRANSACTIONS);
+        this.includeTransactionHashes = !ignoreBlockFields.contains(BlockSchema.TRANSACTION_HASHES);
+        this.includeBlockHash = !ignoreBlockFields.contains(BlockSchema.HASH);
+        this.includeBlockTimestamp = !ignoreBlockFields.contains(BlockSchema.TIMESTAMP);
+        this.includeTransactionBlockHash = !ignoreTransactionFields.contains(TransactionSchema.BLOCK_HASH);
+        this.includeTransactionTimestamp = !ignoreTransactionFields.contains(TransactionSchema.TIMESTAMP);
+        this.includeTransactionChainName = !ignoreTransactionFields.contains(TransactionSchema.CHAIN_NAME);
+        this.includeTransactionLogs = receipts && !ignoreTransactionFields.contains(TransactionSchema.LOGS);
+    }
+
+    public static BlockProjection compile(boolean publishTransactionsSeparately, Set<String> ignoreBlockFields, Set<String> ignoreTransactionFields, String chainName) {
+        return compile(publishTransactionsSeparately, ignoreBlockFields, ignoreTransactionFields, chainName, false);
+    }
+
+    /**
+     * @param typed true to use {@link BlockSchema#TYPED_SCHEMA} and {@link TransactionSchema#TYPED_SCHEMA}
+     */
+    public static BlockProjection compile(boolean publishTransactionsSeparately, Set<String> ignoreBlockFields, Set<String> ignoreTransactionFields,
+                                          String chainName, boolean typed) {
+        return compile(publishTransactionsSeparately, ignoreBlockFields, ignoreTransactionFields, chainName, typed, false);
+    }
+
+    /**
+     * @param receipts true to use the transaction schema with receipt fields. Only for transactions published separately,
+     *                 the block schema is not changed
+     */
+    public static BlockProjection compile(boolean publishTransactionsSeparately, Set<String> ignoreBlockFields, Set<String> ignoreTransactionFields,
+                                          String chainName, boolean typed, boolean receipts) {
+        return new BlockProjection(publishTransactionsSeparately,
+                ignoreBlockFields != null ? ignoreBlockFields : Collections.emptySet(),
+                ignoreTransactionFields != null ? ignoreTransactionFields : Collections.emptySet(),
+                chainName, typed, receipts);
+    }
+
+    private static FieldExtractor[] compile(Schema schema, List<String> stringFields, List<String> quantityFields,
+                                            Set<String> ignoredFields, Map<String, FieldExtractor> byName) {
+        List<FieldExtractor> extractors = new ArrayList<>();
+        for (Field field : schema.fields()) {
+            if (ignoredFields.contains(field.name()))
+                continue;
+
+            if (stringFields.contains(field.name()))
+                extractors.add(new FieldExtractor(field, false));
+            else if (quantityFields.contains(field.name()))
+                extractors.add(new FieldExtractor(field, true));
+        }
+
+        for (FieldExtractor extractor : extractors) {
+            byName.put(extractor.getName(), extractor);
+        }
+        return extractors.toArray(new FieldExtractor[0]);
+    }
+
+    public boolean isPublishTransactionsSeparately() {
+        return publishTransactionsSeparately;
+    }
+
+    public String getChainName() {
+        return chainName;
+    }
+
+    public boolean isTyped() {
+        return typed;
+    }
+
+    public boolean isReceipts() {
+        return receipts;
+    }
+
+    public Schema getBlockSchema() {
+        return blockSchema;
+    }
+
+    public Schema getTransactionSchema() {
+        return transactionSchema;
+    }
+
+    /**
+     * @return transaction timestamp field. Not part of {@link #getTransactionFields()} as it falls back to the block timestamp
+     */
+    public FieldExtractor getTransactionTimestampField() {
+        return transactionTimestampField;
+    }
+
+    /**
+     * @return transaction count value as per the schema version
+     */
+    public Object transactionCount(int count) {
+        return typed ? (Object) (long) count : String.valueOf(count);
+    }
+
+    /**
+     * @return block fields to copy from the block json. Chain name, transactions and transaction hashes are not included
+     */
+    public FieldExtractor[] getBlockFields() {
+        return blockFields;
+    }
+
+    /**
+     * @return transaction fields to copy from the transaction json. Block hash, timestamp and chain name are not included
+     */
+    public FieldExtractor[] getTransactionFields() {
+        return transactionFields;
+    }
+
+    /**
+     * @return receipt fields to copy from the receipt json. Logs are not included. Empty if receipts are not enabled
+     */
+    public FieldExtractor[] getReceiptFields() {
+        return receiptFields;
+    }
+
+    /**
+     * @return block field of the given json name or null if the field is ignored or not a simple field
+     */
+    public FieldExtractor getBlockField(String name) {
+        return blockFieldsByName.get(name);
+    }
+
+    /**
+     * @return transaction field of the given json name or null if the field is ignored or not a simple field
+     */
+    public FieldExtractor getTransactionField(String name) {
+        return transactionFieldsByName.get(name);
+    }
+
+    public boolean isIncludeTransactions() {
+        return includeTransactions;
+    }
+
+    public boolean isIncludeTransactionHashes() {
+        return includeTransactionHashes;
+    }
+
+    public boolean isIncludeBlockHash() {
+        return includeBlockHash;
+    }
+
+    public boolean isIncludeBlockTimestamp() {
+        return includeBlockTimestamp;
+    }
+
+    public boolean isIncludeTransactionBlockHash() {
+        return includeTransactionBlockHash;
+    }
+
+    public boolean isIncludeTransactionTimestamp() {
+        return includeTransactionTimestamp;
+    }
+
+    public boolean isIncludeTransactionChainName() {
+        return includeTransactionChainName;
+    }
+
+    public boolean isIncludeTransactionLogs() {
+        return includeTransactionLogs;
+    }
+
+    /**
+     * Copies a json value to a struct field. Quantities are converted from hex to a decimal string, or to INT64 or
+     * Decimal as per the field schema.
+     */
+    public static class FieldExtractor {
+        private final Field field;
+        private final boolean quantity;
+
+        public FieldExtractor(Field field, boolean quantity) {
+            this.field = field;
+            this.quantity = quantity;
+        }
+
+        public String getName() {
+            return field.name();
+        }
+
+        public Field getField() {
+            return field;
+        }
+
+        public boolean isQuantity() {
+            return quantity;
+        }
+
+        /**
+         * @param value value as in json
+         * @return value as per the field schema. Missing typed quantities are null
+         */
+        public Object convert(String value) {
+            if (!quantity)
+                return value;
+
+            switch (field.schema().type()) {
+                case INT64:
+                    return StringUtil.isEmpty(value) ? null : hexToLongValue(value);
+                case BYTES: //Decimal
+                    BigInteger bi = stringToBigInteger(value);
+                    return bi != null ? new BigDecimal(bi) : null;
+                default:
+                    return hexToBigIntegerStr(value);
+            }
+        }
+
+        /**
+         * @param struct target struct
+         * @param value value as in json
+         */
+        public void put(Struct struct, String value) {
+            struct.put(field, convert(value));
+        }
+    }
+}
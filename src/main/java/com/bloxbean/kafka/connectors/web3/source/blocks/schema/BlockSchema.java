@@ -64,5 +64,41 @@ public class BlockSchema {
             .field(TRANSACTION_HASHES, SchemaBuilder.array(Schema.STRING_SCHEMA).build())
             .field(TRANSACTION_COUNT, Schema.OPTIONAL_STRING_SCHEMA)
 
+            .build();
+
+    //Typed version of the schema. Quantities which fit in 64 bits are INT64, 256 bit quantities are Decimal
+    public static Schema TYPED_SCHEMA = SchemaBuilder.struct().name("com.bloxbean.kafka.connectors.web3.source.schema.Block")
+            .version(2)
+            .field(NUMBER, Schema.OPTIONAL_INT64_SCHEMA)
+            .field(HASH, Schema.OPTIONAL_STRING_SCHEMA)
+            .field(PARENT_HASH, Schema.OPTIONAL_STRING_SCHEMA)
+            .field(LOGS_BLOOM, Schema.OPTIONAL_STRING_SCHEMA)
+            .field(TRANSACTIONS_ROOT, Schema.OPTIONAL_STRING_SCHEMA)
+            .field(STATE_ROOT, Schema.OPTIONAL_STRING_SCHEMA)
+            .field(RECEIPTS_ROOT, Schema.OPTIONAL_STRING_SCHEMA)
+            .field(MINER, Schema.OPTIONAL_STRING_SCHEMA)
+
+            .field(DIFFICULTY, TransactionSchema.OPTIONAL_QUANTITY_DECIMAL_SCHEMA)
+            .field(TOTAL_DIFFICULTY, TransactionSchema.OPTIONAL_QUANTITY_DECIMAL_SCHEMA)
+
+            .field(EXTRA_DATA, Schema.OPTIONAL_STRING_SCHEMA)
+            .field(SIZE, Schema.OPTIONAL_INT64_SCHEMA)
+
+            .field(GAS_LIMIT, Schema.OPTIONAL_INT64_SCHEMA)
+            .field(GAS_USED, Schema.OPTIONAL_INT64_SCHEMA)
+            .field(NRG_LIMIT, Schema.OPTIONAL_INT64_SCHEMA)
+            .field(NRG_USED, Schema.OPTIONAL_INT64_SCHEMA)
+            .field(TIMESTAMP, Schema.OPTIONAL_INT64_SCHEMA)
+            .field(SEED, Schema.OPTIONAL_STRING_SCHEMA)
+            .field(SEAL_TYPE, Schema.OPTIONAL_STRING_SCHEMA)
+            .field(SIGNATURE, Schema.OPTIONAL_STRING_SCHEMA)
+            .field(PUBLIC_KEY, Schema.OPTIONAL_STRING_SCHEMA)
+            .field(MAIN_CHAIN, Schema.OPTIONAL_STRING_SCHEMA)
+            .field(CHAIN_NAME, Schema.OPTIONAL_STRING_SCHEMA)
+            .field(TRANSACTIONS,
+                    SchemaBuilder.array(TransactionSchema.TYPED_SCHEMA).name("transactions").build())
+            .field(TRANSACTION_HASHES, SchemaBuilder.array(Schema.STRING_SCHEMA).build())
+            .field(TRANSACTION_COUNT, Schema.OPTIONAL_INT64_SCHEMA)
+
             .build();
 }
@@ -1,61 +1,71 @@
 package com.bloxbean.kafka.connectors.web3.source.blocks.schema;
 
+import com.bloxbean.kafka.connectors.web3.source.events.schema.EventConverter;
+import kong.unirest.json.JSONArray;
 import kong.unirest.json.JSONObject;
 import org.apache.kafka.connect.data.Struct;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 
 import static com.bloxbean.kafka.connectors.web3.source.blocks.schema.TransactionSchema.*;
-import static com.bloxbean.kafka.connectors.web3.util.HexConverter.hexToBigIntegerStr;
 
 public class TransactionConverter {
+    private final static EventConverter eventConverter = new EventConverter();
 
     public static Struct convertFromJSON(String blockHash, JSONObject txnJson, Set<String> ignoredFields,  String timestamp,String chainName) {
-        Struct txnStruct = new Struct(SCHEMA);
+        return convertFromJSON(blockHash, txnJson, BlockProjection.compile(false, Collections.emptySet(), ignoredFields, chainName), timestamp);
+    }
+
+    /**
+     * Convert a transaction json to struct
+     * @param blockHash hash of the block
+     * @param txnJson transaction json
+     * @param projection fields to publish
+     * @param timestamp block timestamp as per the schema version, used if the transaction doesn't have one
+     * @return transaction struct
+     */
+    public static Struct convertFromJSON(String blockHash, JSONObject txnJson, BlockProjection projection, Object timestamp) {
+        Struct txnStruct = new Struct(projection.getTransactionSchema());
 
-        if (!ignoredFields.contains(BLOCK_HASH))
+        if (projection.isIncludeTransactionBlockHash())
             txnStruct.put(BLOCK_HASH, blockHash);
-        if (!ignoredFields.contains(BLOCK_NUMBER))
-            txnStruct.put(BLOCK_NUMBER, hexToBigIntegerStr(txnJson.optString(BLOCK_NUMBER)));
-        if (!ignoredFields.contains(FROM))
-            txnStruct.put(FROM, txnJson.optString(FROM));
-        if (!ignoredFields.contains(TO))
-            txnStruct.put(TO, txnJson.optString(TO));
-        if (!ignoredFields.contains(NRG))
-            txnStruct.put(NRG, hexToBigIntegerStr(txnJson.optString(NRG)));
-        if (!ignoredFields.contains(NRG_PRICE))
-            txnStruct.put(NRG_PRICE, hexToBigIntegerStr(txnJson.optString(NRG_PRICE)));
-        if (!ignoredFields.contains(GAS))
-            txnStruct.put(GAS, hexToBigIntegerStr(txnJson.optString(GAS)));
-        if (!ignoredFields.contains(GAS_PRICE))
-            txnStruct.put(GAS_PRICE, hexToBigIntegerStr(txnJson.optString(GAS_PRICE)));
-        if (!ignoredFields.contains(HASH))
-            txnStruct.put(HASH, txnJson.optString(HASH));
-
-        if (!ignoredFields.contains(INPUT))
-            txnStruct.put(INPUT, txnJson.optString(INPUT));
-
-        if (!ignoredFields.contains(NONCE))
-            txnStruct.put(NONCE, hexToBigIntegerStr(txnJson.optString(NONCE)));
-        if (!ignoredFields.contains(TRANSACTION_INDEX))
-            txnStruct.put(TRANSACTION_INDEX, hexToBigIntegerStr(txnJson.optString(TRANSACTION_INDEX)));
-        if (!ignoredFields.contains(VALUE))
-            txnStruct.put(VALUE, hexToBigIntegerStr(txnJson.optString(VALUE)));
-        if (!ignoredFields.contains(TIMESTAMP))
-            if (hexToBigIntegerStr(txnJson.optString(TIMESTAMP)).equals("")) {
-                txnStruct.put(TIMESTAMP, timestamp);
-            } else {
-                txnStruct.put(TIMESTAMP, hexToBigIntegerStr(txnJson.optString(TIMESTAMP)));
-            }
 
-        if (!ignoredFields.contains(V))
-            txnStruct.put(V, txnJson.optString(V));
-        if (!ignoredFields.contains(R))
-            txnStruct.put(R, txnJson.optString(R));
-        if (!ignoredFields.contains(S))
-            txnStruct.put(S, txnJson.optString(S));
-        if (!ignoredFields.contains(CHAIN_NAME))
-            txnStruct.put(CHAIN_NAME, chainName);
+        for (BlockProjection.FieldExtractor field : projection.getTransactionFields()) {
+            field.put(txnStruct, txnJson.optString(field.getName()));
+        }
+
+        if (projection.isIncludeTransactionTimestamp()) {
+            Object txnTimestamp = projection.getTransactionTimestampField().convert(txnJson.optString(TIMESTAMP));
+            txnStruct.put(TIMESTAMP, txnTimestamp == null || "".equals(txnTimestamp) ? timestamp : txnTimestamp);
+        }
+
+        if (projection.isIncludeTransactionChainName())
+            txnStruct.put(CHAIN_NAME, projection.getChainName());
         return txnStruct;
     }
+
+    /**
+     * Copy the receipt fields to a transaction struct of a receipt schema
+     * @param txnStruct transaction struct
+     * @param receiptJson receipt of the transaction
+     * @param projection fields to publish
+     */
+    public static void putReceipt(Struct txnStruct, JSONObject receiptJson, BlockProjection projection) {
+        for (BlockProjection.FieldExtractor field : projection.getReceiptFields()) {
+            field.put(txnStruct, receiptJson.optString(field.getName()));
+        }
+
+        if (projection.isIncludeTransactionLogs()) {
+            JSONArray logsArray = receiptJson.optJSONArray(LOGS);
+            List<Struct> logs = new ArrayList<>();
+            if (logsArray != null) {
+                for (int i = 0; i < logsArray.length(); i++)
+                    logs.add(eventConverter.convertFromJSON(logsArray.getJSONObject(i)));
+            }
+            txnStruct.put(LOGS, logs);
+        }
+    }
 }
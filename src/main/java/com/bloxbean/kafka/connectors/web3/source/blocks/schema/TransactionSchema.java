@@ -1,5 +1,7 @@
 package com.bloxbean.kafka.connectors.web3.source.blocks.schema;
 
+import com.bloxbean.kafka.connectors.web3.source.events.schema.EventSchema;
+import org.apache.kafka.connect.data.Decimal;
 import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.data.SchemaBuilder;
 
@@ -24,26 +26,83 @@ public class TransactionSchema {
     public static final String S = "s";
     public static final String CHAIN_NAME = "chainName";
 
-    public final static Schema SCHEMA = SchemaBuilder.struct().name("com.bloxbean.kafka.connectors.web3.source.schema.Transaction")
-            .field(BLOCK_HASH, Schema.OPTIONAL_STRING_SCHEMA)
-            .field(BLOCK_NUMBER, Schema.OPTIONAL_STRING_SCHEMA)
-            .field(FROM, Schema.OPTIONAL_STRING_SCHEMA)
-            .field(TO, Schema.OPTIONAL_STRING_SCHEMA)
-            .field(NRG, Schema.OPTIONAL_STRING_SCHEMA) //Quntity
-            .field(NRG_PRICE, Schema.OPTIONAL_STRING_SCHEMA) //Quntity
-            .field(GAS, Schema.OPTIONAL_STRING_SCHEMA) //Quntity
-            .field(GAS_PRICE, Schema.OPTIONAL_STRING_SCHEMA) //Quntity
-            .field(HASH, Schema.OPTIONAL_STRING_SCHEMA)
-            .field(INPUT, Schema.OPTIONAL_STRING_SCHEMA)
-            .field(NONCE, Schema.OPTIONAL_STRING_SCHEMA)
-            .field(TRANSACTION_INDEX, Schema.OPTIONAL_STRING_SCHEMA)
-            .field(VALUE, Schema.OPTIONAL_STRING_SCHEMA) //Quntity
-            .field(TIMESTAMP, Schema.OPTIONAL_STRING_SCHEMA)
-            .field(V, Schema.OPTIONAL_STRING_SCHEMA)
-            .field(R, Schema.OPTIONAL_STRING_SCHEMA)
-            .field(S, Schema.OPTIONAL_STRING_SCHEMA)
-            .field(CHAIN_NAME, Schema.OPTIONAL_STRING_SCHEMA)
+    //Receipt fields. Only in the receipt schemas
+    public static final String STATUS = "status";
+    public static final String GAS_USED = "gasUsed";
+    public static final String CUMULATIVE_GAS_USED = "cumulativeGasUsed";
+    public static final String EFFECTIVE_GAS_PRICE = "effectiveGasPrice";
+    public static final String CONTRACT_ADDRESS = "contractAddress";
+    public static final String LOGS = "logs";
+
+    //256 bit quantity as decimal without fraction
+    public final static Schema OPTIONAL_QUANTITY_DECIMAL_SCHEMA = Decimal.builder(0).optional().build();
+
+    public final static Schema SCHEMA = stringSchemaBuilder().build();
+
+    public final static Schema TYPED_SCHEMA = typedSchemaBuilder().build();
+
+    //Schemas with the receipt fields of the transaction. Used if transaction receipts are enabled
+    public final static Schema RECEIPT_SCHEMA = stringSchemaBuilder()
+            .field(STATUS, Schema.OPTIONAL_STRING_SCHEMA) //Quntity
+            .field(GAS_USED, Schema.OPTIONAL_STRING_SCHEMA) //Quntity
+            .field(CUMULATIVE_GAS_USED, Schema.OPTIONAL_STRING_SCHEMA) //Quntity
+            .field(EFFECTIVE_GAS_PRICE, Schema.OPTIONAL_STRING_SCHEMA) //Quntity
+            .field(CONTRACT_ADDRESS, Schema.OPTIONAL_STRING_SCHEMA)
+            .field(LOGS, SchemaBuilder.array(EventSchema.SCHEMA).optional().build())
+            .build();
+
+    public final static Schema TYPED_RECEIPT_SCHEMA = typedSchemaBuilder()
+            .field(STATUS, Schema.OPTIONAL_INT64_SCHEMA)
+            .field(GAS_USED, Schema.OPTIONAL_INT64_SCHEMA)
+            .field(CUMULATIVE_GAS_USED, Schema.OPTIONAL_INT64_SCHEMA)
+            .field(EFFECTIVE_GAS_PRICE, OPTIONAL_QUANTITY_DECIMAL_SCHEMA)
+            .field(CONTRACT_ADDRESS, Schema.OPTIONAL_STRING_SCHEMA)
+            .field(LOGS, SchemaBuilder.array(EventSchema.SCHEMA).optional().build())
             .build();
 
+    private static SchemaBuilder stringSchemaBuilder() {
+        return SchemaBuilder.struct().name("com.bloxbean.kafka.connectors.web3.source.schema.Transaction")
+                .field(BLOCK_HASH, Schema.OPTIONAL_STRING_SCHEMA)
+                .field(BLOCK_NUMBER, Schema.OPTIONAL_STRING_SCHEMA)
+                .field(FROM, Schema.OPTIONAL_STRING_SCHEMA)
+                .field(TO, Schema.OPTIONAL_STRING_SCHEMA)
+                .field(NRG, Schema.OPTIONAL_STRING_SCHEMA) //Quntity
+                .field(NRG_PRICE, Schema.OPTIONAL_STRING_SCHEMA) //Quntity
+                .field(GAS, Schema.OPTIONAL_STRING_SCHEMA) //Quntity
+                .field(GAS_PRICE, Schema.OPTIONAL_STRING_SCHEMA) //Quntity
+                .field(HASH, Schema.OPTIONAL_STRING_SCHEMA)
+                .field(INPUT, Schema.OPTIONAL_STRING_SCHEMA)
+                .field(NONCE, Schema.OPTIONAL_STRING_SCHEMA)
+                .field(TRANSACTION_INDEX, Schema.OPTIONAL_STRING_SCHEMA)
+                .field(VALUE, Schema.OPTIONAL_STRING_SCHEMA) //Quntity
+                .field(TIMESTAMP, Schema.OPTIONAL_STRING_SCHEMA)
+                .field(V, Schema.OPTIONAL_STRING_SCHEMA)
+                .field(R, Schema.OPTIONAL_STRING_SCHEMA)
+                .field(S, Schema.OPTIONAL_STRING_SCHEMA)
+                .field(CHAIN_NAME, Schema.OPTIONAL_STRING_SCHEMA);
+    }
 
+    //Typed version of the schema. Quantities which fit in 64 bits are INT64, 256 bit quantities are Decimal
+    private static SchemaBuilder typedSchemaBuilder() {
+        return SchemaBuilder.struct().name("com.bloxbean.kafka.connectors.web3.source.schema.Transaction")
+                .version(2)
+                .field(BLOCK_HASH, Schema.OPTIONAL_STRING_SCHEMA)
+                .field(BLOCK_NUMBER, Schema.OPTIONAL_INT64_SCHEMA)
+                .field(FROM, Schema.OPTIONAL_STRING_SCHEMA)
+                .field(TO, Schema.OPTIONAL_STRING_SCHEMA)
+                .field(NRG, Schema.OPTIONAL_INT64_SCHEMA)
+                .field(NRG_PRICE, OPTIONAL_QUANTITY_DECIMAL_SCHEMA)
+                .field(GAS, Schema.OPTIONAL_INT64_SCHEMA)
+                .field(GAS_PRICE, OPTIONAL_QUANTITY_DECIMAL_SCHEMA)
+                .field(HASH, Schema.OPTIONAL_STRING_SCHEMA)
+                .field(INPUT, Schema.OPTIONAL_STRING_SCHEMA)
+                .field(NONCE, Schema.OPTIONAL_INT64_SCHEMA)
+                .field(TRANSACTION_INDEX, Schema.OPTIONAL_INT64_SCHEMA)
+                .field(VALUE, OPTIONAL_QUANTITY_DECIMAL_SCHEMA)
+                .field(TIMESTAMP, Schema.OPTIONAL_INT64_SCHEMA)
+                .field(V, Schema.OPTIONAL_STRING_SCHEMA)
+                .field(R, Schema.OPTIONAL_STRING_SCHEMA)
+                .field(S, Schema.OPTIONAL_STRING_SCHEMA)
+                .field(CHAIN_NAME, Schema.OPTIONAL_STRING_SCHEMA);
+    }
 }
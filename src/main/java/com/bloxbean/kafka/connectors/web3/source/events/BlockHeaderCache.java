@@ -0,0 +1,87 @@
+package com.bloxbean.kafka.connectors.web3.source.events;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of recent block headers keyed by block number. A lookup also checks the block hash, so a header of a
+ * block which is not on the canonical chain anymore is never returned for a log of the new block.
+ * Not thread safe.
+ */
+public class BlockHeaderCache {
+    private final Map<Long, BlockHeader> headers;
+
+    public BlockHeaderCache(final int maxSize) {
+        this.headers = new LinkedHashMap<Long, BlockHeader>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, BlockHeader> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * @param blockNumber block number
+     * @param blockHash expected block hash. If null, hash is not checked
+     * @return header or null if not found or hash doesn't match
+     */
+    public BlockHeader get(long blockNumber, String blockHash) {
+        BlockHeader header = headers.get(blockNumber);
+        if (header == null)
+            return null;
+
+        if (blockHash != null && !blockHash.equalsIgnoreCase(header.getHash()))
+            return null;
+
+        return header;
+    }
+
+    public boolean contains(long blockNumber) {
+        return headers.containsKey(blockNumber);
+    }
+
+    public void put(BlockHeader header) {
+        headers.put(header.getNumber(), header);
+    }
+
+    public int size() {
+        return headers.size();
+    }
+
+    public static class BlockHeader {
+        private final long number;
+        private final String hash;
+        private final long timestamp;
+        private final byte[] logsBloom;
+
+        public BlockHeader(long number, String hash, long timestamp) {
+            this(number, hash, timestamp, null);
+        }
+
+        public BlockHeader(long number, String hash, long timestamp, byte[] logsBloom) {
+            this.number = number;
+            this.hash = hash;
+            this.timestamp = timestamp;
+            this.logsBloom = logsBloom;
+        }
+
+        public long getNumber() {
+            return number;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        /**
+         * @return logsBloom bytes or null if not available
+         */
+        public byte[] getLogsBloom() {
+            return logsBloom;
+        }
+    }
+}
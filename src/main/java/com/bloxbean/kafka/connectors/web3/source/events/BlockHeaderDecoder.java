@@ -0,0 +1,47 @@
+package com.bloxbean.kafka.connectors.web3.source.events;
+
+import com.bloxbean.kafka.connectors.web3.client.RpcResultDecoder;
+import com.bloxbean.kafka.connectors.web3.util.HexConverter;
+import com.bloxbean.kafka.connectors.web3.util.JsonStreamUtil;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+
+/**
+ * Decodes only number, hash, timestamp and logsBloom of a block from a json rpc response stream. All other fields, including
+ * transactions, are skipped.
+ */
+public class BlockHeaderDecoder implements RpcResultDecoder<BlockHeaderCache.BlockHeader> {
+
+    @Override
+    public BlockHeaderCache.BlockHeader decode(JsonReader reader) throws IOException {
+        String number = null;
+        String hash = "";
+        String timestamp = null;
+        String logsBloom = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "number":
+                    number = JsonStreamUtil.readString(reader);
+                    break;
+                case "hash":
+                    hash = JsonStreamUtil.readString(reader);
+                    break;
+                case "timestamp":
+                    timestamp = JsonStreamUtil.readString(reader);
+                    break;
+                case "logsBloom":
+                    logsBloom = JsonStreamUtil.readString(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new BlockHeaderCache.BlockHeader(HexConverter.hexToLongValue(number), hash, HexConverter.hexToTimestampInMillis(timestamp),
+                LogsBloomFilter.parseBloom(logsBloom));
+    }
+}
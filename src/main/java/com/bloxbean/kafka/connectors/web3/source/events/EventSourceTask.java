@@ -1,15 +1,21 @@
 package com.bloxbean.kafka.connectors.web3.source.events;
 
+import com.bloxbean.kafka.connectors.web3.client.ChainHeadTracker;
+import com.bloxbean.kafka.connectors.web3.client.RpcResponse;
+import com.bloxbean.kafka.connectors.web3.client.RpcResultDecoder;
 import com.bloxbean.kafka.connectors.web3.client.Web3RpcClient;
 import com.bloxbean.kafka.connectors.web3.exception.Web3ConnectorException;
 import com.bloxbean.kafka.connectors.web3.exception.Web3Exception;
+import com.bloxbean.kafka.connectors.web3.source.PollScheduler;
+import com.bloxbean.kafka.connectors.web3.source.TaskMetrics;
+import com.bloxbean.kafka.connectors.web3.source.events.abi.AbiEventRegistry;
 import com.bloxbean.kafka.connectors.web3.source.events.schema.EventConverter;
 import com.bloxbean.kafka.connectors.web3.source.events.schema.EventSchema;
+import com.bloxbean.kafka.connectors.web3.source.events.schema.StreamingEventDecoder;
 import com.bloxbean.kafka.connectors.web3.util.ConfigConstants;
 import com.bloxbean.kafka.connectors.web3.util.HexConverter;
-import com.bloxbean.kafka.connectors.web3.util.StringUtil;
+import com.bloxbean.kafka.connectors.web3.util.JsonStreamUtil;
 import kong.unirest.json.JSONArray;
-import kong.unirest.json.JSONException;
 import kong.unirest.json.JSONObject;
 import org.apache.kafka.connect.data.Struct;
 import org.apache.kafka.connect.source.SourceRecord;
@@ -18,23 +24,34 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 import static com.bloxbean.kafka.connectors.web3.util.ConfigConstants.LAST_FETCHED_BLOCK_NUMBER;
 import static com.bloxbean.kafka.connectors.web3.util.ConfigConstants.WEB3_RPC_URL;
 
 public class EventSourceTask extends SourceTask {
     private static Logger logger = LoggerFactory.getLogger(EventSourceTask.class);
-    private static int RETRY_THRESHOLD = 10;
-    private static int DELAY_AFTER_RETRY_THRESHOLD = 30 * 1000; //Retry every 30 sec after retry threshhold
+    private static int RETRY_THRESHOLD = 10; //Only the error message is logged after retry threshold
+    private final static RpcResultDecoder<JSONObject> JSON_DECODER = reader -> new JSONObject(JsonStreamUtil.readJson(reader));
 
     private EventSourceConfig config;
     private Web3RpcClient web3RpcClient;
 
-    private long newBlockWaitTime = 0;
+    private PollScheduler pollScheduler;
     private long blockNumberOffset;
 
-    private int retryCounter;
+    private ChainHeadTracker headTracker;
+
+    private LogRangeFetcher logRangeFetcher;
+    private BlockHeaderCache headerCache;
+    private AbiEventRegistry abiEventRegistry;
+    private LogsBloomFilter logsBloomFilter;
+    private long scanLimitBlockNumber; //Last final block number of the current poll
+    private TaskMetrics metrics;
+
     private EventConverter eventConverter = new EventConverter();
+    private StreamingEventDecoder streamingEventDecoder = new StreamingEventDecoder();
+    private BlockHeaderDecoder blockHeaderDecoder = new BlockHeaderDecoder();
 
     public String version() {
         return ConfigConstants.VERSION;
@@ -44,7 +61,19 @@ public class EventSourceTask extends SourceTask {
         //Find last offset or blocknumber
         config = new EventSourceConfig(map);
         initializeLastVariables();
-        web3RpcClient = new Web3RpcClient(config.getWeb3RpcUrl());
+        web3RpcClient = new Web3RpcClient(config.getWeb3RpcUrl(), config.getRpcClientOptions());
+        metrics = new TaskMetrics(map.get(ConfigConstants.CONNECTOR_NAME));
+        web3RpcClient.setMetrics(metrics.getRpcMetrics());
+        headTracker = ChainHeadTracker.acquire(config.getWeb3RpcUrl(), config.getRpcClientOptions().cacheDir(null),
+                config.getHeadRefreshInterval(), config.getWeb3WsUrl());
+        web3RpcClient.setFinalBlockNumberSupplier(() -> headTracker.getLatestBlockNumber() - config.getNoBlocksForFinality());
+        metrics.setHeadBlockNumberSupplier(headTracker::getLatestBlockNumber);
+
+        logRangeFetcher = new LogRangeFetcher(this::getLogs, config.getEventLogsMaxBlockRange());
+        headerCache = new BlockHeaderCache(config.getBlockHeaderCacheSize());
+        abiEventRegistry = AbiEventRegistry.load(config.getEventAbiFiles());
+        if (config.isEventLogsBloomFilter())
+            logsBloomFilter = new LogsBloomFilter(config.getEventLogsFilterAddresses(), config.getEventLogsFilterTopics());
     }
 
     private void initializeLastVariables() {
@@ -61,45 +90,51 @@ public class EventSourceTask extends SourceTask {
             else
                 throw new Web3ConnectorException(String.format("Invalid last fetched block number : %s", lastFetchedBlockNumber));
         }
-        newBlockWaitTime = config.getBlockTime() * 1000;
+        pollScheduler = new PollScheduler(config.getBlockTimeInMillis(), config.getPollBackoffInitial(), config.getPollBackoffMax());
     }
 
+    /**
+     * Scan a block range with a single getLogs call. Range size is 1 unless event_logs_max_block_range is set.
+     * In catch-up mode, multiple ranges are scanned in a poll till catchup_max_records or catchup_max_poll_time_ms is reached.
+     */
     public List<SourceRecord> poll() throws InterruptedException {
         try {
-            if(!canContinue(blockNumberOffset)) {//Wait. May be finality not reached.
-                Thread.sleep(newBlockWaitTime);
-                return Collections.EMPTY_LIST;
-            }
-
-            //Check if latest block is available. This is required to read the timestamp
-            JSONObject blockJson = web3RpcClient.getBlockByNumber(blockNumberOffset, false);
-            if (blockJson == null) {
-                logger.info("Unable to fetch blocks from blockchain. Let's wait for {} sec to get the new block : {}", newBlockWaitTime/1000, blockNumberOffset);
-                Thread.sleep(newBlockWaitTime);
-                return Collections.EMPTY_LIST;
+            int finalityBlocksNo = config.getNoBlocksForFinality();
+            long latestBlockNumber = headTracker.getLatestBlockNumber();
+            if (blockNumberOffset > latestBlockNumber - finalityBlocksNo) {
+                //Wait. May be finality not reached or no new block. Only block on the head tracker when within finality window
+                latestBlockNumber = headTracker.awaitBlockNumber(blockNumberOffset + finalityBlocksNo, pollScheduler.getBlockWaitTime(), pollScheduler::isStopped);
+                if (blockNumberOffset > latestBlockNumber - finalityBlocksNo) {
+                    logger.info("Wait for new block !!! BlockNumberOffset :{}, Latest Block# on chain: {}", blockNumberOffset, latestBlockNumber);
+                    return Collections.emptyList();
+                }
             }
 
-            logger.info("Scanned Block {} : ", blockNumberOffset);
-
-            JSONArray eventArrayJson = web3RpcClient.getLogs(blockNumberOffset, blockNumberOffset, config.getEventLogsFilterAddresses(), config.getEventLogsFilterTopics(), null);
+            long lastBlockNumber = latestBlockNumber - finalityBlocksNo;
+            scanLimitBlockNumber = lastBlockNumber;
 
-            long timestamp = HexConverter.hexToTimestampInMillis(blockJson.getString("timestamp"));
-            if (eventArrayJson == null || eventArrayJson.length() == 0) {
-                SourceRecord sourceRecord = generateDummyEntry(blockNumberOffset, timestamp);
-                blockNumberOffset++;
-                return Arrays.asList(sourceRecord);
-            }
+            int maxRecords = config.getCatchupMaxRecords();
+            boolean catchingUp = maxRecords > 0 && lastBlockNumber - blockNumberOffset >= config.getCatchupHeadDistance();
+            long deadline = System.currentTimeMillis() + config.getCatchupMaxPollTime();
 
+            long fromBlockNumber = blockNumberOffset;
             List<SourceRecord> sourceRecords = new ArrayList<>();
-            List<String> kafkaKeyNames = config.getEventLogsKafkaKeys();
-            for(int i=0; i< eventArrayJson.length(); i++) {
-                SourceRecord sourceRecord = generateSourceRecord(kafkaKeyNames, eventArrayJson.getJSONObject(i), blockNumberOffset, timestamp);
-                sourceRecords.add(sourceRecord);
-            }
-            logger.info("# of events found {}", sourceRecords.size());
+            try {
+                do {
+                    LogRangeFetcher.LogRange logRange = logRangeFetcher.fetch(blockNumberOffset, lastBlockNumber);
+                    sourceRecords.addAll(processRange(logRange, lastBlockNumber));
+                } while (catchingUp && blockNumberOffset <= lastBlockNumber
+                        && sourceRecords.size() < maxRecords && System.currentTimeMillis() < deadline);
+            } catch (RuntimeException ex) {
+                if (blockNumberOffset == fromBlockNumber)
+                    throw ex;
 
-            blockNumberOffset++;
+                //Return the ranges processed so far. Failed range will be fetched again in next poll
+                logger.warn("Error scanning blocks from {}. Returning events found so far. Reason: {}", blockNumberOffset, ex.getMessage());
+            }
 
+            metrics.recordPoll(blockNumberOffset - fromBlockNumber, sourceRecords.size());
+            pollScheduler.onSuccess();
             return sourceRecords;
         } catch (Web3ConnectorException | Web3Exception ex) {
             if(!isRetryThresholdReachedAndwaitDuringRetry()) {
@@ -118,30 +153,202 @@ public class EventSourceTask extends SourceTask {
         }
     }
 
-    private boolean canContinue(long blockNumber) {
-        int finalityBlocksNo = config.getNoBlocksForFinality();
-        if(finalityBlocksNo == 0) {
-            return true;
-        } else {
-            //Wait for finality blocks.
-            //Get latest block and see the difference
-            String latestBlockNumberStr = web3RpcClient.getLatestBlock();
-            if(StringUtil.isEmpty(latestBlockNumberStr)) {
-                logger.error("Unable to get latest block number");
-                return false;
+    /**
+     * Get logs of the block range as event structs
+     */
+    private List<Struct> getLogs(long fromBlockNumber, long toBlockNumber) {
+        if (logsBloomFilter != null && !mightHaveLogs(fromBlockNumber, toBlockNumber))
+            return Collections.emptyList();
+
+        long ioStart = System.nanoTime();
+        if (config.isStreamingJsonDecode()) {
+            //Decoded while reading the response, counted as io time
+            List<Struct> events = web3RpcClient.getLogs(fromBlockNumber, toBlockNumber, config.getEventLogsFilterAddresses(), config.getEventLogsFilterTopics(), null, streamingEventDecoder);
+            metrics.recordIoTime(ioStart);
+            return events;
+        }
+
+        JSONArray eventArrayJson = web3RpcClient.getLogs(fromBlockNumber, toBlockNumber, config.getEventLogsFilterAddresses(), config.getEventLogsFilterTopics(), null);
+        metrics.recordIoTime(ioStart);
+        if (eventArrayJson == null)
+            return null;
+
+        long conversionStart = System.nanoTime();
+        List<Struct> events = new ArrayList<>(eventArrayJson.length());
+        for (int i = 0; i < eventArrayJson.length(); i++) {
+            events.add(eventConverter.convertFromJSON(eventArrayJson.getJSONObject(i)));
+        }
+        metrics.recordConversionTime(conversionStart);
+        return events;
+    }
+
+    /**
+     * Check the logsBloom of the blocks in the range against the filter. Headers are read from the header cache. When
+     * scanning block by block with rpc_batch_size > 1, a missing header is fetched with the headers of the following
+     * blocks in one batch call, which replaces a getLogs call per block for selective filters.
+     * @return false if no block in the range can have a matching log
+     */
+    private boolean mightHaveLogs(long fromBlockNumber, long toBlockNumber) {
+        if (config.getEventLogsMaxBlockRange() == 1 && config.getRpcBatchSize() > 1 && !headerCache.contains(fromBlockNumber))
+            fetchHeaders(Collections.singleton(fromBlockNumber), scanLimitBlockNumber);
+
+        for (long blockNumber = fromBlockNumber; blockNumber <= toBlockNumber; blockNumber++) {
+            BlockHeaderCache.BlockHeader header = headerCache.get(blockNumber, null);
+            if (header == null || logsBloomFilter.mightMatch(header.getLogsBloom()))
+                return true;
+        }
+
+        if (logger.isDebugEnabled())
+            logger.debug("Blocks {} - {} skipped. logsBloom doesn't match the filter", fromBlockNumber, toBlockNumber);
+        return false;
+    }
+
+    /**
+     * Convert logs of a fully covered range to source records and move blockNumberOffset to the end of the range
+     */
+    private List<SourceRecord> processRange(LogRangeFetcher.LogRange logRange, long lastBlockNumber) {
+        List<Struct> events = logRange.getLogs();
+        long ioStart = System.nanoTime();
+        Map<Long, Long> timestamps = getBlockTimestamps(events, lastBlockNumber);
+        metrics.recordIoTime(ioStart);
+
+        long conversionStart = System.nanoTime();
+        List<SourceRecord> sourceRecords = new ArrayList<>(events.size() + 1);
+        List<String> kafkaKeyNames = config.getEventLogsKafkaKeys();
+        long lastEventBlockNumber = -1;
+        for (Struct event : events) {
+            long blockNumber = event.getInt64(EventSchema.BLOCK_NUMBER);
+
+            sourceRecords.add(generateSourceRecord(kafkaKeyNames, abiEventRegistry.decode(event), blockNumber, timestamps.get(blockNumber)));
+            lastEventBlockNumber = blockNumber;
+        }
+
+        //Headers are only fetched for blocks with events. Enough to estimate the block interval
+        if (lastEventBlockNumber >= 0 && timestamps.get(lastEventBlockNumber) != null)
+            pollScheduler.onBlock(lastEventBlockNumber, timestamps.get(lastEventBlockNumber));
+
+        //Store the offset of the fully covered range
+        if (lastEventBlockNumber != logRange.getToBlockNumber())
+            sourceRecords.add(generateDummyEntry(logRange.getToBlockNumber(), null));
+        metrics.recordConversionTime(conversionStart);
+        metrics.recordOffset(logRange.getToBlockNumber(), lastEventBlockNumber == logRange.getToBlockNumber() ? timestamps.get(lastEventBlockNumber) : null);
+
+        logger.info("Scanned Blocks {} - {}, # of events found {}", logRange.getFromBlockNumber(), logRange.getToBlockNumber(), events.size());
+
+        blockNumberOffset = logRange.getToBlockNumber() + 1;
+        return sourceRecords;
+    }
+
+    /**
+     * Timestamp of the blocks which have events. Headers are read from the header cache, missing headers are fetched
+     * in a single batch call.
+     * @return block number to timestamp in millis
+     */
+    private Map<Long, Long> getBlockTimestamps(List<Struct> events, long lastBlockNumber) {
+        Map<Long, Long> timestamps = new HashMap<>();
+        Map<Long, String> missingBlocks = new LinkedHashMap<>();
+        for (Struct event : events) {
+            long blockNumber = event.getInt64(EventSchema.BLOCK_NUMBER);
+            if (timestamps.containsKey(blockNumber) || missingBlocks.containsKey(blockNumber))
+                continue;
+
+            String blockHash = event.getString(EventSchema.BLOCK_HASH);
+            BlockHeaderCache.BlockHeader header = headerCache.get(blockNumber, blockHash);
+            if (header != null)
+                timestamps.put(blockNumber, header.getTimestamp());
+            else
+                missingBlocks.put(blockNumber, blockHash);
+        }
+
+        if (missingBlocks.isEmpty())
+            return timestamps;
+
+        //Read from the fetched headers, the cache may be smaller than the no of blocks with events in the range
+        Map<Long, BlockHeaderCache.BlockHeader> headers = fetchHeaders(missingBlocks.keySet(), lastBlockNumber);
+        for (Map.Entry<Long, String> entry : missingBlocks.entrySet()) {
+            BlockHeaderCache.BlockHeader header = headers.get(entry.getKey());
+            if (entry.getValue() != null && !entry.getValue().equalsIgnoreCase(header.getHash()))
+                logger.warn("Block hash of event {} doesn't match with block hash {} of block {}. May be a chain reorg", entry.getValue(), header.getHash(), entry.getKey());
+
+            timestamps.put(entry.getKey(), header.getTimestamp());
+        }
+
+        return timestamps;
+    }
+
+    /**
+     * Fetch headers of the given blocks with a single batch call and add them to the header cache.
+     * When scanning block by block, headers of the following blocks are fetched too (till rpc_batch_size), as events
+     * are usually emitted in consecutive blocks.
+     * @return fetched headers by block number. Contains all the given blocks
+     */
+    private Map<Long, BlockHeaderCache.BlockHeader> fetchHeaders(Set<Long> blockNumbers, long lastBlockNumber) {
+        List<Long> fetchBlockNumbers = new ArrayList<>(blockNumbers);
+        if (config.getEventLogsMaxBlockRange() == 1) {
+            long nextBlockNumber = Collections.max(blockNumbers) + 1;
+            while (fetchBlockNumbers.size() < config.getRpcBatchSize() && nextBlockNumber <= lastBlockNumber) {
+                if (!headerCache.contains(nextBlockNumber))
+                    fetchBlockNumbers.add(nextBlockNumber);
+                nextBlockNumber++;
+            }
+        }
+
+        List<RpcResponse> responses = fetchHeaderResponses(fetchBlockNumbers);
+
+        Map<Long, BlockHeaderCache.BlockHeader> headers = new HashMap<>();
+        for (int i = 0; i < responses.size(); i++) {
+            RpcResponse response = responses.get(i);
+            long blockNumber = fetchBlockNumbers.get(i);
+            if (response.hasError() || response.getResult() == null) {
+                if (blockNumbers.contains(blockNumber))
+                    throw new Web3Exception(String.format("Unable to fetch block %d. Reason: %s", blockNumber, response.getError()));
+                continue; //Header of a following block is not required now
+            }
+
+            BlockHeaderCache.BlockHeader header;
+            if (response.getResult() instanceof BlockHeaderCache.BlockHeader) {
+                BlockHeaderCache.BlockHeader decoded = (BlockHeaderCache.BlockHeader) response.getResult();
+                header = new BlockHeaderCache.BlockHeader(blockNumber, decoded.getHash(), decoded.getTimestamp(), decoded.getLogsBloom());
             } else {
-                long latestBlockNumber = Long.parseLong(latestBlockNumberStr);
-                if(finalityBlocksNo <= (latestBlockNumber - blockNumber)) {
-                    return true;
-                } else {
-                    logger.info("Wait for finality !!! BlockNumberOffset :{}, Latest Block# on chain: {}", blockNumberOffset, latestBlockNumber);
-                    return false;
-                }
+                JSONObject blockJson = response.getJSONObject();
+                header = new BlockHeaderCache.BlockHeader(blockNumber, blockJson.optString("hash"),
+                        HexConverter.hexToTimestampInMillis(blockJson.getString("timestamp")),
+                        LogsBloomFilter.parseBloom(blockJson.optString("logsBloom", null)));
             }
+            headerCache.put(header);
+            headers.put(blockNumber, header);
+        }
+
+        return headers;
+    }
+
+    /**
+     * Fetch the blocks in batches of rpc_batch_size. All batches are sent at once through the async client, so the
+     * no of requests in flight is only bounded by rpc_max_in_flight.
+     * @return one response per block number in request order
+     */
+    private List<RpcResponse> fetchHeaderResponses(List<Long> blockNumbers) {
+        RpcResultDecoder<?> decoder = config.isStreamingJsonDecode() ? blockHeaderDecoder : JSON_DECODER;
+        int batchSize = config.getRpcBatchSize();
+
+        List<CompletableFuture<List<RpcResponse>>> futures = new ArrayList<>();
+        for (int i = 0; i < blockNumbers.size(); i += batchSize) {
+            List<Long> batch = blockNumbers.subList(i, Math.min(i + batchSize, blockNumbers.size()));
+            if (batch.size() == 1)
+                futures.add(web3RpcClient.getBlockByNumberAsync(batch.get(0), false, decoder)
+                        .thenApply(block -> Collections.singletonList(new RpcResponse(null, block, null))));
+            else
+                futures.add(web3RpcClient.getBlocksByNumberAsync(batch, false, decoder));
         }
+
+        List<RpcResponse> responses = new ArrayList<>(blockNumbers.size());
+        for (CompletableFuture<List<RpcResponse>> future : futures) {
+            responses.addAll(Web3RpcClient.join(future));
+        }
+        return responses;
     }
 
-    private SourceRecord generateDummyEntry(long blockNumberOffset, long timestamp) {
+    private SourceRecord generateDummyEntry(long blockNumberOffset, Long timestamp) {
         return new SourceRecord(
                 sourcePartition(),
                 sourceOffset(blockNumberOffset),
@@ -156,8 +363,8 @@ public class EventSourceTask extends SourceTask {
     }
 
 
-    private SourceRecord generateSourceRecord(List<String> kafkaKeys, JSONObject eventJson, long blockNumberOffset, long timestamp) {
-        Struct key = buildKeys(eventJson, kafkaKeys);
+    private SourceRecord generateSourceRecord(List<String> kafkaKeys, Struct event, long blockNumberOffset, Long timestamp) {
+        Struct key = eventConverter.convertToKey(event, kafkaKeys);
         logger.info("Event key : {}", key);
 
         return new SourceRecord(
@@ -167,40 +374,15 @@ public class EventSourceTask extends SourceTask {
                 null, // partition will be inferred by the framework
                 EventSchema.KEY_SCHEMA,
                 key,
-                EventSchema.SCHEMA,
-                eventConverter.convertFromJSON(eventJson),
+                event.schema(), //Schema of the decoded event if an ABI event matches
+                event,
                 timestamp
         );
     }
 
-    private Struct buildKeys(JSONObject eventJson, List<String> kafkaKeys) {
-        if (eventJson == null)
-            return null;
-
-        if (kafkaKeys == null || kafkaKeys.isEmpty())
-            return null;
-
-        Struct keyStruct = new Struct(EventSchema.KEY_SCHEMA);
-        for (String keyName : kafkaKeys) {
-            try {
-                if ("topic".equals(keyName)) {
-                    String val = eventJson.getJSONArray("topics").getString(0);
-                    keyStruct.put("topic", val);
-                } else {
-                    String val = eventJson.getString(keyName);
-                    keyStruct.put(keyName, val);
-                }
-            } catch (JSONException e) {
-                e.printStackTrace();
-            }
-        }
-
-        return keyStruct;
-    }
-
     private Map<String, String> sourcePartition() {
         Map<String, String> map = new HashMap<>();
-        map.put(config.getTopic()+"_"+WEB3_RPC_URL, config.getWeb3RpcUrl());
+        map.put(config.getTopic() + "_" + WEB3_RPC_URL, config.getSourcePartitionKey());
         return map;
     }
 
@@ -210,18 +392,30 @@ public class EventSourceTask extends SourceTask {
         return map;
     }
 
+    /**
+     * Wait with backoff before the next attempt. Returns early if the task is stopped
+     */
     private boolean isRetryThresholdReachedAndwaitDuringRetry() throws InterruptedException {
-        retryCounter ++;
-        if(retryCounter >= RETRY_THRESHOLD) {
-            Thread.sleep(DELAY_AFTER_RETRY_THRESHOLD);
-            return true;
-        } else {
-            Thread.sleep(10000);
-            return false;
-        }
+        metrics.recordRetry();
+        pollScheduler.sleep(pollScheduler.onError());
+        return pollScheduler.getErrorCount() >= RETRY_THRESHOLD;
     }
 
     public void stop() {
-        //Do to stop the task
+        //Wake up the task thread if it's waiting in poll()
+        if (pollScheduler != null)
+            pollScheduler.stop();
+
+        if (headTracker != null)
+            headTracker.wakeUp();
+
+        if (headTracker != null)
+            headTracker.release();
+
+        if (web3RpcClient != null)
+            web3RpcClient.close();
+
+        if (metrics != null)
+            metrics.close();
     }
 }
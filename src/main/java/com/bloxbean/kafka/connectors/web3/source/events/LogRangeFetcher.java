@@ -0,0 +1,140 @@
+package com.bloxbean.kafka.connectors.web3.source.events;
+
+import com.bloxbean.kafka.connectors.web3.exception.Web3Exception;
+import kong.unirest.UnirestException;
+import org.apache.kafka.connect.data.Struct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.SocketTimeoutException;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Fetch event logs for a block range with adaptive range size. The range is split in half when the node rejects it
+ * because of too many results or response size, or doesn't answer it in time, and doubled again when ranges come back
+ * sparse. Rate limit errors don't change the range, they are thrown so that poll() backs off.
+ */
+public class LogRangeFetcher {
+    private static Logger logger = LoggerFactory.getLogger(LogRangeFetcher.class);
+
+    //Range is doubled when a range returns less logs than this
+    private final static int SPARSE_LOG_COUNT = 1000;
+    private final static String[] RANGE_TOO_LARGE_ERRORS = {
+            "too many", "more than", "response size", "size exceeded", "range too large", "block range"
+    };
+    //Read timeout or gateway error of a node or proxy which couldn't answer the range in time
+    private final static Pattern TIMEOUT_ERROR = Pattern.compile("timed out|timeout|http status 5\\d\\d");
+    private final static Pattern RATE_LIMIT_ERROR = Pattern.compile("http status 429|rate limit|rate exceeded|too many requests|exceeded.*requests");
+
+    /**
+     * Returns logs in the block range [fromBlockNumber, toBlockNumber]
+     */
+    public interface LogsSource {
+        List<Struct> getLogs(long fromBlockNumber, long toBlockNumber);
+    }
+
+    private final LogsSource logsSource;
+    private final int maxRangeSize;
+    private int rangeSize;
+
+    public LogRangeFetcher(LogsSource logsSource, int maxRangeSize) {
+        this.logsSource = logsSource;
+        this.maxRangeSize = maxRangeSize;
+        this.rangeSize = maxRangeSize;
+    }
+
+    /**
+     * Fetch logs for the largest range starting at fromBlockNumber the node accepts.
+     * @param fromBlockNumber first block number of the range
+     * @param lastBlockNumber last block number which can be fetched
+     * @return fully covered range with logs
+     */
+    public LogRange fetch(long fromBlockNumber, long lastBlockNumber) {
+        while (true) {
+            long toBlockNumber = Math.min(fromBlockNumber + rangeSize - 1, lastBlockNumber);
+
+            List<Struct> logs;
+            try {
+                logs = logsSource.getLogs(fromBlockNumber, toBlockNumber);
+            } catch (Web3Exception e) {
+                if (toBlockNumber > fromBlockNumber && !isRateLimited(e) && (isRangeTooLarge(e) || isTimeout(e))) {
+                    rangeSize = (int) Math.max(1, (toBlockNumber - fromBlockNumber + 1) / 2);
+                    logger.info("getLogs() rejected for range {} - {}. Retry with range size {}", fromBlockNumber, toBlockNumber, rangeSize);
+                    continue;
+                }
+                throw e;
+            }
+
+            if (logs == null)
+                logs = Collections.emptyList();
+
+            if (logs.size() < SPARSE_LOG_COUNT && rangeSize < maxRangeSize && toBlockNumber - fromBlockNumber + 1 == rangeSize)
+                rangeSize = (int) Math.min((long) rangeSize * 2, maxRangeSize);
+
+            return new LogRange(fromBlockNumber, toBlockNumber, logs);
+        }
+    }
+
+    public int getRangeSize() {
+        return rangeSize;
+    }
+
+    private boolean isRangeTooLarge(Web3Exception e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            String message = t.getMessage();
+            if (message == null)
+                continue;
+
+            message = message.toLowerCase();
+            for (String error : RANGE_TOO_LARGE_ERRORS) {
+                if (message.contains(error))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isTimeout(Web3Exception e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SocketTimeoutException)
+                return true;
+            if (t instanceof UnirestException && t.getMessage() != null && TIMEOUT_ERROR.matcher(t.getMessage().toLowerCase()).find())
+                return true;
+        }
+        return false;
+    }
+
+    private boolean isRateLimited(Web3Exception e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t.getMessage() != null && RATE_LIMIT_ERROR.matcher(t.getMessage().toLowerCase()).find())
+                return true;
+        }
+        return false;
+    }
+
+    public static class LogRange {
+        private final long fromBlockNumber;
+        private final long toBlockNumber;
+        private final List<Struct> logs;
+
+        public LogRange(long fromBlockNumber, long toBlockNumber, List<Struct> logs) {
+            this.fromBlockNumber = fromBlockNumber;
+            this.toBlockNumber = toBlockNumber;
+            this.logs = logs;
+        }
+
+        public long getFromBlockNumber() {
+            return fromBlockNumber;
+        }
+
+        public long getToBlockNumber() {
+            return toBlockNumber;
+        }
+
+        public List<Struct> getLogs() {
+            return logs;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.bloxbean.kafka.connectors.web3.source.events;
+
+import com.bloxbean.kafka.connectors.web3.util.HexConverter;
+import com.bloxbean.kafka.connectors.web3.util.Keccak256;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests the address and topics filter of the event source against the 2048 bit logsBloom of a block header.
+ * A bloom can give false positives, but never false negatives, so a block which doesn't match can't have a matching log.
+ * Only valid for the Ethereum bloom layout. Aion builds its logsBloom differently.
+ */
+public class LogsBloomFilter {
+    public final static int BLOOM_BYTES = 256;
+
+    //Bloom positions of each filter item. Any address must match, all topics must match
+    private final List<int[]> addressPositions = new ArrayList<>();
+    private final List<int[]> topicPositions = new ArrayList<>();
+
+    /**
+     * @param addresses comma separated addresses as in event_logs_filter_addresses
+     * @param topics comma separated topics as in event_logs_filter_topics. Position of a topic in the list is its
+     *               position in the log. Empty or "null" entries match any topic
+     */
+    public LogsBloomFilter(String addresses, String topics) {
+        for (String address : split(addresses))
+            addressPositions.add(positions(HexConverter.hexToBytes(address)));
+
+        for (String topic : split(topics))
+            topicPositions.add(positions(HexConverter.hexToBytes(topic)));
+    }
+
+    /**
+     * @param bloom logsBloom of a block. null if not known
+     * @return false if the block definitely has no log matching the filter
+     */
+    public boolean mightMatch(byte[] bloom) {
+        if (bloom == null)
+            return true;
+
+        //Empty bloom, no logs in the block
+        if (addressPositions.isEmpty() && topicPositions.isEmpty())
+            return !isEmpty(bloom);
+
+        if (!addressPositions.isEmpty()) {
+            boolean addressMatch = false;
+            for (int[] positions : addressPositions) {
+                if (contains(bloom, positions)) {
+                    addressMatch = true;
+                    break;
+                }
+            }
+            if (!addressMatch)
+                return false;
+        }
+
+        for (int[] positions : topicPositions) {
+            if (!contains(bloom, positions))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param logsBloom hex logsBloom of a block header
+     * @return bloom bytes or null if the value is not a valid bloom
+     */
+    public static byte[] parseBloom(String logsBloom) {
+        if (logsBloom == null)
+            return null;
+
+        try {
+            byte[] bloom = HexConverter.hexToBytes(logsBloom);
+            return bloom.length == BLOOM_BYTES ? bloom : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Bloom positions of an item as in the yellow paper: 3 bits, each selected by the low 11 bits of the first,
+     * second and third byte pair of keccak256(item). Returned as pairs of byte index and bit mask.
+     */
+    static int[] positions(byte[] item) {
+        byte[] hash = Keccak256.hash(item);
+        int[] positions = new int[6];
+        for (int i = 0; i < 3; i++) {
+            int bit = ((hash[2 * i] & 0x07) << 8) | (hash[2 * i + 1] & 0xff);
+            positions[2 * i] = BLOOM_BYTES - 1 - (bit >> 3);
+            positions[2 * i + 1] = 1 << (bit & 0x07);
+        }
+        return positions;
+    }
+
+    static void add(byte[] bloom, byte[] item) {
+        int[] positions = positions(item);
+        for (int i = 0; i < positions.length; i += 2)
+            bloom[positions[i]] |= positions[i + 1];
+    }
+
+    private static boolean contains(byte[] bloom, int[] positions) {
+        for (int i = 0; i < positions.length; i += 2) {
+            if ((bloom[positions[i]] & positions[i + 1]) == 0)
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean isEmpty(byte[] bloom) {
+        for (byte b : bloom) {
+            if (b != 0)
+                return false;
+        }
+        return true;
+    }
+
+    private static List<String> split(String values) {
+        List<String> list = new ArrayList<>();
+        if (values == null || values.trim().isEmpty())
+            return list;
+
+        for (String value : values.split(",")) {
+            value = value.trim();
+            if (!value.isEmpty() && !"null".equalsIgnoreCase(value))
+                list.add(value);
+        }
+        return list;
+    }
+}
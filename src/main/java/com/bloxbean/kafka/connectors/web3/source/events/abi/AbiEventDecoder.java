@@ -0,0 +1,165 @@
+package com.bloxbean.kafka.connectors.web3.source.events.abi;
+
+import com.bloxbean.kafka.connectors.web3.source.events.schema.EventSchema;
+import com.bloxbean.kafka.connectors.web3.util.HexConverter;
+import com.bloxbean.kafka.connectors.web3.util.Keccak256;
+import kong.unirest.json.JSONArray;
+import kong.unirest.json.JSONObject;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes logs of an event type of an ABI. The decoded struct has all fields of {@link EventSchema#SCHEMA}, the event
+ * name and a params struct with a typed field per event parameter. Schemas are built once per event type.
+ */
+public class AbiEventDecoder {
+    private final static String SCHEMA_NAME_PREFIX = "com.bloxbean.kafka.connectors.web3.source.schema.event.";
+
+    private final String name;
+    private final String signature;
+    private final String declaration;
+    private final String topic0;
+    private final List<Parameter> indexedParams = new ArrayList<>();
+    private final List<Parameter> dataParams = new ArrayList<>();
+    private final List<AbiType> dataTypes = new ArrayList<>();
+    private Schema schema;
+    private Schema paramsSchema;
+
+    private AbiEventDecoder(String name, List<Parameter> params) {
+        this.name = name;
+
+        List<String> types = new ArrayList<>();
+        List<String> declarations = new ArrayList<>();
+        for (Parameter param : params) {
+            types.add(param.type.getCanonicalName());
+            declarations.add(param.type.getCanonicalName() + (param.indexed ? " indexed " : " ") + param.name);
+            if (param.indexed) {
+                indexedParams.add(param);
+            } else {
+                dataParams.add(param);
+                dataTypes.add(param.type);
+            }
+        }
+        this.signature = name + "(" + String.join(",", types) + ")";
+        this.declaration = name + "(" + String.join(",", declarations) + ")";
+        this.topic0 = Keccak256.hashHex(signature);
+    }
+
+    /**
+     * @param eventJson event entry of an ABI json
+     * @param schemaName unique name of the event type. Usually the event name
+     * @throws IllegalArgumentException if a parameter type is not supported
+     */
+    public static AbiEventDecoder fromJson(JSONObject eventJson, String schemaName) {
+        List<Parameter> params = new ArrayList<>();
+        JSONArray inputs = eventJson.optJSONArray("inputs");
+        if (inputs != null) {
+            for (int i = 0; i < inputs.length(); i++) {
+                JSONObject input = inputs.getJSONObject(i);
+                String paramName = input.optString("name");
+                params.add(new Parameter(paramName.isEmpty() ? "param" + i : paramName,
+                        AbiType.parse(input.getString("type")), input.optBoolean("indexed")));
+            }
+        }
+
+        AbiEventDecoder decoder = new AbiEventDecoder(eventJson.getString("name"), params);
+        decoder.buildSchema(schemaName);
+        return decoder;
+    }
+
+    /**
+     * Rebuild the schemas with another name. Used when an overload of the event is added to the registry
+     */
+    void rename(String schemaName) {
+        buildSchema(schemaName);
+    }
+
+    private void buildSchema(String schemaName) {
+        SchemaBuilder paramsBuilder = SchemaBuilder.struct().name(SCHEMA_NAME_PREFIX + schemaName + "Params");
+        for (Parameter param : indexedParams)
+            paramsBuilder.field(param.name, param.type.indexedSchema());
+        for (Parameter param : dataParams)
+            paramsBuilder.field(param.name, param.type.schema());
+        paramsSchema = paramsBuilder.build();
+
+        SchemaBuilder builder = SchemaBuilder.struct().name(SCHEMA_NAME_PREFIX + schemaName);
+        for (Field field : EventSchema.SCHEMA.fields())
+            builder.field(field.name(), field.schema());
+        builder.field(EventSchema.EVENT, Schema.STRING_SCHEMA);
+        builder.field(EventSchema.PARAMS, paramsSchema);
+        schema = builder.build();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return canonical signature. Example: Transfer(address,address,uint256)
+     */
+    public String getSignature() {
+        return signature;
+    }
+
+    /**
+     * @return signature with the indexed flags and names of the parameters.
+     * Example: Transfer(address indexed from,address indexed to,uint256 value)
+     */
+    public String getDeclaration() {
+        return declaration;
+    }
+
+    public String getTopic0() {
+        return topic0;
+    }
+
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * @param event raw event struct of {@link EventSchema#SCHEMA}
+     * @return decoded event or null if the log doesn't match the event. Example: ERC-20 and ERC-721 Transfer have the
+     * same topic0, but a different no of indexed parameters
+     * @throws IllegalArgumentException if the data can't be decoded
+     */
+    public Struct decode(Struct event) {
+        List<String> topics = event.getArray(EventSchema.TOPICS);
+        if (topics == null || topics.size() != indexedParams.size() + 1)
+            return null;
+
+        Struct params = new Struct(paramsSchema);
+        for (int i = 0; i < indexedParams.size(); i++) {
+            Parameter param = indexedParams.get(i);
+            params.put(param.name, param.type.decodeTopic(HexConverter.hexToBytes(topics.get(i + 1))));
+        }
+
+        List<Object> values = AbiType.decodeTuple(dataTypes, HexConverter.hexToBytes(event.getString(EventSchema.DATA)), 0);
+        for (int i = 0; i < dataParams.size(); i++)
+            params.put(dataParams.get(i).name, values.get(i));
+
+        Struct decoded = new Struct(schema);
+        for (Field field : EventSchema.SCHEMA.fields())
+            decoded.put(field.name(), event.get(field));
+        decoded.put(EventSchema.EVENT, name);
+        decoded.put(EventSchema.PARAMS, params);
+        return decoded;
+    }
+
+    private static class Parameter {
+        private final String name;
+        private final AbiType type;
+        private final boolean indexed;
+
+        Parameter(String name, AbiType type, boolean indexed) {
+            this.name = name;
+            this.type = type;
+            this.indexed = indexed;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.bloxbean.kafka.connectors.web3.source.events.abi;
+
+import com.bloxbean.kafka.connectors.web3.exception.Web3ConnectorException;
+import com.bloxbean.kafka.connectors.web3.source.events.schema.EventSchema;
+import com.bloxbean.kafka.connectors.web3.util.Keccak256;
+import kong.unirest.json.JSONArray;
+import kong.unirest.json.JSONObject;
+import org.apache.kafka.connect.data.Struct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Event decoders of a set of ABIs, indexed by topic0. Logs which don't match any event are returned as is.
+ * Immutable after load, so it can be used without locking.
+ */
+public class AbiEventRegistry {
+    private static Logger logger = LoggerFactory.getLogger(AbiEventRegistry.class);
+
+    //Same topic0 may have multiple decoders with a different no of indexed parameters. Example: ERC-20 and ERC-721 Transfer
+    private final Map<String, List<AbiEventDecoder>> decodersByTopic0 = new HashMap<>();
+    //Overloads of each event name. Overloaded events have a schema name suffix derived from their declaration
+    private final Map<String, List<AbiEventDecoder>> decodersByName = new HashMap<>();
+
+    /**
+     * @param abiFiles paths of ABI json files. A file has an ABI json array or a contract json with an "abi" field
+     * @throws Web3ConnectorException if a file can't be read
+     */
+    public static AbiEventRegistry load(List<String> abiFiles) {
+        AbiEventRegistry registry = new AbiEventRegistry();
+        if (abiFiles == null)
+            return registry;
+
+        for (String abiFile : abiFiles) {
+            if (abiFile.trim().isEmpty())
+                continue;
+
+            try {
+                registry.addAbi(new String(Files.readAllBytes(Paths.get(abiFile.trim())), StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new Web3ConnectorException(String.format("Unable to read ABI file %s. Reason: %s", abiFile, e.getMessage()));
+            }
+        }
+        logger.info("{} event types are loaded from ABI files {}", registry.size(), abiFiles);
+
+        return registry;
+    }
+
+    /**
+     * Add the events of an ABI. Anonymous events and events with unsupported parameter types are skipped
+     * @param abiJson ABI json array or a contract json with an "abi" field
+     */
+    public void addAbi(String abiJson) {
+        String json = abiJson.trim();
+        JSONArray abi = json.startsWith("[") ? new JSONArray(json) : new JSONObject(json).getJSONArray("abi");
+        for (int i = 0; i < abi.length(); i++) {
+            JSONObject entry = abi.getJSONObject(i);
+            if (!"event".equals(entry.optString("type")) || entry.optBoolean("anonymous"))
+                continue;
+
+            try {
+                AbiEventDecoder decoder = AbiEventDecoder.fromJson(entry, entry.getString("name"));
+                if (contains(decoder))
+                    continue;
+
+                decodersByTopic0.computeIfAbsent(decoder.getTopic0(), k -> new ArrayList<>()).add(decoder);
+                List<AbiEventDecoder> overloads = decodersByName.computeIfAbsent(decoder.getName(), k -> new ArrayList<>());
+                overloads.add(decoder);
+                if (overloads.size() > 1) {
+                    for (AbiEventDecoder overload : overloads)
+                        overload.rename(overloadSchemaName(overload));
+                }
+            } catch (IllegalArgumentException e) {
+                logger.warn("Event {} is skipped. Its logs are published without decoding. Reason: {}", entry.optString("name"), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @param event raw event struct
+     * @return decoded event, or the raw event if no ABI event matches or the data can't be decoded
+     */
+    public Struct decode(Struct event) {
+        if (decodersByTopic0.isEmpty())
+            return event;
+
+        List<String> topics = event.getArray(EventSchema.TOPICS);
+        if (topics == null || topics.isEmpty())
+            return event;
+
+        List<AbiEventDecoder> decoders = decodersByTopic0.get(topics.get(0).toLowerCase());
+        if (decoders == null)
+            return event;
+
+        for (AbiEventDecoder decoder : decoders) {
+            try {
+                Struct decoded = decoder.decode(event);
+                if (decoded != null)
+                    return decoded;
+            } catch (RuntimeException e) {
+                if (logger.isDebugEnabled())
+                    logger.debug("Unable to decode log as {}. Reason: {}", decoder.getSignature(), e.getMessage());
+            }
+        }
+        return event;
+    }
+
+    /**
+     * @return no of event types
+     */
+    public int size() {
+        int size = 0;
+        for (List<AbiEventDecoder> decoders : decodersByTopic0.values())
+            size += decoders.size();
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return decodersByTopic0.isEmpty();
+    }
+
+    /**
+     * @return true if an event with the same signature, indexed parameters and parameter names is already added, like
+     * the Transfer event of multiple ERC-20 ABIs. Schemas can't be compared, as every added event has a unique schema name
+     */
+    private boolean contains(AbiEventDecoder decoder) {
+        List<AbiEventDecoder> decoders = decodersByTopic0.get(decoder.getTopic0());
+        if (decoders == null)
+            return false;
+
+        for (AbiEventDecoder existing : decoders) {
+            if (existing.getDeclaration().equals(decoder.getDeclaration()))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return event name with the first 8 hex digits of the keccak256 of its declaration. Schema names must be unique,
+     * and must not depend on the order of the ABI files and entries. Example: Transfer_8a9b0c1d
+     */
+    private static String overloadSchemaName(AbiEventDecoder decoder) {
+        return decoder.getName() + "_" + Keccak256.hashHex(decoder.getDeclaration()).substring(2, 10);
+    }
+}
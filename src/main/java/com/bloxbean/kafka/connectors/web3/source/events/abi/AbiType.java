@@ -0,0 +1,211 @@
+package com.bloxbean.kafka.connectors.web3.source.events.abi;
+
+import com.bloxbean.kafka.connectors.web3.source.blocks.schema.TransactionSchema;
+import com.bloxbean.kafka.connectors.web3.util.HexConverter;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Solidity type of an event parameter and its ABI decoding. Elementary types and single dimension arrays of them are
+ * supported. Tuples are not.
+ */
+public class AbiType {
+    private final static int WORD = 32;
+
+    enum Kind {ADDRESS, BOOL, INT, UINT, FIXED_BYTES, BYTES, STRING, ARRAY}
+
+    private final String canonicalName;
+    private final Kind kind;
+    //Bits of int and uint, bytes of fixed bytes, length of fixed arrays. -1 for dynamic arrays
+    private final int size;
+    private final AbiType elementType;
+
+    private AbiType(String canonicalName, Kind kind, int size, AbiType elementType) {
+        this.canonicalName = canonicalName;
+        this.kind = kind;
+        this.size = size;
+        this.elementType = elementType;
+    }
+
+    /**
+     * @param type solidity type as in the ABI json. Example: uint256, address[], bytes32
+     * @throws IllegalArgumentException if the type is not supported
+     */
+    public static AbiType parse(String type) {
+        type = type.trim();
+        if (type.endsWith("]")) {
+            int start = type.lastIndexOf('[');
+            AbiType elementType = parse(type.substring(0, start));
+            if (elementType.kind == Kind.ARRAY)
+                throw new IllegalArgumentException("Multi dimensional arrays are not supported: " + type);
+
+            String length = type.substring(start + 1, type.length() - 1);
+            int size = length.isEmpty() ? -1 : Integer.parseInt(length);
+            return new AbiType(elementType.canonicalName + "[" + length + "]", Kind.ARRAY, size, elementType);
+        }
+
+        if (type.equals("address"))
+            return new AbiType(type, Kind.ADDRESS, 160, null);
+        if (type.equals("bool"))
+            return new AbiType(type, Kind.BOOL, 8, null);
+        if (type.equals("string"))
+            return new AbiType(type, Kind.STRING, 0, null);
+        if (type.equals("bytes"))
+            return new AbiType(type, Kind.BYTES, 0, null);
+        if (type.startsWith("uint"))
+            return integer("uint", type.substring(4), Kind.UINT);
+        if (type.startsWith("int"))
+            return integer("int", type.substring(3), Kind.INT);
+        if (type.startsWith("bytes")) {
+            int size = Integer.parseInt(type.substring(5));
+            if (size < 1 || size > WORD)
+                throw new IllegalArgumentException("Invalid type: " + type);
+            return new AbiType(type, Kind.FIXED_BYTES, size, null);
+        }
+
+        throw new IllegalArgumentException("Unsupported type: " + type);
+    }
+
+    private static AbiType integer(String prefix, String bits, Kind kind) {
+        int size = bits.isEmpty() ? 256 : Integer.parseInt(bits);
+        if (size < 8 || size > 256 || size % 8 != 0)
+            throw new IllegalArgumentException("Invalid type: " + prefix + bits);
+        return new AbiType(prefix + size, kind, size, null);
+    }
+
+    /**
+     * @return type name as used in the event signature. Example: uint256 for uint
+     */
+    public String getCanonicalName() {
+        return canonicalName;
+    }
+
+    public boolean isDynamic() {
+        return kind == Kind.BYTES || kind == Kind.STRING || (kind == Kind.ARRAY && (size < 0 || elementType.isDynamic()));
+    }
+
+    /**
+     * @return Connect schema of the decoded value. Integers which fit in a long are INT64, others are Decimal
+     */
+    public Schema schema() {
+        switch (kind) {
+            case BOOL:
+                return Schema.OPTIONAL_BOOLEAN_SCHEMA;
+            case INT:
+                return size <= 64 ? Schema.OPTIONAL_INT64_SCHEMA : TransactionSchema.OPTIONAL_QUANTITY_DECIMAL_SCHEMA;
+            case UINT:
+                return size < 64 ? Schema.OPTIONAL_INT64_SCHEMA : TransactionSchema.OPTIONAL_QUANTITY_DECIMAL_SCHEMA;
+            case ARRAY:
+                return SchemaBuilder.array(elementType.schema()).optional().build();
+            default:
+                return Schema.OPTIONAL_STRING_SCHEMA;
+        }
+    }
+
+    /**
+     * @return schema of the value as an indexed parameter. Dynamic types and arrays are only available as the hash of
+     * the value in the topic
+     */
+    public Schema indexedSchema() {
+        return kind == Kind.ARRAY || isDynamic() ? Schema.OPTIONAL_STRING_SCHEMA : schema();
+    }
+
+    /**
+     * Decode an indexed parameter from its topic
+     */
+    public Object decodeTopic(byte[] topic) {
+        if (kind == Kind.ARRAY || isDynamic())
+            return HexConverter.bytesToHex(topic);
+
+        return decode(topic, 0);
+    }
+
+    /**
+     * @return bytes taken in the head of the encoding
+     */
+    int headSize() {
+        if (isDynamic())
+            return WORD;
+        return kind == Kind.ARRAY ? size * elementType.headSize() : WORD;
+    }
+
+    /**
+     * Decode the values of a tuple, like the non-indexed parameters in the data of a log
+     * @param data encoded data
+     * @param base start of the tuple
+     */
+    static List<Object> decodeTuple(List<AbiType> types, byte[] data, int base) {
+        List<Object> values = new ArrayList<>(types.size());
+        int head = base;
+        for (AbiType type : types) {
+            if (type.isDynamic())
+                values.add(type.decode(data, base + readLength(data, head)));
+            else
+                values.add(type.decode(data, head));
+            head += type.headSize();
+        }
+        return values;
+    }
+
+    /**
+     * Decode the value at the given position. For dynamic types the position is the start of the value in the tail
+     */
+    Object decode(byte[] data, int pos) {
+        checkBounds(data, pos, WORD);
+        switch (kind) {
+            case ADDRESS:
+                return HexConverter.bytesToHex(Arrays.copyOfRange(data, pos + WORD - 20, pos + WORD));
+            case BOOL:
+                return data[pos + WORD - 1] != 0;
+            case UINT:
+                return toValue(new BigInteger(1, Arrays.copyOfRange(data, pos, pos + WORD)));
+            case INT:
+                return toValue(new BigInteger(Arrays.copyOfRange(data, pos, pos + WORD)));
+            case FIXED_BYTES:
+                return HexConverter.bytesToHex(Arrays.copyOfRange(data, pos, pos + size));
+            case BYTES:
+            case STRING: {
+                int length = readLength(data, pos);
+                checkBounds(data, pos + WORD, length);
+                byte[] bytes = Arrays.copyOfRange(data, pos + WORD, pos + WORD + length);
+                return kind == Kind.STRING ? new String(bytes, StandardCharsets.UTF_8) : HexConverter.bytesToHex(bytes);
+            }
+            case ARRAY: {
+                int length = size;
+                int base = pos;
+                if (size < 0) {
+                    length = readLength(data, pos);
+                    base = pos + WORD;
+                }
+                return decodeTuple(Collections.nCopies(length, elementType), data, base);
+            }
+            default:
+                throw new IllegalStateException("Unknown type: " + kind);
+        }
+    }
+
+    private Object toValue(BigInteger value) {
+        return schema().type() == Schema.Type.INT64 ? (Object) value.longValue() : new BigDecimal(value);
+    }
+
+    private static int readLength(byte[] data, int pos) {
+        checkBounds(data, pos, WORD);
+        BigInteger value = new BigInteger(1, Arrays.copyOfRange(data, pos, pos + WORD));
+        if (value.bitLength() > 31 || value.intValue() > data.length)
+            throw new IllegalArgumentException("Invalid offset or length: " + value);
+        return value.intValue();
+    }
+
+    private static void checkBounds(byte[] data, int pos, int length) {
+        if (pos < 0 || length < 0 || pos + length > data.length)
+            throw new IllegalArgumentException("Data too short. Position: " + pos + ", length: " + length + ", data length: " + data.length);
+    }
+}
@@ -4,6 +4,9 @@ import com.bloxbean.kafka.connectors.web3.util.HexConverter;
 import kong.unirest.json.JSONArray;
 import kong.unirest.json.JSONObject;
 import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.errors.DataException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -11,6 +14,7 @@ import java.util.List;
 import static com.bloxbean.kafka.connectors.web3.source.events.schema.EventSchema.*;
 
 public class EventConverter {
+    private static Logger logger = LoggerFactory.getLogger(EventConverter.class);
 
     public Struct convertFromJSON(JSONObject eventJson) {
         Struct eventStruct = new Struct(EventSchema.SCHEMA);
@@ -36,4 +40,32 @@ public class EventConverter {
 
         return eventStruct;
     }
+
+    /**
+     * Build the record key from the event. Quantities are written in hex as returned by the node.
+     */
+    public Struct convertToKey(Struct event, List<String> kafkaKeys) {
+        if (event == null)
+            return null;
+
+        if (kafkaKeys == null || kafkaKeys.isEmpty())
+            return null;
+
+        Struct keyStruct = new Struct(EventSchema.KEY_SCHEMA);
+        for (String keyName : kafkaKeys) {
+            try {
+                if ("topic".equals(keyName)) {
+                    List<String> topics = event.getArray(EventSchema.TOPICS);
+                    keyStruct.put("topic", topics != null && !topics.isEmpty() ? topics.get(0) : null);
+                } else {
+                    Object val = event.get(keyName);
+                    keyStruct.put(keyName, val instanceof Long ? "0x" + Long.toHexString((Long) val) : (String) val);
+                }
+            } catch (DataException e) {
+                logger.error("Invalid event key : " + keyName, e);
+            }
+        }
+
+        return keyStruct;
+    }
 }
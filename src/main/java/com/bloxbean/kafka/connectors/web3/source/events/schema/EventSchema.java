@@ -14,6 +14,9 @@ public class EventSchema {
     public static final String TRANSACTION_INDEX = "transactionIndex";
     public static final String TRANSACTION_HASH = "transactionHash";
     public static final String TOPICS = "topics";
+    //Fields of events decoded through an ABI
+    public static final String EVENT = "event";
+    public static final String PARAMS = "params";
 
     public static Schema SCHEMA = SchemaBuilder.struct().name("com.bloxbean.kafka.connectors.web3.source.schema.Event")
             .field(BLOCK_HASH, Schema.STRING_SCHEMA)
@@ -0,0 +1,75 @@
+package com.bloxbean.kafka.connectors.web3.source.events.schema;
+
+import com.bloxbean.kafka.connectors.web3.client.RpcResultDecoder;
+import com.bloxbean.kafka.connectors.web3.util.HexConverter;
+import com.bloxbean.kafka.connectors.web3.util.JsonStreamUtil;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.apache.kafka.connect.data.Struct;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.bloxbean.kafka.connectors.web3.source.events.schema.EventSchema.*;
+
+/**
+ * Decodes the log array of an eth_getLogs response stream directly into event structs. Produces the same structs as
+ * {@link EventConverter}. Fields which are not part of the schema are skipped in the stream.
+ */
+public class StreamingEventDecoder implements RpcResultDecoder<List<Struct>> {
+
+    @Override
+    public List<Struct> decode(JsonReader reader) throws IOException {
+        List<Struct> events = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            events.add(decodeEvent(reader));
+        }
+        reader.endArray();
+        return events;
+    }
+
+    private Struct decodeEvent(JsonReader reader) throws IOException {
+        Struct eventStruct = new Struct(EventSchema.SCHEMA);
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            switch (name) {
+                case BLOCK_HASH:
+                case ADDRESS:
+                case DATA:
+                case TRANSACTION_HASH:
+                    eventStruct.put(name, JsonStreamUtil.readString(reader));
+                    break;
+                case LOG_INDEX:
+                case BLOCK_NUMBER:
+                case TRANSACTION_INDEX:
+                    eventStruct.put(name, HexConverter.hexToLongValue(JsonStreamUtil.readString(reader)));
+                    break;
+                case REMOVED:
+                    eventStruct.put(REMOVED, reader.peek() == JsonToken.BOOLEAN ? reader.nextBoolean() : Boolean.valueOf(JsonStreamUtil.readString(reader)));
+                    break;
+                case TOPICS:
+                    if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+                        List<String> topics = new ArrayList<>();
+                        reader.beginArray();
+                        while (reader.hasNext()) {
+                            topics.add(JsonStreamUtil.readString(reader));
+                        }
+                        reader.endArray();
+                        eventStruct.put(TOPICS, topics);
+                    } else {
+                        reader.skipValue();
+                    }
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return eventStruct;
+    }
+}
@@ -0,0 +1,131 @@
+package com.bloxbean.kafka.connectors.web3.source.files;
+
+import com.bloxbean.kafka.connectors.web3.exception.Web3ConnectorException;
+import com.bloxbean.kafka.connectors.web3.util.StringUtil;
+import org.apache.kafka.common.config.AbstractConfig;
+import org.apache.kafka.common.config.ConfigDef;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+
+import static com.bloxbean.kafka.connectors.web3.util.ConfigConstants.*;
+
+public class FileSourceConfig extends AbstractConfig {
+    public final static String TYPE_BLOCKS = "blocks";
+    public final static String TYPE_LOGS = "logs";
+    private final static List<String> DEFAULT_KAFKA_KEYS = Arrays.asList("transactionHash","logIndex");
+
+    public FileSourceConfig(ConfigDef config, Map<String, String> parsedConfig) {
+        super(config, parsedConfig);
+    }
+
+    public FileSourceConfig(Map<String, String> parsedConfig) {
+        this(conf(), parsedConfig);
+    }
+
+    public static ConfigDef conf() {
+        final ConfigDef configDef = new ConfigDef();
+        configDef.define(FILE_SOURCE_DIR, ConfigDef.Type.STRING, ConfigDef.NO_DEFAULT_VALUE, ConfigDef.Importance.HIGH, "Directory with newline delimited json dumps of blocks or logs in json rpc format. Files can be gzip or zstd compressed");
+        configDef.define(FILE_SOURCE_PATTERN, ConfigDef.Type.STRING, "*", ConfigDef.Importance.MEDIUM, "Glob pattern of the files to load. Example: blocks-*.ndjson.gz");
+        configDef.define(FILE_SOURCE_TYPE, ConfigDef.Type.STRING, TYPE_BLOCKS, ConfigDef.ValidString.in(TYPE_BLOCKS, TYPE_LOGS), ConfigDef.Importance.HIGH, "Content of the files. blocks: a block with full transaction objects per line. logs: a log or an array of logs per line");
+        configDef.define(TASK_FILES, ConfigDef.Type.LIST, "", ConfigDef.Importance.LOW, "Internal. Files of the task. Set by the connector");
+        configDef.define(FILE_POLL_MAX_RECORDS, ConfigDef.Type.INT, 5000, ConfigDef.Range.atLeast(1), ConfigDef.Importance.MEDIUM, "Max no of records returned by a single poll");
+        configDef.define(FILE_READ_BUFFER_BYTES, ConfigDef.Type.INT, 4 * 1024 * 1024, ConfigDef.Range.atLeast(4096), ConfigDef.Importance.LOW, "Size of the read buffer of a file");
+        configDef.define(TOPIC, ConfigDef.Type.STRING, ConfigDef.NO_DEFAULT_VALUE, ConfigDef.Importance.HIGH, "Destination topic for blocks or logs");
+        configDef.define(TRANSACTION_TOPIC, ConfigDef.Type.STRING, "", ConfigDef.Importance.HIGH, "Destination topic for transactions. Only used for blocks");
+        configDef.define(CHAIN_NAME, ConfigDef.Type.STRING, "", ConfigDef.Importance.HIGH, "SKALE Chain Name will be used as high watermark in topic");
+        configDef.define(TYPED_SCHEMA, ConfigDef.Type.BOOLEAN, false, ConfigDef.Importance.MEDIUM, "Publish quantities as INT64, or Decimal for 256 bit values, instead of decimal strings. Only used for blocks");
+        configDef.define(IGNORE_BLOCK_FIELDS, ConfigDef.Type.LIST, "", ConfigDef.Importance.MEDIUM, "Comma separated list of block fields to exclude");
+        configDef.define(IGNORE_TRANSACTION_FILEDS, ConfigDef.Type.LIST, "", ConfigDef.Importance.MEDIUM, "Comma separated list of transaction fields to exclude");
+        configDef.define(EVENT_LOGS_KAFKA_KEYS, ConfigDef.Type.LIST, DEFAULT_KAFKA_KEYS, ConfigDef.Importance.MEDIUM, "Comma separated topic keys of logs. Options:  blockNumber, logIndex, address, topic, transactonHash, transactionIndex");
+        configDef.define(EVENT_ABI_FILES, ConfigDef.Type.LIST, "", ConfigDef.Importance.MEDIUM, "Comma separated list of ABI json files. Logs of the events in the ABIs are published with decoded parameters");
+
+        return configDef;
+    }
+
+    public String getFileSourceDir() {
+        return getString(FILE_SOURCE_DIR);
+    }
+
+    public String getFileSourcePattern() {
+        return getString(FILE_SOURCE_PATTERN);
+    }
+
+    public boolean isLogs() {
+        return TYPE_LOGS.equals(getString(FILE_SOURCE_TYPE));
+    }
+
+    public List<String> getTaskFiles() {
+        return getList(TASK_FILES);
+    }
+
+    public int getPollMaxRecords() {
+        return getInt(FILE_POLL_MAX_RECORDS);
+    }
+
+    public int getReadBufferSize() {
+        return getInt(FILE_READ_BUFFER_BYTES);
+    }
+
+    public String getTopic() {
+        return getString(TOPIC);
+    }
+
+    public String getTransactionTopic() {
+        return getString(TRANSACTION_TOPIC);
+    }
+
+    public boolean isSeparateTransactionTopic() {
+        return !StringUtil.isEmpty(getTransactionTopic());
+    }
+
+    public String getChainName() {
+        return getString(CHAIN_NAME);
+    }
+
+    public boolean isTypedSchema() {
+        return getBoolean(TYPED_SCHEMA);
+    }
+
+    public Set<String> getIgnoreBlockFields() {
+        return new HashSet<>(getList(IGNORE_BLOCK_FIELDS));
+    }
+
+    public Set<String> getIgnoreTransactionFields() {
+        return new HashSet<>(getList(IGNORE_TRANSACTION_FILEDS));
+    }
+
+    public List<String> getEventLogsKafkaKeys() {
+        List<String> keys = getList(EVENT_LOGS_KAFKA_KEYS);
+        if(keys != null && !keys.isEmpty())
+            return keys;
+        else
+            return DEFAULT_KAFKA_KEYS;
+    }
+
+    public List<String> getEventAbiFiles() {
+        return getList(EVENT_ABI_FILES);
+    }
+
+    /**
+     * @return regular files of the source directory matching the pattern, sorted by name
+     */
+    public List<String> listFiles() {
+        Path dir = Paths.get(getFileSourceDir());
+        PathMatcher matcher = dir.getFileSystem().getPathMatcher("glob:" + getFileSourcePattern());
+
+        List<String> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path file : stream) {
+                if (Files.isRegularFile(file) && matcher.matches(file.getFileName()))
+                    files.add(file.toAbsolutePath().toString());
+            }
+        } catch (IOException e) {
+            throw new Web3ConnectorException(String.format("Unable to list files of %s. Reason: %s", dir, e.getMessage()));
+        }
+
+        Collections.sort(files);
+        return files;
+    }
+}
@@ -0,0 +1,84 @@
+package com.bloxbean.kafka.connectors.web3.source.files;
+
+import org.apache.kafka.common.config.ConfigDef;
+import org.apache.kafka.connect.connector.Task;
+import org.apache.kafka.connect.source.SourceConnector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.bloxbean.kafka.connectors.web3.util.ConfigConstants.TASK_FILES;
+import static com.bloxbean.kafka.connectors.web3.util.ConfigConstants.VERSION;
+
+/**
+ * Loads newline delimited json dumps of blocks or logs from local files. Used to backfill history without json rpc calls.
+ */
+public class FileSourceConnector extends SourceConnector {
+    private static Logger logger = LoggerFactory.getLogger(FileSourceConnector.class);
+
+    private FileSourceConfig config;
+
+    @Override
+    public void start(Map<String, String> props) {
+        config = new FileSourceConfig(props);
+    }
+
+    @Override
+    public Class<? extends Task> taskClass() {
+        return FileSourceTask.class;
+    }
+
+    /**
+     * Files sorted by name are split into contiguous groups of (almost) equal size, one per task. Files are listed
+     * when the tasks are configured, files added later are picked up when the connector is restarted.
+     */
+    @Override
+    public List<Map<String, String>> taskConfigs(int maxTasks) {
+        List<String> files = config.listFiles();
+        logger.info("{} files found in {}", files.size(), config.getFileSourceDir());
+
+        List<List<String>> groups = splitFiles(files, maxTasks);
+        ArrayList<Map<String, String>> configs = new ArrayList<>(groups.size());
+        for (List<String> group : groups) {
+            Map<String, String> taskConfig = new HashMap<>(config.originalsStrings());
+            taskConfig.put(TASK_FILES, String.join(",", group));
+            configs.add(taskConfig);
+        }
+        return configs;
+    }
+
+    /**
+     * @return contiguous groups of files. At least one group, even if there is no file
+     */
+    static List<List<String>> splitFiles(List<String> files, int maxGroups) {
+        int noOfGroups = Math.max(1, Math.min(maxGroups, files.size()));
+
+        List<List<String>> groups = new ArrayList<>(noOfGroups);
+        int from = 0;
+        for (int i = 0; i < noOfGroups; i++) {
+            int size = files.size() / noOfGroups + (i < files.size() % noOfGroups ? 1 : 0);
+            groups.add(new ArrayList<>(files.subList(from, from + size)));
+            from += size;
+        }
+        return groups;
+    }
+
+    @Override
+    public void stop() {
+        // nothing is necessary to stop for this connector
+    }
+
+    @Override
+    public ConfigDef config() {
+        return FileSourceConfig.conf();
+    }
+
+    @Override
+    public String version() {
+        return VERSION;
+    }
+}
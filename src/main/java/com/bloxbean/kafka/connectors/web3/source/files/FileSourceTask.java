@@ -0,0 +1,262 @@
+package com.bloxbean.kafka.connectors.web3.source.files;
+
+import com.bloxbean.kafka.connectors.web3.source.PollScheduler;
+import com.bloxbean.kafka.connectors.web3.source.blocks.schema.BlockConverter;
+import com.bloxbean.kafka.connectors.web3.source.blocks.schema.BlockProjection;
+import com.bloxbean.kafka.connectors.web3.source.blocks.schema.ParsedBlockStruct;
+import com.bloxbean.kafka.connectors.web3.source.blocks.schema.TransactionSchema;
+import com.bloxbean.kafka.connectors.web3.source.events.abi.AbiEventRegistry;
+import com.bloxbean.kafka.connectors.web3.source.events.schema.EventConverter;
+import com.bloxbean.kafka.connectors.web3.source.events.schema.EventSchema;
+import com.bloxbean.kafka.connectors.web3.util.ConfigConstants;
+import com.bloxbean.kafka.connectors.web3.util.HexConverter;
+import kong.unirest.json.JSONArray;
+import kong.unirest.json.JSONException;
+import kong.unirest.json.JSONObject;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.errors.DataException;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.apache.kafka.connect.source.SourceTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.*;
+
+import static com.bloxbean.kafka.connectors.web3.util.ConfigConstants.FILE_COMPLETED;
+import static com.bloxbean.kafka.connectors.web3.util.ConfigConstants.FILE_PATH;
+import static com.bloxbean.kafka.connectors.web3.util.ConfigConstants.FILE_POSITION;
+
+/**
+ * Reads the files of the task one after the other and publishes the same records as the block or event source
+ * connector. Offset of a file is the position after the last published line, so a restarted task continues in the
+ * middle of a file. Completed files are skipped.
+ */
+public class FileSourceTask extends SourceTask {
+    private static Logger logger = LoggerFactory.getLogger(FileSourceTask.class);
+    private static long IDLE_WAIT_TIME = 10000;
+
+    private FileSourceConfig config;
+    private PollScheduler pollScheduler;
+
+    //Files still to read. First entry is the current file
+    private Deque<String> pendingFiles = new ArrayDeque<>();
+    private Map<String, Long> startPositions = new HashMap<>();
+    private NdjsonFileReader reader;
+    private boolean filesCompleted;
+
+    private BlockConverter blockConverter = new BlockConverter();
+    private BlockProjection projection;
+    private EventConverter eventConverter = new EventConverter();
+    private AbiEventRegistry abiEventRegistry;
+    private List<String> kafkaKeyNames;
+
+    public String version() {
+        return ConfigConstants.VERSION;
+    }
+
+    public void start(Map<String, String> map) {
+        config = new FileSourceConfig(map);
+        pollScheduler = new PollScheduler(IDLE_WAIT_TIME, 1000, 60000);
+
+        if (config.isLogs()) {
+            abiEventRegistry = AbiEventRegistry.load(config.getEventAbiFiles());
+            kafkaKeyNames = config.getEventLogsKafkaKeys();
+        } else {
+            projection = BlockProjection.compile(config.isSeparateTransactionTopic(), config.getIgnoreBlockFields(), config.getIgnoreTransactionFields(),
+                    config.getChainName(), config.isTypedSchema(), false);
+        }
+
+        initializeLastVariables();
+    }
+
+    private void initializeLastVariables() {
+        for (String file : config.getTaskFiles()) {
+            if (file.trim().isEmpty())
+                continue;
+
+            Map<String, Object> lastSourceOffset = context.offsetStorageReader().offset(sourcePartition(file));
+            if (lastSourceOffset == null) {
+                pendingFiles.add(file);
+                continue;
+            }
+
+            if (Boolean.parseBoolean((String) lastSourceOffset.get(FILE_COMPLETED))) {
+                logger.info("File {} is already completed", file);
+                continue;
+            }
+
+            String position = (String) lastSourceOffset.get(FILE_POSITION);
+            if (position != null && position.length() > 0)
+                startPositions.put(file, Long.parseLong(position));
+            pendingFiles.add(file);
+        }
+
+        logger.info("{} files to read, {} of them from the last position", pendingFiles.size(), startPositions.size());
+    }
+
+    public List<SourceRecord> poll() throws InterruptedException {
+        List<SourceRecord> sourceRecords = new ArrayList<>();
+        long publishedPosition = -1; //Position after the last line of sourceRecords
+        try {
+            if (pendingFiles.isEmpty()) {
+                if (!filesCompleted)
+                    logger.info("All files of the task are completed");
+                filesCompleted = true;
+                pollScheduler.sleep(IDLE_WAIT_TIME);
+                return Collections.emptyList();
+            }
+
+            String file = pendingFiles.peek();
+            if (reader == null) {
+                long position = startPositions.getOrDefault(file, 0L);
+                logger.info("Reading file {} from position {}", file, position);
+                reader = new NdjsonFileReader(Paths.get(file), position, config.getReadBufferSize());
+            }
+
+            publishedPosition = reader.getPosition();
+            String line;
+            while (sourceRecords.size() < config.getPollMaxRecords() && (line = reader.readLine()) != null) {
+                Map<String, String> sourceOffset = sourceOffset(reader.getPosition(), !reader.hasNext());
+                try {
+                    if (config.isLogs())
+                        generateEventRecords(sourceRecords, file, sourceOffset, line);
+                    else
+                        generateBlockRecords(sourceRecords, file, sourceOffset, line);
+                } catch (JSONException | DataException | IllegalArgumentException e) {
+                    logger.warn("Invalid line in file {} before position {}. Line is skipped. Reason: {}", file, reader.getPosition(), e.getMessage());
+                }
+                publishedPosition = reader.getPosition();
+            }
+
+            if (!reader.hasNext()) {
+                logger.info("File {} is completed", file);
+                closeReader();
+                pendingFiles.poll();
+            } else if (pollScheduler.isStopped()) {
+                closeReader();
+            }
+
+            pollScheduler.onSuccess();
+            return sourceRecords;
+        } catch (IOException ex) {
+            //Read again after the last line of the records read so far. Reader may have read ahead, Example: truncated gzip tail
+            String file = pendingFiles.peek();
+            if (publishedPosition >= 0)
+                startPositions.put(file, publishedPosition);
+            closeReader();
+
+            //Offsets of the records read so far are correct. Next poll fails again if the error persists
+            if (!sourceRecords.isEmpty()) {
+                logger.error("Error reading file {} after position {}. Returning records read so far. Reason: {}", file, publishedPosition, ex.getMessage());
+                return sourceRecords;
+            }
+
+            long backoff = pollScheduler.onError();
+            logger.error("Error reading file {}. Retry in {} ms. Reason: {}", file, backoff, ex.getMessage());
+            pollScheduler.sleep(backoff);
+            return null;
+        }
+    }
+
+    private void generateBlockRecords(List<SourceRecord> sourceRecords, String file, Map<String, String> sourceOffset, String line) {
+        JSONObject blockJson = new JSONObject(line);
+        ParsedBlockStruct blockStruct = blockConverter.convertFromJSON(blockJson, projection);
+        long blockNumber = HexConverter.hexToLongValue(blockJson.optString("number"));
+        long timestamp = HexConverter.hexToTimestampInMillis(blockJson.getString("timestamp"));
+
+        sourceRecords.add(new SourceRecord(
+                sourcePartition(file),
+                sourceOffset,
+                config.getTopic(),
+                null, // partition will be inferred by the framework
+                null,
+                config.getChainName() + "_" + blockNumber,
+                projection.getBlockSchema(),
+                blockStruct.getBlock(),
+                timestamp
+        ));
+
+        if (!config.isSeparateTransactionTopic() || blockStruct.getTransactions() == null)
+            return;
+
+        for (Struct transaction : blockStruct.getTransactions()) {
+            sourceRecords.add(new SourceRecord(
+                    sourcePartition(file),
+                    sourceOffset,
+                    config.getTransactionTopic(),
+                    null, // partition will be inferred by the framework
+                    null,
+                    config.getChainName() + "_" + transaction.getString(TransactionSchema.HASH),
+                    projection.getTransactionSchema(),
+                    transaction,
+                    timestamp
+            ));
+        }
+    }
+
+    /**
+     * A line is a log or an array of logs as returned by eth_getLogs. Record timestamp is taken from the optional
+     * blockTimestamp field of a log
+     */
+    private void generateEventRecords(List<SourceRecord> sourceRecords, String file, Map<String, String> sourceOffset, String line) {
+        List<JSONObject> logs = new ArrayList<>();
+        if (line.trim().startsWith("[")) {
+            JSONArray logArray = new JSONArray(line);
+            for (int i = 0; i < logArray.length(); i++)
+                logs.add(logArray.getJSONObject(i));
+        } else {
+            logs.add(new JSONObject(line));
+        }
+
+        for (JSONObject logJson : logs) {
+            Struct event = abiEventRegistry.decode(eventConverter.convertFromJSON(logJson));
+            String blockTimestamp = logJson.optString("blockTimestamp", null);
+            Long timestamp = blockTimestamp != null ? HexConverter.hexToTimestampInMillis(blockTimestamp) : null;
+
+            sourceRecords.add(new SourceRecord(
+                    sourcePartition(file),
+                    sourceOffset,
+                    config.getTopic(),
+                    null, // partition will be inferred by the framework
+                    EventSchema.KEY_SCHEMA,
+                    eventConverter.convertToKey(event, kafkaKeyNames),
+                    event.schema(),
+                    event,
+                    timestamp
+            ));
+        }
+    }
+
+    private void closeReader() {
+        if (reader == null)
+            return;
+
+        try {
+            reader.close();
+        } catch (IOException e) {
+            logger.warn("Unable to close file reader. Reason: {}", e.getMessage());
+        }
+        reader = null;
+    }
+
+    private Map<String, String> sourcePartition(String file) {
+        Map<String, String> map = new HashMap<>();
+        map.put(FILE_PATH, file);
+        return map;
+    }
+
+    private Map<String, String> sourceOffset(long position, boolean completed) {
+        Map<String, String> map = new HashMap<>();
+        map.put(FILE_POSITION, String.valueOf(position));
+        map.put(FILE_COMPLETED, String.valueOf(completed));
+        return map;
+    }
+
+    public void stop() {
+        //Wake up the task thread if it's waiting in poll()
+        if (pollScheduler != null)
+            pollScheduler.stop();
+    }
+}
@@ -0,0 +1,202 @@
+package com.bloxbean.kafka.connectors.web3.source.files;
+
+import com.github.luben.zstd.ZstdInputStream;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the lines of a newline delimited json file through a large NIO buffer. gzip and zstd compressed files are
+ * detected by their magic bytes.
+ * <p>
+ * Position is the byte offset in the uncompressed content after the last returned line. A plain file is opened at the
+ * position directly, a compressed file is decompressed from the start and the content before the position is skipped.
+ * The next line is read ahead, so {@link #hasNext()} tells if the last returned line was the last line of the file.
+ * Not thread safe.
+ */
+public class NdjsonFileReader implements Closeable {
+    private final static byte[] GZIP_MAGIC = {(byte) 0x1f, (byte) 0x8b};
+    private final static byte[] ZSTD_MAGIC = {(byte) 0x28, (byte) 0xb5, (byte) 0x2f, (byte) 0xfd};
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer;
+    private byte[] partialLine = new byte[1024];
+    private int partialLength;
+    private boolean eof;
+
+    //Position after the bytes consumed from the buffer
+    private long readPosition;
+    //Read ahead line and the position after it
+    private String nextLine;
+    private long nextPosition;
+    private long position;
+
+    /**
+     * @param file file to read
+     * @param position position to start at. 0 for the start of the file
+     * @param bufferSize size of the read buffer
+     */
+    public NdjsonFileReader(Path file, long position, int bufferSize) throws IOException {
+        this.buffer = ByteBuffer.allocate(bufferSize);
+        this.buffer.flip();
+        this.channel = open(file, position, bufferSize);
+        this.readPosition = position;
+        this.position = position;
+        this.nextLine = readNextLine();
+    }
+
+    private static ReadableByteChannel open(Path file, long position, int bufferSize) throws IOException {
+        byte[] magic = new byte[4];
+        int n;
+        try (InputStream is = new FileInputStream(file.toFile())) {
+            n = Math.max(0, is.read(magic));
+        }
+
+        if (startsWith(magic, n, GZIP_MAGIC))
+            return skip(new GZIPInputStream(new FileInputStream(file.toFile()), 64 * 1024), position, bufferSize);
+        if (startsWith(magic, n, ZSTD_MAGIC))
+            return skip(new ZstdInputStream(new BufferedInputStream(new FileInputStream(file.toFile()), 64 * 1024)), position, bufferSize);
+
+        FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ);
+        fileChannel.position(position);
+        return fileChannel;
+    }
+
+    private static ReadableByteChannel skip(InputStream is, long position, int bufferSize) throws IOException {
+        InputStream in = new BufferedInputStream(is, bufferSize);
+        long remaining = position;
+        try {
+            while (remaining > 0) {
+                long skipped = in.skip(remaining);
+                if (skipped <= 0) {
+                    if (in.read() < 0)
+                        throw new EOFException("Position " + position + " is after the end of the file");
+                    skipped = 1;
+                }
+                remaining -= skipped;
+            }
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        return Channels.newChannel(in);
+    }
+
+    private static boolean startsWith(byte[] bytes, int length, byte[] prefix) {
+        return length >= prefix.length && Arrays.equals(Arrays.copyOf(bytes, prefix.length), prefix);
+    }
+
+    /**
+     * @return true if there is one more line
+     */
+    public boolean hasNext() {
+        return nextLine != null;
+    }
+
+    /**
+     * @return next non empty line or null at the end of the file
+     */
+    public String readLine() throws IOException {
+        String line = nextLine;
+        if (line == null)
+            return null;
+
+        position = nextPosition;
+        nextLine = readNextLine();
+        return line;
+    }
+
+    /**
+     * @return position after the last returned line
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    private String readNextLine() throws IOException {
+        while (true) {
+            String line = readRawLine();
+            if (line == null)
+                return null;
+
+            nextPosition = readPosition;
+            if (!line.trim().isEmpty())
+                return line;
+        }
+    }
+
+    /**
+     * @return next line without the line break. Last line doesn't need a line break. null at the end of the file
+     */
+    private String readRawLine() throws IOException {
+        while (true) {
+            byte[] array = buffer.array();
+            int start = buffer.position();
+            int limit = buffer.limit();
+            for (int i = start; i < limit; i++) {
+                if (array[i] != '\n')
+                    continue;
+
+                buffer.position(i + 1);
+                readPosition += i + 1 - start;
+                int end = i > start && array[i - 1] == '\r' ? i - 1 : i;
+                if (partialLength == 0)
+                    return new String(array, start, end - start, StandardCharsets.UTF_8);
+
+                append(array, start, i - start);
+                return takePartialLine();
+            }
+
+            //No line break in the buffer. Keep the partial line and read more
+            append(array, start, limit - start);
+            readPosition += limit - start;
+            buffer.clear();
+            if (eof || fill() < 0) {
+                buffer.flip();
+                eof = true;
+                return partialLength > 0 ? takePartialLine() : null;
+            }
+        }
+    }
+
+    private int fill() throws IOException {
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            int n = channel.read(buffer);
+            if (n < 0) {
+                eof = true;
+                break;
+            }
+            total += n;
+        }
+        buffer.flip();
+        return total == 0 && eof ? -1 : total;
+    }
+
+    private void append(byte[] bytes, int offset, int length) {
+        if (partialLength + length > partialLine.length)
+            partialLine = Arrays.copyOf(partialLine, Math.max(partialLine.length * 2, partialLength + length));
+        System.arraycopy(bytes, offset, partialLine, partialLength, length);
+        partialLength += length;
+    }
+
+    private String takePartialLine() {
+        int end = partialLength > 0 && partialLine[partialLength - 1] == '\r' ? partialLength - 1 : partialLength;
+        String line = new String(partialLine, 0, end, StandardCharsets.UTF_8);
+        partialLength = 0;
+        return line;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -4,17 +4,53 @@ package com.bloxbean.kafka.connectors.web3.util;
  * Declares various reusable constants
  */
 public final class ConfigConstants {
+    public static final String CONNECTOR_NAME = "name"; //Connector name set by Connect
     public static final String VERSION = "0.1";
 
     public static final String WEB3_RPC_URL = "web3_rpc_url";
+    public static final String WEB3_WS_URL = "web3_ws_url";
+    public static final String SOURCE_PARTITION_KEY = "source_partition_key";
     public static final String TOPIC = "topic";
     public static final String TRANSACTION_TOPIC = "transaction_topic";
     public static final String START_BLOCK = "start_block";
+    public static final String END_BLOCK = "end_block";
+    public static final String BLOCK_SHARD_SIZE = "block_shard_size";
+    //Block ranges of a task. Set by the connector, not by the user
+    public static final String TASK_START_BLOCK = "task_start_block";
+    public static final String TASK_BLOCK_RANGES = "task_block_ranges";
     public static final String BLOCK_TIME_IN_SEC = "block_time";
+    public static final String BLOCK_TIME_MS = "block_time_ms";
+    public static final String POLL_BACKOFF_INITIAL_MS = "poll_backoff_initial_ms";
+    public static final String POLL_BACKOFF_MAX_MS = "poll_backoff_max_ms";
     public static final String NO_BLOCKS_FOR_FINALITY="no_of_blocks_for_finality";
     public static final String CHAIN_NAME = "chain_name";
+    public static final String RPC_BATCH_SIZE = "rpc_batch_size";
+    public static final String STREAMING_JSON_DECODE = "streaming_json_decode";
+    public static final String TYPED_SCHEMA = "typed_schema";
+    public static final String HEAD_REFRESH_INTERVAL_MS = "head_refresh_interval_ms";
+    public static final String RPC_HEALTH_CHECK_INTERVAL_MS = "rpc_health_check_interval_ms";
+    public static final String RPC_MAX_HEAD_LAG = "rpc_max_head_lag";
+    public static final String RPC_MAX_IN_FLIGHT = "rpc_max_in_flight";
+    public static final String RPC_REQUEST_TIMEOUT_MS = "rpc_request_timeout_ms";
+    public static final String RPC_MAX_CONNECTIONS = "rpc_max_connections";
+    public static final String RPC_CONNECT_TIMEOUT_MS = "rpc_connect_timeout_ms";
+    public static final String RPC_SOCKET_TIMEOUT_MS = "rpc_socket_timeout_ms";
+    public static final String RPC_KEEP_ALIVE_MS = "rpc_keep_alive_ms";
+    public static final String RPC_GZIP = "rpc_gzip";
+    public static final String RPC_CACHE_DIR = "rpc_cache_dir";
+    public static final String RPC_CACHE_MAX_BYTES = "rpc_cache_max_bytes";
+    public static final String RPC_CACHE_WARM_BLOCKS = "rpc_cache_warm_blocks";
+    public static final String PREFETCH_BLOCKS = "prefetch_blocks";
+    public static final String PREFETCH_THREADS = "prefetch_threads";
+    public static final String CATCHUP_MAX_RECORDS = "catchup_max_records";
+    public static final String CATCHUP_MAX_POLL_TIME_MS = "catchup_max_poll_time_ms";
+    public static final String CATCHUP_HEAD_DISTANCE = "catchup_head_distance";
+    public static final String REORG_DETECTION_DEPTH = "reorg_detection_depth";
+    public static final String TRANSACTION_RECEIPTS = "transaction_receipts";
+    public static final String RECEIPT_BATCH_SIZE = "receipt_batch_size";
 
     public static final String LAST_FETCHED_BLOCK_NUMBER = "last_fetched_block_number";
+    public static final String BLOCK_RANGE = "block_range";
 
     public static final String IGNORE_BLOCK_FIELDS = "ignore_block_fields";
     public static final String IGNORE_TRANSACTION_FILEDS = "ignore_transaction_fields";
@@ -22,5 +58,21 @@ public final class ConfigConstants {
     //EventsSourceConnector properties
     public static final String EVENT_LOGS_FILTER_ADDRESSES = "event_logs_filter_addresses";
     public static final String EVENT_LOGS_FILTER_TOPICS = "event_logs_filter_topics";
+    public static final String EVENT_LOGS_MAX_BLOCK_RANGE = "event_logs_max_block_range";
+    public static final String EVENT_LOGS_BLOOM_FILTER = "event_logs_bloom_filter";
+    public static final String BLOCK_HEADER_CACHE_SIZE = "block_header_cache_size";
+    public static final String EVENT_ABI_FILES = "event_abi_files";
     public static final String EVENT_LOGS_KAFKA_KEYS = "event_logs_kafka_keys"; //Comma separated value. Options: blockNumber, logIndex, address, topic, transactonHash, transactionIndex
+
+    //FileSourceConnector properties
+    public static final String FILE_SOURCE_DIR = "file_source_dir";
+    public static final String FILE_SOURCE_PATTERN = "file_source_pattern";
+    public static final String FILE_SOURCE_TYPE = "file_source_type"; //blocks or logs
+    public static final String FILE_POLL_MAX_RECORDS = "file_poll_max_records";
+    public static final String FILE_READ_BUFFER_BYTES = "file_read_buffer_bytes";
+    //Files of a task. Set by the connector, not by the user
+    public static final String TASK_FILES = "task_files";
+    public static final String FILE_PATH = "file";
+    public static final String FILE_POSITION = "position";
+    public static final String FILE_COMPLETED = "completed";
 }
@@ -1,8 +1,15 @@
 package com.bloxbean.kafka.connectors.web3.util;
 import java.math.BigInteger;
 
+/**
+ * Converts hex quantities. Quantities with up to 16 hex digits are parsed directly into a long. BigInteger is only
+ * used for larger values like value or totalDifficulty.
+ */
 public class HexConverter {
     private final static BigInteger THOUSAND = new BigInteger("1000");
+    //Max no of hex digits which fit in a long
+    private final static int MAX_LONG_HEX_DIGITS = 16;
+    private final static char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
 
     public static BigInteger stringToBigInteger(String hex) {
         if (!StringUtil.isEmpty(hex)) {
@@ -24,7 +31,11 @@ public class HexConverter {
 
     public static long hexToTimestampInMillis(String hex) {
         if (!StringUtil.isEmpty(hex)) {
-            if (hex.startsWith("0x")) {
+            int start = hex.startsWith("0x") ? 2 : 0;
+            if (isLongHex(hex, start))
+                return parseHex(hex, start) * 1000; //Overflows the same way as BigInteger.longValue()
+
+            if (start > 0) {
                 hex = hex.substring(2);
             }
 
@@ -37,6 +48,12 @@ public class HexConverter {
     public static long hexToLongValue(String hexOrLong) {
         if (!StringUtil.isEmpty(hexOrLong)) {
             if (hexOrLong.startsWith("0x")) {
+                if (hexOrLong.length() == 2)
+                    return 0L;
+
+                if (isLongHex(hexOrLong, 2))
+                    return parseHex(hexOrLong, 2);
+
                 hexOrLong = hexOrLong.substring(2);
             } else {
                 try {
@@ -45,6 +62,9 @@ public class HexConverter {
                 } catch (NumberFormatException ex) {
 
                 }
+
+                if (isLongHex(hexOrLong, 0))
+                    return parseHex(hexOrLong, 0);
             }
 
             BigInteger bi = new BigInteger(hexOrLong, 16);
@@ -57,12 +77,83 @@ public class HexConverter {
     }
 
     public static String hexToBigIntegerStr(String hex) {
+        if (hex != null && hex.startsWith("0x")) {
+            if (hex.length() == 2)
+                return "0";
+
+            if (isLongHex(hex, 2))
+                return Long.toUnsignedString(parseHex(hex, 2));
+        }
+
         BigInteger bi = HexConverter.stringToBigInteger(hex);
         if(bi != null) return bi.toString();
         else
             return hex;
     }
 
+    /**
+     * @param hex hex string with or without 0x prefix. An odd no of digits is left padded with 0
+     * @return bytes. Empty for null or "0x"
+     */
+    public static byte[] hexToBytes(String hex) {
+        if (StringUtil.isEmpty(hex))
+            return new byte[0];
+
+        int start = hex.startsWith("0x") ? 2 : 0;
+        int digits = hex.length() - start;
+        byte[] bytes = new byte[(digits + 1) / 2];
+        int pos = hex.length() - 1;
+        for (int i = bytes.length - 1; i >= 0; i--) {
+            int low = Character.digit(hex.charAt(pos--), 16);
+            int high = pos >= start ? Character.digit(hex.charAt(pos--), 16) : 0;
+            if (low < 0 || high < 0)
+                throw new NumberFormatException("Invalid hex string: " + hex);
+            bytes[i] = (byte) ((high << 4) | low);
+        }
+        return bytes;
+    }
+
+    /**
+     * @return 0x prefixed lower case hex of the bytes. "0x" for no bytes
+     */
+    public static String bytesToHex(byte[] bytes) {
+        char[] chars = new char[2 + bytes.length * 2];
+        chars[0] = '0';
+        chars[1] = 'x';
+        for (int i = 0; i < bytes.length; i++) {
+            chars[2 + i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xf];
+            chars[3 + i * 2] = HEX_DIGITS[bytes[i] & 0xf];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * @return true if the string has 1 to 16 hex digits after start and nothing else. Anything else, like a sign, is
+     * left to BigInteger
+     */
+    private static boolean isLongHex(String hex, int start) {
+        int digits = hex.length() - start;
+        if (digits <= 0 || digits > MAX_LONG_HEX_DIGITS)
+            return false;
+
+        for (int i = start; i < hex.length(); i++) {
+            if (Character.digit(hex.charAt(i), 16) < 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Parse hex digits from start till the end of the string. Must be checked with {@link #isLongHex(String, int)} first
+     */
+    private static long parseHex(String hex, int start) {
+        long value = 0;
+        for (int i = start; i < hex.length(); i++) {
+            value = (value << 4) | Character.digit(hex.charAt(i), 16);
+        }
+        return value;
+    }
+
     public static void main(String[] args) {
         BigInteger bi = stringToBigInteger("0x54e34e8e");
         System.out.println(bi.toString());
@@ -0,0 +1,44 @@
+package com.bloxbean.kafka.connectors.web3.util;
+
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * Helper methods to read values from a streaming json reader
+ */
+public class JsonStreamUtil {
+
+    /**
+     * Read the next value as string. Same as JSONObject.optString(): null is read as empty string, numbers and booleans
+     * as their text, and objects or arrays as json text.
+     * @param reader json reader positioned at a value
+     * @return value as string
+     */
+    public static String readString(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        switch (token) {
+            case STRING:
+            case NUMBER:
+                return reader.nextString();
+            case BOOLEAN:
+                return String.valueOf(reader.nextBoolean());
+            case NULL:
+                reader.nextNull();
+                return "";
+            default:
+                return readJson(reader);
+        }
+    }
+
+    /**
+     * Read the next value as json text
+     * @param reader json reader positioned at a value
+     * @return json text
+     */
+    public static String readJson(JsonReader reader) throws IOException {
+        return JsonParser.parseReader(reader).toString();
+    }
+}
@@ -0,0 +1,99 @@
+package com.bloxbean.kafka.connectors.web3.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Keccak-256 as used by Ethereum (original Keccak padding, not SHA3-256). Used to compute the topic0 of event
+ * signatures, so no crypto library is required.
+ */
+public class Keccak256 {
+    private final static int RATE = 136; //Bytes. 1600 - 2 * 256 bits
+    private final static int ROUNDS = 24;
+
+    private final static long[] ROUND_CONSTANTS = {
+            0x0000000000000001L, 0x0000000000008082L, 0x800000000000808aL, 0x8000000080008000L,
+            0x000000000000808bL, 0x0000000080000001L, 0x8000000080008081L, 0x8000000000008009L,
+            0x000000000000008aL, 0x0000000000000088L, 0x0000000080008009L, 0x000000008000000aL,
+            0x000000008000808bL, 0x800000000000008bL, 0x8000000000008089L, 0x8000000000008003L,
+            0x8000000000008002L, 0x8000000000000080L, 0x000000000000800aL, 0x800000008000000aL,
+            0x8000000080008081L, 0x8000000000008080L, 0x0000000080000001L, 0x8000000080008008L
+    };
+
+    //Rotation offsets, indexed by x + 5 * y
+    private final static int[] ROTATIONS = {
+            0, 1, 62, 28, 27,
+            36, 44, 6, 55, 20,
+            3, 10, 43, 25, 39,
+            41, 45, 15, 21, 8,
+            18, 2, 61, 56, 14
+    };
+
+    public static byte[] hash(byte[] input) {
+        long[] state = new long[25];
+
+        //Absorb full blocks, then the padded last block
+        int offset = 0;
+        for (; input.length - offset >= RATE; offset += RATE) {
+            absorb(state, input, offset);
+            keccakF(state);
+        }
+
+        byte[] last = new byte[RATE];
+        System.arraycopy(input, offset, last, 0, input.length - offset);
+        last[input.length - offset] ^= 0x01;
+        last[RATE - 1] ^= (byte) 0x80;
+        absorb(state, last, 0);
+        keccakF(state);
+
+        byte[] out = new byte[32];
+        for (int i = 0; i < out.length; i++)
+            out[i] = (byte) (state[i / 8] >>> (8 * (i % 8)));
+        return out;
+    }
+
+    /**
+     * @return 0x prefixed hex of the hash of the utf-8 bytes of the text. Example: topic0 of an event signature
+     */
+    public static String hashHex(String text) {
+        return HexConverter.bytesToHex(hash(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static void absorb(long[] state, byte[] block, int offset) {
+        for (int i = 0; i < RATE / 8; i++) {
+            long lane = 0;
+            for (int b = 0; b < 8; b++)
+                lane |= (block[offset + i * 8 + b] & 0xffL) << (8 * b);
+            state[i] ^= lane;
+        }
+    }
+
+    private static void keccakF(long[] a) {
+        long[] c = new long[5];
+        long[] b = new long[25];
+        for (int round = 0; round < ROUNDS; round++) {
+            //Theta
+            for (int x = 0; x < 5; x++)
+                c[x] = a[x] ^ a[x + 5] ^ a[x + 10] ^ a[x + 15] ^ a[x + 20];
+            for (int x = 0; x < 5; x++) {
+                long d = c[(x + 4) % 5] ^ Long.rotateLeft(c[(x + 1) % 5], 1);
+                for (int y = 0; y < 25; y += 5)
+                    a[x + y] ^= d;
+            }
+
+            //Rho and pi
+            for (int x = 0; x < 5; x++) {
+                for (int y = 0; y < 5; y++)
+                    b[y + 5 * ((2 * x + 3 * y) % 5)] = Long.rotateLeft(a[x + 5 * y], ROTATIONS[x + 5 * y]);
+            }
+
+            //Chi
+            for (int y = 0; y < 25; y += 5) {
+                for (int x = 0; x < 5; x++)
+                    a[x + y] = b[x + y] ^ (~b[(x + 1) % 5 + y] & b[(x + 2) % 5 + y]);
+            }
+
+            //Iota
+            a[0] ^= ROUND_CONSTANTS[round];
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.bloxbean.kafka.connectors.web3.client;
+
+import com.bloxbean.kafka.connectors.web3.stub.StubRpcNode;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChainHeadTrackerTest {
+
+    @Test
+    void slowEndpointDoesNotBlockTrackersOfOtherUrls() throws Exception {
+        try (StubRpcNode slowNode = new StubRpcNode(new StubRpcNode.Options().headBlockNumber(100).latencyInMillis(3000));
+             StubRpcNode fastNode = new StubRpcNode(new StubRpcNode.Options().headBlockNumber(200))) {
+            //given - first refresh of the slow node is in progress
+            CompletableFuture<ChainHeadTracker> slowTracker = CompletableFuture.supplyAsync(() ->
+                    ChainHeadTracker.acquire(slowNode.getUrl(), new RpcClientOptions(), 60000, null));
+            Thread.sleep(200);
+
+            //when
+            long start = System.currentTimeMillis();
+            ChainHeadTracker fastTracker = ChainHeadTracker.acquire(fastNode.getUrl(), new RpcClientOptions(), 60000, null);
+            long elapsed = System.currentTimeMillis() - start;
+
+            //then
+            try {
+                assertTrue(elapsed < 2000, "Acquire took " + elapsed + " ms");
+                assertEquals(200, fastTracker.getLatestBlockNumber());
+                assertEquals(100, slowTracker.get(10, TimeUnit.SECONDS).getLatestBlockNumber());
+            } finally {
+                fastTracker.release();
+                slowTracker.get(10, TimeUnit.SECONDS).release();
+            }
+        }
+    }
+
+    @Test
+    void tasksOfTheSameUrlShareTheStartedTracker() throws IOException {
+        try (StubRpcNode node = new StubRpcNode(new StubRpcNode.Options().headBlockNumber(100).latencyInMillis(500))) {
+            CompletableFuture<ChainHeadTracker> first = CompletableFuture.supplyAsync(() ->
+                    ChainHeadTracker.acquire(node.getUrl(), new RpcClientOptions(), 60000, null));
+            //Different settings are logged and ignored
+            ChainHeadTracker second = ChainHeadTracker.acquire(node.getUrl(), new RpcClientOptions().maxInFlight(4), 1000, null);
+
+            try {
+                assertSame(first.join(), second);
+                //Waits for the first refresh of the tracker
+                assertEquals(100, second.getLatestBlockNumber());
+            } finally {
+                first.join().release();
+                second.release();
+            }
+        }
+    }
+}
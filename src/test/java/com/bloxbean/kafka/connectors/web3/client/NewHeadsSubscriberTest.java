@@ -0,0 +1,77 @@
+package com.bloxbean.kafka.connectors.web3.client;
+
+import kong.unirest.json.JSONObject;
+import org.java_websocket.WebSocket;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.server.WebSocketServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NewHeadsSubscriberTest {
+    private WebSocketServer server;
+    private NewHeadsSubscriber subscriber;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (subscriber != null)
+            subscriber.close();
+        if (server != null)
+            server.stop(1000);
+    }
+
+    @Test
+    void receiveNewHeads() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        server = new WebSocketServer(new InetSocketAddress("localhost", 0)) {
+            @Override
+            public void onOpen(WebSocket conn, ClientHandshake handshake) {
+            }
+
+            @Override
+            public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+            }
+
+            @Override
+            public void onMessage(WebSocket conn, String message) {
+                JSONObject request = new JSONObject(message);
+                assertEquals("eth_subscribe", request.getString("method"));
+                assertEquals("newHeads", request.getJSONArray("params").getString(0));
+
+                conn.send("{\"jsonrpc\":\"2.0\",\"id\":" + request.get("id") + ",\"result\":\"0xcd0c3e8af590364c09d0fa6a1210faf5\"}");
+                conn.send("{\"jsonrpc\":\"2.0\",\"method\":\"eth_subscription\",\"params\":{\"subscription\":\"0xcd0c3e8af590364c09d0fa6a1210faf5\"," +
+                        "\"result\":{\"number\":\"0x1b4\",\"hash\":\"0x9a834e3d\",\"timestamp\":\"0x5f5e100\"}}}");
+            }
+
+            @Override
+            public void onError(WebSocket conn, Exception ex) {
+            }
+
+            @Override
+            public void onStart() {
+                started.countDown();
+            }
+        };
+        server.setReuseAddr(true);
+        server.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        BlockingQueue<JSONObject> heads = new LinkedBlockingQueue<>();
+        subscriber = new NewHeadsSubscriber("ws://localhost:" + server.getPort(), heads::add, 1000);
+        subscriber.start();
+
+        JSONObject head = heads.poll(5, TimeUnit.SECONDS);
+        assertNotNull(head);
+        assertEquals("0x1b4", head.getString("number"));
+        assertEquals("0x9a834e3d", head.getString("hash"));
+        assertTrue(subscriber.isSubscribed());
+        assertTrue(subscriber.getLastHeadTime() > 0);
+    }
+}
@@ -0,0 +1,114 @@
+package com.bloxbean.kafka.connectors.web3.client;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheTest {
+    private File dir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("web3-cache").toFile();
+    }
+
+    @AfterEach
+    void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files)
+                file.delete();
+        }
+        dir.delete();
+    }
+
+    @Test
+    void resultsArePersistedAcrossRestarts() throws IOException {
+        ResponseCache cache = ResponseCache.acquire(dir.getPath(), 16 * 1024 * 1024);
+        cache.put("block:1:full", "{\"number\":\"0x1\"}");
+        cache.put("block:2:full", "{\"number\":\"0x2\"}");
+        cache.put("block:1:full", "{\"number\":\"0x1\",\"hash\":\"0xb1\"}");
+
+        assertSame(cache, ResponseCache.acquire(dir.getPath(), 16 * 1024 * 1024));
+        cache.release();
+        assertEquals("{\"number\":\"0x2\"}", cache.get("block:2:full"));
+        cache.release();
+
+        ResponseCache reopened = ResponseCache.acquire(dir.getPath(), 16 * 1024 * 1024);
+        try {
+            assertEquals("{\"number\":\"0x1\",\"hash\":\"0xb1\"}", reopened.get("block:1:full"));
+            assertEquals("{\"number\":\"0x2\"}", reopened.get("block:2:full"));
+            assertNull(reopened.get("block:2:hashes"));
+        } finally {
+            reopened.release();
+        }
+    }
+
+    @Test
+    void indexIsRebuiltFromSegments() throws IOException {
+        ResponseCache cache = ResponseCache.acquire(dir.getPath(), 16 * 1024 * 1024);
+        cache.put("logs:1:10::", "[]");
+        cache.release();
+
+        assertTrue(new File(dir, "index.dat").delete());
+        ResponseCache reopened = ResponseCache.acquire(dir.getPath(), 16 * 1024 * 1024);
+        try {
+            assertEquals("[]", reopened.get("logs:1:10::"));
+        } finally {
+            reopened.release();
+        }
+    }
+
+    @Test
+    void corruptedRecordIsAMiss() throws IOException {
+        ResponseCache cache = ResponseCache.acquire(dir.getPath(), 16 * 1024 * 1024);
+        cache.put("block:1:full", "{\"number\":\"0x1\"}");
+        cache.release();
+
+        File[] segments = dir.listFiles((d, name) -> name.startsWith("segment-"));
+        assertEquals(1, segments.length);
+        try (RandomAccessFile file = new RandomAccessFile(segments[0], "rw")) {
+            file.seek(file.length() - 1);
+            int last = file.read();
+            file.seek(file.length() - 1);
+            file.write(last ^ 0xff);
+        }
+
+        ResponseCache reopened = ResponseCache.acquire(dir.getPath(), 16 * 1024 * 1024);
+        try {
+            assertNull(reopened.get("block:1:full"));
+        } finally {
+            reopened.release();
+        }
+    }
+
+    @Test
+    void oldestSegmentsAreEvicted() throws IOException {
+        //1 MB segments
+        ResponseCache cache = ResponseCache.acquire(dir.getPath(), 3 * 1024 * 1024);
+        try {
+            Random random = new Random(1);
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 64 * 1024; i++)
+                sb.append((char) ('a' + random.nextInt(26))); //Random text, so that it doesn't compress much
+            String json = "\"" + sb + "\"";
+
+            for (int i = 0; i < 100; i++)
+                cache.put("block:" + i + ":full", json);
+
+            assertTrue(cache.size() <= 3 * 1024 * 1024, "Cache size: " + cache.size());
+            assertNull(cache.get("block:0:full"));
+            assertEquals(json, cache.get("block:99:full"));
+        } finally {
+            cache.release();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.bloxbean.kafka.connectors.web3.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RpcEndpointPoolTest {
+
+    @Test
+    void fastestHealthyEndpointIsSelected() {
+        RpcEndpointPool pool = new RpcEndpointPool(Arrays.asList("http://a", "http://b", "http://c"), 5);
+        pool.getEndpoints().get(0).recordSuccess(100);
+        pool.getEndpoints().get(1).recordSuccess(20);
+        pool.getEndpoints().get(2).recordSuccess(50);
+
+        assertEquals("http://b", pool.fastest(null).getUrl());
+
+        //b fails and is in backoff
+        pool.getEndpoints().get(1).recordFailure(System.currentTimeMillis());
+        assertEquals("http://c", pool.fastest(null).getUrl());
+
+        //c already tried for this request
+        assertEquals("http://a", pool.fastest(Collections.singletonList(pool.getEndpoints().get(2))).getUrl());
+    }
+
+    @Test
+    void laggingEndpointIsEjected() {
+        RpcEndpointPool pool = new RpcEndpointPool(Arrays.asList("http://a", "http://b"), 5);
+        pool.getEndpoints().get(0).recordSuccess(10);
+        pool.getEndpoints().get(1).recordSuccess(50);
+        pool.getEndpoints().get(0).setHeadBlockNumber(1000);
+        pool.getEndpoints().get(1).setHeadBlockNumber(1010);
+
+        pool.updateLagging();
+
+        assertTrue(pool.getEndpoints().get(0).isLagging());
+        assertEquals("http://b", pool.fastest(null).getUrl());
+        for (int i = 0; i < 20; i++)
+            assertEquals("http://b", pool.spread(null).getUrl());
+
+        //a caught up
+        pool.getEndpoints().get(0).setHeadBlockNumber(1008);
+        pool.updateLagging();
+        assertFalse(pool.getEndpoints().get(0).isLagging());
+        assertEquals("http://a", pool.fastest(null).getUrl());
+    }
+
+    @Test
+    void spreadUsesAllHealthyEndpoints() {
+        RpcEndpointPool pool = new RpcEndpointPool(Arrays.asList("http://a", "http://b", "http://c"), 5);
+        pool.getEndpoints().get(0).recordSuccess(10);
+        pool.getEndpoints().get(1).recordSuccess(20);
+        pool.getEndpoints().get(2).recordSuccess(30);
+
+        Set<String> selected = new HashSet<>();
+        for (int i = 0; i < 200; i++)
+            selected.add(pool.spread(null).getUrl());
+
+        //Slowest endpoint never wins a two choice pick against a faster one
+        assertEquals(new HashSet<>(Arrays.asList("http://a", "http://b")), selected);
+    }
+
+    @Test
+    void endpointInBackoffIsUsedWhenNoOtherIsLeft() {
+        RpcEndpointPool pool = new RpcEndpointPool(Arrays.asList("http://a", "http://b"), 5);
+        long now = System.currentTimeMillis();
+        pool.getEndpoints().get(0).recordFailure(now);
+        pool.getEndpoints().get(0).recordFailure(now);
+        pool.getEndpoints().get(1).recordFailure(now);
+
+        //b leaves backoff first
+        assertEquals("http://b", pool.fastest(null).getUrl());
+    }
+}
@@ -0,0 +1,15 @@
+package com.bloxbean.kafka.connectors.web3.client;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RpcMetricsTest {
+
+    @Test
+    void methodOfRequest() {
+        assertEquals("eth_blockNumber", RpcMetrics.method(RpcRequestTemplate.BLOCK_NUMBER.render(1, "[]")));
+        assertEquals("eth_getLogs_batch", RpcMetrics.method(" [{\"method\": \"eth_getLogs\"}]"));
+        assertEquals("unknown", RpcMetrics.method("{}"));
+    }
+}
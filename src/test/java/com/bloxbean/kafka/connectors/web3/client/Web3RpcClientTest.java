@@ -1,12 +1,41 @@
 package com.bloxbean.kafka.connectors.web3.client;
 
+import com.bloxbean.kafka.connectors.web3.exception.Web3Exception;
+import com.bloxbean.kafka.connectors.web3.stub.StubHttpServer;
 import com.bloxbean.kafka.connectors.web3.util.HexConverter;
+import com.bloxbean.kafka.connectors.web3.util.JsonStreamUtil;
 import kong.unirest.json.JSONArray;
 import kong.unirest.json.JSONObject;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.metrics.Metrics;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
 class Web3RpcClientTest {
 
+    private StubHttpServer server;
+    private StubHttpServer failingServer;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null)
+            server.close();
+        if (failingServer != null)
+            failingServer.close();
+    }
+
     @Test
     void getLatestBlock() {
     }
@@ -22,6 +51,280 @@ class Web3RpcClientTest {
 //        System.out.println(HexConverter.hexToTimestampInMillis(jsonObject.getString("timestamp")));
     }
 
+    @Test
+    void getBlocksByNumberMatchesResponsesById() throws IOException {
+        //given - node returns the responses in reverse order, one error and one unavailable block
+        server = StubHttpServer.json(body -> {
+            JSONArray requests = new JSONArray(body);
+            JSONArray responses = new JSONArray();
+            for (int i = requests.length() - 1; i >= 0; i--) {
+                JSONObject request = requests.getJSONObject(i);
+                String blockNumberHex = request.getJSONArray("params").getString(0);
+
+                JSONObject response = new JSONObject();
+                response.put("jsonrpc", "2.0");
+                response.put("id", request.getString("id"));
+                if ("0x65".equals(blockNumberHex)) {
+                    JSONObject error = new JSONObject();
+                    error.put("code", -32000);
+                    error.put("message", "header not found");
+                    response.put("error", error);
+                } else if ("0x66".equals(blockNumberHex)) {
+                    responses.put(new JSONObject("{\"jsonrpc\":\"2.0\",\"id\":\"" + request.getString("id") + "\",\"result\":null}"));
+                    continue;
+                } else {
+                    JSONObject block = new JSONObject();
+                    block.put("number", blockNumberHex);
+                    response.put("result", block);
+                }
+                responses.put(response);
+            }
+            return responses.toString();
+        });
+        String url = server.getUrl();
+
+        //when
+        Web3RpcClient web3RpcClient = new Web3RpcClient(url);
+        List<RpcResponse> responses = web3RpcClient.getBlocksByNumber(99, 102, true);
+
+        //then
+        assertEquals(4, responses.size());
+        assertEquals("0x63", responses.get(0).getJSONObject().getString("number"));
+        assertEquals("0x64", responses.get(1).getJSONObject().getString("number"));
+        assertTrue(responses.get(2).hasError());
+        assertTrue(responses.get(2).getError().contains("header not found"));
+        assertFalse(responses.get(3).hasError());
+        assertNull(responses.get(3).getResult());
+    }
+
+    @Test
+    void getBlocksByNumberFailsWhenBatchIsRejected() throws IOException {
+        server = StubHttpServer.json(body -> "{\"jsonrpc\":\"2.0\",\"id\":null,\"error\":{\"code\":-32600,\"message\":\"batch not supported\"}}");
+        String url = server.getUrl();
+
+        Web3RpcClient web3RpcClient = new Web3RpcClient(url);
+        assertThrows(Web3Exception.class, () -> web3RpcClient.getBlocksByNumber(1, 5, false));
+
+        Web3Exception e = assertThrows(Web3Exception.class, () -> web3RpcClient.getBlocksByNumber(1, 5, false, reader -> reader.nextString()));
+        assertTrue(e.getMessage().contains("batch not supported"));
+    }
+
+    @Test
+    void getBlocksByNumberWithStreamingDecoder() throws IOException {
+        //given - responses in reverse order, one error and one unavailable block
+        server = StubHttpServer.json(body -> {
+            JSONArray requests = new JSONArray(body);
+            StringBuilder sb = new StringBuilder("[");
+            for (int i = requests.length() - 1; i >= 0; i--) {
+                JSONObject request = requests.getJSONObject(i);
+                String blockNumberHex = request.getJSONArray("params").getString(0);
+                String id = request.getString("id");
+                if (sb.length() > 1)
+                    sb.append(",");
+
+                if ("0x2".equals(blockNumberHex))
+                    sb.append("{\"jsonrpc\":\"2.0\",\"id\":\"" + id + "\",\"error\":{\"code\":-32000,\"message\":\"header not found\"}}");
+                else if ("0x3".equals(blockNumberHex))
+                    sb.append("{\"jsonrpc\":\"2.0\",\"id\":\"" + id + "\",\"result\":null}");
+                else
+                    sb.append("{\"jsonrpc\":\"2.0\",\"id\":\"" + id + "\",\"result\":{\"number\":\"" + blockNumberHex + "\",\"transactions\":[\"0x1\"]}}");
+            }
+            return sb.append("]").toString();
+        });
+        String url = server.getUrl();
+
+        //when - decoder only reads the block number
+        Web3RpcClient web3RpcClient = new Web3RpcClient(url);
+        List<RpcResponse> responses = web3RpcClient.getBlocksByNumber(1, 3, false, reader -> {
+            long number = -1;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("number".equals(reader.nextName()))
+                    number = HexConverter.hexToLongValue(reader.nextString());
+                else
+                    reader.skipValue();
+            }
+            reader.endObject();
+            return number;
+        });
+
+        //then
+        assertEquals(3, responses.size());
+        assertEquals(1L, responses.get(0).getResult());
+        assertTrue(responses.get(1).getError().contains("header not found"));
+        assertFalse(responses.get(2).hasError());
+        assertNull(responses.get(2).getResult());
+    }
+
+    @Test
+    void failoverToNextEndpoint() throws IOException {
+        server = StubHttpServer.json(body -> "{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":\"0x10\"}");
+        String url = server.getUrl();
+
+        failingServer = StubHttpServer.start(exchange -> {
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+        });
+        String failingUrl = failingServer.getUrl();
+
+        Web3RpcClient web3RpcClient = new Web3RpcClient(failingUrl + "," + url, 60000, 5);
+        try {
+            for (int i = 0; i < 5; i++)
+                assertEquals("0x10", web3RpcClient.getLatestBlock());
+
+            RpcEndpoint failingEndpoint = web3RpcClient.getEndpointPool().getEndpoints().get(0);
+            assertTrue(failingEndpoint.getConsecutiveFailures() > 0);
+            assertFalse(failingEndpoint.isHealthy(System.currentTimeMillis()));
+        } finally {
+            web3RpcClient.close();
+        }
+    }
+
+    @Test
+    void asyncRequestsAreBoundedPerEndpoint() throws IOException {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        server = StubHttpServer.json(body -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.decrementAndGet();
+
+            JSONObject request = new JSONObject(body);
+            return "{\"jsonrpc\":\"2.0\",\"id\":\"" + request.getString("id") + "\",\"result\":\"" + request.getJSONArray("params").getString(0) + "\"}";
+        });
+        String url = server.getUrl();
+
+        Web3RpcClient web3RpcClient = new Web3RpcClient(url, 60000, 5, 2, 10000);
+        try {
+            List<CompletableFuture<String>> futures = new ArrayList<>();
+            for (long blockNumber = 0; blockNumber < 8; blockNumber++)
+                futures.add(web3RpcClient.getBlockByNumberAsync(blockNumber, false, reader -> reader.nextString()));
+
+            for (int i = 0; i < futures.size(); i++)
+                assertEquals("0x" + i, Web3RpcClient.join(futures.get(i)));
+            assertTrue(maxInFlight.get() <= 2, "Max in flight: " + maxInFlight.get());
+        } finally {
+            web3RpcClient.close();
+        }
+    }
+
+    @Test
+    void asyncRequestFailsAfterDeadline() throws IOException {
+        server = StubHttpServer.json(body -> {
+            try {
+                Thread.sleep(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":\"0x10\"}";
+        });
+        String url = server.getUrl();
+
+        Web3RpcClient web3RpcClient = new Web3RpcClient(url);
+        try {
+            JSONObject request = new JSONObject("{\"jsonrpc\":\"2.0\",\"id\":1,\"method\":\"eth_blockNumber\",\"params\":[]}");
+            CompletableFuture<RpcResponse> future = web3RpcClient.callAsync(request, reader -> reader.nextString(), 200);
+
+            Web3Exception e = assertThrows(Web3Exception.class, () -> Web3RpcClient.join(future));
+            assertTrue(e.getMessage().contains("timed out"), e.getMessage());
+        } finally {
+            web3RpcClient.close();
+        }
+    }
+
+    @Test
+    void gzipResponsesAreDecompressed() throws IOException {
+        server = StubHttpServer.start(exchange -> {
+            JSONObject request = new JSONObject(StubHttpServer.readBody(exchange.getRequestBody()));
+            String response = "{\"jsonrpc\":\"2.0\",\"id\":" + request.get("id") + ",\"result\":\"" + request.getJSONArray("params").getString(0) + "\"}";
+
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            assertTrue(acceptEncoding != null && acceptEncoding.contains("gzip"), "Accept-Encoding: " + acceptEncoding);
+            StubHttpServer.sendGzipJson(exchange, response);
+        });
+        String url = server.getUrl();
+
+        Web3RpcClient web3RpcClient = new Web3RpcClient(url, new RpcClientOptions().gzip(true));
+        try {
+            assertEquals("0x5", web3RpcClient.getBlockByNumber(5, false, reader -> reader.nextString()));
+            assertEquals("0x6", Web3RpcClient.join(web3RpcClient.getBlockByNumberAsync(6, false, reader -> reader.nextString())));
+        } finally {
+            web3RpcClient.close();
+        }
+    }
+
+    @Test
+    void bytesReceivedAreCompressedSizes() throws IOException {
+        AtomicLong sentBytes = new AtomicLong();
+        server = StubHttpServer.start(exchange -> {
+            JSONObject request = new JSONObject(StubHttpServer.readBody(exchange.getRequestBody()));
+            String response = "{\"jsonrpc\":\"2.0\",\"id\":" + request.get("id") + ",\"result\":{\"number\":\"" + request.getJSONArray("params").getString(0) + "\"}}";
+            sentBytes.addAndGet(StubHttpServer.sendGzipJson(exchange, response));
+        });
+        String url = server.getUrl();
+
+        Metrics metrics = new Metrics();
+        Web3RpcClient web3RpcClient = new Web3RpcClient(url, new RpcClientOptions().gzip(true));
+        web3RpcClient.setMetrics(new RpcMetrics(metrics, Collections.singletonMap("task", "0")));
+        try {
+            //Json, streamed and async response
+            assertEquals("0x4", web3RpcClient.getBlockByNumber(4L, false).getString("number"));
+            assertNotNull(web3RpcClient.getBlockByNumber(5, false, JsonStreamUtil::readJson));
+            assertNotNull(Web3RpcClient.join(web3RpcClient.getBlockByNumberAsync(6, false, JsonStreamUtil::readJson)));
+        } finally {
+            web3RpcClient.close();
+        }
+
+        MetricName bytesTotal = metrics.metricName("bytes-received-total", RpcMetrics.GROUP, Collections.singletonMap("task", "0"));
+        assertEquals((double) sentBytes.get(), (double) (Double) metrics.metric(bytesTotal).metricValue());
+    }
+
+    @Test
+    void finalBlocksAreServedFromCache() throws IOException {
+        AtomicInteger fetchedBlocks = new AtomicInteger();
+        server = StubHttpServer.json(body -> {
+            JSONArray requests = new JSONArray(body);
+            JSONArray responses = new JSONArray();
+            for (int i = 0; i < requests.length(); i++) {
+                JSONObject request = requests.getJSONObject(i);
+                fetchedBlocks.incrementAndGet();
+                JSONObject block = new JSONObject().put("number", request.getJSONArray("params").getString(0));
+                responses.put(new JSONObject().put("jsonrpc", "2.0").put("id", request.get("id")).put("result", block));
+            }
+            return responses.toString();
+        });
+        String url = server.getUrl();
+
+        File cacheDir = Files.createTempDirectory("web3-cache").toFile();
+        Web3RpcClient web3RpcClient = new Web3RpcClient(url, new RpcClientOptions().cacheDir(cacheDir.getPath()));
+        try {
+            web3RpcClient.setFinalBlockNumberSupplier(() -> 11);
+            assertEquals(3, web3RpcClient.getBlocksByNumber(10, 12, true).size());
+            assertEquals(3, fetchedBlocks.get());
+
+            //10 and 11 are final and read from the cache. 12 is fetched again
+            List<RpcResponse> responses = web3RpcClient.getBlocksByNumber(10, 12, true);
+            assertEquals(4, fetchedBlocks.get());
+            assertEquals("0xa", responses.get(0).getJSONObject().getString("number"));
+            assertEquals("0xb", web3RpcClient.getBlockByNumber(11L, true).getString("number"));
+            assertEquals("0xb", Web3RpcClient.join(web3RpcClient.getBlockByNumberAsync(11, true, reader -> new JSONObject(JsonStreamUtil.readJson(reader)))).getString("number"));
+            assertEquals(4, fetchedBlocks.get());
+
+            //Different request params are cached separately
+            web3RpcClient.getBlocksByNumber(10, 10, false);
+            assertEquals(5, fetchedBlocks.get());
+        } finally {
+            web3RpcClient.close();
+            for (File file : cacheDir.listFiles())
+                file.delete();
+            cacheDir.delete();
+        }
+    }
+
     @Test
     void getLogs() {
 //        long blockNumber = 0L;
@@ -30,4 +333,4 @@ class Web3RpcClientTest {
 //
 //        System.out.println(jsonArray);
     }
-}
\ No newline at end of file
+}
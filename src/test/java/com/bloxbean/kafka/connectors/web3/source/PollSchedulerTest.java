@@ -0,0 +1,73 @@
+package com.bloxbean.kafka.connectors.web3.source;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PollSchedulerTest {
+
+    @Test
+    void blockIntervalIsEstimatedFromTimestamps() {
+        PollScheduler scheduler = new PollScheduler(10000, 500, 30000);
+        assertEquals(10000, scheduler.getBlockInterval());
+
+        //Timestamps in whole seconds, 2 blocks per sec
+        for (long blockNumber = 100; blockNumber <= 110; blockNumber++)
+            scheduler.onBlock(blockNumber, 1_600_000_000_000L + (blockNumber / 2) * 1000);
+        assertEquals(500, scheduler.getBlockInterval());
+
+        //Old blocks are overdue, so the wait is a fraction of the block interval
+        assertEquals(125, scheduler.getBlockWaitTime());
+
+        //Offset reset starts a new estimation
+        scheduler.onBlock(50, 1_600_000_000_000L);
+        assertEquals(10000, scheduler.getBlockInterval());
+    }
+
+    @Test
+    void waitEndsShortlyAfterNextBlockIsExpected() {
+        PollScheduler scheduler = new PollScheduler(1000, 500, 30000);
+        long now = System.currentTimeMillis();
+        scheduler.onBlock(1, now - 1500);
+        scheduler.onBlock(2, now - 500);
+
+        long waitTime = scheduler.getBlockWaitTime();
+        assertTrue(waitTime > 400 && waitTime <= 600, "Wait time: " + waitTime);
+    }
+
+    @Test
+    void backoffGrowsExponentiallyWithJitter() {
+        PollScheduler scheduler = new PollScheduler(1000, 100, 1000);
+        for (int i = 0; i < 5; i++) {
+            long backoff = Math.min(100L << i, 1000);
+            long delay = scheduler.onError();
+            assertTrue(delay >= backoff / 2 && delay <= backoff, "Delay: " + delay + ", backoff: " + backoff);
+        }
+        assertEquals(5, scheduler.getErrorCount());
+
+        scheduler.onSuccess();
+        assertEquals(0, scheduler.getErrorCount());
+        assertTrue(scheduler.onError() <= 100);
+    }
+
+    @Test
+    void stopWakesUpSleepingThread() throws Exception {
+        PollScheduler scheduler = new PollScheduler(1000, 100, 1000);
+        CompletableFuture<Boolean> sleep = CompletableFuture.supplyAsync(() -> {
+            try {
+                return scheduler.sleep(60000);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        Thread.sleep(100);
+        scheduler.stop();
+
+        assertFalse(sleep.get(5, TimeUnit.SECONDS));
+        assertFalse(scheduler.sleep(60000));
+    }
+}
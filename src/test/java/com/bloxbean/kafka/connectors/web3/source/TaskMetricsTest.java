@@ -0,0 +1,59 @@
+package com.bloxbean.kafka.connectors.web3.source;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskMetricsTest {
+
+    @Test
+    void metricsAreExposedOverJmx() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName taskName = new ObjectName("kafka.connect.web3:type=web3-source-task-metrics,connector=jmx-test,task=0");
+        ObjectName rpcName = new ObjectName("kafka.connect.web3:type=web3-rpc-metrics,connector=jmx-test,task=0,method=eth_getBlockByNumber_batch");
+
+        TaskMetrics metrics = new TaskMetrics("jmx-test");
+        try {
+            metrics.setHeadBlockNumberSupplier(() -> 120);
+            metrics.recordPoll(2, 30);
+            metrics.recordOffset(100, System.currentTimeMillis() - 5000);
+            metrics.getRpcMetrics().recordCall("[{\"jsonrpc\":\"2.0\",\"method\":\"eth_getBlockByNumber\",\"params\":[\"0x1\",true],\"id\":1}]", 40, false);
+
+            assertEquals(2.0, server.getAttribute(taskName, "block-total"));
+            assertEquals(30.0, server.getAttribute(taskName, "record-total"));
+            assertEquals(20L, server.getAttribute(taskName, "lag-blocks"));
+            assertTrue((Double) server.getAttribute(taskName, "lag-seconds") >= 5);
+            assertEquals(1.0, server.getAttribute(rpcName, "request-total"));
+            assertEquals(40.0, server.getAttribute(rpcName, "request-latency-max"));
+        } finally {
+            metrics.close();
+        }
+
+        assertFalse(server.isRegistered(taskName));
+    }
+
+    @Test
+    void tasksOfAConnectorHaveDistinctIds() {
+        TaskMetrics first = new TaskMetrics("ids-test");
+        TaskMetrics second = new TaskMetrics("ids-test");
+        try {
+            assertEquals(0, first.getTaskId());
+            assertEquals(1, second.getTaskId());
+        } finally {
+            first.close();
+        }
+
+        //Released id is reused
+        TaskMetrics third = new TaskMetrics("ids-test");
+        try {
+            assertEquals(0, third.getTaskId());
+        } finally {
+            second.close();
+            third.close();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.bloxbean.kafka.connectors.web3.source.blocks;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockPrefetcherTest {
+
+    @Test
+    void blocksAreReturnedInOrder() throws InterruptedException {
+        //given - chunks complete in random order
+        BlockPrefetcher prefetcher = new BlockPrefetcher((from, to) -> {
+            sleepRandom();
+            return blocks(from, to);
+        }, 4, 20, 3);
+        prefetcher.reset(100);
+
+        //when
+        List<Long> blockNumbers = new ArrayList<>();
+        long next = 100;
+        while (next < 150) {
+            prefetcher.schedule(149);
+            FetchedBlock block = prefetcher.next(next, 1000);
+            if (block != null) {
+                blockNumbers.add(block.getBlockNumber());
+                next++;
+            }
+        }
+        prefetcher.close();
+
+        //then
+        assertEquals(50, blockNumbers.size());
+        for (int i = 0; i < blockNumbers.size(); i++) {
+            assertEquals(100 + i, blockNumbers.get(i).longValue());
+        }
+    }
+
+    @Test
+    void refetchFromFirstMissingBlock() throws InterruptedException {
+        //given - only blocks till 104 are available
+        AtomicInteger calls = new AtomicInteger();
+        BlockPrefetcher prefetcher = new BlockPrefetcher((from, to) -> {
+            calls.incrementAndGet();
+            return blocks(from, Math.min(to, 104));
+        }, 2, 10, 4);
+        prefetcher.reset(100);
+        prefetcher.schedule(109);
+
+        //when
+        long next = 100;
+        FetchedBlock block;
+        while ((block = prefetcher.next(next, 1000)) != null) {
+            assertEquals(next, block.getBlockNumber());
+            next++;
+        }
+
+        //then
+        assertEquals(105, next);
+        assertFalse(prefetcher.hasPending());
+        assertEquals(105, prefetcher.getNextBlockToSchedule());
+        prefetcher.close();
+    }
+
+    private static List<FetchedBlock> blocks(long from, long to) {
+        List<FetchedBlock> blocks = new ArrayList<>();
+        for (long i = from; i <= to; i++) {
+            blocks.add(new FetchedBlock(i, "0x" + i, "0x" + (i - 1), i * 1000, null));
+        }
+        return blocks;
+    }
+
+    private static void sleepRandom() {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextInt(20));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.bloxbean.kafka.connectors.web3.source.blocks;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static com.bloxbean.kafka.connectors.web3.util.ConfigConstants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockSourceConnectorTest {
+
+    @Test
+    void singleTaskWithoutEndBlock() {
+        BlockSourceConnector connector = new BlockSourceConnector();
+        connector.start(props(100, -1));
+
+        List<Map<String, String>> configs = connector.taskConfigs(4);
+
+        assertEquals(1, configs.size());
+        assertNull(configs.get(0).get(TASK_START_BLOCK));
+    }
+
+    @Test
+    void historicalRangeIsSplitAndTipHasOwnTask() {
+        BlockSourceConnector connector = new BlockSourceConnector();
+        Map<String, String> props = props(100, 1099);
+        props.put(BLOCK_SHARD_SIZE, "200");
+        connector.start(props);
+
+        List<Map<String, String>> configs = connector.taskConfigs(4);
+
+        assertEquals(4, configs.size());
+        //Tip task
+        assertEquals("1100", configs.get(0).get(TASK_START_BLOCK));
+        assertNull(configs.get(0).get(TASK_BLOCK_RANGES));
+
+        //5 shards over 3 range tasks
+        assertEquals("100-299,300-499", configs.get(1).get(TASK_BLOCK_RANGES));
+        assertEquals("500-699,700-899", configs.get(2).get(TASK_BLOCK_RANGES));
+        assertEquals("900-1099", configs.get(3).get(TASK_BLOCK_RANGES));
+    }
+
+    @Test
+    void shardsDoNotChangeWithTasksMax() {
+        BlockSourceConnector connector = new BlockSourceConnector();
+        Map<String, String> props = props(100, 1099);
+        props.put(BLOCK_SHARD_SIZE, "300");
+        connector.start(props);
+
+        Set<String> shardsOf3Tasks = shards(connector.taskConfigs(3));
+        Set<String> shardsOf8Tasks = shards(connector.taskConfigs(8));
+
+        assertEquals(new HashSet<>(Arrays.asList("100-399", "400-699", "700-999", "1000-1099")), shardsOf3Tasks);
+        assertEquals(shardsOf3Tasks, shardsOf8Tasks);
+        //No more range tasks than shards
+        assertEquals(5, connector.taskConfigs(8).size());
+    }
+
+    @Test
+    void lastShardIsSmaller() {
+        List<long[]> shards = BlockSourceConnector.splitShards(10, 11, 5);
+
+        assertEquals(1, shards.size());
+        assertArrayEquals(new long[]{10, 11}, shards.get(0));
+    }
+
+    private Set<String> shards(List<Map<String, String>> configs) {
+        Set<String> shards = new HashSet<>();
+        for (Map<String, String> config : configs) {
+            if (config.containsKey(TASK_BLOCK_RANGES))
+                shards.addAll(Arrays.asList(config.get(TASK_BLOCK_RANGES).split(",")));
+        }
+        return shards;
+    }
+
+    private Map<String, String> props(long startBlock, long endBlock) {
+        Map<String, String> props = new HashMap<>();
+        props.put(WEB3_RPC_URL, "http://localhost:8545");
+        props.put(TOPIC, "blocks");
+        props.put(START_BLOCK, String.valueOf(startBlock));
+        props.put(END_BLOCK, String.valueOf(endBlock));
+        return props;
+    }
+}
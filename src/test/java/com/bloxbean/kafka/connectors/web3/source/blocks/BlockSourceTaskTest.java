@@ -0,0 +1,56 @@
+package com.bloxbean.kafka.connectors.web3.source.blocks;
+
+import com.bloxbean.kafka.connectors.web3.stub.StubRpcNode;
+import com.bloxbean.kafka.connectors.web3.stub.ThroughputHarness;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.bloxbean.kafka.connectors.web3.util.ConfigConstants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockSourceTaskTest {
+
+    @Test
+    void sourcePartitionDoesNotChangeWhenEndpointsAreAdded() {
+        Map<String, String> single = sourcePartition("http://node1:8545", null);
+        Map<String, String> failover = sourcePartition("http://node1:8545, http://node2:8545,http://node3:8545", null);
+
+        assertEquals(single, failover);
+        //Same as the partition of a single url before failover endpoints were supported
+        assertEquals("http://node1:8545", single.get("blocks_" + WEB3_RPC_URL));
+    }
+
+    @Test
+    void sourcePartitionKeyOverridesUrls() {
+        Map<String, String> partition = sourcePartition("http://node2:8545,http://node1:8545", "mainnet");
+
+        assertEquals("mainnet", partition.get("blocks_" + WEB3_RPC_URL));
+    }
+
+    @Test
+    void rangeTaskPublishesAllItsShards() throws IOException, InterruptedException {
+        try (StubRpcNode node = new StubRpcNode(new StubRpcNode.Options().headBlockNumber(200).transactionsPerBlock(1))) {
+            Map<String, String> props = ThroughputHarness.blockTaskProps(node.getUrl());
+            props.put(TASK_BLOCK_RANGES, "1-50,51-100");
+
+            ThroughputHarness.Result result = ThroughputHarness.run(new BlockSourceTask(), props, 100, 30000);
+
+            assertEquals(100, result.getBlocks());
+            assertEquals(100 * 2, result.getRecords());
+        }
+    }
+
+    private Map<String, String> sourcePartition(String web3RpcUrl, String partitionKey) {
+        Map<String, String> props = new HashMap<>();
+        props.put(WEB3_RPC_URL, web3RpcUrl);
+        props.put(TOPIC, "blocks");
+        if (partitionKey != null)
+            props.put(SOURCE_PARTITION_KEY, partitionKey);
+
+        BlockSourceConfig config = new BlockSourceConfig(props);
+        return new BlockSourceTask(config, null).sourcePartition();
+    }
+}
@@ -0,0 +1,154 @@
+package com.bloxbean.kafka.connectors.web3.source.blocks;
+
+import com.bloxbean.kafka.connectors.web3.client.Web3RpcClient;
+import com.bloxbean.kafka.connectors.web3.exception.Web3Exception;
+import com.bloxbean.kafka.connectors.web3.source.blocks.schema.BlockProjection;
+import com.bloxbean.kafka.connectors.web3.source.blocks.schema.TransactionConverter;
+import com.bloxbean.kafka.connectors.web3.source.blocks.schema.TransactionSchema;
+import com.bloxbean.kafka.connectors.web3.stub.StubHttpServer;
+import kong.unirest.json.JSONArray;
+import kong.unirest.json.JSONObject;
+import org.apache.kafka.connect.data.Struct;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReceiptFetcherTest {
+    private final static String BLOCK_HASH = "0xb1";
+
+    private StubHttpServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null)
+            server.close();
+    }
+
+    @Test
+    void blockReceiptsAreUsedIfSupported() throws IOException {
+        AtomicInteger calls = new AtomicInteger();
+        server = StubHttpServer.json(body -> {
+            calls.incrementAndGet();
+            JSONObject request = new JSONObject(body);
+            assertEquals("eth_getBlockReceipts", request.getString("method"));
+            assertEquals("0x10", request.getJSONArray("params").getString(0));
+
+            JSONArray receipts = new JSONArray().put(receipt("0xt1", "0x1")).put(receipt("0xt2", "0x0"));
+            return response(request.get("id"), receipts);
+        });
+        String url = server.getUrl();
+
+        Web3RpcClient web3RpcClient = new Web3RpcClient(url);
+        try {
+            ReceiptFetcher receiptFetcher = new ReceiptFetcher(web3RpcClient, 10);
+            Map<String, JSONObject> receipts = Web3RpcClient.join(receiptFetcher.fetchAsync(16, BLOCK_HASH, Arrays.asList("0xt1", "0xt2")));
+
+            assertEquals(1, calls.get());
+            assertEquals("0x1", receipts.get("0xt1").getString("status"));
+            assertEquals("0x0", receipts.get("0xt2").getString("status"));
+            assertTrue(receiptFetcher.isBlockReceiptsSupported());
+        } finally {
+            web3RpcClient.close();
+        }
+    }
+
+    @Test
+    void receiptsAreFetchedInBatchesIfBlockReceiptsNotSupported() throws IOException {
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        server = StubHttpServer.json(body -> {
+            if (body.startsWith("{")) { //eth_getBlockReceipts
+                JSONObject request = new JSONObject(body);
+                return "{\"jsonrpc\":\"2.0\",\"id\":" + request.get("id") + ",\"error\":{\"code\":-32601,\"message\":\"the method eth_getBlockReceipts does not exist\"}}";
+            }
+
+            JSONArray requests = new JSONArray(body);
+            batchSizes.add(requests.length());
+            JSONArray responses = new JSONArray();
+            for (int i = 0; i < requests.length(); i++) {
+                JSONObject request = requests.getJSONObject(i);
+                assertEquals("eth_getTransactionReceipt", request.getString("method"));
+                responses.put(new JSONObject(response(request.get("id"), receipt(request.getJSONArray("params").getString(0), "0x1"))));
+            }
+            return responses.toString();
+        });
+        String url = server.getUrl();
+
+        Web3RpcClient web3RpcClient = new Web3RpcClient(url);
+        try {
+            ReceiptFetcher receiptFetcher = new ReceiptFetcher(web3RpcClient, 2);
+            List<String> hashes = Arrays.asList("0xt1", "0xt2", "0xt3", "0xt4", "0xt5");
+            Map<String, JSONObject> receipts = Web3RpcClient.join(receiptFetcher.fetchAsync(16, BLOCK_HASH, hashes));
+
+            assertFalse(receiptFetcher.isBlockReceiptsSupported());
+            assertEquals(5, receipts.size());
+            for (String hash : hashes)
+                assertEquals(hash, receipts.get(hash).getString("transactionHash"));
+            Collections.sort(batchSizes);
+            assertEquals(Arrays.asList(1, 2, 2), batchSizes);
+        } finally {
+            web3RpcClient.close();
+        }
+    }
+
+    @Test
+    void receiptsOfOtherBlockAreRejected() throws IOException {
+        server = StubHttpServer.json(body -> {
+            JSONObject request = new JSONObject(body);
+            return response(request.get("id"), new JSONArray().put(receipt("0xt1", "0x1").put("blockHash", "0xother")));
+        });
+        String url = server.getUrl();
+
+        Web3RpcClient web3RpcClient = new Web3RpcClient(url);
+        try {
+            ReceiptFetcher receiptFetcher = new ReceiptFetcher(web3RpcClient, 10);
+            assertThrows(Web3Exception.class, () -> Web3RpcClient.join(receiptFetcher.fetchAsync(16, BLOCK_HASH, Collections.singletonList("0xt1"))));
+        } finally {
+            web3RpcClient.close();
+        }
+    }
+
+    @Test
+    void receiptIsMergedIntoTransaction() {
+        BlockProjection projection = BlockProjection.compile(true, null, Collections.singleton(TransactionSchema.CONTRACT_ADDRESS), "eth", true, true);
+        JSONObject txnJson = new JSONObject().put("hash", "0xt1").put("gas", "0x5208");
+        Struct txnStruct = TransactionConverter.convertFromJSON(BLOCK_HASH, txnJson, projection, 1000L);
+
+        JSONObject receipt = receipt("0xt1", "0x1")
+                .put("logs", new JSONArray().put(new JSONObject()
+                        .put("blockHash", BLOCK_HASH).put("logIndex", "0x3").put("address", "0xc1").put("removed", false)
+                        .put("data", "0x").put("blockNumber", "0x10").put("transactionIndex", "0x0").put("transactionHash", "0xt1")
+                        .put("topics", new JSONArray().put("0xtopic"))));
+        TransactionConverter.putReceipt(txnStruct, receipt, projection);
+        txnStruct.validate();
+
+        assertEquals(1L, (long) txnStruct.getInt64(TransactionSchema.STATUS));
+        assertEquals(21000L, (long) txnStruct.getInt64(TransactionSchema.GAS_USED));
+        assertEquals(new BigDecimal(1000000000), txnStruct.get(TransactionSchema.EFFECTIVE_GAS_PRICE));
+        assertNull(txnStruct.get(TransactionSchema.CONTRACT_ADDRESS));
+
+        List<Struct> logs = txnStruct.getArray(TransactionSchema.LOGS);
+        assertEquals(1, logs.size());
+        assertEquals(3L, (long) logs.get(0).getInt64("logIndex"));
+    }
+
+    private static JSONObject receipt(String transactionHash, String status) {
+        return new JSONObject()
+                .put("transactionHash", transactionHash)
+                .put("blockHash", BLOCK_HASH)
+                .put("status", status)
+                .put("gasUsed", "0x5208")
+                .put("cumulativeGasUsed", "0x5208")
+                .put("effectiveGasPrice", "0x3b9aca00")
+                .put("logs", new JSONArray());
+    }
+
+    private static String response(Object id, Object result) {
+        return new JSONObject().put("jsonrpc", "2.0").put("id", id).put("result", result).toString();
+    }
+}
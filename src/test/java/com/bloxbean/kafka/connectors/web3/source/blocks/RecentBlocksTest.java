@@ -0,0 +1,57 @@
+package com.bloxbean.kafka.connectors.web3.source.blocks;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecentBlocksTest {
+
+    @Test
+    void parentHashMismatchIsDetected() {
+        RecentBlocks recentBlocks = new RecentBlocks(4);
+        recentBlocks.add(10, "0xa", "0x9", 1000, Collections.emptyList());
+        recentBlocks.add(11, "0xb", "0xa", 2000, Arrays.asList("0xt1", "0xt2"));
+
+        assertTrue(recentBlocks.extendsChain(12, "0xB"));
+        assertFalse(recentBlocks.extendsChain(12, "0xc"));
+        //Previous block is not known
+        assertTrue(recentBlocks.extendsChain(20, "0xc"));
+
+        assertEquals(Arrays.asList("0xt1", "0xt2"), recentBlocks.get(11).getTransactionHashes());
+    }
+
+    @Test
+    void oldestBlocksAreOverwritten() {
+        RecentBlocks recentBlocks = new RecentBlocks(4);
+        for (long blockNumber = 0; blockNumber < 10; blockNumber++)
+            recentBlocks.add(blockNumber, "0x" + blockNumber, "0x" + (blockNumber - 1), blockNumber, null);
+
+        assertEquals(6, recentBlocks.getLowestBlockNumber());
+        assertEquals(9, recentBlocks.getHighestBlockNumber());
+        assertEquals(4, recentBlocks.size());
+        assertNull(recentBlocks.get(5));
+        assertEquals("0x6", recentBlocks.get(6).getHash());
+    }
+
+    @Test
+    void truncateRemovesOrphanedBlocks() {
+        RecentBlocks recentBlocks = new RecentBlocks(8);
+        for (long blockNumber = 100; blockNumber < 105; blockNumber++)
+            recentBlocks.add(blockNumber, "0x" + blockNumber, "0x" + (blockNumber - 1), blockNumber, null);
+
+        recentBlocks.truncate(103);
+        assertEquals(102, recentBlocks.getHighestBlockNumber());
+        assertNull(recentBlocks.get(103));
+
+        //Replacement block of the new chain
+        recentBlocks.add(103, "0x103b", "0x102", 103, null);
+        assertEquals(4, recentBlocks.size());
+
+        recentBlocks.truncate(50);
+        assertEquals(0, recentBlocks.size());
+        assertNull(recentBlocks.get(100));
+    }
+}
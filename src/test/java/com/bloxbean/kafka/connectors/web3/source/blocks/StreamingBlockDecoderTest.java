@@ -0,0 +1,80 @@
+package com.bloxbean.kafka.connectors.web3.source.blocks;
+
+import com.bloxbean.kafka.connectors.web3.source.blocks.schema.BlockConverter;
+import com.bloxbean.kafka.connectors.web3.source.blocks.schema.BlockProjection;
+import com.bloxbean.kafka.connectors.web3.source.blocks.schema.ParsedBlockStruct;
+import com.bloxbean.kafka.connectors.web3.util.FileUtil;
+import com.google.gson.stream.JsonReader;
+import kong.unirest.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static com.bloxbean.kafka.connectors.web3.source.blocks.schema.BlockSchema.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingBlockDecoderTest {
+
+    @Test
+    void sameStructsAsBlockConverter() throws IOException {
+        for (String file : Arrays.asList("/aion-block-6139184.json", "/aion-block-6139191.json")) {
+            assertSameAsBlockConverter(file, false, Collections.emptySet(), Collections.emptySet());
+            assertSameAsBlockConverter(file, true, Collections.emptySet(), Collections.emptySet());
+        }
+    }
+
+    @Test
+    void sameStructsAsBlockConverterWithIgnoredFields() throws IOException {
+        Set<String> ignoreBlockFields = new HashSet<>(Arrays.asList(LOGS_BLOOM, EXTRA_DATA, HASH, TIMESTAMP));
+        Set<String> ignoreTransactionFields = new HashSet<>(Arrays.asList("input", "v", "r", "s", "timestamp"));
+
+        assertSameAsBlockConverter("/aion-block-6139184.json", false, ignoreBlockFields, ignoreTransactionFields);
+        assertSameAsBlockConverter("/aion-block-6139184.json", true, new HashSet<>(Arrays.asList(TRANSACTIONS)), ignoreTransactionFields);
+    }
+
+    @Test
+    void sameTypedStructsAsBlockConverter() throws IOException {
+        for (String file : Arrays.asList("/aion-block-6139184.json", "/aion-block-6139191.json")) {
+            String jsonStr = FileUtil.readFileFromResource(file);
+            BlockProjection projection = BlockProjection.compile(false, Collections.emptySet(), new HashSet<>(Arrays.asList("timestamp")), "chain", true);
+
+            ParsedBlockStruct expected = new BlockConverter().convertFromJSON(new JSONObject(jsonStr), projection);
+            ParsedBlockStruct actual = new StreamingBlockDecoder(projection).decode(new JsonReader(new StringReader(jsonStr))).getBlockStruct();
+
+            assertEquals(expected.getBlock(), actual.getBlock());
+            assertEquals(expected.getTransactions(), actual.getTransactions());
+        }
+    }
+
+    @Test
+    void headerFieldsAreReadEvenIfIgnored() throws IOException {
+        String jsonStr = FileUtil.readFileFromResource("/aion-block-6139184.json");
+        JSONObject blockJson = new JSONObject(jsonStr);
+
+        Set<String> ignoreBlockFields = new HashSet<>(Arrays.asList(NUMBER, HASH, PARENT_HASH, TIMESTAMP));
+        StreamingBlockDecoder decoder = new StreamingBlockDecoder(false, ignoreBlockFields, Collections.emptySet(), "");
+        FetchedBlock block = decoder.decode(new JsonReader(new StringReader(jsonStr)));
+
+        assertEquals(6139184, block.getBlockNumber());
+        assertEquals(blockJson.getString(HASH), block.getHash());
+        assertEquals(blockJson.getString(PARENT_HASH), block.getParentHash());
+        assertNull(block.getBlockStruct().getBlock().get(HASH));
+    }
+
+    private void assertSameAsBlockConverter(String file, boolean separateTransactions, Set<String> ignoreBlockFields, Set<String> ignoreTransactionFields) throws IOException {
+        String jsonStr = FileUtil.readFileFromResource(file);
+
+        ParsedBlockStruct expected = new BlockConverter().convertFromJSON(new JSONObject(jsonStr), separateTransactions, ignoreBlockFields, ignoreTransactionFields, "chain");
+
+        StreamingBlockDecoder decoder = new StreamingBlockDecoder(separateTransactions, ignoreBlockFields, ignoreTransactionFields, "chain");
+        ParsedBlockStruct actual = decoder.decode(new JsonReader(new StringReader(jsonStr))).getBlockStruct();
+
+        assertEquals(expected.getBlock(), actual.getBlock());
+        assertEquals(expected.getTransactions(), actual.getTransactions());
+    }
+}
@@ -0,0 +1,88 @@
+package com.bloxbean.kafka.connectors.web3.source.blocks.schema;
+
+import com.bloxbean.kafka.connectors.web3.util.FileUtil;
+import com.bloxbean.kafka.connectors.web3.util.HexConverter;
+import kong.unirest.json.JSONObject;
+import org.apache.kafka.connect.data.Struct;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockProjectionTest {
+
+    @Test
+    void ignoredFieldsAreNotProjected() {
+        Set<String> ignoreBlockFields = new HashSet<>(Arrays.asList(BlockSchema.LOGS_BLOOM, BlockSchema.NUMBER));
+        Set<String> ignoreTransactionFields = new HashSet<>(Arrays.asList(TransactionSchema.INPUT, TransactionSchema.TIMESTAMP));
+        BlockProjection projection = BlockProjection.compile(false, ignoreBlockFields, ignoreTransactionFields, "chain");
+
+        assertNull(projection.getBlockField(BlockSchema.LOGS_BLOOM));
+        assertTrue(projection.getBlockField(BlockSchema.DIFFICULTY).isQuantity());
+        assertFalse(projection.getBlockField(BlockSchema.HASH).isQuantity());
+        assertNull(projection.getTransactionField(TransactionSchema.INPUT));
+        assertFalse(projection.isIncludeTransactionTimestamp());
+        for (BlockProjection.FieldExtractor field : projection.getBlockFields()) {
+            assertFalse(ignoreBlockFields.contains(field.getName()));
+        }
+    }
+
+    @Test
+    void sharedProjectionGivesSameStructs() throws IOException {
+        BlockProjection projection = BlockProjection.compile(false, Collections.emptySet(), Collections.emptySet(), "chain");
+        BlockConverter blockConverter = new BlockConverter();
+
+        for (String file : Arrays.asList("/aion-block-6139184.json", "/aion-block-6139191.json")) {
+            JSONObject blockJson = new JSONObject(FileUtil.readFileFromResource(file));
+
+            ParsedBlockStruct expected = blockConverter.convertFromJSON(blockJson, false, new HashSet<>(), new HashSet<>(), "chain");
+            ParsedBlockStruct actual = blockConverter.convertFromJSON(blockJson, projection);
+
+            assertEquals(expected.getBlock(), actual.getBlock());
+            assertEquals(expected.getTransactions(), actual.getTransactions());
+        }
+    }
+
+    @Test
+    void transactionTimestampFallsBackToBlockTimestamp() throws IOException {
+        JSONObject blockJson = new JSONObject(FileUtil.readFileFromResource("/aion-block-6139184.json"));
+        BlockProjection projection = BlockProjection.compile(false, new HashSet<>(Arrays.asList(BlockSchema.TIMESTAMP)), Collections.emptySet(), "chain");
+
+        JSONObject txnJson = blockJson.getJSONArray(BlockSchema.TRANSACTIONS).getJSONObject(0);
+        txnJson.remove(TransactionSchema.TIMESTAMP);
+        Struct txnStruct = TransactionConverter.convertFromJSON("0x01", txnJson, projection, "1590815350");
+
+        assertEquals("1590815350", txnStruct.get(TransactionSchema.TIMESTAMP));
+        assertEquals("0x01", txnStruct.get(TransactionSchema.BLOCK_HASH));
+        assertEquals("chain", txnStruct.get(TransactionSchema.CHAIN_NAME));
+    }
+
+    @Test
+    void typedSchemaConvertsQuantities() throws IOException {
+        JSONObject blockJson = new JSONObject(FileUtil.readFileFromResource("/aion-block-6139184.json"));
+        BlockProjection projection = BlockProjection.compile(false, Collections.emptySet(), Collections.emptySet(), "chain", true);
+
+        ParsedBlockStruct parsedBlock = new BlockConverter().convertFromJSON(blockJson, projection);
+        Struct block = parsedBlock.getBlock();
+        block.validate();
+
+        assertEquals(BlockSchema.TYPED_SCHEMA, block.schema());
+        assertEquals(6139184L, (long) block.getInt64(BlockSchema.NUMBER));
+        assertEquals(new BigDecimal(HexConverter.stringToBigInteger(blockJson.getString(BlockSchema.TOTAL_DIFFICULTY))),
+                block.get(BlockSchema.TOTAL_DIFFICULTY));
+        assertEquals((long) blockJson.getJSONArray(BlockSchema.TRANSACTIONS).length(), (long) block.getInt64(BlockSchema.TRANSACTION_COUNT));
+
+        Struct txn = parsedBlock.getTransactions().get(0);
+        JSONObject txnJson = blockJson.getJSONArray(BlockSchema.TRANSACTIONS).getJSONObject(0);
+        assertEquals(TransactionSchema.TYPED_SCHEMA, txn.schema());
+        assertEquals(6139184L, (long) txn.getInt64(TransactionSchema.BLOCK_NUMBER));
+        assertEquals(new BigDecimal(HexConverter.stringToBigInteger(txnJson.getString(TransactionSchema.VALUE))), txn.get(TransactionSchema.VALUE));
+        assertEquals(txnJson.getString(TransactionSchema.HASH), txn.getString(TransactionSchema.HASH));
+    }
+}
@@ -0,0 +1,34 @@
+package com.bloxbean.kafka.connectors.web3.source.events;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockHeaderCacheTest {
+
+    @Test
+    void leastRecentlyUsedHeaderIsEvicted() {
+        BlockHeaderCache cache = new BlockHeaderCache(2);
+        cache.put(new BlockHeaderCache.BlockHeader(1, "0xa1", 1000));
+        cache.put(new BlockHeaderCache.BlockHeader(2, "0xa2", 2000));
+
+        //Access makes block 1 the most recently used
+        assertNotNull(cache.get(1, null));
+        cache.put(new BlockHeaderCache.BlockHeader(3, "0xa3", 3000));
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.contains(1));
+        assertFalse(cache.contains(2));
+        assertTrue(cache.contains(3));
+    }
+
+    @Test
+    void headerIsNotReturnedWhenHashDoesNotMatch() {
+        BlockHeaderCache cache = new BlockHeaderCache(10);
+        cache.put(new BlockHeaderCache.BlockHeader(1, "0xA1", 1000));
+
+        assertEquals(1000, cache.get(1, "0xa1").getTimestamp());
+        assertNull(cache.get(1, "0xb1"));
+        assertNull(cache.get(2, null));
+    }
+}
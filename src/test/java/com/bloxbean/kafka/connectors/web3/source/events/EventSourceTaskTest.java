@@ -0,0 +1,43 @@
+package com.bloxbean.kafka.connectors.web3.source.events;
+
+import com.bloxbean.kafka.connectors.web3.stub.StubRpcNode;
+import com.bloxbean.kafka.connectors.web3.stub.ThroughputHarness;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.bloxbean.kafka.connectors.web3.util.ConfigConstants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventSourceTaskTest {
+
+    @Test
+    void rangeWithMoreBlocksThanHeaderCacheSize() throws IOException, InterruptedException {
+        //given - a range has events in 60 blocks, cache holds 10 headers
+        try (StubRpcNode node = new StubRpcNode(new StubRpcNode.Options().headBlockNumber(60).logsPerBlock(1))) {
+            Map<String, String> props = ThroughputHarness.eventTaskProps(node.getUrl());
+            props.put(EVENT_LOGS_MAX_BLOCK_RANGE, "60");
+            props.put(BLOCK_HEADER_CACHE_SIZE, "10");
+
+            //when
+            ThroughputHarness.Result result = ThroughputHarness.run(new EventSourceTask(), props, 60, 30000);
+
+            //then
+            assertEquals(60, result.getBlocks());
+            assertEquals(60, result.getRecords());
+        }
+    }
+
+    @Test
+    void sourcePartitionKeyDoesNotChangeWhenEndpointsAreAdded() {
+        Map<String, String> props = new HashMap<>();
+        props.put(WEB3_RPC_URL, "http://node1:8545");
+        String singleUrlKey = new EventSourceConfig(props).getSourcePartitionKey();
+
+        props.put(WEB3_RPC_URL, "http://node1:8545,http://node2:8545");
+        assertEquals(singleUrlKey, new EventSourceConfig(props).getSourcePartitionKey());
+        assertEquals("http://node1:8545", singleUrlKey);
+    }
+}
@@ -0,0 +1,103 @@
+package com.bloxbean.kafka.connectors.web3.source.events;
+
+import com.bloxbean.kafka.connectors.web3.exception.Web3Exception;
+import kong.unirest.UnirestException;
+import org.junit.jupiter.api.Test;
+
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogRangeFetcherTest {
+
+    @Test
+    void splitRangeWhenNodeReturnsTooManyResults() {
+        //given - node accepts max 500 blocks per call
+        List<long[]> calls = new ArrayList<>();
+        LogRangeFetcher fetcher = new LogRangeFetcher((from, to) -> {
+            calls.add(new long[]{from, to});
+            if (to - from + 1 > 500)
+                throw new Web3Exception("getLogs() failed. Reason: {\"code\":-32005,\"message\":\"query returned more than 10000 results\"}");
+            return Collections.EMPTY_LIST;
+        }, 2000);
+
+        //when
+        LogRangeFetcher.LogRange range = fetcher.fetch(1000, 100000);
+
+        //then - 2000 -> 1000 -> 500
+        assertEquals(3, calls.size());
+        assertEquals(1000, range.getFromBlockNumber());
+        assertEquals(1499, range.getToBlockNumber());
+    }
+
+    @Test
+    void growRangeWhenSparse() {
+        LogRangeFetcher fetcher = new LogRangeFetcher((from, to) -> {
+            if (to - from + 1 > 250)
+                throw new Web3Exception("getLogs() failed. Reason: response size exceeded");
+            return Collections.EMPTY_LIST;
+        }, 2000);
+
+        LogRangeFetcher.LogRange range = fetcher.fetch(0, 100000);
+        assertEquals(249, range.getToBlockNumber());
+
+        //Range was sparse, so next range is doubled
+        assertEquals(500, fetcher.getRangeSize());
+    }
+
+    @Test
+    void rangeIsLimitedByLastBlock() {
+        LogRangeFetcher fetcher = new LogRangeFetcher((from, to) -> Collections.EMPTY_LIST, 2000);
+
+        LogRangeFetcher.LogRange range = fetcher.fetch(100, 150);
+
+        assertEquals(100, range.getFromBlockNumber());
+        assertEquals(150, range.getToBlockNumber());
+    }
+
+    @Test
+    void splitRangeWhenNodeTimesOut() {
+        //given - node times out for more than 500 blocks, a gateway in front of it for more than 1000
+        LogRangeFetcher fetcher = new LogRangeFetcher((from, to) -> {
+            if (to - from + 1 > 1000)
+                throw new Web3Exception("getLogs() failed", new UnirestException("Rpc endpoint http://localhost:8545 returned http status 504"));
+            if (to - from + 1 > 500)
+                throw new Web3Exception("getLogs() failed", new UnirestException(new SocketTimeoutException("Read timed out")));
+            return Collections.emptyList();
+        }, 2000);
+
+        //when
+        LogRangeFetcher.LogRange range = fetcher.fetch(1000, 100000);
+
+        //then
+        assertEquals(1499, range.getToBlockNumber());
+    }
+
+    @Test
+    void rateLimitIsThrownWithoutSplittingRange() {
+        LogRangeFetcher httpStatusFetcher = new LogRangeFetcher((from, to) -> {
+            throw new Web3Exception("getLogs() failed", new UnirestException("Rpc endpoint http://localhost:8545 returned http status 429"));
+        }, 2000);
+        LogRangeFetcher errorMessageFetcher = new LogRangeFetcher((from, to) -> {
+            throw new Web3Exception("getLogs() failed. Reason: {\"code\":-32005,\"message\":\"daily request count exceeded, request rate limited\"}");
+        }, 2000);
+
+        assertThrows(Web3Exception.class, () -> httpStatusFetcher.fetch(100, 5000));
+        assertThrows(Web3Exception.class, () -> errorMessageFetcher.fetch(100, 5000));
+
+        assertEquals(2000, httpStatusFetcher.getRangeSize());
+        assertEquals(2000, errorMessageFetcher.getRangeSize());
+    }
+
+    @Test
+    void otherErrorsAreNotRetried() {
+        LogRangeFetcher fetcher = new LogRangeFetcher((from, to) -> {
+            throw new Web3Exception("getLogs() failed", new RuntimeException("Connection refused"));
+        }, 2000);
+
+        assertThrows(Web3Exception.class, () -> fetcher.fetch(100, 5000));
+    }
+}
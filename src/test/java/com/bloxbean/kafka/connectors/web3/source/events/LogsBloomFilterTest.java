@@ -0,0 +1,92 @@
+package com.bloxbean.kafka.connectors.web3.source.events;
+
+import com.bloxbean.kafka.connectors.web3.util.HexConverter;
+import com.bloxbean.kafka.connectors.web3.util.Keccak256;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogsBloomFilterTest {
+    private final static String TOKEN = "0xdac17f958d2ee523a2206206994597c13d831ec7";
+    private final static String OTHER_TOKEN = "0xa0b86991c6218b36c1d19d4a2e9eb0ce3606eb48";
+    private final static String TRANSFER_TOPIC = "0xddf252ad1be2c89b69c2b068fc378daa952ba7f163c4a11628f55a4df523b3ef";
+    private final static String APPROVAL_TOPIC = "0x8c5be1e5ebec7d5bd14f71427d1e84f3dd0314c0f7b2291e5b200ac8c7c3b925";
+
+    @Test
+    void blockMatchesIfAnyAddressAndAllTopicsAreInBloom() {
+        byte[] bloom = bloom(TOKEN, TRANSFER_TOPIC);
+
+        assertTrue(new LogsBloomFilter(TOKEN, TRANSFER_TOPIC).mightMatch(bloom));
+        assertTrue(new LogsBloomFilter(OTHER_TOKEN + "," + TOKEN, "").mightMatch(bloom));
+        assertTrue(new LogsBloomFilter("", "null," + TRANSFER_TOPIC).mightMatch(bloom(TRANSFER_TOPIC)));
+
+        assertFalse(new LogsBloomFilter(OTHER_TOKEN, "").mightMatch(bloom));
+        assertFalse(new LogsBloomFilter(TOKEN, APPROVAL_TOPIC).mightMatch(bloom));
+        assertFalse(new LogsBloomFilter(TOKEN, TRANSFER_TOPIC + "," + APPROVAL_TOPIC).mightMatch(bloom));
+    }
+
+    @Test
+    void emptyFilterOnlySkipsBlocksWithoutLogs() {
+        LogsBloomFilter filter = new LogsBloomFilter("", "");
+        assertFalse(filter.mightMatch(new byte[LogsBloomFilter.BLOOM_BYTES]));
+        assertTrue(filter.mightMatch(bloom(TOKEN)));
+        assertTrue(filter.mightMatch(null));
+    }
+
+    @Test
+    void bitPositionsAreTakenFromKeccakOfItem() {
+        byte[] item = HexConverter.hexToBytes(TOKEN);
+        byte[] hash = Keccak256.hash(item);
+        int[] positions = LogsBloomFilter.positions(item);
+        for (int i = 0; i < 3; i++) {
+            int bit = ((hash[2 * i] & 0xff) << 8 | (hash[2 * i + 1] & 0xff)) & 2047;
+            assertEquals(255 - bit / 8, positions[2 * i]);
+            assertEquals(1 << (bit % 8), positions[2 * i + 1]);
+        }
+    }
+
+    /**
+     * Known answer from go-ethereum core/types/bloom9_test.go (TestBloomExtensively): keccak256 of the bloom of 100
+     * items. Any wrong byte or bit index changes the bloom and its hash.
+     */
+    @Test
+    void bloomMatchesGoEthereumVector() {
+        byte[] bloom = new byte[LogsBloomFilter.BLOOM_BYTES];
+        for (int i = 0; i < 100; i++)
+            LogsBloomFilter.add(bloom, ("xxxxxxxxxx data " + i + " yyyyyyyyyyyyyy").getBytes(StandardCharsets.UTF_8));
+
+        assertArrayEquals(HexConverter.hexToBytes("0xc8d3ca65cdb4874300a9e39475508f23ed6da09fdbc487f89a2dcf50b09eb263"), Keccak256.hash(bloom));
+
+        String item = hex("xxxxxxxxxx data 42 yyyyyyyyyyyyyy");
+        assertTrue(new LogsBloomFilter(item, "").mightMatch(bloom));
+        assertFalse(new LogsBloomFilter(TOKEN, "").mightMatch(bloom));
+    }
+
+    @Test
+    void parseBloom() {
+        StringBuilder hex = new StringBuilder("0x");
+        for (int i = 0; i < LogsBloomFilter.BLOOM_BYTES; i++)
+            hex.append("01");
+
+        assertEquals(LogsBloomFilter.BLOOM_BYTES, LogsBloomFilter.parseBloom(hex.toString()).length);
+        assertNull(LogsBloomFilter.parseBloom("0x01"));
+        assertNull(LogsBloomFilter.parseBloom("0xzz"));
+        assertNull(LogsBloomFilter.parseBloom(null));
+    }
+
+    private static String hex(String value) {
+        StringBuilder hex = new StringBuilder("0x");
+        for (byte b : value.getBytes(StandardCharsets.UTF_8))
+            hex.append(String.format("%02x", b));
+        return hex.toString();
+    }
+
+    private static byte[] bloom(String... items) {
+        byte[] bloom = new byte[LogsBloomFilter.BLOOM_BYTES];
+        for (String item : items)
+            LogsBloomFilter.add(bloom, HexConverter.hexToBytes(item));
+        return bloom;
+    }
+}
@@ -0,0 +1,136 @@
+package com.bloxbean.kafka.connectors.web3.source.events.abi;
+
+import com.bloxbean.kafka.connectors.web3.source.events.schema.EventConverter;
+import com.bloxbean.kafka.connectors.web3.source.events.schema.EventSchema;
+import com.bloxbean.kafka.connectors.web3.util.Keccak256;
+import kong.unirest.json.JSONArray;
+import kong.unirest.json.JSONObject;
+import org.apache.kafka.connect.data.Struct;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AbiEventRegistryTest {
+    private final static String TRANSFER_TOPIC = "0xddf252ad1be2c89b69c2b068fc378daa952ba7f163c4a11628f55a4df523b3ef";
+    private final static String FROM = "0x000000000000000000000000a1b2c3d4e5f6a1b2c3d4e5f6a1b2c3d4e5f6a1b2";
+    private final static String TO = "0x000000000000000000000000b1b2c3d4e5f6a1b2c3d4e5f6a1b2c3d4e5f6a1b2";
+
+    private final static String ABI = "[" +
+            "{\"type\":\"event\",\"name\":\"Transfer\",\"anonymous\":false,\"inputs\":[" +
+            "{\"name\":\"from\",\"type\":\"address\",\"indexed\":true},{\"name\":\"to\",\"type\":\"address\",\"indexed\":true}," +
+            "{\"name\":\"value\",\"type\":\"uint256\",\"indexed\":false}]}," +
+            "{\"type\":\"event\",\"name\":\"Transfer\",\"anonymous\":false,\"inputs\":[" +
+            "{\"name\":\"from\",\"type\":\"address\",\"indexed\":true},{\"name\":\"to\",\"type\":\"address\",\"indexed\":true}," +
+            "{\"name\":\"tokenId\",\"type\":\"uint256\",\"indexed\":true}]}," +
+            "{\"type\":\"event\",\"name\":\"Message\",\"inputs\":[" +
+            "{\"name\":\"id\",\"type\":\"uint32\",\"indexed\":false},{\"name\":\"text\",\"type\":\"string\",\"indexed\":false}]}," +
+            "{\"type\":\"function\",\"name\":\"transfer\",\"inputs\":[]}" +
+            "]";
+
+    @Test
+    void erc20AndErc721TransferAreDecoded() {
+        AbiEventRegistry registry = new AbiEventRegistry();
+        registry.addAbi(ABI);
+        assertEquals(3, registry.size());
+
+        Struct erc20 = registry.decode(event("0x00000000000000000000000000000000000000000000000000000000000003e8", TRANSFER_TOPIC, FROM, TO));
+        erc20.validate();
+        assertEquals("Transfer", erc20.getString(EventSchema.EVENT));
+        assertEquals("0xc1", erc20.getString(EventSchema.ADDRESS));
+        Struct params = erc20.getStruct(EventSchema.PARAMS);
+        assertEquals("0xa1b2c3d4e5f6a1b2c3d4e5f6a1b2c3d4e5f6a1b2", params.getString("from"));
+        assertEquals("0xb1b2c3d4e5f6a1b2c3d4e5f6a1b2c3d4e5f6a1b2", params.getString("to"));
+        assertEquals(new BigDecimal(1000), params.get("value"));
+
+        Struct erc721 = registry.decode(event("0x", TRANSFER_TOPIC, FROM, TO,
+                "0x0000000000000000000000000000000000000000000000000000000000000007"));
+        erc721.validate();
+        assertEquals(new BigDecimal(7), erc721.getStruct(EventSchema.PARAMS).get("tokenId"));
+        assertNotEquals(erc20.schema().name(), erc721.schema().name());
+    }
+
+    @Test
+    void schemaNamesDoNotDependOnLoadOrder() {
+        JSONArray abi = new JSONArray(ABI);
+        String erc20Abi = new JSONArray().put(abi.get(0)).toString();
+        String erc721Abi = new JSONArray().put(abi.get(1)).put(abi.get(2)).toString();
+
+        AbiEventRegistry registry = new AbiEventRegistry();
+        registry.addAbi(erc20Abi);
+        registry.addAbi(erc721Abi);
+        AbiEventRegistry reversedRegistry = new AbiEventRegistry();
+        reversedRegistry.addAbi(erc721Abi);
+        reversedRegistry.addAbi(erc20Abi);
+
+        Struct erc20Event = event("0x00000000000000000000000000000000000000000000000000000000000003e8", TRANSFER_TOPIC, FROM, TO);
+        Struct erc721Event = event("0x", TRANSFER_TOPIC, FROM, TO, "0x0000000000000000000000000000000000000000000000000000000000000007");
+        Struct messageEvent = event("0x" +
+                "000000000000000000000000000000000000000000000000000000000000002a" +
+                "0000000000000000000000000000000000000000000000000000000000000040" +
+                "0000000000000000000000000000000000000000000000000000000000000000", Keccak256.hashHex("Message(uint32,string)"));
+
+        assertEquals(registry.decode(erc20Event).schema().name(), reversedRegistry.decode(erc20Event).schema().name());
+        assertEquals(registry.decode(erc721Event).schema().name(), reversedRegistry.decode(erc721Event).schema().name());
+        assertTrue(registry.decode(erc20Event).schema().name().endsWith(".Transfer_" + Keccak256.hashHex(
+                "Transfer(address indexed from,address indexed to,uint256 value)").substring(2, 10)));
+
+        //Not overloaded
+        assertTrue(reversedRegistry.decode(messageEvent).schema().name().endsWith(".Message"));
+    }
+
+    @Test
+    void sameAbiLoadedTwiceHasOneDecoderPerEvent() {
+        AbiEventRegistry registry = new AbiEventRegistry();
+        registry.addAbi(ABI);
+        Struct first = registry.decode(event("0x00000000000000000000000000000000000000000000000000000000000003e8", TRANSFER_TOPIC, FROM, TO));
+
+        registry.addAbi(ABI);
+        Struct second = registry.decode(event("0x00000000000000000000000000000000000000000000000000000000000003e8", TRANSFER_TOPIC, FROM, TO));
+
+        assertEquals(3, registry.size());
+        assertEquals(first.schema(), second.schema());
+    }
+
+    @Test
+    void dynamicParameterIsDecoded() {
+        AbiEventRegistry registry = new AbiEventRegistry();
+        registry.addAbi(new JSONObject().put("abi", new JSONArray(ABI)).toString());
+
+        String data = "0x" +
+                "000000000000000000000000000000000000000000000000000000000000002a" + //id
+                "0000000000000000000000000000000000000000000000000000000000000040" + //offset of text
+                "0000000000000000000000000000000000000000000000000000000000000005" + //length of text
+                "68656c6c6f000000000000000000000000000000000000000000000000000000"; //hello
+        Struct message = registry.decode(event(data, Keccak256.hashHex("Message(uint32,string)")));
+        message.validate();
+
+        Struct params = message.getStruct(EventSchema.PARAMS);
+        assertEquals(42L, (long) params.getInt64("id"));
+        assertEquals("hello", params.getString("text"));
+    }
+
+    @Test
+    void unknownOrInvalidLogsArePublishedAsIs() {
+        AbiEventRegistry registry = new AbiEventRegistry();
+        registry.addAbi(ABI);
+
+        Struct unknown = event("0x", "0x0000000000000000000000000000000000000000000000000000000000000001");
+        assertSame(unknown, registry.decode(unknown));
+
+        //Data too short for the value
+        Struct invalid = event("0x01", TRANSFER_TOPIC, FROM, TO);
+        assertSame(invalid, registry.decode(invalid));
+        assertEquals(EventSchema.SCHEMA, registry.decode(invalid).schema());
+    }
+
+    private static Struct event(String data, String... topics) {
+        JSONObject eventJson = new JSONObject()
+                .put("blockHash", "0xb1").put("logIndex", "0x1").put("address", "0xc1").put("removed", false)
+                .put("data", data).put("blockNumber", "0x10").put("transactionIndex", "0x0").put("transactionHash", "0xt1")
+                .put("topics", new JSONArray(Arrays.asList(topics)));
+        return new EventConverter().convertFromJSON(eventJson);
+    }
+}
@@ -0,0 +1,30 @@
+package com.bloxbean.kafka.connectors.web3.source.events.schema;
+
+import com.bloxbean.kafka.connectors.web3.util.FileUtil;
+import com.google.gson.stream.JsonReader;
+import kong.unirest.json.JSONArray;
+import org.apache.kafka.connect.data.Struct;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingEventDecoderTest {
+
+    @Test
+    void sameStructsAsEventConverter() throws IOException {
+        String jsonStr = FileUtil.readFileFromResource("/aion-event-logs.json");
+        JSONArray eventArrayJson = new JSONArray(jsonStr);
+
+        List<Struct> events = new StreamingEventDecoder().decode(new JsonReader(new StringReader(jsonStr)));
+
+        assertEquals(eventArrayJson.length(), events.size());
+        EventConverter eventConverter = new EventConverter();
+        for (int i = 0; i < eventArrayJson.length(); i++) {
+            assertEquals(eventConverter.convertFromJSON(eventArrayJson.getJSONObject(i)), events.get(i));
+        }
+    }
+}
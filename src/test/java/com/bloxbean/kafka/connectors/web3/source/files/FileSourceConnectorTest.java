@@ -0,0 +1,31 @@
+package com.bloxbean.kafka.connectors.web3.source.files;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileSourceConnectorTest {
+
+    @Test
+    void filesAreSplitIntoContiguousGroups() {
+        List<List<String>> groups = FileSourceConnector.splitFiles(Arrays.asList("a", "b", "c", "d", "e"), 3);
+
+        assertEquals(3, groups.size());
+        assertEquals(Arrays.asList("a", "b"), groups.get(0));
+        assertEquals(Arrays.asList("c", "d"), groups.get(1));
+        assertEquals(Collections.singletonList("e"), groups.get(2));
+    }
+
+    @Test
+    void noMoreGroupsThanFiles() {
+        assertEquals(2, FileSourceConnector.splitFiles(Arrays.asList("a", "b"), 4).size());
+
+        List<List<String>> groups = FileSourceConnector.splitFiles(Collections.emptyList(), 4);
+        assertEquals(1, groups.size());
+        assertTrue(groups.get(0).isEmpty());
+    }
+}
@@ -0,0 +1,99 @@
+package com.bloxbean.kafka.connectors.web3.source.files;
+
+import com.bloxbean.kafka.connectors.web3.util.FileUtil;
+import kong.unirest.json.JSONArray;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.apache.kafka.connect.source.SourceTaskContext;
+import org.apache.kafka.connect.storage.OffsetStorageReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.zip.GZIPOutputStream;
+
+import static com.bloxbean.kafka.connectors.web3.util.ConfigConstants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileSourceTaskTest {
+    private File dir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("web3-files").toFile();
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (File file : dir.listFiles())
+            file.delete();
+        dir.delete();
+    }
+
+    @Test
+    void recordsBeforeTruncatedGzipTailAreReturned() throws Exception {
+        //given - gzip file without its last bytes
+        String log = new JSONArray(FileUtil.readFileFromResource("/aion-event-logs.json")).getJSONObject(0).toString();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            for (int i = 0; i < 2000; i++)
+                gzip.write((log + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        byte[] compressed = bytes.toByteArray();
+        File file = new File(dir, "logs.ndjson.gz");
+        Files.write(file.toPath(), Arrays.copyOf(compressed, compressed.length - 20));
+
+        FileSourceTask task = new FileSourceTask();
+        task.initialize(new NoOffsetsContext());
+        task.start(props(file));
+
+        //when
+        List<SourceRecord> records = task.poll();
+
+        //then - offsets of the returned records are before the error
+        assertNotNull(records);
+        assertTrue(records.size() > 0 && records.size() < 2000, "Records: " + records.size());
+        Map<String, ?> lastOffset = records.get(records.size() - 1).sourceOffset();
+        assertEquals(String.valueOf(records.size() * (long) (log.length() + 1)), lastOffset.get(FILE_POSITION));
+        assertEquals("false", lastOffset.get(FILE_COMPLETED));
+        task.stop();
+    }
+
+    private Map<String, String> props(File file) {
+        Map<String, String> props = new HashMap<>();
+        props.put(FILE_SOURCE_DIR, dir.getAbsolutePath());
+        props.put(FILE_SOURCE_TYPE, "logs");
+        props.put(TOPIC, "events");
+        props.put(FILE_READ_BUFFER_BYTES, "4096");
+        props.put(TASK_FILES, file.getAbsolutePath());
+        return props;
+    }
+
+    private static class NoOffsetsContext implements SourceTaskContext {
+
+        @Override
+        public Map<String, String> configs() {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public OffsetStorageReader offsetStorageReader() {
+            return new OffsetStorageReader() {
+                @Override
+                public <T> Map<String, Object> offset(Map<String, T> partition) {
+                    return null;
+                }
+
+                @Override
+                public <T> Map<Map<String, T>, Map<String, Object>> offsets(Collection<Map<String, T>> partitions) {
+                    return Collections.emptyMap();
+                }
+            };
+        }
+    }
+}
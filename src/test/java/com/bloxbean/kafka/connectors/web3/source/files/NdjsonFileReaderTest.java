@@ -0,0 +1,113 @@
+package com.bloxbean.kafka.connectors.web3.source.files;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NdjsonFileReaderTest {
+    private final static String CONTENT = "{\"number\":\"0x1\"}\n\n{\"number\":\"0x2\"}\r\n{\"number\":\"0x3\"}";
+
+    private File dir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("web3-files").toFile();
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (File file : dir.listFiles())
+            file.delete();
+        dir.delete();
+    }
+
+    @Test
+    void readsLinesAcrossBufferBoundaries() throws IOException {
+        Path file = write("blocks.ndjson", null);
+
+        //Buffer smaller than a line
+        try (NdjsonFileReader reader = new NdjsonFileReader(file, 0, 5)) {
+            assertEquals("{\"number\":\"0x1\"}", reader.readLine());
+            assertEquals(17, reader.getPosition());
+            assertTrue(reader.hasNext());
+            assertEquals("{\"number\":\"0x2\"}", reader.readLine());
+            assertEquals("{\"number\":\"0x3\"}", reader.readLine());
+            assertFalse(reader.hasNext());
+            assertEquals(CONTENT.length(), reader.getPosition());
+            assertNull(reader.readLine());
+        }
+    }
+
+    @Test
+    void resumesFromPosition() throws IOException {
+        Path file = write("blocks.ndjson", null);
+
+        long position;
+        try (NdjsonFileReader reader = new NdjsonFileReader(file, 0, 4096)) {
+            reader.readLine();
+            reader.readLine();
+            position = reader.getPosition();
+        }
+
+        try (NdjsonFileReader reader = new NdjsonFileReader(file, position, 4096)) {
+            assertEquals(Collections.singletonList("{\"number\":\"0x3\"}"), readAll(reader));
+        }
+    }
+
+    @Test
+    void readsGzipAndZstdFiles() throws IOException {
+        for (String compression : new String[]{"gzip", "zstd"}) {
+            Path file = write("blocks.ndjson." + compression, compression);
+
+            long position;
+            try (NdjsonFileReader reader = new NdjsonFileReader(file, 0, 4096)) {
+                assertEquals("{\"number\":\"0x1\"}", reader.readLine());
+                position = reader.getPosition();
+            }
+
+            //Position is in the uncompressed content
+            try (NdjsonFileReader reader = new NdjsonFileReader(file, position, 4096)) {
+                List<String> lines = readAll(reader);
+                assertEquals(2, lines.size());
+                assertEquals("{\"number\":\"0x2\"}", lines.get(0));
+            }
+        }
+    }
+
+    private Path write(String name, String compression) throws IOException {
+        File file = new File(dir, name);
+        OutputStream os = new FileOutputStream(file);
+        if ("gzip".equals(compression))
+            os = new GZIPOutputStream(os);
+        else if ("zstd".equals(compression))
+            os = new ZstdOutputStream(os);
+
+        try (OutputStream out = os) {
+            out.write(CONTENT.getBytes(StandardCharsets.UTF_8));
+        }
+        return file.toPath();
+    }
+
+    private List<String> readAll(NdjsonFileReader reader) throws IOException {
+        List<String> lines = new ArrayList<>();
+        String line;
+        while ((line = reader.readLine()) != null)
+            lines.add(line);
+        return lines;
+    }
+}
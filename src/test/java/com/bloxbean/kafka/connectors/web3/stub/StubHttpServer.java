@@ -0,0 +1,96 @@
+package com.bloxbean.kafka.connectors.web3.stub;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * In-process http server for tests which need a hand written response per request. Use {@link StubRpcNode} for
+ * synthetic chain data.
+ */
+public class StubHttpServer implements AutoCloseable {
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private StubHttpServer(HttpHandler handler) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", handler);
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * @param handler returns the json response for a request body
+     */
+    public static StubHttpServer json(Function<String, String> handler) throws IOException {
+        return new StubHttpServer(exchange -> sendJson(exchange, handler.apply(readBody(exchange.getRequestBody()))));
+    }
+
+    /**
+     * @param handler writes the response itself. Example: http errors or compressed responses
+     */
+    public static StubHttpServer start(HttpHandler handler) throws IOException {
+        return new StubHttpServer(handler);
+    }
+
+    /**
+     * @return http url of the server
+     */
+    public String getUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public static void sendJson(HttpExchange exchange, String response) throws IOException {
+        byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    /**
+     * Send a gzip encoded json response
+     * @return compressed size of the response
+     */
+    public static int sendGzipJson(HttpExchange exchange, String response) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bos)) {
+            gzip.write(response.getBytes(StandardCharsets.UTF_8));
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+        exchange.sendResponseHeaders(200, bos.size());
+        try (OutputStream os = exchange.getResponseBody()) {
+            bos.writeTo(os);
+        }
+        return bos.size();
+    }
+
+    public static String readBody(InputStream is) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = is.read(buffer)) > 0)
+            bos.write(buffer, 0, n);
+        return new String(bos.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
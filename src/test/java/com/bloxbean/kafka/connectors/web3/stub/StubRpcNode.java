@@ -0,0 +1,388 @@
+package com.bloxbean.kafka.connectors.web3.stub;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import kong.unirest.json.JSONArray;
+import kong.unirest.json.JSONObject;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process json rpc node which serves synthetic blocks, transactions, receipts and logs. Content of a block only
+ * depends on its number, so repeated requests return the same block. Used to measure the tasks without a real node.
+ * <p>
+ * Supported methods: eth_blockNumber, eth_getBlockByNumber, eth_getLogs, eth_getBlockReceipts and
+ * eth_getTransactionReceipt. Single and batch requests are supported.
+ */
+public class StubRpcNode implements AutoCloseable {
+    private final static long GENESIS_TIMESTAMP = 1600000000;
+    private final static String LOG_ADDRESS = "0x00000000000000000000000000000000000000aa";
+    private final static String LOG_TOPIC = String.format("0x%064x", 0xddL);
+
+    private final Options options;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final String input;
+    private final String logData;
+    private final String bloom;
+    private final String emptyBloom;
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong errorCount = new AtomicLong();
+
+    public StubRpcNode(Options options) throws IOException {
+        this.options = options;
+        this.input = "0x" + repeat("ab", options.getInputBytes());
+        this.logData = "0x" + repeat("cd", options.getLogDataBytes());
+        this.bloom = "0x" + repeat("ff", 256);
+        this.emptyBloom = "0x" + repeat("00", 256);
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::handle);
+        executor = Executors.newFixedThreadPool(options.getThreads());
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * @return http url of the node
+     */
+    public String getUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public long getErrorCount() {
+        return errorCount.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String body = StubHttpServer.readBody(exchange.getRequestBody());
+            requestCount.incrementAndGet();
+
+            if (options.getLatencyInMillis() > 0)
+                Thread.sleep(options.getLatencyInMillis());
+
+            //Failed request as an overloaded node would return it
+            if (options.getErrorRate() > 0 && ThreadLocalRandom.current().nextDouble() < options.getErrorRate()) {
+                errorCount.incrementAndGet();
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+
+            String response;
+            if (body.trim().startsWith("[")) {
+                JSONArray requests = new JSONArray(body);
+                JSONArray responses = new JSONArray();
+                for (int i = 0; i < requests.length(); i++)
+                    responses.put(process(requests.getJSONObject(i)));
+                response = responses.toString();
+            } else {
+                response = process(new JSONObject(body)).toString();
+            }
+
+            byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private JSONObject process(JSONObject request) {
+        JSONObject response = new JSONObject();
+        response.put("jsonrpc", "2.0");
+        response.put("id", request.get("id"));
+
+        JSONArray params = request.optJSONArray("params");
+        switch (request.getString("method")) {
+            case "eth_blockNumber":
+                response.put("result", hex(options.getHeadBlockNumber()));
+                break;
+            case "eth_getBlockByNumber":
+                long blockNumber = parseBlockNumber(params.getString(0));
+                response.put("result", blockNumber <= options.getHeadBlockNumber() ? block(blockNumber, params.optBoolean(1)) : JSONObject.NULL);
+                break;
+            case "eth_getLogs":
+                response.put("result", logs(params.getJSONObject(0)));
+                break;
+            case "eth_getBlockReceipts":
+                response.put("result", blockReceipts(parseBlockNumber(params.getString(0))));
+                break;
+            case "eth_getTransactionReceipt":
+                String hash = params.getString(0);
+                response.put("result", receipt(Long.parseLong(hash.substring(2, 34), 16), Integer.parseInt(hash.substring(34), 16)));
+                break;
+            default:
+                JSONObject error = new JSONObject();
+                error.put("code", -32601);
+                error.put("message", "the method " + request.getString("method") + " does not exist/is not available");
+                response.put("error", error);
+        }
+        return response;
+    }
+
+    private long parseBlockNumber(String blockNumber) {
+        if ("latest".equals(blockNumber))
+            return options.getHeadBlockNumber();
+        return Long.parseLong(blockNumber.substring(2), 16);
+    }
+
+    private JSONObject block(long blockNumber, boolean fullTransactions) {
+        JSONObject block = new JSONObject();
+        block.put("number", hex(blockNumber));
+        block.put("hash", blockHash(blockNumber));
+        block.put("parentHash", blockHash(blockNumber - 1));
+        block.put("nonce", "0x0000000000000000");
+        block.put("sha3Uncles", hash(0x11, blockNumber, 0));
+        block.put("logsBloom", options.getLogsPerBlock() > 0 ? bloom : emptyBloom);
+        block.put("transactionsRoot", hash(0x12, blockNumber, 0));
+        block.put("stateRoot", hash(0x13, blockNumber, 0));
+        block.put("receiptsRoot", hash(0x14, blockNumber, 0));
+        block.put("miner", "0x00000000000000000000000000000000000000bb");
+        block.put("difficulty", "0x0");
+        block.put("totalDifficulty", "0x0");
+        block.put("extraData", "0x");
+        block.put("size", hex(1000 + (long) options.getTransactionsPerBlock() * (200 + options.getInputBytes())));
+        block.put("gasLimit", "0x1c9c380");
+        block.put("gasUsed", hex(21000L * options.getTransactionsPerBlock()));
+        block.put("timestamp", hex(GENESIS_TIMESTAMP + blockNumber * options.getBlockTimeInSec()));
+        block.put("baseFeePerGas", "0x3b9aca00");
+
+        JSONArray transactions = new JSONArray();
+        for (int i = 0; i < options.getTransactionsPerBlock(); i++)
+            transactions.put(fullTransactions ? transaction(blockNumber, i) : transactionHash(blockNumber, i));
+        block.put("transactions", transactions);
+        block.put("uncles", new JSONArray());
+        return block;
+    }
+
+    private JSONObject transaction(long blockNumber, int index) {
+        JSONObject transaction = new JSONObject();
+        transaction.put("hash", transactionHash(blockNumber, index));
+        transaction.put("nonce", hex(index));
+        transaction.put("blockHash", blockHash(blockNumber));
+        transaction.put("blockNumber", hex(blockNumber));
+        transaction.put("transactionIndex", hex(index));
+        transaction.put("from", String.format("0x%040x", 0x1000 + index));
+        transaction.put("to", String.format("0x%040x", 0x2000 + index));
+        transaction.put("value", "0xde0b6b3a7640000");
+        transaction.put("gas", "0x5208");
+        transaction.put("gasPrice", "0x3b9aca00");
+        transaction.put("input", input);
+        transaction.put("v", "0x1");
+        transaction.put("r", hash(0x21, blockNumber, index));
+        transaction.put("s", hash(0x22, blockNumber, index));
+        return transaction;
+    }
+
+    private JSONArray logs(JSONObject filter) {
+        JSONArray logs = new JSONArray();
+        long fromBlock = parseBlockNumber(filter.optString("fromBlock", "latest"));
+        long toBlock = Math.min(parseBlockNumber(filter.optString("toBlock", "latest")), options.getHeadBlockNumber());
+        for (long blockNumber = fromBlock; blockNumber <= toBlock; blockNumber++) {
+            for (int i = 0; i < options.getLogsPerBlock(); i++)
+                logs.put(log(blockNumber, i));
+        }
+        return logs;
+    }
+
+    private JSONObject log(long blockNumber, int logIndex) {
+        int transactionIndex = options.getTransactionsPerBlock() > 0 ? logIndex % options.getTransactionsPerBlock() : 0;
+
+        JSONObject log = new JSONObject();
+        log.put("address", LOG_ADDRESS);
+        log.put("topics", new JSONArray(Arrays.asList(LOG_TOPIC, hash(0x31, blockNumber, logIndex))));
+        log.put("data", logData);
+        log.put("blockNumber", hex(blockNumber));
+        log.put("blockHash", blockHash(blockNumber));
+        log.put("transactionHash", transactionHash(blockNumber, transactionIndex));
+        log.put("transactionIndex", hex(transactionIndex));
+        log.put("logIndex", hex(logIndex));
+        log.put("removed", false);
+        return log;
+    }
+
+    private JSONArray blockReceipts(long blockNumber) {
+        JSONArray receipts = new JSONArray();
+        for (int i = 0; i < options.getTransactionsPerBlock(); i++)
+            receipts.put(receipt(blockNumber, i));
+        return receipts;
+    }
+
+    private JSONObject receipt(long blockNumber, int index) {
+        JSONObject receipt = new JSONObject();
+        receipt.put("transactionHash", transactionHash(blockNumber, index));
+        receipt.put("transactionIndex", hex(index));
+        receipt.put("blockHash", blockHash(blockNumber));
+        receipt.put("blockNumber", hex(blockNumber));
+        receipt.put("status", "0x1");
+        receipt.put("gasUsed", "0x5208");
+        receipt.put("cumulativeGasUsed", hex(21000L * (index + 1)));
+        receipt.put("effectiveGasPrice", "0x3b9aca00");
+        receipt.put("contractAddress", JSONObject.NULL);
+        receipt.put("logs", new JSONArray());
+        receipt.put("logsBloom", emptyBloom);
+        return receipt;
+    }
+
+    private static String blockHash(long blockNumber) {
+        return hash(0x01, blockNumber, 0);
+    }
+
+    /**
+     * Block number and index can be read back from the hash of a transaction
+     */
+    private static String transactionHash(long blockNumber, int index) {
+        return String.format("0x%032x%032x", blockNumber, index);
+    }
+
+    private static String hash(int type, long blockNumber, int index) {
+        return String.format("0x%02x%030x%032x", type, blockNumber, index);
+    }
+
+    private static String hex(long value) {
+        return "0x" + Long.toHexString(value);
+    }
+
+    private static String repeat(String value, int count) {
+        StringBuilder sb = new StringBuilder(value.length() * count);
+        for (int i = 0; i < count; i++)
+            sb.append(value);
+        return sb.toString();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Settings of the stub node. Defaults are used for the settings which are not set.
+     */
+    public static class Options {
+        private long headBlockNumber = 10000;
+        private int transactionsPerBlock = 100;
+        private int logsPerBlock = 10;
+        private int inputBytes = 68;
+        private int logDataBytes = 32;
+        private long blockTimeInSec = 2;
+        private long latencyInMillis;
+        private double errorRate;
+        private int threads = 8;
+
+        public long getHeadBlockNumber() {
+            return headBlockNumber;
+        }
+
+        /**
+         * @param headBlockNumber latest block number. Blocks after it are not available
+         */
+        public Options headBlockNumber(long headBlockNumber) {
+            this.headBlockNumber = headBlockNumber;
+            return this;
+        }
+
+        public int getTransactionsPerBlock() {
+            return transactionsPerBlock;
+        }
+
+        public Options transactionsPerBlock(int transactionsPerBlock) {
+            this.transactionsPerBlock = transactionsPerBlock;
+            return this;
+        }
+
+        public int getLogsPerBlock() {
+            return logsPerBlock;
+        }
+
+        public Options logsPerBlock(int logsPerBlock) {
+            this.logsPerBlock = logsPerBlock;
+            return this;
+        }
+
+        public int getInputBytes() {
+            return inputBytes;
+        }
+
+        /**
+         * @param inputBytes size of the input data of a transaction
+         */
+        public Options inputBytes(int inputBytes) {
+            this.inputBytes = inputBytes;
+            return this;
+        }
+
+        public int getLogDataBytes() {
+            return logDataBytes;
+        }
+
+        public Options logDataBytes(int logDataBytes) {
+            this.logDataBytes = logDataBytes;
+            return this;
+        }
+
+        public long getBlockTimeInSec() {
+            return blockTimeInSec;
+        }
+
+        public Options blockTimeInSec(long blockTimeInSec) {
+            this.blockTimeInSec = blockTimeInSec;
+            return this;
+        }
+
+        public long getLatencyInMillis() {
+            return latencyInMillis;
+        }
+
+        /**
+         * @param latencyInMillis delay of every http request, single or batch
+         */
+        public Options latencyInMillis(long latencyInMillis) {
+            this.latencyInMillis = latencyInMillis;
+            return this;
+        }
+
+        public double getErrorRate() {
+            return errorRate;
+        }
+
+        /**
+         * @param errorRate share of the http requests answered with 503, between 0 and 1
+         */
+        public Options errorRate(double errorRate) {
+            this.errorRate = errorRate;
+            return this;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        /**
+         * @param threads no of requests served concurrently
+         */
+        public Options threads(int threads) {
+            this.threads = threads;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.bloxbean.kafka.connectors.web3.stub;
+
+import com.bloxbean.kafka.connectors.web3.source.blocks.BlockSourceTask;
+import com.bloxbean.kafka.connectors.web3.source.events.EventSourceTask;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.apache.kafka.connect.source.SourceTask;
+import org.apache.kafka.connect.source.SourceTaskContext;
+import org.apache.kafka.connect.storage.OffsetStorageReader;
+
+import java.util.*;
+
+import static com.bloxbean.kafka.connectors.web3.util.ConfigConstants.*;
+
+/**
+ * Drives the start() and poll() loop of a source task against a {@link StubRpcNode} and measures blocks/sec,
+ * records/sec and poll latency. Runs offline. Run with:
+ * mvn test-compile exec:java -Dexec.mainClass=com.bloxbean.kafka.connectors.web3.stub.ThroughputHarness -Dexec.classpathScope=test
+ * <p>
+ * Stub node settings are read from system properties: stub.blocks, stub.transactions, stub.logs, stub.inputBytes,
+ * stub.latencyMs, stub.errorRate. System properties with the prefix "task." are passed to the tasks without the
+ * prefix, Example: -Dtask.rpc_batch_size=20
+ */
+public class ThroughputHarness {
+
+    /**
+     * Start the task, poll till the offset of the task reaches lastBlockNumber or the max duration is elapsed, and
+     * stop the task. Offsets are not stored, the task starts from start_block.
+     */
+    public static Result run(SourceTask task, Map<String, String> props, long lastBlockNumber, long maxDurationInMillis) throws InterruptedException {
+        task.initialize(new StubTaskContext(props));
+        task.start(props);
+
+        long startBlock = Long.parseLong(props.getOrDefault(START_BLOCK, "0"));
+        Result result = new Result(task.getClass().getSimpleName());
+        long start = System.nanoTime();
+        long deadline = start + maxDurationInMillis * 1_000_000;
+        try {
+            long lastOffset = startBlock - 1;
+            while (lastOffset < lastBlockNumber && System.nanoTime() < deadline) {
+                long pollStart = System.nanoTime();
+                List<SourceRecord> records = task.poll();
+                result.pollLatencies.add(System.nanoTime() - pollStart);
+
+                if (records == null)
+                    continue;
+
+                result.records += records.size();
+                for (SourceRecord record : records)
+                    lastOffset = Math.max(lastOffset, blockNumber(record));
+            }
+            result.blocks = lastOffset - startBlock + 1;
+        } finally {
+            result.elapsedNanos = System.nanoTime() - start;
+            task.stop();
+        }
+        return result;
+    }
+
+    /**
+     * @return block number of the source offset of a record
+     */
+    private static long blockNumber(SourceRecord record) {
+        for (Map.Entry<String, ?> entry : record.sourceOffset().entrySet()) {
+            if (entry.getKey().endsWith(LAST_FETCHED_BLOCK_NUMBER))
+                return Long.parseLong(String.valueOf(entry.getValue()));
+        }
+        return -1;
+    }
+
+    public static void main(String[] args) throws Exception {
+        long blocks = Long.getLong("stub.blocks", 5000);
+        StubRpcNode.Options options = new StubRpcNode.Options()
+                .headBlockNumber(blocks)
+                .transactionsPerBlock(Integer.getInteger("stub.transactions", 100))
+                .logsPerBlock(Integer.getInteger("stub.logs", 10))
+                .inputBytes(Integer.getInteger("stub.inputBytes", 68))
+                .latencyInMillis(Long.getLong("stub.latencyMs", 0))
+                .errorRate(Double.parseDouble(System.getProperty("stub.errorRate", "0")));
+
+        try (StubRpcNode node = new StubRpcNode(options)) {
+            System.out.println(run(new BlockSourceTask(), blockTaskProps(node.getUrl()), blocks, 300000));
+            System.out.println(run(new EventSourceTask(), eventTaskProps(node.getUrl()), blocks, 300000));
+            System.out.printf("Stub node: %d requests, %d errors%n", node.getRequestCount(), node.getErrorCount());
+        }
+    }
+
+    public static Map<String, String> blockTaskProps(String url) {
+        Map<String, String> props = new HashMap<>();
+        props.put(WEB3_RPC_URL, url);
+        props.put(TOPIC, "blocks");
+        props.put(TRANSACTION_TOPIC, "transactions");
+        props.put(START_BLOCK, "1");
+        props.put(NO_BLOCKS_FOR_FINALITY, "0");
+        props.putAll(taskOverrides());
+        return props;
+    }
+
+    public static Map<String, String> eventTaskProps(String url) {
+        Map<String, String> props = new HashMap<>();
+        props.put(WEB3_RPC_URL, url);
+        props.put(TOPIC, "events");
+        props.put(START_BLOCK, "1");
+        props.put(NO_BLOCKS_FOR_FINALITY, "0");
+        props.putAll(taskOverrides());
+        return props;
+    }
+
+    private static Map<String, String> taskOverrides() {
+        Map<String, String> overrides = new HashMap<>();
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("task."))
+                overrides.put(name.substring("task.".length()), System.getProperty(name));
+        }
+        return overrides;
+    }
+
+    /**
+     * Measurements of a run
+     */
+    public static class Result {
+        private final String taskName;
+        private final List<Long> pollLatencies = new ArrayList<>();
+        private long blocks;
+        private long records;
+        private long elapsedNanos;
+
+        Result(String taskName) {
+            this.taskName = taskName;
+        }
+
+        public long getBlocks() {
+            return blocks;
+        }
+
+        public long getRecords() {
+            return records;
+        }
+
+        public int getPolls() {
+            return pollLatencies.size();
+        }
+
+        public double getBlocksPerSec() {
+            return blocks * 1e9 / elapsedNanos;
+        }
+
+        public double getRecordsPerSec() {
+            return records * 1e9 / elapsedNanos;
+        }
+
+        /**
+         * @param percentile between 0 and 100
+         * @return poll latency in ms at the percentile
+         */
+        public double getPollLatencyInMillis(double percentile) {
+            if (pollLatencies.isEmpty())
+                return 0;
+
+            List<Long> sorted = new ArrayList<>(pollLatencies);
+            Collections.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100 * sorted.size()) - 1;
+            return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1))) / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d blocks, %d records in %.1f s. %.0f blocks/sec, %.0f records/sec, %d polls, poll latency p50 %.2f ms, p99 %.2f ms",
+                    taskName, blocks, records, elapsedNanos / 1e9, getBlocksPerSec(), getRecordsPerSec(), getPolls(),
+                    getPollLatencyInMillis(50), getPollLatencyInMillis(99));
+        }
+    }
+
+    /**
+     * Context of a task which has no stored offsets
+     */
+    private static class StubTaskContext implements SourceTaskContext {
+        private final Map<String, String> configs;
+
+        StubTaskContext(Map<String, String> configs) {
+            this.configs = configs;
+        }
+
+        @Override
+        public Map<String, String> configs() {
+            return configs;
+        }
+
+        @Override
+        public OffsetStorageReader offsetStorageReader() {
+            return new OffsetStorageReader() {
+                @Override
+                public <T> Map<String, Object> offset(Map<String, T> partition) {
+                    return null;
+                }
+
+                @Override
+                public <T> Map<Map<String, T>, Map<String, Object>> offsets(Collection<Map<String, T>> partitions) {
+                    return Collections.emptyMap();
+                }
+            };
+        }
+    }
+}
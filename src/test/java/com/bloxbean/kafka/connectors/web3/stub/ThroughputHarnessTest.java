@@ -0,0 +1,44 @@
+package com.bloxbean.kafka.connectors.web3.stub;
+
+import com.bloxbean.kafka.connectors.web3.source.blocks.BlockSourceTask;
+import com.bloxbean.kafka.connectors.web3.source.events.EventSourceTask;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static com.bloxbean.kafka.connectors.web3.util.ConfigConstants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThroughputHarnessTest {
+
+    @Test
+    void blockTaskPublishesAllBlocksOfTheStubNode() throws IOException, InterruptedException {
+        try (StubRpcNode node = new StubRpcNode(new StubRpcNode.Options().headBlockNumber(200).transactionsPerBlock(10))) {
+            Map<String, String> props = ThroughputHarness.blockTaskProps(node.getUrl());
+            props.put(RPC_BATCH_SIZE, "20");
+
+            ThroughputHarness.Result result = ThroughputHarness.run(new BlockSourceTask(), props, 200, 60000);
+
+            assertEquals(200, result.getBlocks());
+            //Block and its transactions
+            assertEquals(200 * 11, result.getRecords());
+            assertTrue(result.getPollLatencyInMillis(99) >= result.getPollLatencyInMillis(50));
+        }
+    }
+
+    @Test
+    void eventTaskPublishesAllLogsDespiteNodeErrors() throws IOException, InterruptedException {
+        try (StubRpcNode node = new StubRpcNode(new StubRpcNode.Options().headBlockNumber(100).logsPerBlock(3).errorRate(0.1))) {
+            Map<String, String> props = ThroughputHarness.eventTaskProps(node.getUrl());
+            props.put(EVENT_LOGS_MAX_BLOCK_RANGE, "10");
+            props.put(POLL_BACKOFF_INITIAL_MS, "1");
+            props.put(POLL_BACKOFF_MAX_MS, "10");
+
+            ThroughputHarness.Result result = ThroughputHarness.run(new EventSourceTask(), props, 100, 60000);
+
+            assertEquals(100, result.getBlocks());
+            assertTrue(result.getRecords() >= 100 * 3);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.bloxbean.kafka.connectors.web3.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HexConverterTest {
+
+    @Test
+    void hexToBigIntegerStr() {
+        assertEquals("0", HexConverter.hexToBigIntegerStr("0x"));
+        assertEquals("0", HexConverter.hexToBigIntegerStr("0x0"));
+        assertEquals("6139184", HexConverter.hexToBigIntegerStr("0x5dad30"));
+        assertEquals("18446744073709551615", HexConverter.hexToBigIntegerStr("0xffffffffffffffff"));
+        assertEquals("649149422609575888269436786897364", HexConverter.hexToBigIntegerStr("0x20016ae9085aa6841f9af6c0f1d4"));
+        assertEquals("", HexConverter.hexToBigIntegerStr(""));
+        assertNull(HexConverter.hexToBigIntegerStr(null));
+        assertEquals("123", HexConverter.hexToBigIntegerStr("123"));
+    }
+
+    @Test
+    void hexToLongValue() {
+        assertEquals(6139184, HexConverter.hexToLongValue("0x5dad30"));
+        assertEquals(6139184, HexConverter.hexToLongValue("6139184"));
+        assertEquals(255, HexConverter.hexToLongValue("ff"));
+        assertEquals(-1, HexConverter.hexToLongValue("0xffffffffffffffff"));
+        assertEquals(0, HexConverter.hexToLongValue(""));
+    }
+
+    @Test
+    void hexToTimestampInMillis() {
+        assertEquals(1590815350000L, HexConverter.hexToTimestampInMillis("0x5ed1ea76"));
+        assertEquals(1590815350000L, HexConverter.hexToTimestampInMillis("5ed1ea76"));
+        assertEquals(0, HexConverter.hexToTimestampInMillis(null));
+    }
+
+    @Test
+    void sameResultsAsBigInteger() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            int bits = 1 + random.nextInt(100);
+            String hex = "0x" + new BigInteger(bits, random).toString(16);
+            if (random.nextBoolean())
+                hex = hex.toUpperCase().replace("0X", "0x");
+
+            BigInteger expected = new BigInteger(hex.substring(2), 16);
+            assertEquals(expected.toString(), HexConverter.hexToBigIntegerStr(hex), hex);
+            assertEquals(expected.longValue(), HexConverter.hexToLongValue(hex), hex);
+            assertEquals(expected.multiply(BigInteger.valueOf(1000)).longValue(), HexConverter.hexToTimestampInMillis(hex), hex);
+        }
+    }
+
+    @Test
+    void invalidHexFailsLikeBigInteger() {
+        List<String> invalid = Arrays.asList("0xzz", "0x12g4", "0x-");
+        for (String hex : invalid) {
+            assertThrows(NumberFormatException.class, () -> HexConverter.hexToBigIntegerStr(hex), hex);
+            assertThrows(NumberFormatException.class, () -> HexConverter.hexToLongValue(hex), hex);
+        }
+        assertEquals(-1, HexConverter.hexToLongValue("0x-1"));
+    }
+
+    @Test
+    void bytesToHex() {
+        assertEquals("0x", HexConverter.bytesToHex(new byte[0]));
+        assertEquals("0x00ff7f80", HexConverter.bytesToHex(new byte[]{0, -1, 127, -128}));
+        assertEquals("0xdac17f958d2ee523a2206206994597c13d831ec7", HexConverter.bytesToHex(HexConverter.hexToBytes("0xDAC17F958D2EE523A2206206994597C13D831EC7")));
+    }
+}
@@ -0,0 +1,37 @@
+package com.bloxbean.kafka.connectors.web3.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Keccak256Test {
+
+    @Test
+    void hashHex() {
+        assertEquals("0xc5d2460186f7233c927e7db2dcc703c0e500b653ca82273b7bfad8045d85a470", Keccak256.hashHex(""));
+        assertEquals("0x4e03657aea45a94fc7d47ba826c8d667c0d1e6e33a64a036ec44f58fa12d6c45", Keccak256.hashHex("abc"));
+        assertEquals("0xddf252ad1be2c89b69c2b068fc378daa952ba7f163c4a11628f55a4df523b3ef", Keccak256.hashHex("Transfer(address,address,uint256)"));
+        assertEquals("0x8c5be1e5ebec7d5bd14f71427d1e84f3dd0314c0f7b2291e5b200ac8c7c3b925", Keccak256.hashHex("Approval(address,address,uint256)"));
+    }
+
+    /**
+     * Known answers of the reference Keccak-256 (Bouncy Castle KeccakDigest) for inputs of "a" around the rate of
+     * 136 bytes: padding in the last byte of a block, padding in a block of its own, and more than one block
+     */
+    @Test
+    void hashOfMultipleBlocks() {
+        assertEquals("0x34367dc248bbd832f4e3e69dfaac2f92638bd0bbd18f2912ba4ef454919cf446", Keccak256.hashHex(repeat('a', 135)));
+        assertEquals("0xa6c4d403279fe3e0af03729caada8374b5ca54d8065329a3ebcaeb4b60aa386e", Keccak256.hashHex(repeat('a', 136)));
+        assertEquals("0xd869f639c7046b4929fc92a4d988a8b22c55fbadb802c0c66ebcd484f1915f39", Keccak256.hashHex(repeat('a', 137)));
+        assertEquals("0x96ea54061def936c4be90b518992fdc6f12f535068a256229aca54267b4d084d", Keccak256.hashHex(repeat('a', 200)));
+        assertEquals("0xcf7fcd4f705ee749930d19ca84561a9bf62516bd90a471545fa2f49fdc7e63c8", Keccak256.hashHex(repeat('a', 272)));
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}